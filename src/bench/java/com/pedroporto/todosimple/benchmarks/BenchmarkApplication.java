@@ -0,0 +1,77 @@
+package com.pedroporto.todosimple.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.pedroporto.todosimple.TodosimpleApplication;
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.dto.BatchItemResult;
+import com.pedroporto.todosimple.services.TaskBatchService;
+import com.pedroporto.todosimple.services.UserService;
+
+// Sobe a aplicação contra um H2 em memória e popula `users` usuários com
+// `tasksPerUser` tarefas cada, para os benchmarks rodarem sobre volumes
+// realistas sem depender do MySQL.
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    // Usa o perfil "bench" (H2 em memória) sem a massa de dados padrão: cada
+    // benchmark popula o banco com o volume dos seus próprios parâmetros.
+    static ConfigurableApplicationContext start() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(TodosimpleApplication.class)
+                .profiles("bench")
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID()
+                                + ";MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--app.bench.seed.users=0",
+                        "--spring.main.banner-mode=off",
+                        "--server.port=0",
+                        "--logging.level.root=WARN");
+    }
+
+    // Retorna os ids de usuários e de tarefas criados
+    static Seed seed(ConfigurableApplicationContext context, int users, int tasksPerUser) {
+        UserService userService = context.getBean(UserService.class);
+        TaskBatchService taskBatchService = context.getBean(TaskBatchService.class);
+        long[] userIds = new long[users];
+        List<Long> taskIds = new ArrayList<>(users * tasksPerUser);
+        for (int u = 0; u < users; u++) {
+            User user = new User();
+            user.setUsername("bench-user-" + u);
+            user.setPassword("bench-password-" + u);
+            userIds[u] = userService.create(user).getId();
+
+            List<Task> tasks = new ArrayList<>(tasksPerUser);
+            for (int t = 0; t < tasksPerUser; t++) {
+                User owner = new User();
+                owner.setId(userIds[u]);
+                Task task = new Task();
+                task.setUser(owner);
+                task.setDescription("Tarefa " + t + " do usuário " + u);
+                tasks.add(task);
+            }
+            for (BatchItemResult result : taskBatchService.create(tasks)) {
+                taskIds.add(result.getId());
+            }
+        }
+        return new Seed(userIds, taskIds.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    static final class Seed {
+        final long[] userIds;
+        final long[] taskIds;
+
+        Seed(long[] userIds, long[] taskIds) {
+            this.userIds = userIds;
+            this.taskIds = taskIds;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.pedroporto.todosimple.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pedroporto.todosimple.repositories.TaskRepository;
+
+// Listagem de tarefas de um usuário, da consulta até os bytes JSON:
+// entidades Task (com User gerenciado) contra a projeção TaskView.
+// Rode com -prof gc para comparar a alocação por operação.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadPathBenchmark {
+
+    @Param({ "100", "10000" })
+    public int tasksPerUser;
+
+    private ConfigurableApplicationContext context;
+    private TaskRepository taskRepository;
+    private ObjectMapper objectMapper;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = BenchmarkApplication.start();
+        this.userId = BenchmarkApplication.seed(this.context, 1, this.tasksPerUser).userIds[0];
+        this.taskRepository = this.context.getBean(TaskRepository.class);
+        this.objectMapper = this.context.getBean(ObjectMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public byte[] entityPath() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.taskRepository.findByUser_Id(this.userId));
+    }
+
+    @Benchmark
+    public byte[] projectionPath() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.taskRepository.findViewsByUser_Id(this.userId));
+    }
+}
@@ -0,0 +1,127 @@
+package com.pedroporto.todosimple.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.pedroporto.todosimple.exceptions.ErrorResponse;
+import com.pedroporto.todosimple.json.ApiJsonModule;
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.dto.TaskView;
+
+// Serialização Jackson dos modelos devolvidos pela API, com o mesmo
+// ObjectMapper que o conversor JSON do Spring MVC monta: "default" sem
+// módulos, "specialized" com o ApiJsonModule e o Blackbird (ver JsonConfig).
+// `converterTaskViewList` escreve a lista pelo conversor do MVC, direto no
+// stream da resposta (aqui descartado), como numa requisição real.
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({ "1000" })
+    public int listSize;
+
+    @Param({ "default", "specialized" })
+    public String mapper;
+
+    private ObjectMapper objectMapper;
+    private MappingJackson2HttpMessageConverter converter;
+    private HttpOutputMessage discardingMessage;
+    private User user;
+    private Task task;
+    private ErrorResponse errorResponse;
+    private List<Task> tasks;
+    private List<TaskView> taskViews;
+
+    @Setup
+    public void setUp() {
+        this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        if ("specialized".equals(this.mapper)) {
+            this.objectMapper.registerModules(new ApiJsonModule(), new BlackbirdModule());
+        }
+        this.converter = new MappingJackson2HttpMessageConverter(this.objectMapper);
+        this.discardingMessage = new HttpOutputMessage() {
+            private final HttpHeaders headers = new HttpHeaders();
+
+            @Override
+            public OutputStream getBody() {
+                return OutputStream.nullOutputStream();
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return this.headers;
+            }
+        };
+        this.user = new User();
+        this.user.setId(1L);
+        this.user.setUsername("benchmark");
+        this.user.setPassword("benchmark-password");
+        this.task = new Task(1L, this.user, "Tarefa de benchmark", 0L);
+        this.errorResponse = new ErrorResponse(422, "Validation error. Check 'errors' field for details.");
+        this.errorResponse.addValidationError("description", "must not be null");
+        this.tasks = new ArrayList<>(this.listSize);
+        this.taskViews = new ArrayList<>(this.listSize);
+        for (long id = 1; id <= this.listSize; id++) {
+            this.tasks.add(new Task(id, this.user, "Tarefa número " + id, 0L));
+            this.taskViews.add(new TaskView(id, "Tarefa número " + id, 1L, "benchmark", 0L));
+        }
+    }
+
+    @Benchmark
+    public byte[] task() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.task);
+    }
+
+    @Benchmark
+    public byte[] user() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.user);
+    }
+
+    @Benchmark
+    public byte[] errorResponse() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.errorResponse);
+    }
+
+    @Benchmark
+    public byte[] taskList() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.tasks);
+    }
+
+    @Benchmark
+    public byte[] taskViewList() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.taskViews);
+    }
+
+    @Benchmark
+    public void converterTaskViewList() throws IOException {
+        this.converter.write(this.taskViews, MediaType.APPLICATION_JSON, this.discardingMessage);
+    }
+}
@@ -0,0 +1,113 @@
+package com.pedroporto.todosimple.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.pedroporto.todosimple.configs.CacheConfig;
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.dto.TaskView;
+import com.pedroporto.todosimple.services.TaskService;
+import com.pedroporto.todosimple.services.UserService;
+
+// Caminhos quentes da camada de serviço. As variantes "Uncached" limpam o
+// cache antes da chamada para medir a ida ao banco.
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @Param({ "100" })
+    public int users;
+
+    @Param({ "1000" })
+    public int tasksPerUser;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private UserService userService;
+    private CacheManager cacheManager;
+    private BenchmarkApplication.Seed seed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = BenchmarkApplication.start();
+        this.seed = BenchmarkApplication.seed(this.context, this.users, this.tasksPerUser);
+        this.taskService = this.context.getBean(TaskService.class);
+        this.userService = this.context.getBean(UserService.class);
+        this.cacheManager = this.context.getBean(CacheManager.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public Task taskServiceCreate() {
+        User owner = new User();
+        owner.setId(randomUserId());
+        Task task = new Task();
+        task.setUser(owner);
+        task.setDescription("Tarefa criada pelo benchmark");
+        return this.taskService.create(task);
+    }
+
+    @Benchmark
+    public Task taskServiceUpdate() {
+        Task task = new Task();
+        task.setId(randomTaskId());
+        task.setDescription("Descrição " + ThreadLocalRandom.current().nextInt());
+        return this.taskService.update(task);
+    }
+
+    @Benchmark
+    public List<TaskView> taskServiceFindAllByUserIdCached() {
+        return this.taskService.findAllByUserId(randomUserId());
+    }
+
+    @Benchmark
+    public List<TaskView> taskServiceFindAllByUserIdUncached() {
+        this.cacheManager.getCache(CacheConfig.TASKS_BY_USER).clear();
+        return this.taskService.findAllByUserId(randomUserId());
+    }
+
+    @Benchmark
+    public User userServiceFindByIdCached() {
+        return this.userService.findById(randomUserId());
+    }
+
+    @Benchmark
+    public User userServiceFindByIdUncached() {
+        this.cacheManager.getCache(CacheConfig.USERS).clear();
+        return this.userService.findById(randomUserId());
+    }
+
+    private long randomUserId() {
+        return this.seed.userIds[ThreadLocalRandom.current().nextInt(this.seed.userIds.length)];
+    }
+
+    private long randomTaskId() {
+        return this.seed.taskIds[ThreadLocalRandom.current().nextInt(this.seed.taskIds.length)];
+    }
+}
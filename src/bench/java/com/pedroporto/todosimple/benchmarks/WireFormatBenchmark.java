@@ -0,0 +1,92 @@
+package com.pedroporto.todosimple.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pedroporto.todosimple.models.dto.TaskView;
+
+// Compara os formatos negociáveis pelo Accept (JSON, CBOR, Smile) na lista
+// de tarefas de um usuário, com e sem gzip. Os ObjectMappers são montados
+// como os dos conversores do Spring MVC. O tempo de codificação sai do JMH;
+// o tamanho de cada payload é impresso no início de cada combinação.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final String[] WORDS = { "revisar", "relatório", "mensal", "enviar", "proposta", "cliente",
+            "corrigir", "erro", "na", "tela", "de", "login", "agendar", "reunião", "com", "equipe", "comprar",
+            "material", "escritório", "atualizar", "documentação", "da", "API", "pagar", "conta", "luz" };
+
+    @Param({ "100", "1000" })
+    public int listSize;
+
+    @Param({ "json", "cbor", "smile" })
+    public String format;
+
+    @Param({ "false", "true" })
+    public boolean gzip;
+
+    private ObjectMapper objectMapper;
+    private List<TaskView> tasks;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.objectMapper = switch (this.format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        // Descrições de 2 a 12 palavras, como as de uma lista real
+        Random random = new Random(42);
+        this.tasks = new ArrayList<>(this.listSize);
+        for (long id = 1; id <= this.listSize; id++) {
+            StringBuilder description = new StringBuilder();
+            int words = 2 + random.nextInt(11);
+            for (int w = 0; w < words; w++) {
+                if (w > 0) {
+                    description.append(' ');
+                }
+                description.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            this.tasks.add(new TaskView(1_000_000L + id * 1024, description.toString(), 4242L, "usuario.realista",
+                    random.nextInt(5)));
+        }
+        System.out.printf("%n%s%s, %d tarefas: %d bytes%n", this.format, this.gzip ? "+gzip" : "", this.listSize,
+                encode().length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if (!this.gzip) {
+            return this.objectMapper.writeValueAsBytes(this.tasks);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            this.objectMapper.writeValue(out, this.tasks);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,431 @@
+package com.pedroporto.todosimple.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pedroporto.todosimple.TodosimpleApplication;
+
+// Gerador de carga em malha aberta (open loop): as requisições são disparadas
+// em instantes fixos, definidos pela taxa, independentemente de as anteriores
+// já terem respondido. A latência é medida a partir do instante em que a
+// requisição DEVERIA ter saído, o que corrige a omissão coordenada: se o
+// servidor trava, as requisições que ficaram na fila contam todo o atraso.
+//
+// Sem -target, sobe a aplicação no perfil "bench" (H2 + massa de dados) no
+// mesmo processo. Argumentos --spring.* / --app.* / --server.* são repassados
+// para a aplicação, ex.: --app.threads.virtual.enabled=true
+//
+// Durante a medição, as métricas de -metrics são lidas do /actuator/metrics
+// da porta de gerência (-management-target, padrão o próprio -target) a cada
+// -sample-interval milissegundos (pico e média no relatório): threads da JVM
+// e conexões em uso nos pools JDBC e R2DBC.
+//
+// Opções: -target=http://host:port -management-target=http://host:port -rate=200 -duration=30 -warmup=5
+// -users=100 -timeout=10 -report=target/load-report.json
+// -mix=getTask=35,listTasks=20,pageTasks=10,getUser=15,createTask=15,updateTask=5
+// -metrics=jvm.threads.live,hikaricp.connections.active -sample-interval=250
+public class LoadGenerator {
+
+    private static final String DEFAULT_MIX = "getTask=35,listTasks=20,pageTasks=10,getUser=15,createTask=15,updateTask=5";
+
+    private static final String DEFAULT_METRICS = "jvm.threads.live,hikaricp.connections.active,"
+            + "hikaricp.connections.pending,r2dbc.pool.acquired,r2dbc.pool.pending";
+
+    private final Map<String, String> options;
+    private final List<String> appArgs;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private final Map<Operation, Histogram> corrected = new ConcurrentHashMap<>();
+    private final Map<Operation, Histogram> uncorrected = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final AtomicLong inFlight = new AtomicLong();
+
+    private String target;
+    private String managementTarget;
+    private long[] userIds;
+    private long[] taskIds;
+
+    public LoadGenerator(Map<String, String> options, List<String> appArgs) {
+        this.options = options;
+        this.appArgs = appArgs;
+        for (Operation operation : Operation.values()) {
+            this.corrected.put(operation, new ConcurrentHistogram(3));
+            this.uncorrected.put(operation, new ConcurrentHistogram(3));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                appArgs.add(arg);
+            } else if (arg.startsWith("-") && arg.contains("=")) {
+                options.put(arg.substring(1, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        new LoadGenerator(options, appArgs).run();
+        System.exit(0);
+    }
+
+    public Map<String, Object> run() throws Exception {
+        ConfigurableApplicationContext context = null;
+        this.target = this.options.get("target");
+        this.managementTarget = option("management-target", this.target);
+        if (Objects.isNull(this.target)) {
+            context = startApplication();
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            this.target = "http://localhost:" + port;
+            this.managementTarget = "http://localhost:" + context.getEnvironment().getProperty("local.management.port");
+        }
+        try {
+            discoverIds();
+            Map<String, Object> report = drive();
+            File file = new File(option("report", "target/load-report.json"));
+            if (Objects.nonNull(file.getParentFile())) {
+                file.getParentFile().mkdirs();
+            }
+            this.objectMapper.writeValue(file, report);
+            System.out.println(this.objectMapper.writeValueAsString(report));
+            System.out.println("Report written to " + file.getAbsolutePath());
+            return report;
+        } finally {
+            if (Objects.nonNull(context)) {
+                context.close();
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        args.add("--management.server.port=0");
+        args.add("--logging.level.root=WARN");
+        args.add("--app.bench.seed.users=" + option("users", "100"));
+        args.addAll(this.appArgs);
+        return new SpringApplicationBuilder(TodosimpleApplication.class)
+                .profiles("bench")
+                .run(args.toArray(new String[0]));
+    }
+
+    // Descobre os ids existentes: usuários 1..N e a primeira página de tarefas
+    // de cada um.
+    private void discoverIds() throws IOException, InterruptedException {
+        int users = Integer.parseInt(option("users", "100"));
+        this.userIds = new long[users];
+        List<Long> tasks = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            this.userIds[u] = u + 1;
+            HttpResponse<String> response = this.client.send(
+                    HttpRequest.newBuilder(URI.create(this.target + "/tasks/user/" + (u + 1) + "?limit=1000")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("User " + (u + 1) + " not found at " + this.target
+                        + "; is the target seeded with -users=" + users + "?");
+            }
+            for (JsonNode item : this.objectMapper.readTree(response.body()).get("items")) {
+                tasks.add(item.get("id").asLong());
+            }
+        }
+        this.taskIds = tasks.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private Map<String, Object> drive() throws InterruptedException {
+        double rate = Double.parseDouble(option("rate", "200"));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(option("warmup", "5")));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(option("duration", "30")));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(option("timeout", "10")));
+        Mix mix = new Mix(option("mix", DEFAULT_MIX));
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        long sent = 0;
+        MetricSampler sampler = new MetricSampler(option("metrics", DEFAULT_METRICS).split(","), measureFrom, end);
+        Thread samplerThread = Thread.ofVirtual().start(sampler);
+        for (long i = 0;; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+            Operation operation = mix.next();
+            HttpRequest request = operation.request(this, timeout);
+            boolean measured = intended >= measureFrom;
+            if (measured) {
+                sent++;
+            }
+            this.inFlight.incrementAndGet();
+            long sentAt = System.nanoTime();
+            this.client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long done = System.nanoTime();
+                        this.inFlight.decrementAndGet();
+                        if (!measured) {
+                            return;
+                        }
+                        this.corrected.get(operation).recordValue(done - intended);
+                        this.uncorrected.get(operation).recordValue(done - sentAt);
+                        String status = Objects.isNull(error) ? String.valueOf(response.statusCode())
+                                : error.getClass().getSimpleName();
+                        this.statusCounts.computeIfAbsent(operation.name() + " " + status, key -> new LongAdder())
+                                .increment();
+                    });
+        }
+        long drainUntil = System.nanoTime() + timeout.toNanos();
+        while (this.inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(10);
+        }
+        samplerThread.interrupt();
+        samplerThread.join();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("target", this.target);
+        report.put("options", this.options);
+        report.put("applicationArgs", this.appArgs);
+        report.put("intendedRate", rate);
+        report.put("measuredSeconds", TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+        report.put("requestsSent", sent);
+        report.put("achievedRate", sent / (durationNanos / 1e9));
+        report.put("unfinished", this.inFlight.get());
+        Map<String, Long> statuses = new LinkedHashMap<>();
+        this.statusCounts.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> statuses.put(entry.getKey(), entry.getValue().sum()));
+        report.put("statusCounts", statuses);
+        report.put("latencyMillis", summarize(this.corrected));
+        report.put("uncorrectedLatencyMillis", summarize(this.uncorrected));
+        report.put("serverMetrics", sampler.summary());
+        return report;
+    }
+
+    private Map<String, Object> summarize(Map<Operation, Histogram> histograms) {
+        Histogram all = new Histogram(3);
+        Map<String, Object> byOperation = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            // Cópia, pois respostas atrasadas ainda podem estar sendo gravadas
+            Histogram histogram = histograms.get(operation).copy();
+            if (histogram.getTotalCount() > 0) {
+                all.add(histogram);
+                byOperation.put(operation.name(), percentiles(histogram));
+            }
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("all", percentiles(all));
+        summary.put("byOperation", byOperation);
+        return summary;
+    }
+
+    private Map<String, Object> percentiles(Histogram histogram) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", histogram.getTotalCount());
+        values.put("mean", histogram.getMean() / 1e6);
+        values.put("p50", histogram.getValueAtPercentile(50) / 1e6);
+        values.put("p90", histogram.getValueAtPercentile(90) / 1e6);
+        values.put("p99", histogram.getValueAtPercentile(99) / 1e6);
+        values.put("p99.9", histogram.getValueAtPercentile(99.9) / 1e6);
+        values.put("max", histogram.getMaxValue() / 1e6);
+        return values;
+    }
+
+    private String option(String name, String defaultValue) {
+        return this.options.getOrDefault(name, defaultValue);
+    }
+
+    private long randomUserId() {
+        return this.userIds[ThreadLocalRandom.current().nextInt(this.userIds.length)];
+    }
+
+    private long randomTaskId() {
+        return this.taskIds[ThreadLocalRandom.current().nextInt(this.taskIds.length)];
+    }
+
+    private HttpRequest.Builder request(String path, Duration timeout) {
+        return HttpRequest.newBuilder(URI.create(this.target + path)).timeout(timeout);
+    }
+
+    private static HttpRequest.BodyPublisher json(String body) {
+        return HttpRequest.BodyPublishers.ofString(body);
+    }
+
+    enum Operation {
+        getTask {
+            HttpRequest request(LoadGenerator generator, Duration timeout) {
+                return generator.request("/tasks/" + generator.randomTaskId(), timeout).GET().build();
+            }
+        },
+        listTasks {
+            HttpRequest request(LoadGenerator generator, Duration timeout) {
+                return generator.request("/tasks/user/" + generator.randomUserId(), timeout).GET().build();
+            }
+        },
+        pageTasks {
+            HttpRequest request(LoadGenerator generator, Duration timeout) {
+                return generator.request("/tasks/user/" + generator.randomUserId() + "?limit=50", timeout)
+                        .GET().build();
+            }
+        },
+        getUser {
+            HttpRequest request(LoadGenerator generator, Duration timeout) {
+                return generator.request("/users/" + generator.randomUserId(), timeout).GET().build();
+            }
+        },
+        createTask {
+            HttpRequest request(LoadGenerator generator, Duration timeout) {
+                return generator.request("/tasks", timeout)
+                        .header("Content-Type", "application/json")
+                        .POST(json("{\"description\":\"Tarefa do teste de carga\",\"user\":{\"id\":"
+                                + generator.randomUserId() + "}}"))
+                        .build();
+            }
+        },
+        updateTask {
+            HttpRequest request(LoadGenerator generator, Duration timeout) {
+                return generator.request("/tasks/" + generator.randomTaskId(), timeout)
+                        .header("Content-Type", "application/json")
+                        .PUT(json("{\"description\":\"Atualizada " + System.nanoTime() + "\"}"))
+                        .build();
+            }
+        };
+
+        abstract HttpRequest request(LoadGenerator generator, Duration timeout);
+    }
+
+    // Lê as métricas do alvo durante a janela de medição. Uma métrica que o
+    // alvo não publica (ex.: r2dbc.pool.* na pilha servlet) fica de fora.
+    private final class MetricSampler implements Runnable {
+        private final Map<String, double[]> stats = new LinkedHashMap<>();
+        private final long from;
+        private final long until;
+
+        MetricSampler(String[] names, long from, long until) {
+            for (String name : names) {
+                // pico, soma e número de leituras
+                this.stats.put(name.trim(), new double[3]);
+            }
+            this.from = from;
+            this.until = until;
+        }
+
+        @Override
+        public void run() {
+            long interval = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(option("sample-interval", "250")));
+            try {
+                LockSupport.parkNanos(this.from - System.nanoTime());
+                while (System.nanoTime() < this.until && !Thread.currentThread().isInterrupted()) {
+                    for (Map.Entry<String, double[]> entry : this.stats.entrySet()) {
+                        Double value = read(entry.getKey());
+                        if (Objects.nonNull(value)) {
+                            double[] values = entry.getValue();
+                            values[0] = Math.max(values[0], value);
+                            values[1] += value;
+                            values[2]++;
+                        }
+                    }
+                    Thread.sleep(TimeUnit.NANOSECONDS.toMillis(interval));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                System.err.println("Failed to sample server metrics: " + e.getMessage());
+            }
+        }
+
+        private Double read(String name) throws IOException, InterruptedException {
+            HttpResponse<String> response = LoadGenerator.this.client.send(
+                    HttpRequest.newBuilder(URI.create(LoadGenerator.this.managementTarget + "/actuator/metrics/" + name)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            return LoadGenerator.this.objectMapper.readTree(response.body()).get("measurements").get(0)
+                    .get("value").asDouble();
+        }
+
+        Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            this.stats.forEach((name, values) -> {
+                if (values[2] > 0) {
+                    Map<String, Object> metric = new LinkedHashMap<>();
+                    metric.put("max", values[0]);
+                    metric.put("mean", values[1] / values[2]);
+                    summary.put(name, metric);
+                }
+            });
+            return summary;
+        }
+    }
+
+    // Sorteia as operações segundo os pesos de -mix
+    private static final class Mix {
+        private final Operation[] operations;
+        private final int[] cumulative;
+
+        Mix(String spec) {
+            List<Operation> operations = new ArrayList<>();
+            List<Integer> cumulative = new ArrayList<>();
+            int total = 0;
+            for (String part : spec.split(",")) {
+                String[] pair = part.trim().split("=");
+                int weight = Integer.parseInt(pair[1]);
+                if (weight <= 0) {
+                    continue;
+                }
+                total += weight;
+                operations.add(Operation.valueOf(pair[0]));
+                cumulative.add(total);
+            }
+            if (operations.isEmpty()) {
+                throw new IllegalArgumentException("Empty operation mix: " + spec);
+            }
+            this.operations = operations.toArray(new Operation[0]);
+            this.cumulative = cumulative.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        Operation next() {
+            int pick = ThreadLocalRandom.current().nextInt(this.cumulative[this.cumulative.length - 1]);
+            for (int i = 0; i < this.cumulative.length; i++) {
+                if (pick < this.cumulative[i]) {
+                    return this.operations[i];
+                }
+            }
+            return this.operations[this.operations.length - 1];
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.pedroporto.todosimple.load;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+// Mesma carga do LoadGenerator contra as duas pilhas, uma depois da outra e
+// no mesmo processo: servlet (Tomcat + JPA/Hikari) e reactive (Netty +
+// R2DBC). Cada uma sobe com seu próprio H2 em memória e a mesma massa de
+// dados. Além das latências e das métricas lidas do actuator, o relatório
+// traz o pico de threads de plataforma por pool (nome sem o número final),
+// amostrado aqui mesmo: as threads do gerador de carga são virtuais e não
+// entram na conta.
+//
+// Aceita as mesmas opções do LoadGenerator, exceto -target e -report, e
+// grava -report=target/stack-comparison.json. Use uma taxa alta o bastante
+// para manter centenas de requisições em andamento, ex.: -rate=2000
+public class StackComparison {
+
+    private static final String H2_OPTIONS = "MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1";
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 100;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                appArgs.add(arg);
+            } else if (arg.startsWith("-") && arg.contains("=")) {
+                options.put(arg.substring(1, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (options.containsKey("target")) {
+            throw new IllegalArgumentException("-target is not supported: both stacks run in this process");
+        }
+        String reportPath = options.getOrDefault("report", "target/stack-comparison.json");
+
+        Map<String, Object> comparison = new LinkedHashMap<>();
+        for (String stack : List.of("servlet", "reactive")) {
+            comparison.put(stack, runStack(stack, options, appArgs));
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        File file = new File(reportPath);
+        if (Objects.nonNull(file.getParentFile())) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.writeValue(file, comparison);
+        System.out.println(objectMapper.writeValueAsString(comparison));
+        System.out.println("Report written to " + file.getAbsolutePath());
+        System.exit(0);
+    }
+
+    private static Map<String, Object> runStack(String stack, Map<String, String> options, List<String> appArgs)
+            throws Exception {
+        Map<String, String> stackOptions = new LinkedHashMap<>(options);
+        stackOptions.put("report", "target/load-report-" + stack + ".json");
+        List<String> stackArgs = new ArrayList<>();
+        stackArgs.add("--spring.datasource.url=jdbc:h2:mem:stack-" + stack + ";" + H2_OPTIONS
+                + ";DB_CLOSE_ON_EXIT=FALSE");
+        stackArgs.add("--app.r2dbc.url=r2dbc:h2:mem:///stack-" + stack + "?options=" + H2_OPTIONS);
+        if (stack.equals("reactive")) {
+            stackArgs.add("--spring.profiles.active=reactive");
+        }
+        stackArgs.addAll(appArgs);
+
+        ThreadSampler threads = new ThreadSampler();
+        Thread sampler = Thread.ofVirtual().start(threads);
+        Map<String, Object> report;
+        try {
+            report = new LoadGenerator(stackOptions, stackArgs).run();
+        } finally {
+            sampler.interrupt();
+            sampler.join();
+        }
+        report.put("peakPlatformThreads", threads.peakTotal);
+        report.put("peakPlatformThreadsByPool", threads.peakByPool);
+        return report;
+    }
+
+    // Pico de threads de plataforma vivas, no total e por pool
+    private static final class ThreadSampler implements Runnable {
+        private final Map<String, Integer> peakByPool = new TreeMap<>();
+        private int peakTotal;
+
+        @Override
+        public void run() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Map<String, Integer> byPool = new TreeMap<>();
+                    Thread.getAllStackTraces().keySet()
+                            .forEach(thread -> byPool.merge(pool(thread.getName()), 1, Integer::sum));
+                    this.peakTotal = Math.max(this.peakTotal, byPool.values().stream().mapToInt(Integer::intValue).sum());
+                    byPool.forEach((pool, count) -> this.peakByPool.merge(pool, count, Math::max));
+                    TimeUnit.MILLISECONDS.sleep(SAMPLE_INTERVAL_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // "http-nio-8080-exec-17" -> "http-nio-8080-exec", "reactor-http-epoll-3" -> "reactor-http-epoll"
+        private static String pool(String name) {
+            return name.replaceAll("[-_ #]*\\d+$", "");
+        }
+    }
+}
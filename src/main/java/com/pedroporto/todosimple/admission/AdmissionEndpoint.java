@@ -0,0 +1,64 @@
+package com.pedroporto.todosimple.admission;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import com.pedroporto.todosimple.models.dto.AdmissionLimits;
+
+// Limites do controle de admissão no actuator, na porta de gerência
+// (management.server.port, só no loopback por padrão):
+//   GET  /actuator/admission   limites em vigor
+//   POST /actuator/admission   {"rate": 100, "maxWait": "PT0.1S"} troca os
+//                              limites informados, sem reiniciar a aplicação
+@Endpoint(id = "admission")
+public class AdmissionEndpoint {
+
+    private final AdmissionInterceptor admissionInterceptor;
+
+    private final Validator validator;
+
+    public AdmissionEndpoint(AdmissionInterceptor admissionInterceptor, Validator validator) {
+        this.admissionInterceptor = admissionInterceptor;
+        this.validator = validator;
+    }
+
+    @ReadOperation
+    public AdmissionLimits limits() {
+        return this.admissionInterceptor.getLimits();
+    }
+
+    @WriteOperation
+    public synchronized AdmissionLimits update(@Nullable Boolean enabled, @Nullable Double rate,
+            @Nullable Integer burst, @Nullable Integer maxConcurrent, @Nullable Duration maxWait,
+            @Nullable Integer maxPoolQueue) {
+        AdmissionLimits current = this.admissionInterceptor.getLimits();
+        AdmissionLimits limits = new AdmissionLimits(
+                Objects.requireNonNullElse(enabled, current.enabled()),
+                Objects.requireNonNullElse(rate, current.rate()),
+                Objects.requireNonNullElse(burst, current.burst()),
+                Objects.requireNonNullElse(maxConcurrent, current.maxConcurrent()),
+                Objects.requireNonNullElse(maxWait, current.maxWait()),
+                Objects.requireNonNullElse(maxPoolQueue, current.maxPoolQueue()));
+        Set<ConstraintViolation<AdmissionLimits>> violations = this.validator.validate(limits);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            throw new InvalidEndpointRequestException("Limites inválidos: " + message, "Invalid limits");
+        }
+        this.admissionInterceptor.setLimits(limits);
+        return limits;
+    }
+}
@@ -0,0 +1,245 @@
+package com.pedroporto.todosimple.admission;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pedroporto.todosimple.datasource.BoundedPools;
+import com.pedroporto.todosimple.models.dto.AdmissionLimits;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Controle de admissão das rotas da API, aplicado antes do controller e
+// portanto antes de qualquer acesso ao banco. Em ordem:
+//  1. sobrecarga: com mais de `maxPoolQueue` threads esperando conexão no
+//     BoundedDataSource de algum pool, a requisição só aumentaria a fila:
+//     503 imediato;
+//  2. limite por cliente: balde de fichas (TokenBucket) por quem chama, o
+//     usuário autenticado pelo contêiner, o cabeçalho `clientHeader` (posto
+//     pelo balanceador) ou, sem eles, o endereço remoto (nunca um id da rota,
+//     que qualquer um escolhe): 429. Atrás de um balanceador o endereço
+//     remoto é o dele, a não ser que server.forward-headers-strategy esteja
+//     configurado: sem isso todos os clientes dividem o mesmo balde;
+//  3. bulkhead por rota: no máximo `maxConcurrent` requisições da mesma rota
+//     ao mesmo tempo; quem não consegue vaga em `maxWait` recebe 503.
+// As recusas levam Retry-After. Respostas assíncronas em streaming seguram
+// a vaga da rota até a resposta terminar, porque continuam lendo o banco;
+// os emissores (o feed SSE) devolvem a vaga assim que o controller retorna.
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final BoundedPools boundedPools;
+
+    private final MeterRegistry meterRegistry;
+
+    // Baldes dos clientes ativos; os ociosos expiram e voltam cheios
+    private final Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer> queueTimers = new ConcurrentHashMap<>();
+
+    // Cabeçalho com a identidade do cliente, confiável só se o balanceador
+    // o sobrescrever; nulo ou vazio para não usar
+    private final String clientHeader;
+
+    private volatile AdmissionLimits limits;
+
+    public AdmissionInterceptor(AdmissionLimits limits, String clientHeader, BoundedPools boundedPools,
+            MeterRegistry meterRegistry) {
+        this.limits = limits;
+        this.clientHeader = clientHeader;
+        this.boundedPools = boundedPools;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public AdmissionLimits getLimits() {
+        return this.limits;
+    }
+
+    // Novos limites valem para a próxima requisição; os bulkheads existentes
+    // são redimensionados na hora
+    public synchronized void setLimits(AdmissionLimits limits) {
+        this.limits = limits;
+        this.bulkheads.values().forEach(bulkhead -> bulkhead.resize(limits.maxConcurrent()));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        AdmissionLimits current = this.limits;
+        // O redespacho de uma resposta assíncrona já foi admitido
+        if (!current.enabled() || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        String route = route(request);
+
+        if (this.boundedPools.getQueueLength() > current.maxPoolQueue()) {
+            throw reject(route, "overloaded", HttpStatus.SERVICE_UNAVAILABLE, 1,
+                    "Servidor sobrecarregado; tente novamente em instantes.");
+        }
+
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / current.rate());
+        long wait = this.buckets.get(client(request), key -> new TokenBucket())
+                .tryAcquire(System.nanoTime(), interval, current.burst());
+        if (wait > 0) {
+            throw reject(route, "rate_limited", HttpStatus.TOO_MANY_REQUESTS, toSeconds(wait),
+                    "Limite de requisições excedido; tente novamente em instantes.");
+        }
+
+        Bulkhead bulkhead = this.bulkheads.computeIfAbsent(route, this::createBulkhead);
+        long start = System.nanoTime();
+        boolean acquired = bulkhead.tryAcquire(current.maxWait().toNanos());
+        queueTimer(route).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            throw reject(route, "bulkhead", HttpStatus.SERVICE_UNAVAILABLE, 1,
+                    "Muitas requisições simultâneas nesta rota; tente novamente em instantes.");
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(bulkhead));
+        return true;
+    }
+
+    // A thread foi devolvida, mas a resposta continua sendo escrita: a vaga
+    // só é liberada quando o AsyncContext termina (também por erro ou
+    // timeout). Um emissor só espera eventos, sem trabalho de banco, e pode
+    // ficar aberto por app.feed.timeout: a vaga volta na hora.
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        if (!request.isAsyncStarted() || returnsEmitter(handler)) {
+            release(request);
+            return;
+        }
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                release(request);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        Object permit = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit instanceof Permit) {
+            ((Permit) permit).release();
+        }
+    }
+
+    private Bulkhead createBulkhead(String route) {
+        Bulkhead bulkhead = new Bulkhead(this.limits.maxConcurrent());
+        Gauge.builder("app.admission.in-flight", bulkhead, Bulkhead::getInFlight)
+                .description("Requests currently admitted by the route bulkhead")
+                .tag("route", route)
+                .register(this.meterRegistry);
+        return bulkhead;
+    }
+
+    private AdmissionRejectedException reject(String route, String reason, HttpStatus status,
+            long retryAfterSeconds, String message) {
+        this.rejections.computeIfAbsent(reason + " " + route, key -> Counter.builder("app.admission.rejected")
+                .description("Requests rejected before reaching the controller")
+                .tag("reason", reason)
+                .tag("route", route)
+                .register(this.meterRegistry))
+                .increment();
+        return new AdmissionRejectedException(status, retryAfterSeconds, message);
+    }
+
+    private Timer queueTimer(String route) {
+        return this.queueTimers.computeIfAbsent(route, key -> Timer.builder("app.admission.queue")
+                .description("Time spent waiting for a free slot in the route bulkhead")
+                .tag("route", route)
+                .register(this.meterRegistry));
+    }
+
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (Objects.isNull(pattern) ? "UNKNOWN" : pattern);
+    }
+
+    private String client(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (Objects.nonNull(principal)) {
+            return "user:" + principal.getName();
+        }
+        if (Objects.nonNull(this.clientHeader) && !this.clientHeader.isBlank()) {
+            String client = request.getHeader(this.clientHeader);
+            if (Objects.nonNull(client) && !client.isBlank()) {
+                return "client:" + client.trim();
+            }
+        }
+        return "address:" + request.getRemoteAddr();
+    }
+
+    private static boolean returnsEmitter(Object handler) {
+        return handler instanceof HandlerMethod handlerMethod
+                && ResponseBodyEmitter.class.isAssignableFrom(handlerMethod.getReturnType().getParameterType());
+    }
+
+    private static long toSeconds(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    // Vaga de uma requisição. A liberação pode vir do redespacho assíncrono
+    // e do AsyncListener ao mesmo tempo: só a primeira devolve a vaga.
+    private static final class Permit {
+
+        private final Bulkhead bulkhead;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        void release() {
+            if (this.released.compareAndSet(false, true)) {
+                this.bulkhead.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.pedroporto.todosimple.admission;
+
+import org.springframework.http.HttpStatus;
+
+import com.pedroporto.todosimple.services.exceptions.DomainException;
+
+import lombok.Getter;
+
+// Requisição recusada por falta de capacidade: pelo AdmissionInterceptor,
+// antes de qualquer acesso ao banco (429 quando o cliente passou do seu
+// limite, 503 quando o servidor está saturado), ou por um recurso limitado
+// como a fila do PasswordHasher ou o commit em grupo do TaskWriteBuffer
+// (503). `retryAfterSeconds` vai no cabeçalho Retry-After.
+@Getter
+public class AdmissionRejectedException extends DomainException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final HttpStatus status;
+
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(HttpStatus status, long retryAfterSeconds, String message) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,55 @@
+package com.pedroporto.todosimple.admission;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Limite de requisições simultâneas de uma rota. O limite pode mudar com a
+// aplicação no ar: as permissões a mais são liberadas na hora; as a menos
+// são descontadas e o excesso em andamento some conforme termina.
+final class Bulkhead {
+
+    private final AdjustableSemaphore permits;
+
+    private int limit;
+
+    Bulkhead(int limit) {
+        this.permits = new AdjustableSemaphore(limit);
+        this.limit = limit;
+    }
+
+    boolean tryAcquire(long timeoutNanos) throws InterruptedException {
+        return this.permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void release() {
+        this.permits.release();
+    }
+
+    int getInFlight() {
+        return Math.max(0, this.limit - this.permits.availablePermits());
+    }
+
+    synchronized void resize(int newLimit) {
+        int delta = newLimit - this.limit;
+        if (delta > 0) {
+            this.permits.release(delta);
+        } else if (delta < 0) {
+            this.permits.reducePermits(-delta);
+        }
+        this.limit = newLimit;
+    }
+
+    private static final class AdjustableSemaphore extends Semaphore {
+
+        private static final long serialVersionUID = 1L;
+
+        AdjustableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
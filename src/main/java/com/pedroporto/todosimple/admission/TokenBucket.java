@@ -0,0 +1,28 @@
+package com.pedroporto.todosimple.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Balde de fichas de um cliente na forma GCRA: em vez de contar fichas,
+// guarda o instante teórico em que o balde estará cheio de novo. Uma
+// requisição é admitida com um único compareAndSet, sem trava.
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    // Devolve 0 se a requisição foi admitida ou quantos nanossegundos faltam
+    // para a próxima ficha. `interval` é o tempo de reposição de uma ficha e
+    // `burst` a capacidade do balde.
+    long tryAcquire(long now, long interval, int burst) {
+        while (true) {
+            long current = this.theoreticalArrival.get();
+            long next = Math.max(current, now) + interval;
+            long excess = next - now - interval * burst;
+            if (excess > 0) {
+                return excess;
+            }
+            if (this.theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.pedroporto.todosimple.configs;
+
+import java.time.Duration;
+
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.pedroporto.todosimple.admission.AdmissionEndpoint;
+import com.pedroporto.todosimple.admission.AdmissionInterceptor;
+import com.pedroporto.todosimple.datasource.BoundedPools;
+import com.pedroporto.todosimple.models.dto.AdmissionLimits;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// Limites iniciais do controle de admissão (ver AdmissionInterceptor); com a
+// aplicação no ar eles podem ser trocados no actuator (AdmissionEndpoint).
+//
+// Vem desligado: sem autenticação o limite por cliente depende de saber
+// quem chama, e atrás do balanceador isso exige server.forward-headers-strategy
+// ou app.admission.client-header. Ligado sem nenhum dos dois, avisa no log.
+@Slf4j
+@Configuration
+public class AdmissionConfig {
+
+    @Bean
+    public AdmissionInterceptor admissionInterceptor(BoundedPools boundedPools, MeterRegistry meterRegistry,
+            @Value("${app.admission.enabled:false}") boolean enabled,
+            @Value("${app.admission.client-header:}") String clientHeader,
+            @Value("${server.forward-headers-strategy:none}") String forwardHeadersStrategy,
+            @Value("${app.admission.rate:50}") double rate,
+            @Value("${app.admission.burst:100}") int burst,
+            @Value("${app.admission.bulkhead.max-concurrent:16}") int maxConcurrent,
+            @Value("${app.admission.bulkhead.max-wait:PT0.05S}") Duration maxWait,
+            @Value("${app.admission.shed.max-pool-queue:32}") int maxPoolQueue) {
+        if (enabled && clientHeader.isBlank() && forwardHeadersStrategy.equalsIgnoreCase("none")) {
+            log.warn("Admission control is enabled without app.admission.client-header or "
+                    + "server.forward-headers-strategy: behind a load balancer every client shares one rate limit");
+        }
+        return new AdmissionInterceptor(new AdmissionLimits(enabled, rate, burst, maxConcurrent, maxWait, maxPoolQueue),
+                clientHeader, boundedPools, meterRegistry);
+    }
+
+    @Bean
+    public AdmissionEndpoint admissionEndpoint(AdmissionInterceptor admissionInterceptor, Validator validator) {
+        return new AdmissionEndpoint(admissionInterceptor, validator);
+    }
+}
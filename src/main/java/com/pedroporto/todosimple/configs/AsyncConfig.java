@@ -0,0 +1,12 @@
+package com.pedroporto.todosimple.configs;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+// Habilita @Async. O executor usado é o applicationTaskExecutor: o pool de
+// threads padrão do Spring Boot, ou threads virtuais quando
+// app.threads.virtual.enabled=true (ver VirtualThreadConfig).
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,62 @@
+package com.pedroporto.todosimple.configs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.services.TaskBatchService;
+import com.pedroporto.todosimple.services.UserService;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Popula o banco do perfil "bench" com N usuários e M tarefas por usuário.
+// Os usuários recebem os ids 1..N, na ordem de criação.
+@Slf4j
+@Component
+@Profile("bench")
+public class BenchDataSeeder implements ApplicationRunner {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskBatchService taskBatchService;
+
+    @Value("${app.bench.seed.users:100}")
+    private int users;
+
+    @Value("${app.bench.seed.tasks-per-user:100}")
+    private int tasksPerUser;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        for (int u = 0; u < this.users; u++) {
+            User user = new User();
+            user.setUsername("bench-user-" + u);
+            user.setPassword("bench-password-" + u);
+            Long userId = this.userService.create(user).getId();
+
+            List<Task> tasks = new ArrayList<>(this.tasksPerUser);
+            for (int t = 0; t < this.tasksPerUser; t++) {
+                User owner = new User();
+                owner.setId(userId);
+                Task task = new Task();
+                task.setUser(owner);
+                task.setDescription("Tarefa " + t + " do usuário " + u);
+                tasks.add(task);
+            }
+            this.taskBatchService.create(tasks);
+        }
+        log.info("Seeded {} users with {} tasks each in {} ms", this.users, this.tasksPerUser,
+                System.currentTimeMillis() - start);
+    }
+}
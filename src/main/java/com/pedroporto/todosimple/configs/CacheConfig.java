@@ -0,0 +1,110 @@
+package com.pedroporto.todosimple.configs;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+
+// Cache em memória (Caffeine, despejo W-TinyLFU) para as leituras mais
+// frequentes. Os caches de entidade são limitados pela quantidade de
+// entradas; o de listas por usuário é limitado pela soma do tamanho das
+// listas, para que poucos usuários com muitas tarefas não ocupem o heap todo.
+//
+// As entidades em cache são cópias desligadas do JPA: cada leitura recebe
+// uma cópia própria, então quem altera o objeto devolvido (ou o associa a
+// outra entidade) não mexe no que as outras threads leem. As listas de
+// TaskView são guardadas imutáveis.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS = "users";
+    public static final String TASKS = "tasks";
+    public static final String TASKS_BY_USER = "tasksByUser";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.cache.maximum-size:10000}") long maximumSize,
+            @Value("${app.cache.tasks-by-user.maximum-weight:100000}") long maximumWeight,
+            @Value("${app.cache.ttl:PT5M}") Duration ttl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name,
+                    com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new CopyingCache(name, cache, isAllowNullValues());
+            }
+        };
+        cacheManager.setCacheNames(List.of(USERS, TASKS));
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats());
+        cacheManager.registerCustomCache(TASKS_BY_USER, Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Object userId, Object tasks) -> ((List<?>) tasks).size() + 1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    // Copia o valor na gravação e em cada leitura. Continua sendo um
+    // CaffeineCache, então métricas e /cache/stats não mudam.
+    static class CopyingCache extends CaffeineCache {
+
+        private final UnaryOperator<Object> copier;
+
+        CopyingCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                boolean allowNullValues) {
+            super(name, cache, allowNullValues);
+            this.copier = copierOf(name);
+        }
+
+        @Override
+        protected Object toStoreValue(Object userValue) {
+            return super.toStoreValue(this.copier.apply(userValue));
+        }
+
+        @Override
+        protected Object fromStoreValue(Object storeValue) {
+            return this.copier.apply(super.fromStoreValue(storeValue));
+        }
+
+        private static UnaryOperator<Object> copierOf(String name) {
+            return switch (name) {
+                case USERS -> value -> value instanceof User user ? copyOf(user) : value;
+                case TASKS -> value -> value instanceof Task task ? copyOf(task) : value;
+                // TaskView é um record: basta a lista não poder ser alterada
+                case TASKS_BY_USER -> value -> value instanceof List<?> list ? List.copyOf(list) : value;
+                default -> UnaryOperator.identity();
+            };
+        }
+
+        // A coleção preguiçosa de tarefas fica de fora: desligada do
+        // EntityManager ela não pode ser lida e não sai no JSON
+        private static User copyOf(User user) {
+            return new User(user.getId(), user.getUsername(), user.getPassword(), new ArrayList<>(),
+                    user.getVersion());
+        }
+
+        private static Task copyOf(Task task) {
+            User user = Objects.isNull(task.getUser()) ? null : copyOf(task.getUser());
+            return new Task(task.getId(), user, task.getDescription(), task.getVersion());
+        }
+    }
+}
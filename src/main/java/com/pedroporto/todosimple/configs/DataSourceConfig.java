@@ -0,0 +1,44 @@
+package com.pedroporto.todosimple.configs;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.pedroporto.todosimple.datasource.BoundedPools;
+import com.zaxxer.hikari.HikariDataSource;
+
+// Cada pool de conexões fica atrás de um BoundedDataSource. Apenas
+// maximum-pool-size menos `app.datasource.reserved-connections` conexões de
+// um pool podem ser abertas por threads diferentes; as reservadas ficam para
+// conexões aninhadas (como a do gerador de ids das tarefas), evitando que o
+// pool trave sob carga.
+//
+// Aqui é envolvido o pool da autoconfiguração. Com réplicas ou shards o
+// DataSource da aplicação é um roteador, que não é envolvido: os pools de
+// cada destino são limitados ao serem criados (ver HikariPools).
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    public static BoundedPools boundedPools(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${app.datasource.reserved-connections:1}") int reservedConnections,
+            @Value("${spring.datasource.hikari.connection-timeout:30000}") long acquireTimeoutMillis) {
+        return new BoundedPools(Math.max(1, poolSize - reservedConnections), acquireTimeoutMillis);
+    }
+
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(BoundedPools boundedPools) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof HikariDataSource) {
+                    return boundedPools.bound("primary", (HikariDataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+}
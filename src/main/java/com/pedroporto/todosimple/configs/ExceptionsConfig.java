@@ -0,0 +1,18 @@
+package com.pedroporto.todosimple.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import com.pedroporto.todosimple.services.exceptions.DomainException;
+
+// Pilha das exceções de domínio (ver DomainException): desligada por padrão,
+// ligada com `app.exceptions.stack-traces` ou quando a pilha vai na
+// resposta (server.error.include-exception). Vale para as duas pilhas web.
+@Configuration
+public class ExceptionsConfig {
+
+    public ExceptionsConfig(@Value("${app.exceptions.stack-traces:false}") boolean stackTraces,
+            @Value("${server.error.include-exception:false}") boolean includeException) {
+        DomainException.captureStackTraces(stackTraces || includeException);
+    }
+}
@@ -0,0 +1,72 @@
+package com.pedroporto.todosimple.configs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import com.pedroporto.todosimple.datasource.BoundedPools;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// Pools Hikari criados fora da autoconfiguração (réplicas, shards), com as
+// credenciais, o tamanho de pool e o timeout do spring.datasource. Cada um é
+// devolvido atrás do seu BoundedDataSource. Quem cria fecha todos juntos no
+// desligamento.
+//
+// As métricas entram como MeterBinder, depois de criados os pools: as
+// configurações que criam os pools também definem o DataSource da
+// aplicação, do qual o MeterRegistry depende (métricas de DataSource).
+class HikariPools implements MeterBinder {
+
+    private final DataSourceProperties properties;
+
+    private final BoundedPools boundedPools;
+
+    private final int poolSize;
+
+    private final long connectionTimeout;
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    private boolean metricsBound;
+
+    HikariPools(DataSourceProperties properties, BoundedPools boundedPools, int poolSize, long connectionTimeout) {
+        this.properties = properties;
+        this.boundedPools = boundedPools;
+        this.poolSize = poolSize;
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    DataSource create(String url, String name) {
+        HikariDataSource dataSource = this.properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        dataSource.setPoolName("HikariPool-" + name);
+        dataSource.setMaximumPoolSize(this.poolSize);
+        dataSource.setConnectionTimeout(this.connectionTimeout);
+        this.pools.add(dataSource);
+        return this.boundedPools.bound(name, dataSource);
+    }
+
+    // O Hikari aceita um único MetricsTrackerFactory por pool
+    @Override
+    public synchronized void bindTo(MeterRegistry registry) {
+        if (this.metricsBound) {
+            return;
+        }
+        this.metricsBound = true;
+        MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(registry);
+        this.pools.forEach(pool -> pool.setMetricsTrackerFactory(metrics));
+    }
+
+    void close() {
+        this.pools.forEach(HikariDataSource::close);
+    }
+}
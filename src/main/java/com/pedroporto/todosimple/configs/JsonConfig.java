@@ -0,0 +1,27 @@
+package com.pedroporto.todosimple.configs;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.pedroporto.todosimple.json.ApiJsonModule;
+
+// Módulos do ObjectMapper da aplicação (o Spring Boot registra todo bean
+// Module nele). Task, TaskView, User e ErrorResponse usam os serializadores
+// do ApiJsonModule; para os demais tipos o Blackbird troca a reflexão dos
+// getters/setters por acessores gerados com LambdaMetafactory.
+// Os conversores do MVC usam os mesmos módulos (ver WebConfig).
+@Configuration
+public class JsonConfig {
+
+    @Bean
+    public Module apiJsonModule() {
+        return new ApiJsonModule();
+    }
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,50 @@
+package com.pedroporto.todosimple.configs;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.pedroporto.todosimple.datasource.BoundedDataSource;
+import com.pedroporto.todosimple.datasource.BoundedPools;
+import com.pedroporto.todosimple.metrics.QueryCountInterceptor;
+import com.pedroporto.todosimple.metrics.QueryCounter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Métricas expostas em /actuator/prometheus. Rotas (http.server.requests),
+// pool do Hikari, caches e estatísticas do Hibernate vêm da autoconfiguração
+// do Spring Boot; aqui ficam a contagem de SQL por requisição e a fila do
+// BoundedDataSource de cada pool.
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCounter());
+    }
+
+    @Bean
+    public QueryCountInterceptor queryCountInterceptor(MeterRegistry meterRegistry) {
+        return new QueryCountInterceptor(meterRegistry);
+    }
+
+    // Registrado depois de todos os singletons: os pools de réplicas e shards
+    // são criados nos construtores das configurações
+    @Bean
+    public SmartInitializingSingleton boundedDataSourceMetrics(BoundedPools boundedPools,
+            MeterRegistry meterRegistry) {
+        return () -> boundedPools.getPools().forEach(pool -> {
+            Gauge.builder("app.datasource.permits.available", pool, BoundedDataSource::getAvailablePermits)
+                    .description("Connections that can still be opened without waiting")
+                    .tag("pool", pool.getName())
+                    .register(meterRegistry);
+            Gauge.builder("app.datasource.permits.waiting", pool, BoundedDataSource::getQueueLength)
+                    .description("Threads waiting for a connection permit")
+                    .tag("pool", pool.getName())
+                    .register(meterRegistry);
+        });
+    }
+}
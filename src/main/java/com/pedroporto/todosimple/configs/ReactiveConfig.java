@@ -0,0 +1,100 @@
+package com.pedroporto.todosimple.configs;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+// Pilha reativa (perfil "reactive"): /tasks e /users atendidos pelo WebFlux
+// no Netty, com o banco acessado por R2DBC. Poucas threads de event loop
+// atendem todas as conexões; uma requisição esperando o banco não ocupa
+// thread, só uma conexão do pool R2DBC (métricas r2dbc.pool.*).
+//
+// O JPA continua no contexto (Flyway, tarefas agendadas, massa de dados do
+// perfil bench), então o gerenciador de transações R2DBC não é um bean: com
+// dois, o @Transactional não saberia qual usar. Os serviços reativos usam o
+// TransactionalOperator. Sem sharding nem réplicas de leitura: as conexões
+// vão sempre para app.r2dbc.url. Os codecs JSON usam o ObjectMapper da
+// aplicação, já com os módulos de JsonConfig.
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveConfig implements WebFluxConfigurer {
+
+    private final ConnectionPool connectionPool;
+
+    public ReactiveConfig(@Value("${app.r2dbc.url}") String url,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password,
+            @Value("${app.r2dbc.pool.initial-size:2}") int initialSize,
+            @Value("${app.r2dbc.pool.max-size:10}") int maxSize,
+            @Value("${spring.datasource.hikari.connection-timeout:30000}") long connectionTimeout) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("r2dbc")
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxAcquireTime(Duration.ofMillis(connectionTimeout))
+                .build());
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory() {
+        return this.connectionPool;
+    }
+
+    // Com um ConnectionFactory no contexto o Spring Boot não cria o
+    // DataSource do JPA; ele é criado aqui como a autoconfiguração faria
+    // (e limitado pelo DataSourceConfig). Com shards ou réplicas o
+    // DataSource é o roteador dessas configurações.
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    @ConditionalOnExpression("'${app.sharding.urls:}'.isEmpty() && '${app.datasource.replica.urls:}'.isEmpty()")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(this.connectionPool);
+    }
+
+    @Bean
+    public TransactionalOperator transactionalOperator() {
+        return TransactionalOperator.create(new R2dbcTransactionManager(this.connectionPool));
+    }
+
+    @Override
+    public void addCorsMappings(CorsRegistry registry) {
+        registry.addMapping("/**");
+    }
+
+    // Com o spring-boot-starter-web também no classpath, o Spring Boot
+    // escolheria o Tomcat também para o WebFlux
+    @Bean
+    public NettyReactiveWebServerFactory reactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
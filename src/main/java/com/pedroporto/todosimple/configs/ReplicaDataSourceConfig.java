@@ -0,0 +1,105 @@
+package com.pedroporto.todosimple.configs;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.pedroporto.todosimple.datasource.BoundedPools;
+import com.pedroporto.todosimple.datasource.ReadYourWritesInterceptor;
+import com.pedroporto.todosimple.datasource.ReplicaRoutingDataSource;
+import com.pedroporto.todosimple.datasource.ReplicaSet;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// Réplicas de leitura (app.datasource.replica.urls=url1,url2). O DataSource
+// da aplicação passa a ser um LazyConnectionDataSourceProxy sobre o
+// ReplicaRoutingDataSource: transações readOnly vão para uma réplica
+// saudável, o resto para o primário (spring.datasource.url). As réplicas usam
+// o mesmo usuário, senha e tamanho de pool do primário.
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.urls:}'.isEmpty()")
+public class ReplicaDataSourceConfig {
+
+    private final ReplicaSet replicaSet;
+
+    private final ReadYourWritesInterceptor readYourWritesInterceptor;
+
+    private final DataSource dataSource;
+
+    private final HikariPools pools;
+
+    public ReplicaDataSourceConfig(DataSourceProperties properties, BoundedPools boundedPools,
+            @Value("${app.datasource.replica.urls}") String[] replicaUrls,
+            @Value("${app.datasource.replica.max-lag:PT5S}") Duration maxLag,
+            @Value("${app.datasource.replica.check-interval:PT1S}") Duration checkInterval,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${spring.datasource.hikari.connection-timeout:30000}") long connectionTimeout) {
+        this.pools = new HikariPools(properties, boundedPools, poolSize, connectionTimeout);
+        DataSource primary = this.pools.create(properties.determineUrl(), "primary");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.length; i++) {
+            String name = "replica-" + i;
+            replicas.put(name, this.pools.create(replicaUrls[i].trim(), name));
+        }
+        // Sem verificação por três intervalos, o estado das réplicas é descartado
+        this.replicaSet = new ReplicaSet(primary, replicas, maxLag.toMillis(),
+                maxLag.toMillis() + 3 * checkInterval.toMillis());
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, this.replicaSet);
+        // Quem acabou de escrever lê do primário enquanto as réplicas podem
+        // estar atrasadas
+        this.readYourWritesInterceptor = new ReadYourWritesInterceptor(maxLag.toMillis() + checkInterval.toMillis());
+        routing.setWriteListener(this.readYourWritesInterceptor::onWrite);
+        this.dataSource = new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public DataSource dataSource() {
+        return this.dataSource;
+    }
+
+    @Bean
+    public MeterBinder replicaPoolMetrics() {
+        return this.pools;
+    }
+
+    @Bean
+    public MeterBinder replicaMetrics() {
+        return registry -> this.replicaSet.getReplicas().forEach(replica -> {
+            Gauge.builder("app.datasource.replica.lag", replica, ReplicaSet.Replica::getLagMillis)
+                    .description("Estimated replication lag in milliseconds")
+                    .tag("replica", replica.getName())
+                    .register(registry);
+            Gauge.builder("app.datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .description("Whether the replica answered the last health check")
+                    .tag("replica", replica.getName())
+                    .register(registry);
+        });
+    }
+
+    @Bean
+    public ReadYourWritesInterceptor readYourWritesInterceptor() {
+        return this.readYourWritesInterceptor;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval:PT1S}")
+    public void checkReplicas() {
+        this.replicaSet.check();
+    }
+
+    @PreDestroy
+    public void close() {
+        this.pools.close();
+    }
+}
@@ -0,0 +1,10 @@
+package com.pedroporto.todosimple.configs;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Habilita @Scheduled (heartbeat do feed de tarefas, por exemplo)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
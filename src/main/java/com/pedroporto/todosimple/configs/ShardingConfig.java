@@ -0,0 +1,149 @@
+package com.pedroporto.todosimple.configs;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.pedroporto.todosimple.datasource.BoundedPools;
+import com.pedroporto.todosimple.services.CacheInvalidationService;
+import com.pedroporto.todosimple.sharding.ShardDirectory;
+import com.pedroporto.todosimple.sharding.ShardIds;
+import com.pedroporto.todosimple.sharding.ShardRebalancer;
+import com.pedroporto.todosimple.sharding.ShardRoutingAspect;
+import com.pedroporto.todosimple.sharding.ShardRoutingDataSource;
+import com.pedroporto.todosimple.sharding.ShardedTableGenerator;
+import com.pedroporto.todosimple.sharding.ShardsEndpoint;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// Sharding horizontal por usuário (app.sharding.urls=url1,url2). O shard 0 é
+// o spring.datasource.url, onde ficam a id_allocator e o diretório; as URLs
+// configuradas são os shards 1..N. Os buckets dos ids são distribuídos entre
+// os shards por `app.sharding.ranges` (ver ShardDirectory e ShardIds).
+//
+// Sem URLs há um único shard e nada muda: o diretório e o aspecto existem,
+// mas não roteiam. Não combina com réplicas de leitura (as duas
+// configurações definem o DataSource).
+@Configuration
+public class ShardingConfig {
+
+    private final HikariPools pools;
+
+    private final List<DataSource> shards = new ArrayList<>();
+
+    private final ShardIds shardIds;
+
+    private final ShardDirectory shardDirectory;
+
+    private final Duration directoryRefresh;
+
+    public ShardingConfig(DataSourceProperties properties, BoundedPools boundedPools,
+            @Value("${app.sharding.urls:}") String[] shardUrls,
+            @Value("${app.sharding.ranges:}") String ranges,
+            @Value("${app.sharding.first-id:0}") long firstId,
+            @Value("${app.sharding.directory-refresh:PT30S}") Duration directoryRefresh,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${spring.datasource.hikari.connection-timeout:30000}") long connectionTimeout) {
+        this.pools = new HikariPools(properties, boundedPools, poolSize, connectionTimeout);
+        this.directoryRefresh = directoryRefresh;
+        if (shardUrls.length > 0) {
+            this.shards.add(this.pools.create(properties.determineUrl(), "shard-0"));
+            for (int i = 0; i < shardUrls.length; i++) {
+                this.shards.add(this.pools.create(shardUrls[i].trim(), "shard-" + (i + 1)));
+            }
+        }
+        boolean sharded = this.shards.size() > 1;
+        this.shardIds = new ShardIds(sharded, firstId);
+        this.shardDirectory = new ShardDirectory(Math.max(1, this.shards.size()), this.shardIds, ranges,
+                sharded ? this.shards.get(0) : null);
+        this.shardDirectory.refresh();
+    }
+
+    // Estático e com o diretório resolvido só no uso: o aspecto é criado
+    // cedo, junto com o auto-proxy, e não deve arrastar esta configuração
+    @Bean
+    public static ShardRoutingAspect shardRoutingAspect(ObjectProvider<ShardDirectory> shardDirectory) {
+        return new ShardRoutingAspect(shardDirectory::getObject);
+    }
+
+    @Bean
+    public MeterBinder shardPoolMetrics() {
+        return this.pools;
+    }
+
+    @Bean
+    public ShardIds shardIds() {
+        return this.shardIds;
+    }
+
+    // O ShardedTableGenerator é criado pelo Hibernate e recebe o ShardIds
+    // pelas propriedades
+    @Bean
+    public HibernatePropertiesCustomizer shardIdsCustomizer() {
+        return properties -> properties.put(ShardedTableGenerator.SHARD_IDS, this.shardIds);
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory() {
+        return this.shardDirectory;
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(CacheInvalidationService cacheInvalidationService) {
+        return new ShardRebalancer(this.shardDirectory, this.shards, cacheInvalidationService,
+                this.directoryRefresh.plusSeconds(1));
+    }
+
+    @Bean
+    public ShardsEndpoint shardsEndpoint(ShardRebalancer shardRebalancer) {
+        return new ShardsEndpoint(this.shardDirectory, shardRebalancer);
+    }
+
+    @Bean
+    @ConditionalOnExpression("!'${app.sharding.urls:}'.isEmpty()")
+    public DataSource dataSource() {
+        return new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(this.shards));
+    }
+
+    // O Flyway do Spring Boot migra o DataSource da aplicação, que fora de
+    // um escopo de shard é o shard 0; os demais shards recebem as mesmas
+    // migrações na mesma subida
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy() {
+        return flyway -> {
+            flyway.migrate();
+            for (int shard = 1; shard < this.shards.size(); shard++) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(this.shards.get(shard))
+                        .load()
+                        .migrate();
+            }
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${app.sharding.directory-refresh:PT30S}")
+    public void refreshDirectory() {
+        this.shardDirectory.refresh();
+    }
+
+    @PreDestroy
+    public void close() {
+        this.pools.close();
+    }
+}
@@ -1,16 +1,95 @@
 package com.pedroporto.todosimple.configs;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.fasterxml.jackson.databind.Module;
+import com.pedroporto.todosimple.admission.AdmissionInterceptor;
+import com.pedroporto.todosimple.datasource.ReadYourWritesInterceptor;
+import com.pedroporto.todosimple.metrics.QueryCountInterceptor;
+
+// Além de JSON, as respostas podem sair em CBOR (application/cbor) ou Smile
+// (application/x-jackson-smile) conforme o Accept: com os módulos
+// jackson-dataformat-cbor/smile no classpath, o @EnableWebMvc registra os
+// conversores binários junto do JSON, com o mesmo mapeamento dos modelos.
+// Sem Accept específico a resposta continua em JSON.
 @Configuration
 @EnableWebMvc
+@Profile("!reactive")
 public class WebConfig implements WebMvcConfigurer {
 
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    // Ver JsonConfig
+    @Autowired
+    private List<Module> jacksonModules;
+
+    @Autowired
+    private QueryCountInterceptor queryCountInterceptor;
+
+    @Autowired
+    private AdmissionInterceptor admissionInterceptor;
+
+    // Só existe com réplicas de leitura configuradas (ver ReplicaDataSourceConfig)
+    @Autowired(required = false)
+    private ReadYourWritesInterceptor readYourWritesInterceptor;
+
+    // Tempo máximo de uma resposta assíncrona; exportações grandes podem
+    // levar vários minutos
+    @Value("${app.web.async-request-timeout:PT1H}")
+    private Duration asyncRequestTimeout;
+
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**");
 
     }
+
+    // Respostas assíncronas (StreamingResponseBody, etc.) rodam no mesmo
+    // executor do @Async, em threads virtuais quando esse modo está ativo.
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(this.applicationTaskExecutor);
+        configurer.setDefaultTimeout(this.asyncRequestTimeout.toMillis());
+    }
+
+    // Com @EnableWebMvc os conversores JSON/CBOR/Smile criam o próprio
+    // ObjectMapper, sem os módulos da aplicação: registra neles os mesmos
+    // serializadores especializados
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter instanceof AbstractJackson2HttpMessageConverter jackson) {
+                jackson.getObjectMapper().registerModules(this.jacksonModules);
+            }
+        }
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Só as rotas da API; o actuator, na porta de gerência, continua
+        // acessível mesmo com o servidor saturado
+        registry.addInterceptor(this.admissionInterceptor).addPathPatterns("/tasks/**", "/users/**", "/import/**");
+        registry.addInterceptor(this.queryCountInterceptor);
+        if (Objects.nonNull(this.readYourWritesInterceptor)) {
+            registry.addInterceptor(this.readYourWritesInterceptor);
+        }
+    }
 }
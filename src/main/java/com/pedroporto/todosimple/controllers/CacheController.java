@@ -0,0 +1,40 @@
+package com.pedroporto.todosimple.controllers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // Estatísticas de acertos, falhas e despejos de cada cache
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (String name : this.cacheManager.getCacheNames()) {
+            CaffeineCache cache = (CaffeineCache) this.cacheManager.getCache(name);
+            CacheStats cacheStats = cache.getNativeCache().stats();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("size", cache.getNativeCache().estimatedSize());
+            values.put("hitCount", cacheStats.hitCount());
+            values.put("missCount", cacheStats.missCount());
+            values.put("hitRate", cacheStats.hitRate());
+            values.put("evictionCount", cacheStats.evictionCount());
+            stats.put(name, values);
+        }
+        return ResponseEntity.ok().body(stats);
+    }
+}
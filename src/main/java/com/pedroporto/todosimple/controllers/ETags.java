@@ -0,0 +1,61 @@
+package com.pedroporto.todosimple.controllers;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import com.pedroporto.todosimple.models.dto.TaskView;
+
+// ETags fortes a partir da coluna de versão. Cada recurso tem sua própria
+// URL, então a versão sozinha basta ("3"); a listagem de tarefas de um
+// usuário usa um hash dos pares (id, versão), que muda a cada tarefa criada,
+// alterada ou excluída.
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String of(List<TaskView> tasks) {
+        long hash = tasks.size();
+        for (TaskView task : tasks) {
+            hash = mix(hash ^ task.id());
+            hash = mix(hash ^ task.version());
+        }
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    // Versões aceitas por um cabeçalho If-Match, ou null quando não há
+    // condição (cabeçalho ausente ou "*"). Tags fracas nunca casam.
+    static Set<Long> parseIfMatch(String ifMatch) {
+        if (Objects.isNull(ifMatch) || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String tag : ifMatch.split(",")) {
+            String value = tag.trim();
+            if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                try {
+                    versions.add(Long.parseLong(value.substring(1, value.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // Tag que não foi gerada por nós: não casa com nenhuma versão
+                }
+            }
+        }
+        return versions;
+    }
+
+    // Finalizador do MurmurHash3 de 64 bits
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb93fe53a87c5L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,96 @@
+package com.pedroporto.todosimple.controllers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pedroporto.todosimple.imports.RowReader;
+import com.pedroporto.todosimple.models.dto.ImportLine;
+import com.pedroporto.todosimple.services.ImportService;
+
+// Importação em massa a partir de CSV (text/csv, com cabeçalho) ou NDJSON
+// (application/x-ndjson). O arquivo é lido conforme chega e o relatório é
+// devolvido em NDJSON ao mesmo tempo: erros por linha, progresso a cada
+// bloco gravado e um resumo no final.
+@RestController
+@RequestMapping("/import")
+@Profile("!reactive")
+public class ImportController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // POST /import/users com as colunas username e password
+    @PostMapping(value = "/users", consumes = { TEXT_CSV, NDJSON })
+    public ResponseEntity<StreamingResponseBody> importUsers(HttpServletRequest request) throws IOException {
+        return report(request, this.importService::importUsers);
+    }
+
+    // POST /import/tasks com as colunas description e user_id (ou username)
+    @PostMapping(value = "/tasks", consumes = { TEXT_CSV, NDJSON })
+    public ResponseEntity<StreamingResponseBody> importTasks(HttpServletRequest request) throws IOException {
+        return report(request, this.importService::importTasks);
+    }
+
+    private ResponseEntity<StreamingResponseBody> report(HttpServletRequest request, Importer importer)
+            throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        // O corpo é lido dentro do StreamingResponseBody, na thread do executor
+        // assíncrono, e não aqui: ler tudo antes acabaria com a memória
+        // limitada. A especificação de Servlet (3.0+, AsyncContext) mantém
+        // request e response válidos até o complete(), que o Spring só chama
+        // depois que o corpo termina; sem ReadListener registrado, a leitura
+        // continua bloqueante e pode ser feita de qualquer thread. O stream é
+        // obtido aqui, ainda na thread do container.
+        InputStream input = request.getInputStream();
+        ObjectWriter writer = this.objectMapper.writerFor(ImportLine.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (RowReader reader = RowReader.open(contentType, input, this.objectMapper);
+                    JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                importer.run(reader, line -> {
+                    try {
+                        writer.writeValue(generator, line);
+                        generator.writeRaw('\n');
+                        // O progresso é enviado ao cliente assim que cada bloco termina
+                        if (!"error".equals(line.type())) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    @FunctionalInterface
+    private interface Importer {
+        void run(RowReader reader, Consumer<ImportLine> report) throws IOException;
+    }
+}
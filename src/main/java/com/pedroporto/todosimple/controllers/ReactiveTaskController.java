@@ -0,0 +1,125 @@
+package com.pedroporto.todosimple.controllers;
+
+import java.net.URI;
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.dto.TaskPage;
+import com.pedroporto.todosimple.models.dto.TaskView;
+import com.pedroporto.todosimple.services.ReactiveTaskService;
+import com.pedroporto.todosimple.services.exceptions.PreconditionFailedException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// As rotas de TaskController sobre o WebFlux (perfil "reactive"), com os
+// mesmos status, ETags e validações. A busca, o feed SSE, a exportação e
+// as operações em lote continuam só na pilha servlet.
+@RestController
+@RequestMapping("/tasks")
+@Validated
+@Profile("reactive")
+public class ReactiveTaskController {
+
+    @Autowired
+    private ReactiveTaskService taskService;
+
+    // Com If-None-Match igual ao ETag a resposta é um 304 sem corpo
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Task>> findById(@PathVariable Long id) {
+        return this.taskService.findById(id)
+                .map(obj -> ResponseEntity.ok().eTag(ETags.of(obj.getVersion())).body(obj));
+    }
+
+    // A lista inteira é montada para calcular o ETag, como na pilha servlet;
+    // para não acumular, use o NDJSON abaixo ou a paginação por cursor
+    @GetMapping("/user/{userId}")
+    public Mono<ResponseEntity<List<TaskView>>> findAllByUserId(@PathVariable long userId) {
+        return this.taskService.findAllByUserId(userId)
+                .collectList()
+                .map(objs -> ResponseEntity.ok().eTag(ETags.of(objs)).body(objs));
+    }
+
+    // Listagem em streaming com contrapressão: com Accept: application/x-ndjson
+    // sai uma tarefa por linha, lida do banco só à medida que a conexão HTTP
+    // consegue escrever
+    @GetMapping(value = "/user/{userId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TaskView> streamAllByUserId(@PathVariable long userId) {
+        return this.taskService.findAllByUserId(userId);
+    }
+
+    // ?stream=true mantém o array JSON da pilha servlet; o codec JSON do
+    // WebFlux reúne a Flux antes de escrever, então só o NDJSON é incremental
+    @GetMapping(value = "/user/{userId}", params = "stream=true")
+    public Flux<TaskView> streamAllByUserIdAsArray(@PathVariable long userId) {
+        return this.taskService.findAllByUserId(userId);
+    }
+
+    // Listagem paginada por cursor: GET /tasks/user/{userId}?limit=100&cursor=...
+    @GetMapping(value = "/user/{userId}", params = "limit")
+    public Mono<ResponseEntity<TaskPage>> findPageByUserId(
+            @PathVariable long userId,
+            @RequestParam @Min(1) @Max(1000) int limit,
+            @RequestParam(required = false) String cursor) {
+        return this.taskService.findPageByUserId(userId, cursor, limit)
+                .map(page -> ResponseEntity.ok().body(page));
+    }
+
+    // Falhas na criação respondem 500 sem corpo, como em TaskController
+    @PostMapping
+    @Validated
+    public Mono<ResponseEntity<Void>> create(@Valid @RequestBody Task obj, ServerHttpRequest request) {
+        return this.taskService.create(obj)
+                .map(created -> {
+                    URI uri = UriComponentsBuilder.fromUri(request.getURI())
+                            .path("/{id}").buildAndExpand(created.getId()).toUri();
+                    return ResponseEntity.created(uri).<Void>build();
+                })
+                .onErrorReturn(ResponseEntity.status(500).build());
+    }
+
+    // Conflitos de versão seguem para o ReactiveExceptionHandler (412/409);
+    // as demais falhas respondem 404 sem corpo, como em TaskController
+    @PutMapping("/{id}")
+    @Validated
+    public Mono<ResponseEntity<Task>> update(@Valid @RequestBody Task obj, @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        obj.setId(id);
+        return this.taskService.update(obj, ETags.parseIfMatch(ifMatch))
+                .map(updated -> ResponseEntity.noContent().eTag(ETags.of(updated.getVersion())).<Task>build())
+                .onErrorResume(e -> !(e instanceof PreconditionFailedException
+                        || e instanceof OptimisticLockingFailureException),
+                        e -> Mono.just(ResponseEntity.status(404).<Task>build()));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable Long id) {
+        return this.taskService.delete(id)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()))
+                .onErrorReturn(ResponseEntity.status(400).build());
+    }
+}
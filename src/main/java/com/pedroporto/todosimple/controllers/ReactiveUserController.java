@@ -0,0 +1,91 @@
+package com.pedroporto.todosimple.controllers;
+
+import java.net.URI;
+
+import javax.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.User.CreateUser;
+import com.pedroporto.todosimple.models.User.UpdateUser;
+import com.pedroporto.todosimple.models.UserTaskStats;
+import com.pedroporto.todosimple.models.dto.Credentials;
+import com.pedroporto.todosimple.services.ReactiveUserService;
+
+import reactor.core.publisher.Mono;
+
+// As rotas de UserController sobre o WebFlux (perfil "reactive"), com os
+// mesmos grupos de validação, status e ETags
+@RestController
+@RequestMapping("/users")
+@Validated
+@Profile("reactive")
+public class ReactiveUserController {
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    // Com If-None-Match igual ao ETag a resposta é um 304 sem corpo
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<User>> findById(@PathVariable Long id) {
+        return this.userService.findById(id)
+                .map(user -> ResponseEntity.ok().eTag(ETags.of(user.getVersion())).body(user));
+    }
+
+    @GetMapping("/{id}/stats")
+    public Mono<ResponseEntity<UserTaskStats>> stats(@PathVariable Long id) {
+        return this.userService.findStats(id)
+                .map(stats -> ResponseEntity.ok().body(stats));
+    }
+
+    @PostMapping
+    @Validated(CreateUser.class)
+    public Mono<ResponseEntity<Void>> create(@Valid @RequestBody User user, ServerHttpRequest request) {
+        return this.userService.create(user)
+                .map(created -> {
+                    URI uri = UriComponentsBuilder.fromUri(request.getURI())
+                            .path("/{id}").buildAndExpand(created.getId()).toUri();
+                    return ResponseEntity.created(uri).<Void>build();
+                });
+    }
+
+    // 204 se usuário e senha conferem, 401 caso contrário
+    @PostMapping("/login")
+    public Mono<ResponseEntity<Void>> login(@Valid @RequestBody Credentials credentials) {
+        return this.userService.authenticate(credentials.username(), credentials.password())
+                .thenReturn(ResponseEntity.noContent().<Void>build());
+    }
+
+    @PutMapping("/{id}")
+    @Validated(UpdateUser.class)
+    public Mono<ResponseEntity<Void>> update(@PathVariable Long id, @Valid @RequestBody User user,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        user.setId(id);
+        return this.userService.update(user, ETags.parseIfMatch(ifMatch))
+                .map(updated -> ResponseEntity.noContent().eTag(ETags.of(updated.getVersion())).<Void>build());
+    }
+
+    // Falhas na exclusão respondem 500 sem corpo, como em UserController
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable Long id) {
+        return this.userService.delete(id)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()))
+                .onErrorReturn(ResponseEntity.status(500).build());
+    }
+}
@@ -1,11 +1,27 @@
 package com.pedroporto.todosimple.controllers;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
+import javax.annotation.PostConstruct;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,25 +30,72 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pedroporto.todosimple.feed.TaskFeed;
+import com.pedroporto.todosimple.services.TaskBatchService;
+import com.pedroporto.todosimple.services.TaskSearchService;
 import com.pedroporto.todosimple.services.TaskService;
+import com.pedroporto.todosimple.services.TaskWriteBuffer;
 import com.pedroporto.todosimple.services.UserService;
+import com.pedroporto.todosimple.services.exceptions.PreconditionFailedException;
 import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.dto.BatchReport;
+import com.pedroporto.todosimple.models.dto.TaskPage;
+import com.pedroporto.todosimple.models.dto.TaskSearchResult;
+import com.pedroporto.todosimple.models.dto.TaskView;
 
 @RestController
 @RequestMapping("/tasks")
 @Validated
+@Profile("!reactive")
 public class TaskController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     @Autowired
     private TaskService taskService;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TaskBatchService taskBatchService;
+
+    @Autowired
+    private TaskSearchService taskSearchService;
+
+    @Autowired
+    private TaskWriteBuffer taskWriteBuffer;
+
+    @Autowired
+    private TaskFeed taskFeed;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Writer das listagens em streaming, criado uma vez: o serializador de
+    // TaskView fica resolvido nele e não é buscado a cada requisição
+    private ObjectWriter taskViewWriter;
+
+    @PostConstruct
+    public void init() {
+        this.taskViewWriter = this.objectMapper.writerFor(TaskView.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
     // Comentário: A responsabilidade de encontrar um usuário deveria ser movida
     // para o UserController.
     // Dica: O método `findById` para buscar um usuário existe no `UserService`,
@@ -44,10 +107,11 @@ public class TaskController {
     // ele trabalha.
     // Refatore o código para chamar o `UserController` ou mover a lógica para o
     // `UserService`.
+    // Com If-None-Match igual ao ETag a resposta é um 304 sem corpo
     @GetMapping("/{id}")
     public ResponseEntity<Task> findById(@PathVariable Long id) {
         Task obj = this.taskService.findById(id);
-        return ResponseEntity.ok().body(obj);
+        return ResponseEntity.ok().eTag(ETags.of(obj.getVersion())).body(obj);
     }
 
     // Comentário: O código de verificação do usuário está sendo feito no
@@ -58,17 +122,125 @@ public class TaskController {
     // para o `UserController`. Isso ajudará a manter os controllers mais coesos e
     // focados em suas responsabilidades.
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Task>> findAllByUserId(@PathVariable long userId) {
+    public ResponseEntity<List<TaskView>> findAllByUserId(@PathVariable long userId) {
         userService.findById(userId); // Comentário: Este código deveria ser movido para o UserController.
-        List<Task> objs = this.taskService.findAllByUserId(userId);
-        return ResponseEntity.ok().body(objs);
+        List<TaskView> objs = this.taskService.findAllByUserId(userId);
+        return ResponseEntity.ok().eTag(ETags.of(objs)).body(objs);
+    }
+
+    // Listagem paginada por cursor: GET /tasks/user/{userId}?limit=100&cursor=...
+    @GetMapping(value = "/user/{userId}", params = "limit")
+    public ResponseEntity<TaskPage> findPageByUserId(
+            @PathVariable long userId,
+            @RequestParam @Min(1) @Max(1000) int limit,
+            @RequestParam(required = false) String cursor) {
+        userService.findById(userId);
+        TaskPage page = this.taskService.findPageByUserId(userId, cursor, limit);
+        return ResponseEntity.ok().body(page);
+    }
+
+    // Listagem em streaming: GET /tasks/user/{userId}?stream=true
+    // O array JSON é escrito na resposta conforme as linhas saem do banco.
+    @GetMapping(value = "/user/{userId}", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllByUserId(@PathVariable long userId) {
+        userService.findById(userId);
+        ObjectWriter writer = this.taskViewWriter;
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                this.taskService.streamAllByUserId(userId, task -> {
+                    try {
+                        writer.writeValue(generator, task);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
+    // Feed de alterações (Server-Sent Events) das tarefas do usuário, para
+    // substituir o polling da listagem: eventos "created", "updated" e
+    // "deleted" com a tarefa alterada. Ao reconectar, o navegador envia o
+    // Last-Event-ID e recebe o que perdeu; um evento "reset" indica que é
+    // preciso recarregar a lista inteira.
+    @GetMapping(value = "/user/{userId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(
+            @PathVariable long userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        userService.findById(userId);
+        return this.taskFeed.subscribe(userId, lastEventId);
+    }
+
+    // Busca nas descrições das tarefas do usuário, ordenada por relevância:
+    // GET /tasks/search?userId=1&q=reuniao cliente&page=0&size=20
+    // Uma palavra terminada em '*' é buscada como prefixo (q=reun*).
+    @GetMapping("/search")
+    public ResponseEntity<TaskSearchResult> search(
+            @RequestParam long userId,
+            @RequestParam @NotBlank @Size(max = 255) String q,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        userService.findById(userId);
+        TaskSearchResult result = this.taskSearchService.search(userId, q, page, size);
+        return ResponseEntity.ok().body(result);
+    }
+
+    // Exportação em NDJSON (um JSON por linha) das tarefas de um usuário, ou de
+    // todas quando userId não é informado: GET /tasks/export?userId=1
+    // As linhas saem de um cursor JDBC só de avanço, como projeções que não
+    // entram no contexto de persistência, então a memória não cresce com o
+    // tamanho da exportação. Com Accept-Encoding: gzip a saída é comprimida.
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) Long userId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (Objects.nonNull(userId)) {
+            userService.findById(userId);
+        }
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ObjectWriter writer = this.taskViewWriter;
+        StreamingResponseBody body = responseStream -> {
+            OutputStream outputStream = gzip
+                    ? new GZIPOutputStream(responseStream, EXPORT_BUFFER_SIZE)
+                    : responseStream;
+            try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                Consumer<TaskView> line = task -> {
+                    try {
+                        writer.writeValue(generator, task);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                };
+                if (Objects.nonNull(userId)) {
+                    this.taskService.streamAllByUserId(userId, line);
+                } else {
+                    this.taskService.streamAll(line);
+                }
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("tasks.ndjson").build().toString())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // Com app.tasks.group-commit.enabled=true a criação é gravada junto com as
+    // de outras requisições (ver TaskWriteBuffer)
     @PostMapping
     @Validated
     public ResponseEntity<Void> create(@Valid @RequestBody Task obj) {
         try {
-            this.taskService.create(obj);
+            this.taskWriteBuffer.create(obj);
             URI uri = ServletUriComponentsBuilder.fromCurrentRequest()
                     .path("/{id}").buildAndExpand(obj.getId()).toUri();
             return ResponseEntity.created(uri).build();
@@ -84,11 +256,15 @@ public class TaskController {
 
     @PutMapping("/{id}")
     @Validated
-    public ResponseEntity<Task> update(@Valid @RequestBody Task obj, @PathVariable Long id) {
+    public ResponseEntity<Task> update(@Valid @RequestBody Task obj, @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
             obj.setId(id);
-            this.taskService.update(obj);
-            return ResponseEntity.noContent().build();
+            Task updated = this.taskService.update(obj, ETags.parseIfMatch(ifMatch));
+            return ResponseEntity.noContent().eTag(ETags.of(updated.getVersion())).build();
+        } catch (PreconditionFailedException | OptimisticLockingFailureException e) {
+            // Conflitos de versão seguem para o GlobalExceptionHandler (412/409)
+            throw e;
         } catch (Exception e) {
             // Comentário: O método de atualização está sendo tratado de maneira muito
             // genérica. Se a tarefa não for encontrada,
@@ -115,4 +291,38 @@ public class TaskController {
             return ResponseEntity.status(400).build(); // Por exemplo, 400 Bad Request
         }
     }
+
+    // Operações em lote: cada item recebe seu próprio resultado no relatório,
+    // na mesma posição em que veio na requisição.
+    @PostMapping("/batch")
+    public ResponseEntity<BatchReport> createBatch(
+            @RequestBody @Size(max = TaskBatchService.MAX_OPERATIONS) List<Task> objs) {
+        return ResponseEntity.ok().body(new BatchReport(this.taskBatchService.create(objs)));
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<BatchReport> updateBatch(
+            @RequestBody @Size(max = TaskBatchService.MAX_OPERATIONS) List<Task> objs) {
+        return ResponseEntity.ok().body(new BatchReport(this.taskBatchService.update(objs)));
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<BatchReport> deleteBatch(
+            @RequestBody @Size(max = TaskBatchService.MAX_OPERATIONS) List<Long> ids) {
+        return ResponseEntity.ok().body(new BatchReport(this.taskBatchService.delete(ids)));
+    }
+
+    // Aceita gzip se ele aparece no Accept-Encoding sem q=0
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (Objects.isNull(acceptEncoding)) {
+            return false;
+        }
+        for (String encoding : acceptEncoding.split(",")) {
+            String[] parts = encoding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
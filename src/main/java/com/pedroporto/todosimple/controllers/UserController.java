@@ -5,6 +5,8 @@ import java.net.URI;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -20,20 +23,35 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import com.pedroporto.todosimple.models.User;
 import com.pedroporto.todosimple.models.User.CreateUser;
 import com.pedroporto.todosimple.models.User.UpdateUser;
+import com.pedroporto.todosimple.models.UserTaskStats;
+import com.pedroporto.todosimple.models.dto.Credentials;
+import com.pedroporto.todosimple.services.TaskStatsService;
 import com.pedroporto.todosimple.services.UserService;
 
 @RestController
 @RequestMapping("/users")
 @Validated
+@Profile("!reactive")
 public class UserController {
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TaskStatsService taskStatsService;
+
+    // Com If-None-Match igual ao ETag a resposta é um 304 sem corpo
     @GetMapping("/{id}")
     public ResponseEntity<User> findById(@PathVariable Long id) {
         User user = this.userService.findById(id);
-        return ResponseEntity.ok().body(user);
+        return ResponseEntity.ok().eTag(ETags.of(user.getVersion())).body(user);
+    }
+
+    // Contagem de tarefas do usuário, lida de um contador mantido a cada
+    // escrita em vez de carregar a lista inteira
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<UserTaskStats> stats(@PathVariable Long id) {
+        return ResponseEntity.ok().body(this.taskStatsService.findByUserId(id));
     }
 
     // Comentário: A responsabilidade de encontrar um usuário deve ser delegada para
@@ -57,6 +75,13 @@ public class UserController {
         return ResponseEntity.created(uri).build();
     }
 
+    // 204 se usuário e senha conferem, 401 caso contrário
+    @PostMapping("/login")
+    public ResponseEntity<Void> login(@Valid @RequestBody Credentials credentials) {
+        this.userService.authenticate(credentials.username(), credentials.password());
+        return ResponseEntity.noContent().build();
+    }
+
     // Comentário: No método `create`, a validação personalizada para o
     // **CreateUser** já é
     // aplicada, o que está correto.
@@ -70,10 +95,11 @@ public class UserController {
     // de serviço.
     @PutMapping("/{id}")
     @Validated(UpdateUser.class)
-    public ResponseEntity<Void> update(@PathVariable Long id, @Valid @RequestBody User user) {
+    public ResponseEntity<Void> update(@PathVariable Long id, @Valid @RequestBody User user,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         user.setId(id);
-        this.userService.update(user);
-        return ResponseEntity.noContent().build();
+        User updated = this.userService.update(user, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.noContent().eTag(ETags.of(updated.getVersion())).build();
     }
 
     // Comentário: O método `update` está tratando o ID corretamente, mas o controle
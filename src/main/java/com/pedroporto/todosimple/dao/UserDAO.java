@@ -2,9 +2,17 @@ package com.pedroporto.todosimple.dao;
 
 import com.pedroporto.todosimple.models.User;
 import com.pedroporto.todosimple.repositories.UserRepository;
+import com.pedroporto.todosimple.sharding.ShardContext;
+import com.pedroporto.todosimple.sharding.ShardDirectory;
+import com.pedroporto.todosimple.sharding.ShardScope;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
@@ -12,10 +20,13 @@ public class UserDAO {
 
     private final UserRepository userRepository;
 
+    private final ShardDirectory shardDirectory;
+
     // Injeção de dependência do UserRepository
     @Autowired
-    public UserDAO(UserRepository userRepository) {
+    public UserDAO(UserRepository userRepository, ShardDirectory shardDirectory) {
         this.userRepository = userRepository;
+        this.shardDirectory = shardDirectory;
     }
 
     // Método para encontrar um usuário por ID
@@ -23,6 +34,33 @@ public class UserDAO {
         return userRepository.findById(id);
     }
 
+    // Método para buscar vários usuários de uma vez; com sharding, uma
+    // consulta por shard envolvido
+    public List<User> findAllById(Collection<Long> ids) {
+        if (!this.shardDirectory.isSharded()) {
+            return userRepository.findAllById(ids);
+        }
+        Map<Integer, List<Long>> idsByShard = new HashMap<>();
+        Map<Integer, ShardScope> scopes = new HashMap<>();
+        for (Long id : ids) {
+            ShardScope scope = this.shardDirectory.scopeForUser(id);
+            idsByShard.computeIfAbsent(scope.shard(), key -> new ArrayList<>()).add(id);
+            scopes.putIfAbsent(scope.shard(), scope);
+        }
+        List<User> users = new ArrayList<>();
+        idsByShard.forEach((shard, shardIds) -> users.addAll(
+                ShardContext.call(scopes.get(shard), () -> userRepository.findAllById(shardIds))));
+        return users;
+    }
+
+    // Método para buscar vários usuários pelo username de uma vez. O username
+    // não diz o shard, então a consulta vai a todos eles.
+    public List<User> findAllByUsername(Collection<String> usernames) {
+        List<User> users = new ArrayList<>();
+        this.shardDirectory.forEachShard(() -> users.addAll(userRepository.findAllByUsernameIn(usernames)));
+        return users;
+    }
+
     // Método para salvar um usuário
     public User save(User user) {
         return userRepository.save(user);
@@ -0,0 +1,141 @@
+package com.pedroporto.todosimple.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+// Limita quantas threads podem estar ao mesmo tempo dentro do pool de
+// conexões. Com threads virtuais, milhares de requisições podem pedir uma
+// conexão ao mesmo tempo; sem esse limite todas entram no pool e no driver
+// JDBC (que usa blocos synchronized e prende a thread portadora). Aqui as
+// excedentes esperam numa fila justa, sem ocupar thread portadora, e
+// desistem depois do tempo limite.
+//
+// Uma thread que já segura uma conexão não disputa nova permissão: o
+// gerador de ids por tabela do Hibernate abre uma segunda conexão isolada no
+// meio da transação. Com o limite abaixo do tamanho do pool, essa conexão
+// aninhada sempre encontra uma livre em vez de travar o pool inteiro.
+//
+// Cada pool tem o seu (ver BoundedPools): o limite só faz sentido junto do
+// pool que ele protege.
+public class BoundedDataSource extends DelegatingDataSource {
+
+    private final String name;
+
+    private final Semaphore permits;
+
+    // Conexões abertas (e ainda não fechadas) pela thread atual
+    private final ThreadLocal<int[]> held = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final long acquireTimeoutMillis;
+
+    public BoundedDataSource(String name, DataSource targetDataSource, int maxConnections,
+            long acquireTimeoutMillis) {
+        super(targetDataSource);
+        this.name = name;
+        this.permits = new Semaphore(maxConnections, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        boolean nested = acquire();
+        try {
+            return guard(super.getConnection(), nested);
+        } catch (SQLException | RuntimeException e) {
+            release(nested);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        boolean nested = acquire();
+        try {
+            return guard(super.getConnection(username, password), nested);
+        } catch (SQLException | RuntimeException e) {
+            release(nested);
+            throw e;
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getAvailablePermits() {
+        return this.permits.availablePermits();
+    }
+
+    public int getQueueLength() {
+        return this.permits.getQueueLength();
+    }
+
+    // Retorna true quando a conexão é aninhada e não consumiu permissão
+    private boolean acquire() throws SQLException {
+        int[] count = this.held.get();
+        if (count[0] > 0) {
+            count[0]++;
+            return true;
+        }
+        try {
+            if (!this.permits.tryAcquire(this.acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Connection is not available, request timed out after " + this.acquireTimeoutMillis + "ms.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+        count[0]++;
+        return false;
+    }
+
+    private void release(boolean nested) {
+        int[] count = this.held.get();
+        if (count[0] > 0) {
+            count[0]--;
+        }
+        if (!nested) {
+            this.permits.release();
+        }
+    }
+
+    // Devolve a permissão quando a conexão é fechada (uma única vez)
+    private Connection guard(Connection connection, boolean nested) {
+        AtomicBoolean released = new AtomicBoolean();
+        InvocationHandler handler = (Object proxy, Method method, Object[] args) -> {
+            if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                try {
+                    connection.close();
+                } finally {
+                    release(nested);
+                }
+                return null;
+            }
+            if ("unwrap".equals(method.getName()) || "isWrapperFor".equals(method.getName())) {
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return "unwrap".equals(method.getName()) ? proxy : true;
+                }
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, handler);
+    }
+}
@@ -0,0 +1,44 @@
+package com.pedroporto.todosimple.datasource;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.DataSource;
+
+// Os pools de conexão da aplicação, cada um atrás do seu BoundedDataSource:
+// o da autoconfiguração e os criados para réplicas e shards. Todos usam o
+// mesmo limite, maximum-pool-size menos as conexões reservadas.
+public class BoundedPools {
+
+    private final List<BoundedDataSource> pools = new CopyOnWriteArrayList<>();
+
+    private final int maxConnections;
+
+    private final long acquireTimeoutMillis;
+
+    public BoundedPools(int maxConnections, long acquireTimeoutMillis) {
+        this.maxConnections = maxConnections;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public BoundedDataSource bound(String name, DataSource pool) {
+        BoundedDataSource bounded = new BoundedDataSource(name, pool, this.maxConnections, this.acquireTimeoutMillis);
+        this.pools.add(bounded);
+        return bounded;
+    }
+
+    public List<BoundedDataSource> getPools() {
+        return List.copyOf(this.pools);
+    }
+
+    // Threads esperando conexão no pool mais disputado. Um único shard ou
+    // réplica saturado basta: as requisições que chegam a ele só aumentariam
+    // a fila.
+    public int getQueueLength() {
+        int queueLength = 0;
+        for (BoundedDataSource pool : this.pools) {
+            queueLength = Math.max(queueLength, pool.getQueueLength());
+        }
+        return queueLength;
+    }
+}
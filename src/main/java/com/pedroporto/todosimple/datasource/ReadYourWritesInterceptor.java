@@ -0,0 +1,82 @@
+package com.pedroporto.todosimple.datasource;
+
+import java.util.Objects;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+// Leia-suas-escritas com réplicas: depois de um commit de escrita, a resposta
+// leva um cookie válido por `stickyMillis` (pelo menos o atraso máximo
+// tolerado das réplicas). Enquanto o cliente enviar esse cookie, as leituras
+// dele vão para o primário e enxergam o que ele acabou de gravar.
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String COOKIE_NAME = "read-primary-until";
+
+    private final long stickyMillis;
+
+    public ReadYourWritesInterceptor(long stickyMillis) {
+        this.stickyMillis = stickyMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (isSticky(request)) {
+            ReplicaRoutingDataSource.stickToPrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        ReplicaRoutingDataSource.clearSticky();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        ReplicaRoutingDataSource.clearSticky();
+    }
+
+    // Chamado pelo ReplicaRoutingDataSource depois de cada commit de escrita;
+    // fora de uma requisição (tarefas agendadas, threads próprias) não faz nada
+    public void onWrite() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        ReplicaRoutingDataSource.stickToPrimary();
+        HttpServletResponse response = attributes.getResponse();
+        if (Objects.isNull(response) || response.isCommitted()) {
+            return;
+        }
+        long until = System.currentTimeMillis() + this.stickyMillis;
+        Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(until));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, (this.stickyMillis + 999) / 1000));
+        response.addCookie(cookie);
+    }
+
+    private static boolean isSticky(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (Objects.isNull(cookies)) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,74 @@
+package com.pedroporto.todosimple.datasource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Envia as transações @Transactional(readOnly = true) para uma réplica e todo
+// o resto para o primário. A escolha é feita quando a conexão física é
+// pedida, então este DataSource precisa ficar atrás de um
+// LazyConnectionDataSourceProxy: só assim a transação já está marcada como
+// somente leitura nesse momento.
+//
+// Leia-suas-escritas: a thread marcada com stickToPrimary() lê do primário,
+// e o writeListener é avisado depois de cada commit de escrita para que o
+// chamador possa marcar as próximas requisições (ver ReadYourWritesInterceptor).
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> STICKY = new ThreadLocal<>();
+
+    private final ReplicaSet replicaSet;
+
+    private volatile Runnable writeListener = () -> {
+    };
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaSet replicaSet) {
+        this.replicaSet = replicaSet;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicaSet.getReplicas().forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public static void stickToPrimary() {
+        STICKY.set(Boolean.TRUE);
+    }
+
+    public static void clearSticky() {
+        STICKY.remove();
+    }
+
+    public void setWriteListener(Runnable writeListener) {
+        this.writeListener = Objects.requireNonNull(writeListener);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (Boolean.TRUE.equals(STICKY.get())) {
+                return PRIMARY;
+            }
+            ReplicaSet.Replica replica = this.replicaSet.pick();
+            return Objects.isNull(replica) ? PRIMARY : replica.getName();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    writeListener.run();
+                }
+            });
+        }
+        return PRIMARY;
+    }
+}
@@ -0,0 +1,164 @@
+package com.pedroporto.todosimple.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Réplicas de leitura e o estado de cada uma. A verificação periódica grava
+// um batimento (o horário atual) na tabela replica_heartbeat do primário e
+// lê o valor que chegou em cada réplica: réplica sem conexão, sem a tabela ou
+// com o batimento mais atrasado que `maxLagMillis` não recebe leituras.
+// Se a verificação parar de rodar, o estado fica velho depois de
+// `maxCheckAgeMillis` e as leituras também voltam para o primário. A tabela
+// vem das migrações (V6) e chega às réplicas pela própria replicação.
+@Slf4j
+public class ReplicaSet {
+
+    static final String HEARTBEAT_TABLE = "replica_heartbeat";
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final long maxLagMillis;
+
+    private final long maxCheckAgeMillis;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    // Último batimento gravado no primário com sucesso
+    private volatile long lastBeat;
+
+    public ReplicaSet(DataSource primary, Map<String, DataSource> replicas, long maxLagMillis,
+            long maxCheckAgeMillis) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .toList();
+        this.maxLagMillis = maxLagMillis;
+        this.maxCheckAgeMillis = maxCheckAgeMillis;
+    }
+
+    public List<Replica> getReplicas() {
+        return this.replicas;
+    }
+
+    // Próxima réplica utilizável em rodízio, ou null para usar o primário
+    public Replica pick() {
+        long now = System.currentTimeMillis();
+        int start = Math.floorMod(this.next.getAndIncrement(), Math.max(1, this.replicas.size()));
+        for (int i = 0; i < this.replicas.size(); i++) {
+            Replica replica = this.replicas.get((start + i) % this.replicas.size());
+            if (replica.isUsable(now, this.maxLagMillis, this.maxCheckAgeMillis)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    // As réplicas são lidas antes do novo batimento: uma réplica em dia já
+    // tem o batimento anterior. O atraso é estimado para cima (em até um
+    // intervalo de verificação), nunca para baixo.
+    public void check() {
+        long now = System.currentTimeMillis();
+        for (Replica replica : this.replicas) {
+            try {
+                long beat = readBeat(replica.getDataSource());
+                // Antes do primeiro batimento desta execução vale o horário lido
+                long lag = this.lastBeat > 0 && beat >= this.lastBeat ? 0 : Math.max(0, now - beat);
+                replica.update(true, lag, now);
+            } catch (SQLException e) {
+                if (replica.isHealthy()) {
+                    log.warn("Replica " + replica.getName() + " is unavailable: " + e.getMessage());
+                }
+                replica.update(false, Long.MAX_VALUE, now);
+            }
+        }
+        try {
+            writeBeat(now);
+            this.lastBeat = now;
+        } catch (SQLException e) {
+            log.warn("Failed to write replication heartbeat: " + e.getMessage());
+        }
+    }
+
+    private long readBeat(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(
+                        "SELECT beat_at FROM " + HEARTBEAT_TABLE + " WHERE id = 1")) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    private void writeBeat(long beat) throws SQLException {
+        try (Connection connection = this.primary.getConnection()) {
+            connection.setAutoCommit(true);
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE " + HEARTBEAT_TABLE + " SET beat_at = ? WHERE id = 1")) {
+                update.setLong(1, beat);
+                if (update.executeUpdate() > 0) {
+                    return;
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO " + HEARTBEAT_TABLE + " (id, beat_at) VALUES (1, ?)")) {
+                insert.setLong(1, beat);
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    public static class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean healthy;
+
+        private volatile long lagMillis = Long.MAX_VALUE;
+
+        private volatile long checkedAt;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public DataSource getDataSource() {
+            return this.dataSource;
+        }
+
+        public boolean isHealthy() {
+            return this.healthy;
+        }
+
+        public long getLagMillis() {
+            return this.lagMillis;
+        }
+
+        void update(boolean healthy, long lagMillis, long checkedAt) {
+            this.healthy = healthy;
+            this.lagMillis = lagMillis;
+            this.checkedAt = checkedAt;
+        }
+
+        boolean isUsable(long now, long maxLagMillis, long maxCheckAgeMillis) {
+            return this.healthy && this.lagMillis <= maxLagMillis && now - this.checkedAt <= maxCheckAgeMillis;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.pedroporto.todosimple.exceptions;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Limita os logs do GlobalExceptionHandler a `limit` por tipo de exceção a
+// cada `interval`. Os excedentes são só contados e o total aparece no
+// próximo log permitido do mesmo tipo, para que uma rajada de erros (um
+// cliente varrendo ids apagados, por exemplo) não vire uma rajada de I/O.
+class ErrorLogSampler {
+
+    static final long SUPPRESSED = -1;
+
+    private final long intervalNanos;
+
+    private final int limit;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    ErrorLogSampler(int limit, Duration interval) {
+        this.limit = limit;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    // SUPPRESSED se o log deve ser descartado; senão, quantos do mesmo tipo
+    // foram descartados desde o último log
+    long tryAcquire(String key) {
+        return this.windows.computeIfAbsent(key, k -> new Window()).tryAcquire(System.nanoTime());
+    }
+
+    private final class Window {
+
+        private long start = System.nanoTime() - intervalNanos;
+
+        private int logged;
+
+        private long suppressed;
+
+        synchronized long tryAcquire(long now) {
+            if (now - this.start >= intervalNanos) {
+                this.start = now;
+                this.logged = 0;
+            }
+            if (this.logged >= limit) {
+                this.suppressed++;
+                return SUPPRESSED;
+            }
+            this.logged++;
+            long previouslySuppressed = this.suppressed;
+            this.suppressed = 0;
+            return previouslySuppressed;
+        }
+    }
+}
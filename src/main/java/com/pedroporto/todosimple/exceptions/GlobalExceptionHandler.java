@@ -1,9 +1,17 @@
 package com.pedroporto.todosimple.exceptions;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
 import javax.validation.ConstraintViolationException;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,18 +23,67 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import com.pedroporto.todosimple.admission.AdmissionRejectedException;
+import com.pedroporto.todosimple.services.exceptions.AuthenticationFailedException;
 import com.pedroporto.todosimple.services.exceptions.DataBindingViolationException;
+import com.pedroporto.todosimple.services.exceptions.InvalidCursorException;
 import com.pedroporto.todosimple.services.exceptions.ObjectNotFoundException;
+import com.pedroporto.todosimple.services.exceptions.PreconditionFailedException;
+import com.pedroporto.todosimple.sharding.ShardMovingException;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
+// Erros inesperados são logados em ERROR com a pilha; respostas esperadas
+// (404, 412, 409 de versão ou de integridade...) em WARN, só com a mensagem. Os dois passam
+// pelo ErrorLogSampler, e toda exceção tratada conta em `app.exceptions`.
 @Slf4j(topic = "GLOBAL_EXCEPTION_HANDLER")
 @RestControllerAdvice
+@Profile("!reactive")
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
+    private static final String UNKNOWN_ERROR_MESSAGE = "Unknown error occurred";
+
+    private static final String CONCURRENT_MODIFICATION_MESSAGE =
+            "O registro foi alterado por outra requisição. Busque-o novamente e repita a operação.";
+
+    // A mensagem do banco (nomes de índices e colunas, valores) fica só no log
+    private static final String INTEGRITY_VIOLATION_MESSAGE =
+            "O registro viola uma restrição do banco de dados, como um valor que já existe.";
+
     @Value("${server.error.include-exception}")
     private boolean printStackTrace;
 
+    @Value("${app.exceptions.log.limit:10}")
+    private int logLimit;
+
+    @Value("${app.exceptions.log.interval:PT1M}")
+    private Duration logInterval;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ErrorLogSampler errorLogSampler;
+
+    // Um contador por tipo de exceção e status, criado na primeira ocorrência
+    private final Map<String, Counter> exceptionCounters = new ConcurrentHashMap<>();
+
+    // Logs descartados pelo ErrorLogSampler, por tipo de exceção
+    private final Map<String, Counter> suppressedLogCounters = new ConcurrentHashMap<>();
+
+    // Corpos prontos das respostas de mensagem fixa, compartilhados entre as
+    // requisições (nunca alterados depois de criados)
+    private final Map<String, ErrorResponse> commonResponses = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        this.errorLogSampler = new ErrorLogSampler(this.logLimit, this.logInterval);
+        commonResponse(HttpStatus.INTERNAL_SERVER_ERROR, UNKNOWN_ERROR_MESSAGE);
+        commonResponse(HttpStatus.CONFLICT, CONCURRENT_MODIFICATION_MESSAGE);
+        commonResponse(HttpStatus.CONFLICT, INTEGRITY_VIOLATION_MESSAGE);
+    }
+
     @Override
     @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
     protected ResponseEntity<Object> handleMethodArgumentNotValid(
@@ -34,6 +91,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
             HttpHeaders headers,
             HttpStatus status,
             WebRequest request) {
+        countException(methodArgumentNotValidException, HttpStatus.UNPROCESSABLE_ENTITY);
         ErrorResponse errorResponse = new ErrorResponse(
                 HttpStatus.UNPROCESSABLE_ENTITY.value(),
                 "Validation error. Check 'errors' field for details.");
@@ -43,16 +101,27 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.unprocessableEntity().body(errorResponse);
     }
 
+    // Exceções padrão do Spring MVC (método não suportado, corpo ilegível...)
+    @Override
+    protected ResponseEntity<Object> handleExceptionInternal(
+            Exception exception,
+            Object body,
+            HttpHeaders headers,
+            HttpStatus status,
+            WebRequest request) {
+        countException(exception, status);
+        return super.handleExceptionInternal(exception, body, headers, status, request);
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ResponseEntity<Object> handleAllUncaughtException(
             Exception exception,
             WebRequest request) {
-        final String errorMessage = "Unknown error occurred";
-        log.error(errorMessage, exception);
-        return buildErrorResponse(
+        logError(UNKNOWN_ERROR_MESSAGE, exception);
+        return buildCommonErrorResponse(
                 exception,
-                errorMessage,
+                UNKNOWN_ERROR_MESSAGE,
                 HttpStatus.INTERNAL_SERVER_ERROR,
                 request);
     }
@@ -62,11 +131,10 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<Object> handleDataIntegrityViolationException(
             DataIntegrityViolationException dataIntegrityViolationException,
             WebRequest request) {
-        String errorMessage = dataIntegrityViolationException.getMostSpecificCause().getMessage();
-        log.error("Failed to save entity with integrity problems: " + errorMessage, dataIntegrityViolationException);
-        return buildErrorResponse(
+        logWarn("Failed to save entity with integrity problems", dataIntegrityViolationException);
+        return buildCommonErrorResponse(
                 dataIntegrityViolationException,
-                errorMessage,
+                INTEGRITY_VIOLATION_MESSAGE,
                 HttpStatus.CONFLICT,
                 request);
     }
@@ -76,7 +144,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<Object> handleConstraintViolationException(
             ConstraintViolationException constraintViolationException,
             WebRequest request) {
-        log.error("Failed to validate element", constraintViolationException);
+        logWarn("Failed to validate element", constraintViolationException);
         return buildErrorResponse(
                 constraintViolationException,
                 HttpStatus.UNPROCESSABLE_ENTITY,
@@ -88,25 +156,103 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<Object> handleObjectNotFoundException(
             ObjectNotFoundException objectNotFoundException,
             WebRequest request) {
-        log.error("Failed to find the requested element", objectNotFoundException);
+        logWarn("Failed to find the requested element", objectNotFoundException);
         return buildErrorResponse(
                 objectNotFoundException,
                 HttpStatus.NOT_FOUND,
                 request);
     }
 
+    @ExceptionHandler(AuthenticationFailedException.class)
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    public ResponseEntity<Object> handleAuthenticationFailedException(
+            AuthenticationFailedException authenticationFailedException,
+            WebRequest request) {
+        logWarn("Failed to authenticate a user", authenticationFailedException);
+        return buildCommonErrorResponse(
+                authenticationFailedException,
+                authenticationFailedException.getMessage(),
+                HttpStatus.UNAUTHORIZED,
+                request);
+    }
+
     @ExceptionHandler(DataBindingViolationException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
     public ResponseEntity<Object> handleDataBindingViolationException(
             DataBindingViolationException dataBindingViolationException,
             WebRequest request) {
-        log.error("Failed to save entity with associated data", dataBindingViolationException);
+        logWarn("Failed to save entity with associated data", dataBindingViolationException);
         return buildErrorResponse(
                 dataBindingViolationException,
                 HttpStatus.CONFLICT,
                 request);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<Object> handleInvalidCursorException(
+            InvalidCursorException invalidCursorException,
+            WebRequest request) {
+        logWarn("Failed to decode pagination cursor", invalidCursorException);
+        return buildErrorResponse(
+                invalidCursorException,
+                HttpStatus.BAD_REQUEST,
+                request);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ResponseEntity<Object> handlePreconditionFailedException(
+            PreconditionFailedException preconditionFailedException,
+            WebRequest request) {
+        logWarn("Failed to match the expected version", preconditionFailedException);
+        return buildErrorResponse(
+                preconditionFailedException,
+                HttpStatus.PRECONDITION_FAILED,
+                request);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<Object> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException optimisticLockingFailureException,
+            WebRequest request) {
+        logWarn("Failed to save entity modified concurrently", optimisticLockingFailureException);
+        return buildCommonErrorResponse(
+                optimisticLockingFailureException,
+                CONCURRENT_MODIFICATION_MESSAGE,
+                HttpStatus.CONFLICT,
+                request);
+    }
+
+    @ExceptionHandler(ShardMovingException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<Object> handleShardMovingException(
+            ShardMovingException shardMovingException,
+            WebRequest request) {
+        logWarn("Rejected a write while the data moves between shards", shardMovingException);
+        return buildErrorResponse(
+                shardMovingException,
+                HttpStatus.SERVICE_UNAVAILABLE,
+                request);
+    }
+
+    // Recusas do controle de admissão são esperadas sob carga: sem log por
+    // requisição, só o contador de exceções
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<Object> handleAdmissionRejectedException(
+            AdmissionRejectedException admissionRejectedException,
+            WebRequest request) {
+        ResponseEntity<Object> response = buildCommonErrorResponse(
+                admissionRejectedException,
+                admissionRejectedException.getMessage(),
+                admissionRejectedException.getStatus(),
+                request);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(admissionRejectedException.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
     private ResponseEntity<Object> buildErrorResponse(
             Exception exception,
             HttpStatus httpStatus,
@@ -119,10 +265,73 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
             String message,
             HttpStatus httpStatus,
             WebRequest request) {
+        countException(exception, httpStatus);
         ErrorResponse errorResponse = new ErrorResponse(httpStatus.value(), message);
         if (this.printStackTrace) {
             errorResponse.setStackTrace(ExceptionUtils.getStackTrace(exception));
         }
         return ResponseEntity.status(httpStatus).body(errorResponse);
     }
+
+    // Só para mensagens fixas (sem ids ou valores da requisição), que são
+    // poucas: o corpo é montado uma vez e reaproveitado
+    private ResponseEntity<Object> buildCommonErrorResponse(
+            Exception exception,
+            String message,
+            HttpStatus httpStatus,
+            WebRequest request) {
+        if (this.printStackTrace) {
+            return buildErrorResponse(exception, message, httpStatus, request);
+        }
+        countException(exception, httpStatus);
+        return ResponseEntity.status(httpStatus).body(commonResponse(httpStatus, message));
+    }
+
+    private ErrorResponse commonResponse(HttpStatus httpStatus, String message) {
+        return this.commonResponses.computeIfAbsent(httpStatus.value() + " " + message,
+                key -> new ErrorResponse(httpStatus.value(), message));
+    }
+
+    private void logError(String message, Exception exception) {
+        long suppressed = sampleLog(exception);
+        if (suppressed != ErrorLogSampler.SUPPRESSED) {
+            log.error(withSuppressed(message, suppressed), exception);
+        }
+    }
+
+    private void logWarn(String message, Exception exception) {
+        long suppressed = sampleLog(exception);
+        if (suppressed != ErrorLogSampler.SUPPRESSED) {
+            log.warn(withSuppressed(message + ": " + exception.getMessage(), suppressed));
+        }
+    }
+
+    private long sampleLog(Exception exception) {
+        String exceptionName = exception.getClass().getSimpleName();
+        long suppressed = this.errorLogSampler.tryAcquire(exceptionName);
+        if (suppressed == ErrorLogSampler.SUPPRESSED) {
+            this.suppressedLogCounters.computeIfAbsent(exceptionName,
+                    key -> Counter.builder("app.exceptions.log.suppressed")
+                            .description("Exception logs dropped by the rate limit")
+                            .tag("exception", exceptionName)
+                            .register(this.meterRegistry))
+                    .increment();
+        }
+        return suppressed;
+    }
+
+    private static String withSuppressed(String message, long suppressed) {
+        return suppressed > 0 ? message + " (" + suppressed + " similar suppressed)" : message;
+    }
+
+    private void countException(Exception exception, HttpStatus httpStatus) {
+        String exceptionName = exception.getClass().getSimpleName();
+        this.exceptionCounters.computeIfAbsent(exceptionName + " " + httpStatus.value(),
+                key -> Counter.builder("app.exceptions")
+                        .description("Exceptions handled by the global exception handler")
+                        .tag("exception", exceptionName)
+                        .tag("status", String.valueOf(httpStatus.value()))
+                        .register(this.meterRegistry))
+                .increment();
+    }
 }
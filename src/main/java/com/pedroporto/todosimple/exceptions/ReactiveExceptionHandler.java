@@ -0,0 +1,239 @@
+package com.pedroporto.todosimple.exceptions;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+import javax.validation.ConstraintViolationException;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.pedroporto.todosimple.admission.AdmissionRejectedException;
+import com.pedroporto.todosimple.services.exceptions.AuthenticationFailedException;
+import com.pedroporto.todosimple.services.exceptions.DataBindingViolationException;
+import com.pedroporto.todosimple.services.exceptions.InvalidCursorException;
+import com.pedroporto.todosimple.services.exceptions.ObjectNotFoundException;
+import com.pedroporto.todosimple.services.exceptions.PreconditionFailedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// O GlobalExceptionHandler da pilha reativa: mesmos status, corpos
+// ErrorResponse, logs amostrados e contadores `app.exceptions`. As exceções
+// próprias do WebFlux (corpo ilegível, rota ou método inexistente) respondem
+// com o status delas e sem corpo, como as do Spring MVC.
+@Slf4j(topic = "GLOBAL_EXCEPTION_HANDLER")
+@RestControllerAdvice
+@Profile("reactive")
+public class ReactiveExceptionHandler {
+
+    private static final String UNKNOWN_ERROR_MESSAGE = "Unknown error occurred";
+
+    private static final String CONCURRENT_MODIFICATION_MESSAGE =
+            "O registro foi alterado por outra requisição. Busque-o novamente e repita a operação.";
+
+    // A mensagem do banco (nomes de índices e colunas, valores) fica só no log
+    private static final String INTEGRITY_VIOLATION_MESSAGE =
+            "O registro viola uma restrição do banco de dados, como um valor que já existe.";
+
+    @Value("${server.error.include-exception}")
+    private boolean printStackTrace;
+
+    @Value("${app.exceptions.log.limit:10}")
+    private int logLimit;
+
+    @Value("${app.exceptions.log.interval:PT1M}")
+    private Duration logInterval;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ErrorLogSampler errorLogSampler;
+
+    private final Map<String, Counter> exceptionCounters = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> suppressedLogCounters = new ConcurrentHashMap<>();
+
+    private final Map<String, ErrorResponse> commonResponses = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        this.errorLogSampler = new ErrorLogSampler(this.logLimit, this.logInterval);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Object> handleWebExchangeBindException(WebExchangeBindException webExchangeBindException) {
+        countException(webExchangeBindException, HttpStatus.UNPROCESSABLE_ENTITY);
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                "Validation error. Check 'errors' field for details.");
+        for (FieldError fieldError : webExchangeBindException.getBindingResult().getFieldErrors()) {
+            errorResponse.addValidationError(fieldError.getField(), fieldError.getDefaultMessage());
+        }
+        return ResponseEntity.unprocessableEntity().body(errorResponse);
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Object> handleResponseStatusException(ResponseStatusException responseStatusException) {
+        countException(responseStatusException, responseStatusException.getStatus());
+        return ResponseEntity.status(responseStatusException.getStatus())
+                .headers(responseStatusException.getResponseHeaders())
+                .build();
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<Object> handleAllUncaughtException(Exception exception) {
+        logError(UNKNOWN_ERROR_MESSAGE, exception);
+        return buildCommonErrorResponse(exception, UNKNOWN_ERROR_MESSAGE, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Object> handleDataIntegrityViolationException(
+            DataIntegrityViolationException dataIntegrityViolationException) {
+        logWarn("Failed to save entity with integrity problems", dataIntegrityViolationException);
+        return buildCommonErrorResponse(dataIntegrityViolationException, INTEGRITY_VIOLATION_MESSAGE,
+                HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<Object> handleConstraintViolationException(
+            ConstraintViolationException constraintViolationException) {
+        logWarn("Failed to validate element", constraintViolationException);
+        return buildErrorResponse(constraintViolationException, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @ExceptionHandler(ObjectNotFoundException.class)
+    public ResponseEntity<Object> handleObjectNotFoundException(ObjectNotFoundException objectNotFoundException) {
+        logWarn("Failed to find the requested element", objectNotFoundException);
+        return buildErrorResponse(objectNotFoundException, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(AuthenticationFailedException.class)
+    public ResponseEntity<Object> handleAuthenticationFailedException(
+            AuthenticationFailedException authenticationFailedException) {
+        logWarn("Failed to authenticate a user", authenticationFailedException);
+        return buildCommonErrorResponse(authenticationFailedException,
+                authenticationFailedException.getMessage(), HttpStatus.UNAUTHORIZED);
+    }
+
+    @ExceptionHandler(DataBindingViolationException.class)
+    public ResponseEntity<Object> handleDataBindingViolationException(
+            DataBindingViolationException dataBindingViolationException) {
+        logWarn("Failed to save entity with associated data", dataBindingViolationException);
+        return buildErrorResponse(dataBindingViolationException, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Object> handleInvalidCursorException(InvalidCursorException invalidCursorException) {
+        logWarn("Failed to decode pagination cursor", invalidCursorException);
+        return buildErrorResponse(invalidCursorException, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<Object> handlePreconditionFailedException(
+            PreconditionFailedException preconditionFailedException) {
+        logWarn("Failed to match the expected version", preconditionFailedException);
+        return buildErrorResponse(preconditionFailedException, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException optimisticLockingFailureException) {
+        logWarn("Failed to save entity modified concurrently", optimisticLockingFailureException);
+        return buildCommonErrorResponse(optimisticLockingFailureException,
+                CONCURRENT_MODIFICATION_MESSAGE, HttpStatus.CONFLICT);
+    }
+
+    // O PasswordHasher recusa hashes com a fila cheia (503)
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<Object> handleAdmissionRejectedException(
+            AdmissionRejectedException admissionRejectedException) {
+        ResponseEntity<Object> response = buildCommonErrorResponse(admissionRejectedException,
+                admissionRejectedException.getMessage(), admissionRejectedException.getStatus());
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(admissionRejectedException.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
+    private ResponseEntity<Object> buildErrorResponse(Exception exception, HttpStatus httpStatus) {
+        return buildErrorResponse(exception, exception.getMessage(), httpStatus);
+    }
+
+    private ResponseEntity<Object> buildErrorResponse(Exception exception, String message, HttpStatus httpStatus) {
+        countException(exception, httpStatus);
+        ErrorResponse errorResponse = new ErrorResponse(httpStatus.value(), message);
+        if (this.printStackTrace) {
+            errorResponse.setStackTrace(ExceptionUtils.getStackTrace(exception));
+        }
+        return ResponseEntity.status(httpStatus).body(errorResponse);
+    }
+
+    private ResponseEntity<Object> buildCommonErrorResponse(Exception exception, String message,
+            HttpStatus httpStatus) {
+        if (this.printStackTrace) {
+            return buildErrorResponse(exception, message, httpStatus);
+        }
+        countException(exception, httpStatus);
+        ErrorResponse errorResponse = this.commonResponses.computeIfAbsent(httpStatus.value() + " " + message,
+                key -> new ErrorResponse(httpStatus.value(), message));
+        return ResponseEntity.status(httpStatus).body(errorResponse);
+    }
+
+    private void logError(String message, Exception exception) {
+        long suppressed = sampleLog(exception);
+        if (suppressed != ErrorLogSampler.SUPPRESSED) {
+            log.error(withSuppressed(message, suppressed), exception);
+        }
+    }
+
+    private void logWarn(String message, Exception exception) {
+        long suppressed = sampleLog(exception);
+        if (suppressed != ErrorLogSampler.SUPPRESSED) {
+            log.warn(withSuppressed(message + ": " + exception.getMessage(), suppressed));
+        }
+    }
+
+    private long sampleLog(Exception exception) {
+        String exceptionName = exception.getClass().getSimpleName();
+        long suppressed = this.errorLogSampler.tryAcquire(exceptionName);
+        if (suppressed == ErrorLogSampler.SUPPRESSED) {
+            this.suppressedLogCounters.computeIfAbsent(exceptionName,
+                    key -> Counter.builder("app.exceptions.log.suppressed")
+                            .description("Exception logs dropped by the rate limit")
+                            .tag("exception", exceptionName)
+                            .register(this.meterRegistry))
+                    .increment();
+        }
+        return suppressed;
+    }
+
+    private static String withSuppressed(String message, long suppressed) {
+        return suppressed > 0 ? message + " (" + suppressed + " similar suppressed)" : message;
+    }
+
+    private void countException(Exception exception, HttpStatus httpStatus) {
+        String exceptionName = exception.getClass().getSimpleName();
+        this.exceptionCounters.computeIfAbsent(exceptionName + " " + httpStatus.value(),
+                key -> Counter.builder("app.exceptions")
+                        .description("Exceptions handled by the global exception handler")
+                        .tag("exception", exceptionName)
+                        .tag("status", String.valueOf(httpStatus.value()))
+                        .register(this.meterRegistry))
+                .increment();
+    }
+}
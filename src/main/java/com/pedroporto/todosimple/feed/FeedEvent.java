@@ -0,0 +1,9 @@
+package com.pedroporto.todosimple.feed;
+
+// Evento já serializado, pronto para ser enviado a qualquer assinante: o
+// JSON é gerado uma única vez, não uma vez por conexão.
+record FeedEvent(long sequence, Long userId, String name, String data) {
+
+    // Comentário SSE enviado periodicamente para manter a conexão viva
+    static final FeedEvent HEARTBEAT = new FeedEvent(-1, null, null, null);
+}
@@ -0,0 +1,106 @@
+package com.pedroporto.todosimple.feed;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Uma conexão SSE aberta. Os eventos entram numa fila limitada e são
+// escritos na resposta por uma tarefa no executor, que só existe enquanto
+// há algo a enviar: um assinante ocioso não ocupa thread nenhuma.
+class Subscriber {
+
+    private final Long userId;
+
+    private final String epoch;
+
+    private final SseEmitter emitter;
+
+    private final int capacity;
+
+    private final Executor executor;
+
+    private final Queue<FeedEvent> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private volatile boolean closed;
+
+    Subscriber(Long userId, String epoch, SseEmitter emitter, int capacity, Executor executor) {
+        this.userId = userId;
+        this.epoch = epoch;
+        this.emitter = emitter;
+        this.capacity = capacity;
+        this.executor = executor;
+    }
+
+    Long getUserId() {
+        return this.userId;
+    }
+
+    // Retorna false quando a fila está cheia, ou seja, o cliente não está
+    // acompanhando o ritmo dos eventos
+    boolean offer(FeedEvent event) {
+        if (this.closed) {
+            return true;
+        }
+        if (this.size.incrementAndGet() > this.capacity) {
+            this.size.decrementAndGet();
+            return false;
+        }
+        this.queue.add(event);
+        if (this.draining.compareAndSet(false, true)) {
+            this.executor.execute(this::drain);
+        }
+        return true;
+    }
+
+    // Encerra a conexão; o EventSource do navegador reconecta sozinho
+    // enviando o Last-Event-ID do último evento que recebeu
+    void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.queue.clear();
+        try {
+            this.emitter.complete();
+        } catch (RuntimeException e) {
+            // A conexão já estava encerrada
+        }
+    }
+
+    private void drain() {
+        try {
+            FeedEvent event;
+            while (!this.closed && (event = this.queue.poll()) != null) {
+                this.size.decrementAndGet();
+                send(event);
+            }
+        } catch (Exception e) {
+            close();
+        } finally {
+            this.draining.set(false);
+            // Um evento pode ter chegado entre o último poll e a liberação
+            if (!this.closed && !this.queue.isEmpty() && this.draining.compareAndSet(false, true)) {
+                this.executor.execute(this::drain);
+            }
+        }
+    }
+
+    private void send(FeedEvent event) throws Exception {
+        if (event == FeedEvent.HEARTBEAT) {
+            this.emitter.send(SseEmitter.event().comment("heartbeat"));
+            return;
+        }
+        this.emitter.send(SseEmitter.event()
+                .id(this.epoch + "-" + event.sequence())
+                .name(event.name())
+                .data(event.data()));
+    }
+}
@@ -0,0 +1,262 @@
+package com.pedroporto.todosimple.feed;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pedroporto.todosimple.services.events.TaskChangedEvent;
+import com.pedroporto.todosimple.services.events.TaskListsChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// Distribui as alterações de tarefas (após o commit) para as conexões SSE
+// abertas do dono da tarefa. Os últimos `app.feed.replay-size` eventos ficam
+// num buffer circular para que um cliente que reconecta com Last-Event-ID
+// receba o que perdeu; se o que ele perdeu já saiu do buffer (ou o servidor
+// reiniciou), recebe um evento "reset" e deve recarregar a lista inteira.
+//
+// Os ids dos eventos são "<epoch>-<sequência>", em que epoch identifica esta
+// execução do servidor.
+//
+// Com várias instâncias, cada uma só conhece em detalhe as escritas que ela
+// mesma fez. As das outras chegam pela outbox de invalidação
+// (TaskListsChangedEvent, com app.cache.invalidation.enabled) sem o conteúdo
+// da tarefa, então viram um "reset" para os assinantes do usuário afetado.
+// Sem a outbox o feed só vê as escritas desta instância.
+@Slf4j
+@Component
+public class TaskFeed {
+
+    static final String RESET = "reset";
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final FeedEvent[] replay;
+
+    // Protege a sequência, o buffer circular e a entrega aos assinantes, para
+    // que todo assinante receba os eventos na ordem da sequência
+    private final Object lock = new Object();
+
+    private long sequence;
+
+    // Reconexões com Last-Event-ID anterior a esta sequência recebem "reset":
+    // houve alterações em outra instância que não se sabe de quem eram
+    private long resetSequence;
+
+    private final int bufferSize;
+
+    private final long timeoutMillis;
+
+    private final ObjectMapper objectMapper;
+
+    private final AsyncTaskExecutor executor;
+
+    private final Counter dropped;
+
+    @Autowired
+    public TaskFeed(ObjectMapper objectMapper,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor executor,
+            MeterRegistry meterRegistry,
+            @Value("${app.feed.replay-size:10000}") int replaySize,
+            @Value("${app.feed.buffer-size:256}") int bufferSize,
+            @Value("${app.feed.timeout:PT30M}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.replay = new FeedEvent[replaySize];
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        Gauge.builder("app.feed.subscribers", this.subscriberCount, AtomicInteger::get)
+                .description("Open task change feed connections")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("app.feed.dropped")
+                .description("Feed connections closed because the client could not keep up")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        SseEmitter emitter = newEmitter();
+        Subscriber subscriber = new Subscriber(userId, this.epoch, emitter, this.bufferSize, this.executor);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        // O registro e a cópia do buffer acontecem sob o mesmo lock da
+        // publicação: nenhum evento é perdido nem entregue duas vezes
+        synchronized (this.lock) {
+            Long lastSequence = parseSequence(lastEventId);
+            if (Objects.nonNull(lastSequence)) {
+                for (FeedEvent event : missedEvents(userId, lastSequence)) {
+                    subscriber.offer(event);
+                }
+            }
+            this.subscribers.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+            this.subscriberCount.incrementAndGet();
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        String data;
+        try {
+            data = this.objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize task change " + event, e);
+            return;
+        }
+        String name = event.type().name().toLowerCase();
+        List<Subscriber> slow = new ArrayList<>();
+        synchronized (this.lock) {
+            publish(event.userId(), name, data, slow);
+        }
+        drop(slow);
+    }
+
+    // Escritas feitas em outras instâncias (as desta já chegaram por
+    // onTaskChanged)
+    @EventListener
+    public void onTaskListsChanged(TaskListsChangedEvent event) {
+        if (!event.remote()) {
+            return;
+        }
+        List<Subscriber> slow = new ArrayList<>();
+        synchronized (this.lock) {
+            if (event.isUnknown()) {
+                this.resetSequence = ++this.sequence;
+                this.replay[(int) (this.sequence % this.replay.length)] =
+                        new FeedEvent(this.sequence, null, RESET, "{}");
+                this.subscribers.forEach((userId, targets) -> {
+                    FeedEvent reset = new FeedEvent(this.sequence, userId, RESET, "{}");
+                    for (Subscriber subscriber : targets) {
+                        if (!subscriber.offer(reset)) {
+                            slow.add(subscriber);
+                        }
+                    }
+                });
+            } else {
+                for (Long userId : event.userIds()) {
+                    publish(userId, RESET, "{}", slow);
+                }
+            }
+        }
+        drop(slow);
+    }
+
+    // Mantém as conexões vivas atrás de proxies e detecta as que caíram
+    @Scheduled(fixedDelayString = "${app.feed.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        this.subscribers.values().forEach(targets -> targets.forEach(subscriber -> {
+            if (!subscriber.offer(FeedEvent.HEARTBEAT)) {
+                this.dropped.increment();
+                subscriber.close();
+                unsubscribe(subscriber);
+            }
+        }));
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(this.timeoutMillis);
+    }
+
+    // Chamado com o lock: numera o evento, guarda no buffer e entrega aos
+    // assinantes do usuário; os que não acompanham vão para `slow`
+    private void publish(Long userId, String name, String data, List<Subscriber> slow) {
+        FeedEvent feedEvent = new FeedEvent(++this.sequence, userId, name, data);
+        this.replay[(int) (feedEvent.sequence() % this.replay.length)] = feedEvent;
+        Set<Subscriber> targets = this.subscribers.get(userId);
+        if (Objects.nonNull(targets)) {
+            for (Subscriber subscriber : targets) {
+                if (!subscriber.offer(feedEvent)) {
+                    slow.add(subscriber);
+                }
+            }
+        }
+    }
+
+    // Cliente lento: a conexão é encerrada e ele retoma pelo Last-Event-ID
+    private void drop(List<Subscriber> slow) {
+        for (Subscriber subscriber : slow) {
+            this.dropped.increment();
+            subscriber.close();
+            unsubscribe(subscriber);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        synchronized (this.lock) {
+            Set<Subscriber> targets = this.subscribers.get(subscriber.getUserId());
+            if (Objects.nonNull(targets) && targets.remove(subscriber)) {
+                this.subscriberCount.decrementAndGet();
+                if (targets.isEmpty()) {
+                    this.subscribers.remove(subscriber.getUserId());
+                }
+            }
+        }
+    }
+
+    // Eventos do usuário depois de lastSequence que ainda estão no buffer, ou
+    // um único "reset" se parte deles já foi descartada
+    private List<FeedEvent> missedEvents(Long userId, long lastSequence) {
+        List<FeedEvent> missed = new ArrayList<>();
+        long oldest = Math.max(1, this.sequence - this.replay.length + 1);
+        if (lastSequence < 0 || lastSequence > this.sequence || lastSequence + 1 < oldest
+                || lastSequence < this.resetSequence) {
+            missed.add(new FeedEvent(this.sequence, userId, RESET, "{}"));
+            return missed;
+        }
+        for (long next = lastSequence + 1; next <= this.sequence; next++) {
+            FeedEvent event = this.replay[(int) (next % this.replay.length)];
+            if (userId.equals(event.userId())) {
+                missed.add(event);
+            }
+        }
+        // Mais eventos do que cabem na fila do assinante: recarregar sai mais barato
+        if (missed.size() > this.bufferSize) {
+            missed.clear();
+            missed.add(new FeedEvent(this.sequence, userId, RESET, "{}"));
+        }
+        return missed;
+    }
+
+    // Sequência contida no Last-Event-ID; -1 quando o id é de outra execução
+    // do servidor ou inválido, o que força um "reset"
+    private Long parseSequence(String lastEventId) {
+        if (Objects.isNull(lastEventId) || lastEventId.isBlank()) {
+            return null;
+        }
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(this.epoch)) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
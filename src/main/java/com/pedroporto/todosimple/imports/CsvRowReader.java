@@ -0,0 +1,137 @@
+package com.pedroporto.todosimple.imports;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// CSV no formato da RFC 4180: a primeira linha é o cabeçalho, campos
+// separados por vírgula e, entre aspas, podem conter vírgulas, quebras de
+// linha e aspas duplicadas ("").
+class CsvRowReader implements RowReader {
+
+    private final BufferedReader reader;
+
+    private List<String> header;
+
+    private long number;
+
+    // Indica que o último registro lido passou de MAX_ROW_CHARS
+    private boolean overflow;
+
+    CsvRowReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        if (this.header == null && !readHeader()) {
+            return null;
+        }
+        while (true) {
+            List<String> record = readRecord();
+            if (record == null) {
+                return null;
+            }
+            if (record.size() == 1 && record.get(0).isEmpty() && !this.overflow) {
+                continue;
+            }
+            this.number++;
+            if (this.overflow) {
+                return ImportRow.invalid(this.number, "Linha maior que " + MAX_ROW_CHARS + " caracteres.");
+            }
+            if (record.size() > this.header.size()) {
+                return ImportRow.invalid(this.number, "A linha tem " + record.size()
+                        + " colunas, mas o cabeçalho tem " + this.header.size() + ".");
+            }
+            Map<String, String> fields = new HashMap<>();
+            // CSV não distingue vazio de ausente: campos vazios ficam de fora
+            for (int i = 0; i < record.size(); i++) {
+                if (!record.get(i).isEmpty()) {
+                    fields.put(this.header.get(i), record.get(i));
+                }
+            }
+            return ImportRow.of(this.number, fields);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    private boolean readHeader() throws IOException {
+        List<String> record = readRecord();
+        if (record == null) {
+            return false;
+        }
+        this.header = new ArrayList<>();
+        for (String column : record) {
+            // Remove o BOM que alguns editores colocam no início do arquivo
+            this.header.add(column.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT));
+        }
+        return true;
+    }
+
+    // Lê um registro inteiro, ou null se o arquivo acabou
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean read = false;
+        int length = 0;
+        this.overflow = false;
+        int c;
+        while ((c = this.reader.read()) != -1) {
+            read = true;
+            if (++length > MAX_ROW_CHARS) {
+                this.overflow = true;
+            }
+            if (quoted) {
+                if (c != '"') {
+                    append(field, c);
+                } else if (peek() == '"') {
+                    this.reader.read();
+                    append(field, c);
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                if (peek() == '\n') {
+                    this.reader.read();
+                }
+                break;
+            } else {
+                append(field, c);
+            }
+        }
+        if (!read) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private void append(StringBuilder field, int c) {
+        if (!this.overflow) {
+            field.append((char) c);
+        }
+    }
+
+    private int peek() throws IOException {
+        this.reader.mark(1);
+        int c = this.reader.read();
+        this.reader.reset();
+        return c;
+    }
+}
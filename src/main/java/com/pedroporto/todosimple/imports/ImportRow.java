@@ -0,0 +1,25 @@
+package com.pedroporto.todosimple.imports;
+
+import java.util.Map;
+
+// Uma linha lida do arquivo de importação. `number` é a posição da linha no
+// arquivo (sem contar o cabeçalho do CSV); quando a linha não pôde ser lida,
+// `fields` é nulo e `error` explica o motivo.
+public record ImportRow(long number, Map<String, String> fields, String error) {
+
+    public static ImportRow of(long number, Map<String, String> fields) {
+        return new ImportRow(number, fields, null);
+    }
+
+    public static ImportRow invalid(long number, String error) {
+        return new ImportRow(number, null, error);
+    }
+
+    public boolean isValid() {
+        return this.error == null;
+    }
+
+    public String get(String field) {
+        return this.fields.get(field);
+    }
+}
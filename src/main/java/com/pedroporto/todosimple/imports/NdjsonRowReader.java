@@ -0,0 +1,85 @@
+package com.pedroporto.todosimple.imports;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Um objeto JSON por linha. Objetos aninhados são achatados com '_', então
+// {"user": {"id": 1}} é lido como a coluna user_id, no mesmo formato do
+// corpo de POST /tasks.
+class NdjsonRowReader implements RowReader {
+
+    private final BufferedReader reader;
+
+    private final ObjectMapper objectMapper;
+
+    private long number;
+
+    NdjsonRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        while (true) {
+            StringBuilder line = new StringBuilder();
+            boolean overflow = false;
+            int c;
+            while ((c = this.reader.read()) != -1 && c != '\n') {
+                if (line.length() < MAX_ROW_CHARS) {
+                    line.append((char) c);
+                } else {
+                    overflow = true;
+                }
+            }
+            if (c == -1 && line.length() == 0) {
+                return null;
+            }
+            this.number++;
+            if (overflow) {
+                return ImportRow.invalid(this.number, "Linha maior que " + MAX_ROW_CHARS + " caracteres.");
+            }
+            if (line.toString().isBlank()) {
+                continue;
+            }
+            try {
+                JsonNode node = this.objectMapper.readTree(line.toString());
+                if (!node.isObject()) {
+                    return ImportRow.invalid(this.number, "A linha não é um objeto JSON.");
+                }
+                Map<String, String> fields = new HashMap<>();
+                flatten("", node, fields);
+                return ImportRow.of(this.number, fields);
+            } catch (JsonProcessingException e) {
+                return ImportRow.invalid(this.number, "JSON inválido: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    private static void flatten(String prefix, JsonNode node, Map<String, String> fields) {
+        Iterator<Map.Entry<String, JsonNode>> entries = node.fields();
+        while (entries.hasNext()) {
+            Map.Entry<String, JsonNode> entry = entries.next();
+            String name = prefix + entry.getKey().toLowerCase(Locale.ROOT);
+            JsonNode value = entry.getValue();
+            if (value.isObject()) {
+                flatten(name + "_", value, fields);
+            } else if (!value.isNull()) {
+                fields.put(name, value.isValueNode() ? value.asText() : value.toString());
+            }
+        }
+    }
+}
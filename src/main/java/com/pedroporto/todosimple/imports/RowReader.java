@@ -0,0 +1,37 @@
+package com.pedroporto.todosimple.imports;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Lê um arquivo de importação uma linha por vez, sem carregá-lo inteiro na
+// memória. Os nomes das colunas (ou campos do JSON) chegam em minúsculas.
+public interface RowReader extends Closeable {
+
+    MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    // Tamanho máximo de uma linha; linhas maiores viram erro e são puladas
+    int MAX_ROW_CHARS = 64 * 1024;
+
+    // Próxima linha do arquivo, ou null quando ele termina
+    ImportRow next() throws IOException;
+
+    static RowReader open(MediaType contentType, InputStream input, ObjectMapper objectMapper) {
+        Charset charset = contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, charset));
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            return new CsvRowReader(reader);
+        }
+        return new NdjsonRowReader(reader, objectMapper);
+    }
+}
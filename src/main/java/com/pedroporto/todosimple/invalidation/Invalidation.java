@@ -0,0 +1,10 @@
+package com.pedroporto.todosimple.invalidation;
+
+// Uma entrada de cache a descartar em todas as instâncias: o usuário (e a
+// lista das suas tarefas), uma tarefa, ou só a lista de tarefas do usuário
+public record Invalidation(Type type, long id) {
+
+    public enum Type {
+        USER, TASK, USER_TASKS
+    }
+}
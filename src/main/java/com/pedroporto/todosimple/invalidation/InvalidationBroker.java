@@ -0,0 +1,16 @@
+package com.pedroporto.todosimple.invalidation;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// Canal opcional (Redis pub/sub, Kafka...) para entregar as invalidações às
+// outras instâncias antes do próximo ciclo do InvalidationTailer. Basta
+// declarar um bean: as invalidações são publicadas depois do commit e as
+// recebidas são aplicadas no cache local. A outbox continua sendo o caminho
+// garantido; o broker só reduz o atraso e pode perder mensagens.
+public interface InvalidationBroker {
+
+    void publish(List<Invalidation> invalidations);
+
+    void subscribe(Consumer<List<Invalidation>> listener);
+}
@@ -0,0 +1,66 @@
+package com.pedroporto.todosimple.invalidation;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Acesso à tabela cache_invalidation (db/migration). As linhas são gravadas
+// na conexão da transação em andamento, no shard em que ela roda; o
+// InvalidationTailer lê todos os shards. Cada linha leva o id desta
+// instância (`origin`), sorteado na subida.
+@Component
+public class InvalidationOutbox {
+
+    static final String TABLE = "cache_invalidation";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Autowired
+    public InvalidationOutbox(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public String getNodeId() {
+        return this.nodeId;
+    }
+
+    public void append(List<Invalidation> invalidations) {
+        long now = System.currentTimeMillis();
+        this.jdbcTemplate.batchUpdate(
+                "INSERT INTO " + TABLE + " (entity_type, entity_id, created_at, origin) VALUES (?, ?, ?, ?)",
+                invalidations, invalidations.size(), (statement, invalidation) -> {
+                    statement.setString(1, invalidation.type().name());
+                    statement.setLong(2, invalidation.id());
+                    statement.setLong(3, now);
+                    statement.setString(4, this.nodeId);
+                });
+    }
+
+    List<Entry> readAfter(long id, int limit) {
+        return this.jdbcTemplate.query(
+                "SELECT id, entity_type, entity_id, created_at, origin FROM " + TABLE
+                        + " WHERE id > ? ORDER BY id LIMIT ?",
+                (resultSet, row) -> new Entry(resultSet.getLong(1),
+                        new Invalidation(Invalidation.Type.valueOf(resultSet.getString(2)), resultSet.getLong(3)),
+                        resultSet.getLong(4), this.nodeId.equals(resultSet.getString(5))),
+                id, limit);
+    }
+
+    long lastId() {
+        Long id = this.jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + TABLE, Long.class);
+        return Objects.isNull(id) ? 0 : id;
+    }
+
+    int prune(long createdBefore) {
+        return this.jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE created_at < ?", createdBefore);
+    }
+
+    record Entry(long id, Invalidation invalidation, long createdAt, boolean local) {
+    }
+}
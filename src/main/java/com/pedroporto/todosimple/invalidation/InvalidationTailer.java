@@ -0,0 +1,237 @@
+package com.pedroporto.todosimple.invalidation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.pedroporto.todosimple.services.CacheInvalidationService;
+import com.pedroporto.todosimple.services.events.TaskListsChangedEvent;
+import com.pedroporto.todosimple.sharding.ShardContext;
+import com.pedroporto.todosimple.sharding.ShardDirectory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+// Lê a outbox de invalidações de cada shard, em ordem de id, e aplica no
+// cache local as invalidações gravadas por qualquer instância (inclusive
+// esta, o que é inofensivo). O cursor começa no último id existente na
+// subida: o cache está vazio e não há nada antigo a descartar.
+//
+// Ids são alocados no INSERT, mas as transações comitam fora de ordem: um
+// id ausente abaixo de ids já lidos é uma transação ainda em andamento. O
+// cursor espera por ele até `gap-timeout`; passado isso o id é dado como
+// perdido (rollback) e, por segurança, o cache local inteiro é descartado.
+// Se a outbox não puder ser lida por mais de `max-lag`, o cache local
+// também é descartado a cada tentativa até a leitura voltar. Assim o atraso
+// de propagação fica limitado a esses dois prazos.
+//
+// Além do cache, as listas de tarefas invalidadas viram um
+// TaskListsChangedEvent, para que o índice de busca e o feed de alterações
+// também vejam as escritas feitas em outras instâncias.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.enabled", havingValue = "true")
+public class InvalidationTailer {
+
+    private final InvalidationOutbox outbox;
+
+    private final CacheInvalidationService cacheInvalidationService;
+
+    private final ShardDirectory shardDirectory;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int batchSize;
+
+    private final long gapTimeoutNanos;
+
+    private final long maxLagMillis;
+
+    private final Duration retention;
+
+    // Um cursor por shard; só a thread do agendador mexe neles
+    private final Map<Integer, Cursor> cursors = new ConcurrentHashMap<>();
+
+    private volatile long lastPollMillis = System.currentTimeMillis();
+
+    private boolean stale;
+
+    private final Timer lag;
+
+    private final Counter applied;
+
+    private final Counter gapsSkipped;
+
+    @Autowired
+    public InvalidationTailer(InvalidationOutbox outbox, CacheInvalidationService cacheInvalidationService,
+            ShardDirectory shardDirectory, ApplicationEventPublisher eventPublisher,
+            ObjectProvider<InvalidationBroker> broker, MeterRegistry meterRegistry,
+            @Value("${app.cache.invalidation.batch-size:500}") int batchSize,
+            @Value("${app.cache.invalidation.gap-timeout:PT5S}") Duration gapTimeout,
+            @Value("${app.cache.invalidation.max-lag:PT10S}") Duration maxLag,
+            @Value("${app.cache.invalidation.retention:PT1H}") Duration retention) {
+        this.outbox = outbox;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.shardDirectory = shardDirectory;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.gapTimeoutNanos = gapTimeout.toNanos();
+        this.maxLagMillis = maxLag.toMillis();
+        this.retention = retention;
+        this.lag = Timer.builder("app.cache.invalidation.lag")
+                .description("Time between a cache invalidation being committed and applied on this node")
+                .register(meterRegistry);
+        this.applied = Counter.builder("app.cache.invalidation.applied")
+                .description("Cache invalidations read from the outbox and applied locally")
+                .register(meterRegistry);
+        this.gapsSkipped = Counter.builder("app.cache.invalidation.gaps-skipped")
+                .description("Outbox ids given up on after the gap timeout (local caches cleared)")
+                .register(meterRegistry);
+        broker.ifAvailable(invalidationBroker -> invalidationBroker.subscribe(this.cacheInvalidationService::apply));
+    }
+
+    // Antes de atender requisições, para não perder o que for gravado entre a
+    // subida e o primeiro ciclo
+    @PostConstruct
+    public void init() {
+        try {
+            this.shardDirectory.forEachShard(() -> this.cursors.put(ShardContext.current().shard(),
+                    new Cursor(this.outbox.lastId())));
+        } catch (DataAccessException e) {
+            log.warn("Failed to read the cache invalidation outbox on startup: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.poll-interval:PT0.5S}")
+    public void poll() {
+        try {
+            this.shardDirectory.forEachShard(this::pollShard);
+            this.lastPollMillis = System.currentTimeMillis();
+            this.stale = false;
+        } catch (DataAccessException e) {
+            if (System.currentTimeMillis() - this.lastPollMillis > this.maxLagMillis) {
+                if (!this.stale) {
+                    log.warn("Cache invalidation outbox unreadable for more than " + this.maxLagMillis
+                            + " ms; clearing local caches: " + e.getMessage());
+                    this.stale = true;
+                }
+                this.cacheInvalidationService.evictAll();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.prune-interval:PT5M}")
+    public void prune() {
+        long before = System.currentTimeMillis() - this.retention.toMillis();
+        try {
+            this.shardDirectory.forEachShard(() -> this.outbox.prune(before));
+        } catch (DataAccessException e) {
+            log.warn("Failed to prune the cache invalidation outbox: " + e.getMessage());
+        }
+    }
+
+    private void pollShard() {
+        int shard = ShardContext.current().shard();
+        Cursor cursor = this.cursors.get(shard);
+        if (Objects.isNull(cursor)) {
+            // A subida não conseguiu ler este shard: o que mudou desde então
+            // é desconhecido
+            this.cursors.put(shard, new Cursor(this.outbox.lastId()));
+            this.cacheInvalidationService.evictAll();
+            this.eventPublisher.publishEvent(TaskListsChangedEvent.unknown());
+            return;
+        }
+        List<InvalidationOutbox.Entry> entries = this.outbox.readAfter(cursor.position, this.batchSize);
+        List<Invalidation> invalidations = new ArrayList<>(entries.size());
+        Set<Long> localUsers = new HashSet<>();
+        Set<Long> remoteUsers = new HashSet<>();
+        long now = System.currentTimeMillis();
+        for (InvalidationOutbox.Entry entry : entries) {
+            if (cursor.applied.add(entry.id())) {
+                invalidations.add(entry.invalidation());
+                this.lag.record(Math.max(0, now - entry.createdAt()), TimeUnit.MILLISECONDS);
+                if (entry.invalidation().type() == Invalidation.Type.USER_TASKS) {
+                    (entry.local() ? localUsers : remoteUsers).add(entry.invalidation().id());
+                }
+            }
+        }
+        if (!invalidations.isEmpty()) {
+            this.cacheInvalidationService.apply(invalidations);
+            this.applied.increment(invalidations.size());
+        }
+        if (!localUsers.isEmpty()) {
+            this.eventPublisher.publishEvent(new TaskListsChangedEvent(localUsers, false));
+        }
+        if (!remoteUsers.isEmpty()) {
+            this.eventPublisher.publishEvent(new TaskListsChangedEvent(remoteUsers, true));
+        }
+        if (cursor.advance(System.nanoTime(), this.gapTimeoutNanos)) {
+            this.gapsSkipped.increment();
+            log.warn("Gave up waiting for cache invalidation ids on shard {}; clearing local caches", shard);
+            this.cacheInvalidationService.evictAll();
+            this.eventPublisher.publishEvent(TaskListsChangedEvent.unknown());
+        }
+    }
+
+    private static final class Cursor {
+
+        // Último id a partir do qual tudo já foi aplicado
+        private long position;
+
+        // Ids maiores que `position` já aplicados (depois de uma lacuna)
+        private final TreeSet<Long> applied = new TreeSet<>();
+
+        // Quando a lacuna atual em position + 1 foi vista; 0 se não há lacuna
+        private long gapSince;
+
+        private Cursor(long position) {
+            this.position = position;
+        }
+
+        // Avança sobre os ids contíguos já aplicados. Devolve true se uma
+        // lacuna expirou e foi pulada.
+        private boolean advance(long nowNanos, long gapTimeoutNanos) {
+            boolean skipped = false;
+            while (!this.applied.isEmpty()) {
+                long next = this.position + 1;
+                if (this.applied.first() == next) {
+                    this.applied.pollFirst();
+                    this.position = next;
+                    this.gapSince = 0;
+                    continue;
+                }
+                if (this.gapSince == 0) {
+                    this.gapSince = nowNanos;
+                    break;
+                }
+                if (nowNanos - this.gapSince < gapTimeoutNanos) {
+                    break;
+                }
+                this.position = this.applied.first() - 1;
+                this.gapSince = 0;
+                skipped = true;
+            }
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.pedroporto.todosimple.invalidation;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// InvalidationOutbox.append para a pilha reativa: as linhas entram na
+// transação R2DBC em andamento e as instâncias servlet as aplicam pelo
+// InvalidationTailer, como as demais. Só grava com
+// app.cache.invalidation.enabled, como o CacheInvalidationService.
+@Component
+@Profile("reactive")
+public class ReactiveInvalidationOutbox {
+
+    private final DatabaseClient databaseClient;
+
+    private final String nodeId;
+
+    private final boolean enabled;
+
+    @Autowired
+    public ReactiveInvalidationOutbox(DatabaseClient databaseClient, InvalidationOutbox outbox,
+            @Value("${app.cache.invalidation.enabled:false}") boolean enabled) {
+        this.databaseClient = databaseClient;
+        this.nodeId = outbox.getNodeId();
+        this.enabled = enabled;
+    }
+
+    public Mono<Void> append(List<Invalidation> invalidations) {
+        if (!this.enabled || invalidations.isEmpty()) {
+            return Mono.empty();
+        }
+        long now = System.currentTimeMillis();
+        return Flux.fromIterable(invalidations)
+                .concatMap(invalidation -> this.databaseClient
+                        .sql("INSERT INTO " + InvalidationOutbox.TABLE
+                                + " (entity_type, entity_id, created_at, origin)"
+                                + " VALUES (:type, :id, :createdAt, :origin)")
+                        .bind("type", invalidation.type().name())
+                        .bind("id", invalidation.id())
+                        .bind("createdAt", now)
+                        .bind("origin", this.nodeId)
+                        .fetch()
+                        .rowsUpdated())
+                .then();
+    }
+}
@@ -0,0 +1,47 @@
+package com.pedroporto.todosimple.json;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.pedroporto.todosimple.exceptions.ErrorResponse;
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.dto.TaskView;
+
+// Serializadores escritos à mão para os tipos que mais saem nas respostas.
+// Em vez de percorrer propriedades por reflexão (getters do Lombok, e em
+// User também a coleção `tasks`, que nem é escrita), cada um grava seus
+// campos direto no JsonGenerator, com os nomes já codificados
+// (SerializedString). A saída é idêntica à do serializador padrão.
+// Funciona para JSON, CBOR e Smile.
+public class ApiJsonModule extends SimpleModule {
+
+    static final SerializedString ID = new SerializedString("id");
+    static final SerializedString DESCRIPTION = new SerializedString("description");
+    static final SerializedString USER = new SerializedString("user");
+    static final SerializedString USERNAME = new SerializedString("username");
+    static final SerializedString VERSION = new SerializedString("version");
+    static final SerializedString STATUS = new SerializedString("status");
+    static final SerializedString MESSAGE = new SerializedString("message");
+    static final SerializedString STACK_TRACE = new SerializedString("stackTrace");
+    static final SerializedString ERRORS = new SerializedString("errors");
+    static final SerializedString FIELD = new SerializedString("field");
+
+    public ApiJsonModule() {
+        super("ApiJsonModule");
+        addSerializer(TaskView.class, new TaskViewSerializer());
+        addSerializer(Task.class, new TaskSerializer());
+        addSerializer(User.class, new UserSerializer());
+        addSerializer(ErrorResponse.class, new ErrorResponseSerializer());
+    }
+
+    static void writeNumber(JsonGenerator generator, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.longValue());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.pedroporto.todosimple.json;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.pedroporto.todosimple.exceptions.ErrorResponse;
+
+// {"status", "message", "stackTrace"?, "errors"?: [{"field", "message"}]},
+// omitindo os nulos como o @JsonInclude(NON_NULL) da classe
+class ErrorResponseSerializer extends StdSerializer<ErrorResponse> {
+
+    ErrorResponseSerializer() {
+        super(ErrorResponse.class);
+    }
+
+    @Override
+    public void serialize(ErrorResponse error, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        generator.writeStartObject(error);
+        generator.writeFieldName(ApiJsonModule.STATUS);
+        generator.writeNumber(error.getStatus());
+        if (Objects.nonNull(error.getMessage())) {
+            generator.writeFieldName(ApiJsonModule.MESSAGE);
+            generator.writeString(error.getMessage());
+        }
+        if (Objects.nonNull(error.getStackTrace())) {
+            generator.writeFieldName(ApiJsonModule.STACK_TRACE);
+            generator.writeString(error.getStackTrace());
+        }
+        if (Objects.nonNull(error.getErrors())) {
+            generator.writeFieldName(ApiJsonModule.ERRORS);
+            generator.writeStartArray();
+            for (ErrorResponse.ValidationError validationError : error.getErrors()) {
+                generator.writeStartObject(validationError);
+                generator.writeFieldName(ApiJsonModule.FIELD);
+                generator.writeString(validationError.getField());
+                generator.writeFieldName(ApiJsonModule.MESSAGE);
+                generator.writeString(validationError.getMessage());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+}
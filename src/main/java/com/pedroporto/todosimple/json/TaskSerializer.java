@@ -0,0 +1,30 @@
+package com.pedroporto.todosimple.json;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.pedroporto.todosimple.models.Task;
+
+// {"id", "user": {...}, "description", "version"}
+class TaskSerializer extends StdSerializer<Task> {
+
+    TaskSerializer() {
+        super(Task.class);
+    }
+
+    @Override
+    public void serialize(Task task, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(task);
+        generator.writeFieldName(ApiJsonModule.ID);
+        ApiJsonModule.writeNumber(generator, task.getId());
+        generator.writeFieldName(ApiJsonModule.USER);
+        UserSerializer.write(task.getUser(), generator);
+        generator.writeFieldName(ApiJsonModule.DESCRIPTION);
+        generator.writeString(task.getDescription());
+        generator.writeFieldName(ApiJsonModule.VERSION);
+        generator.writeNumber(task.getVersion());
+        generator.writeEndObject();
+    }
+}
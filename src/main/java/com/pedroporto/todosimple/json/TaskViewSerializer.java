@@ -0,0 +1,40 @@
+package com.pedroporto.todosimple.json;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.pedroporto.todosimple.models.dto.TaskView;
+
+// {"id", "description", "user": {"id", "username"}, "version"}
+class TaskViewSerializer extends StdSerializer<TaskView> {
+
+    TaskViewSerializer() {
+        super(TaskView.class);
+    }
+
+    @Override
+    public void serialize(TaskView task, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(task);
+        generator.writeFieldName(ApiJsonModule.ID);
+        ApiJsonModule.writeNumber(generator, task.id());
+        generator.writeFieldName(ApiJsonModule.DESCRIPTION);
+        generator.writeString(task.description());
+        generator.writeFieldName(ApiJsonModule.USER);
+        if (Objects.isNull(task.user())) {
+            generator.writeNull();
+        } else {
+            generator.writeStartObject(task.user());
+            generator.writeFieldName(ApiJsonModule.ID);
+            ApiJsonModule.writeNumber(generator, task.user().id());
+            generator.writeFieldName(ApiJsonModule.USERNAME);
+            generator.writeString(task.user().username());
+            generator.writeEndObject();
+        }
+        generator.writeFieldName(ApiJsonModule.VERSION);
+        generator.writeNumber(task.version());
+        generator.writeEndObject();
+    }
+}
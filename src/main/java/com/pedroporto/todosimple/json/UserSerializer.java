@@ -0,0 +1,37 @@
+package com.pedroporto.todosimple.json;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.pedroporto.todosimple.models.User;
+
+// {"id", "username", "version"}: password e tasks são só de entrada
+class UserSerializer extends StdSerializer<User> {
+
+    UserSerializer() {
+        super(User.class);
+    }
+
+    @Override
+    public void serialize(User user, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        write(user, generator);
+    }
+
+    static void write(User user, JsonGenerator generator) throws IOException {
+        if (Objects.isNull(user)) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject(user);
+        generator.writeFieldName(ApiJsonModule.ID);
+        ApiJsonModule.writeNumber(generator, user.getId());
+        generator.writeFieldName(ApiJsonModule.USERNAME);
+        generator.writeString(user.getUsername());
+        generator.writeFieldName(ApiJsonModule.VERSION);
+        generator.writeNumber(user.getVersion());
+        generator.writeEndObject();
+    }
+}
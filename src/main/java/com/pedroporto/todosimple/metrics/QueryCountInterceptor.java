@@ -0,0 +1,62 @@
+package com.pedroporto.todosimple.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Registra quantos comandos SQL cada rota executou por requisição
+// (hibernate.queries.per.request), com as mesmas tags method/uri do
+// http.server.requests. Respostas assíncronas, como o streaming, rodam em
+// outra thread e não são contadas.
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String METRIC_NAME = "hibernate.queries.per.request";
+
+    private final MeterRegistry meterRegistry;
+
+    // Um DistributionSummary por rota, para não consultar o registro a cada requisição
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public QueryCountInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryCounter.start();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        QueryCounter.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        int count = QueryCounter.stop();
+        if (count < 0) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String method = request.getMethod();
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        this.summaries.computeIfAbsent(method + " " + uri, key -> DistributionSummary.builder(METRIC_NAME)
+                .description("SQL statements executed per request")
+                .baseUnit("statements")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(this.meterRegistry))
+                .record(count);
+    }
+}
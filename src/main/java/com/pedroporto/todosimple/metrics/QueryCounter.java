@@ -0,0 +1,33 @@
+package com.pedroporto.todosimple.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Conta os comandos SQL preparados pelo Hibernate na thread atual. O
+// QueryCountInterceptor zera a contagem no início de cada requisição e
+// registra o total ao final; fora de uma requisição a contagem é ignorada.
+public class QueryCounter implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    // Encerra a contagem e devolve o total, ou -1 se ela não foi iniciada
+    public static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? -1 : count[0];
+    }
+}
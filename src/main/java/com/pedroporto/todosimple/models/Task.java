@@ -3,12 +3,18 @@ package com.pedroporto.todosimple.models;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
@@ -27,8 +33,20 @@ public class Task {
 
     public static final String TABLE_NAME = "task";
 
+    // Os ids são reservados em blocos na tabela id_allocator (otimizador
+    // pooled), o que permite ao Hibernate agrupar os INSERTs em lotes JDBC;
+    // com IDENTITY cada INSERT precisaria ir sozinho ao banco. Com sharding
+    // o id carrega também o bucket do dono (ver ShardedTableGenerator).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "task_id")
+    @GenericGenerator(name = "task_id", strategy = "com.pedroporto.todosimple.sharding.ShardedTableGenerator",
+            parameters = {
+                    @Parameter(name = "table_name", value = "id_allocator"),
+                    @Parameter(name = "segment_column_name", value = "sequence_name"),
+                    @Parameter(name = "value_column_name", value = "next_val"),
+                    @Parameter(name = "segment_value", value = TABLE_NAME),
+                    @Parameter(name = "increment_size", value = "100")
+            })
     @Column(name = "id", unique = true)
     private Long id;
 
@@ -53,8 +71,18 @@ public class Task {
     // outras anotações de validação,
     // como `@Size(min = 5, max = 255)` para garantir que o tamanho da descrição
     // seja adequado.
+    // O limite da coluna também é validado, para que uma descrição longa seja
+    // recusada antes de chegar ao banco (e a um lote com outras tarefas)
     @Column(name = "description", nullable = false, length = 255)
     @NotNull
+    @Size(max = 255)
     private String description;
 
+    // Incrementada pelo Hibernate a cada alteração. Garante que uma escrita
+    // concorrente não seja sobrescrita em silêncio e serve de ETag.
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long version;
+
 }
@@ -3,12 +3,15 @@ package com.pedroporto.todosimple.models;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import javax.validation.constraints.Size;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -39,8 +42,19 @@ public class User {
 
     public static final String TABLE_NAME = "user";
 
+    // Ids reservados em blocos na id_allocator, como em Task, para que a
+    // importação em massa possa agrupar os INSERTs em lotes JDBC; com
+    // sharding o id carrega o bucket do usuário (ver ShardedTableGenerator)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "user_id")
+    @GenericGenerator(name = "user_id", strategy = "com.pedroporto.todosimple.sharding.ShardedTableGenerator",
+            parameters = {
+                    @Parameter(name = "table_name", value = "id_allocator"),
+                    @Parameter(name = "segment_column_name", value = "sequence_name"),
+                    @Parameter(name = "value_column_name", value = "next_val"),
+                    @Parameter(name = "segment_value", value = TABLE_NAME),
+                    @Parameter(name = "increment_size", value = "100")
+            })
     @Column(name = "id", unique = true, nullable = false)
     private Long id;
 
@@ -80,4 +94,10 @@ public class User {
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private List<Task> tasks = new ArrayList<>();
 
+    // Controle de concorrência otimista e ETag, como em Task
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long version;
+
 }
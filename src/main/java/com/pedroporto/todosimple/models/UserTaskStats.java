@@ -0,0 +1,34 @@
+package com.pedroporto.todosimple.models;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Contadores de tarefas de um usuário, mantidos na mesma transação de cada
+// criação ou exclusão (ver TaskStatsService). Uma linha por usuário, lida
+// pela chave primária: o custo não depende de quantas tarefas ele tem.
+@Entity
+@Table(name = UserTaskStats.TABLE_NAME)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class UserTaskStats {
+
+    public static final String TABLE_NAME = "user_task_stats";
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "task_count", nullable = false)
+    private long taskCount;
+}
@@ -0,0 +1,23 @@
+package com.pedroporto.todosimple.models.dto;
+
+import java.time.Duration;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+// Limites do controle de admissão, alteráveis no actuator (AdmissionEndpoint)
+//  - rate/burst: fichas por segundo e capacidade do balde de cada cliente
+//  - maxConcurrent/maxWait: requisições simultâneas por rota e quanto tempo
+//    uma requisição espera por uma vaga
+//  - maxPoolQueue: com mais threads que isso esperando conexão, novas
+//    requisições são recusadas de imediato
+public record AdmissionLimits(
+        boolean enabled,
+        @Positive double rate,
+        @Min(1) int burst,
+        @Min(1) int maxConcurrent,
+        @NotNull Duration maxWait,
+        @PositiveOrZero int maxPoolQueue) {
+}
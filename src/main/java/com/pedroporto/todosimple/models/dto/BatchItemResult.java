@@ -0,0 +1,32 @@
+package com.pedroporto.todosimple.models.dto;
+
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Resultado de uma operação dentro de um lote, na mesma posição em que ela
+// chegou na requisição.
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+    private final int index;
+    private final Long id;
+    private final int status;
+    private final String message;
+
+    public static BatchItemResult success(int index, Long id, HttpStatus status) {
+        return new BatchItemResult(index, id, status.value(), null);
+    }
+
+    public static BatchItemResult failure(int index, Long id, HttpStatus status, String message) {
+        return new BatchItemResult(index, id, status.value(), message);
+    }
+
+    public boolean isSuccess() {
+        return this.status < 400;
+    }
+}
@@ -0,0 +1,18 @@
+package com.pedroporto.todosimple.models.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+
+@Getter
+public class BatchReport {
+    private final int succeeded;
+    private final int failed;
+    private final List<BatchItemResult> items;
+
+    public BatchReport(List<BatchItemResult> items) {
+        this.items = items;
+        this.succeeded = (int) items.stream().filter(BatchItemResult::isSuccess).count();
+        this.failed = items.size() - this.succeeded;
+    }
+}
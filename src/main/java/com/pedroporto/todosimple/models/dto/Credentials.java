@@ -0,0 +1,7 @@
+package com.pedroporto.todosimple.models.dto;
+
+import javax.validation.constraints.NotEmpty;
+
+// Corpo de POST /users/login
+public record Credentials(@NotEmpty String username, @NotEmpty String password) {
+}
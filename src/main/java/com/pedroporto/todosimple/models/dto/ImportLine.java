@@ -0,0 +1,23 @@
+package com.pedroporto.todosimple.models.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Uma linha do relatório de importação, enviado em NDJSON enquanto o arquivo
+// é processado: um "error" por linha rejeitada, um "progress" a cada bloco
+// gravado e um "summary" ao final.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ImportLine(String type, Long row, Integer status, String message, Long processed, Long succeeded,
+        Long failed) {
+
+    public static ImportLine error(long row, int status, String message) {
+        return new ImportLine("error", row, status, message, null, null, null);
+    }
+
+    public static ImportLine progress(long processed, long succeeded, long failed) {
+        return new ImportLine("progress", null, null, null, processed, succeeded, failed);
+    }
+
+    public static ImportLine summary(long processed, long succeeded, long failed) {
+        return new ImportLine("summary", null, null, null, processed, succeeded, failed);
+    }
+}
@@ -0,0 +1,5 @@
+package com.pedroporto.todosimple.models.dto;
+
+// Resultado da movimentação de um usuário entre shards
+public record ShardMove(Long userId, int from, int to, long tasks) {
+}
@@ -0,0 +1,30 @@
+package com.pedroporto.todosimple.models.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Movimentação de um usuário entre shards, executada em segundo plano pelo
+// ShardRebalancer. `result` vem preenchido quando ela termina e `error`
+// quando falha.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ShardMoveJob(long id, Long userId, int to, Status status, ShardMove result, String error) {
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    public static ShardMoveJob queued(long id, Long userId, int to) {
+        return new ShardMoveJob(id, userId, to, Status.QUEUED, null, null);
+    }
+
+    public ShardMoveJob running() {
+        return new ShardMoveJob(this.id, this.userId, this.to, Status.RUNNING, null, null);
+    }
+
+    public ShardMoveJob done(ShardMove result) {
+        return new ShardMoveJob(this.id, this.userId, this.to, Status.DONE, result, null);
+    }
+
+    public ShardMoveJob failed(String error) {
+        return new ShardMoveJob(this.id, this.userId, this.to, Status.FAILED, null, error);
+    }
+}
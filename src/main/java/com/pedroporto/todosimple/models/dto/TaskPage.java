@@ -0,0 +1,45 @@
+package com.pedroporto.todosimple.models.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.pedroporto.todosimple.services.exceptions.InvalidCursorException;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskPage {
+
+    private static final String CURSOR_PREFIX = "task:";
+
+    private final List<TaskView> items;
+
+    // Token opaco para buscar a próxima página; nulo quando não há mais tarefas.
+    private final String next;
+
+    public static String encodeCursor(Long lastId) {
+        byte[] raw = (CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    public static Long decodeCursor(String cursor) {
+        if (Objects.isNull(cursor) || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(CURSOR_PREFIX)) {
+                throw new InvalidCursorException("Cursor inválido: " + cursor);
+            }
+            return Long.parseLong(raw.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Cursor inválido: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.pedroporto.todosimple.models.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TaskSearchResult {
+
+    private final String query;
+
+    // Total de tarefas encontradas, em todas as páginas
+    private final int total;
+
+    private final int page;
+
+    private final int size;
+
+    // Ordenados pela relevância (maior score primeiro)
+    private final List<Hit> items;
+
+    public record Hit(Long id, String description, double score) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.pedroporto.todosimple.models.dto;
+
+// Visão somente leitura de uma tarefa, com exatamente os campos que a API
+// devolve. É montada direto pela consulta (SELECT new ...), sem passar por
+// entidades gerenciadas, e mantém o formato JSON da entidade Task
+// ({"id", "description", "user": {"id", "username"}, "version"}).
+public record TaskView(Long id, String description, Owner user, long version) {
+
+    public TaskView(Long id, String description, Long userId, String username, long version) {
+        this(id, description, new Owner(userId, username), version);
+    }
+
+    public record Owner(Long id, String username) {
+    }
+}
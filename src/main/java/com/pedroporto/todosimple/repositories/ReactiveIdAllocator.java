@@ -0,0 +1,109 @@
+package com.pedroporto.todosimple.repositories;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+// Ids da pilha reativa, reservados na mesma id_allocator do Hibernate e com
+// a mesma regra do otimizador pooled (increment_size 100): quem lê
+// next_val = v e o troca por v + 100 fica com os ids de v - 99 a v (só o 1
+// quando v = 1). As duas pilhas podem gravar no mesmo banco sem colisão.
+//
+// Em vez do SELECT ... FOR UPDATE, a troca só vale se next_val ainda for v;
+// quem perdeu a corrida lê de novo. Sem sharding (ver ReactiveConfig), o id
+// é a própria sequência.
+@Component
+@Profile("reactive")
+public class ReactiveIdAllocator {
+
+    private static final int INCREMENT = 100;
+
+    private static final int MAX_ATTEMPTS = 10;
+
+    private final DatabaseClient databaseClient;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReactiveIdAllocator(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    // Próximo id do segmento ("user" ou "task"); só vai ao banco quando o
+    // bloco reservado acaba
+    public Mono<Long> next(String segment) {
+        return Mono.defer(() -> {
+            Block block = this.blocks.computeIfAbsent(segment, key -> new Block());
+            long id = block.take();
+            if (id > 0) {
+                return Mono.just(id);
+            }
+            return reserve(segment).map(hi -> block.refill(Math.max(1, hi - INCREMENT + 1), hi));
+        });
+    }
+
+    // Fora da transação da requisição: o bloco fica reservado mesmo que ela
+    // seja desfeita, como no Hibernate
+    private Mono<Long> reserve(String segment) {
+        return Mono.defer(() -> this.databaseClient
+                .sql("SELECT next_val FROM id_allocator WHERE sequence_name = :segment")
+                .bind("segment", segment)
+                .map(row -> row.get("next_val", Long.class))
+                .one()
+                .switchIfEmpty(Mono.defer(() -> insertFirst(segment)))
+                .flatMap(value -> this.databaseClient
+                        .sql("UPDATE id_allocator SET next_val = :next WHERE sequence_name = :segment AND next_val = :value")
+                        .bind("next", value + INCREMENT)
+                        .bind("segment", segment)
+                        .bind("value", value)
+                        .fetch()
+                        .rowsUpdated()
+                        .flatMap(rows -> rows > 0
+                                ? Mono.just(value)
+                                : Mono.error(new OptimisticLockingFailureException(
+                                        "Bloco de ids disputado: " + segment)))))
+                .retryWhen(Retry.max(MAX_ATTEMPTS).filter(e -> e instanceof OptimisticLockingFailureException
+                        || e instanceof DataIntegrityViolationException));
+    }
+
+    // Segmento ainda sem linha: começa em 1, como o TableGenerator
+    private Mono<Long> insertFirst(String segment) {
+        return this.databaseClient
+                .sql("INSERT INTO id_allocator (sequence_name, next_val) VALUES (:segment, 1)")
+                .bind("segment", segment)
+                .fetch()
+                .rowsUpdated()
+                .thenReturn(1L);
+    }
+
+    // Ids ainda livres do último bloco reservado
+    private static final class Block {
+
+        private long next = 1;
+
+        private long hi = 0;
+
+        synchronized long take() {
+            return this.next <= this.hi ? this.next++ : -1;
+        }
+
+        // O primeiro id do bloco novo é de quem o reservou; o resto só
+        // substitui o bloco atual se ele tiver acabado (senão é descartado)
+        synchronized long refill(long lo, long hi) {
+            if (this.next > this.hi) {
+                this.next = lo + 1;
+                this.hi = hi;
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.pedroporto.todosimple.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.UserTaskStats;
+import com.pedroporto.todosimple.models.dto.TaskView;
+
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Acesso às tabelas task e user_task_stats pela pilha reativa, com as
+// mesmas consultas do TaskRepository: as listagens filtram por
+// task.user_id e ordenam por id, no índice (user_id, id).
+@Repository
+@Profile("reactive")
+public class ReactiveTaskRepository {
+
+    private static final String VIEW_QUERY = "SELECT t.id, t.description, t.user_id, u.username, t.version"
+            + " FROM task t JOIN user u ON u.id = t.user_id WHERE t.user_id = :userId";
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveTaskRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Task> findById(long id) {
+        return this.databaseClient.sql("SELECT t.id, t.description, t.version, u.id AS user_id,"
+                + " u.username, u.version AS user_version"
+                + " FROM task t JOIN user u ON u.id = t.user_id WHERE t.id = :id")
+                .bind("id", id)
+                .map(ReactiveTaskRepository::task)
+                .one();
+    }
+
+    // As linhas são pedidas ao driver conforme quem consome a Flux as pede
+    public Flux<TaskView> findViewsByUserId(long userId) {
+        return this.databaseClient.sql(VIEW_QUERY + " ORDER BY t.id")
+                .bind("userId", userId)
+                .map(ReactiveTaskRepository::view)
+                .all();
+    }
+
+    public Flux<TaskView> findPageByUserId(long userId, long afterId, int limit) {
+        return this.databaseClient.sql(VIEW_QUERY + " AND t.id > :afterId ORDER BY t.id LIMIT :limit")
+                .bind("userId", userId)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveTaskRepository::view)
+                .all();
+    }
+
+    public Mono<Void> insert(long id, long userId, String description) {
+        return this.databaseClient
+                .sql("INSERT INTO task (id, user_id, description, version) VALUES (:id, :userId, :description, 0)")
+                .bind("id", id)
+                .bind("userId", userId)
+                .bind("description", description)
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    // Linhas alteradas: 0 se a versão mudou (ou a tarefa não existe mais)
+    public Mono<Integer> updateDescription(long id, String description, long version) {
+        return this.databaseClient
+                .sql("UPDATE task SET description = :description, version = version + 1 WHERE id = :id AND version = :version")
+                .bind("description", description)
+                .bind("id", id)
+                .bind("version", version)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Integer> deleteById(long id) {
+        return this.databaseClient.sql("DELETE FROM task WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<UserTaskStats> findStats(long userId) {
+        return this.databaseClient.sql("SELECT user_id, task_count FROM user_task_stats WHERE user_id = :userId")
+                .bind("userId", userId)
+                .map(row -> new UserTaskStats(row.get("user_id", Long.class), row.get("task_count", Long.class)))
+                .one();
+    }
+
+    // Linha criada já com a contagem real, como no TaskStatsService
+    public Mono<Void> insertStats(long userId) {
+        return this.databaseClient.sql("INSERT INTO user_task_stats (user_id, task_count)"
+                + " SELECT u.id, COUNT(t.id) FROM user u LEFT JOIN task t ON t.user_id = u.id"
+                + " WHERE u.id = :userId GROUP BY u.id")
+                .bind("userId", userId)
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    // Sem linha não há o que somar (ver TaskStatsService.addTasks)
+    public Mono<Void> addTasks(long userId, long delta) {
+        return this.databaseClient
+                .sql("UPDATE user_task_stats SET task_count = task_count + :delta WHERE user_id = :userId")
+                .bind("delta", delta)
+                .bind("userId", userId)
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    private static TaskView view(Row row) {
+        return new TaskView(row.get("id", Long.class), row.get("description", String.class),
+                row.get("user_id", Long.class), row.get("username", String.class), row.get("version", Long.class));
+    }
+
+    private static Task task(Row row) {
+        User user = new User();
+        user.setId(row.get("user_id", Long.class));
+        user.setUsername(row.get("username", String.class));
+        user.setVersion(row.get("user_version", Long.class));
+        return new Task(row.get("id", Long.class), user, row.get("description", String.class),
+                row.get("version", Long.class));
+    }
+}
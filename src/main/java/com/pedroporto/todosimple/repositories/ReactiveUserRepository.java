@@ -0,0 +1,80 @@
+package com.pedroporto.todosimple.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.pedroporto.todosimple.models.User;
+
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Mono;
+
+// Acesso à tabela user pela pilha reativa (R2DBC, SQL explícito). As
+// alterações seguem o @Version do JPA: só valem se a versão lida ainda for
+// a atual e a incrementam.
+@Repository
+@Profile("reactive")
+public class ReactiveUserRepository {
+
+    private static final String COLUMNS = "id, username, password, version";
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveUserRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<User> findById(long id) {
+        return this.databaseClient.sql("SELECT " + COLUMNS + " FROM user WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::user)
+                .one();
+    }
+
+    public Mono<User> findByUsername(String username) {
+        return this.databaseClient.sql("SELECT " + COLUMNS + " FROM user WHERE username = :username")
+                .bind("username", username)
+                .map(ReactiveUserRepository::user)
+                .one();
+    }
+
+    public Mono<Void> insert(User user) {
+        return this.databaseClient
+                .sql("INSERT INTO user (id, username, password, version) VALUES (:id, :username, :password, 0)")
+                .bind("id", user.getId())
+                .bind("username", user.getUsername())
+                .bind("password", user.getPassword())
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    // Linhas alteradas: 0 se a versão mudou (ou o usuário não existe mais)
+    public Mono<Integer> updatePassword(long id, String password, long version) {
+        return this.databaseClient
+                .sql("UPDATE user SET password = :password, version = version + 1 WHERE id = :id AND version = :version")
+                .bind("password", password)
+                .bind("id", id)
+                .bind("version", version)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Integer> deleteById(long id) {
+        return this.databaseClient.sql("DELETE FROM user WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static User user(Row row) {
+        User user = new User();
+        user.setId(row.get("id", Long.class));
+        user.setUsername(row.get("username", String.class));
+        user.setPassword(row.get("password", String.class));
+        user.setVersion(row.get("version", Long.class));
+        return user;
+    }
+}
@@ -1,14 +1,68 @@
 package com.pedroporto.todosimple.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.dto.TaskView;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
 
-    List<Task> findByUser_Id(Long userId);
+    // Quantidade de linhas trazidas do banco a cada ida ao cursor JDBC
+    String STREAM_FETCH_SIZE = "500";
+
+    // `t.user.id` é a própria coluna user_id, sem JOIN com user: a consulta
+    // usa o índice (user_id, id) da tarefa (ver db/migration)
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId")
+    List<Task> findByUser_Id(@Param("userId") Long userId);
+
+    @Query("SELECT COUNT(t) FROM Task t WHERE t.user.id = :userId")
+    long countByUser_Id(@Param("userId") Long userId);
+
+    // Mesma listagem de findByUser_Id, mas projetada direto em TaskView: nenhuma
+    // entidade entra no contexto de persistência.
+    @Query("SELECT new com.pedroporto.todosimple.models.dto.TaskView(t.id, t.description, u.id, u.username, t.version) "
+            + "FROM Task t JOIN t.user u WHERE u.id = :userId ORDER BY t.id")
+    List<TaskView> findViewsByUser_Id(@Param("userId") Long userId);
+
+    // Retorna, dentre os ids informados, os que existem no banco junto com o
+    // id do usuário dono de cada tarefa.
+    @Query("SELECT t.id AS id, t.user.id AS userId FROM Task t WHERE t.id IN :ids")
+    List<TaskOwner> findOwnersByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface TaskOwner {
+        Long getId();
+
+        Long getUserId();
+    }
+
+    // Paginação por chave (keyset): busca as tarefas com id maior que o último
+    // id já entregue, sem OFFSET, usando o Pageable apenas como LIMIT.
+    @Query("SELECT new com.pedroporto.todosimple.models.dto.TaskView(t.id, t.description, u.id, u.username, t.version) "
+            + "FROM Task t JOIN t.user u WHERE u.id = :userId AND t.id > :afterId ORDER BY t.id")
+    List<TaskView> findPageByUser_Id(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
+
+    // Percorre as tarefas do usuário por um cursor, sem materializar a lista
+    // inteira. Deve ser consumido dentro de uma transação e fechado ao final.
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("SELECT new com.pedroporto.todosimple.models.dto.TaskView(t.id, t.description, u.id, u.username, t.version) "
+            + "FROM Task t JOIN t.user u WHERE u.id = :userId ORDER BY t.id")
+    Stream<TaskView> streamByUser_Id(@Param("userId") Long userId);
+
+    // Percorre todas as tarefas da tabela, usado para reconstruir o índice de busca
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("SELECT new com.pedroporto.todosimple.models.dto.TaskView(t.id, t.description, u.id, u.username, t.version) "
+            + "FROM Task t JOIN t.user u")
+    Stream<TaskView> streamAllViews();
 
 }
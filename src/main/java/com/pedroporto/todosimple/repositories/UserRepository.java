@@ -1,6 +1,12 @@
 package com.pedroporto.todosimple.repositories;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.pedroporto.todosimple.models.User;
@@ -8,4 +14,17 @@ import com.pedroporto.todosimple.models.User;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    List<User> findAllByUsernameIn(Collection<String> usernames);
+
+    // Migração das senhas: as que ainda não são hash bcrypt (ver
+    // PasswordHasher), página a página pelo id
+    @Query(nativeQuery = true, value = "SELECT * FROM user WHERE id > :after "
+            + "AND NOT (password LIKE '$2%' AND CHAR_LENGTH(password) = 60) ORDER BY id LIMIT :limit")
+    List<User> findPlainTextPasswordsAfter(@Param("after") long after, @Param("limit") int limit);
+
+    // Troca a senha pelo hash só se ela não mudou desde a leitura
+    @Modifying
+    @Query("UPDATE User u SET u.password = :hash, u.version = u.version + 1 "
+            + "WHERE u.id = :id AND u.password = :password")
+    int replacePassword(@Param("id") Long id, @Param("password") String password, @Param("hash") String hash);
 }
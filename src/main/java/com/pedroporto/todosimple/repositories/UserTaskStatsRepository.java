@@ -0,0 +1,44 @@
+package com.pedroporto.todosimple.repositories;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.pedroporto.todosimple.models.UserTaskStats;
+
+@Repository
+public interface UserTaskStatsRepository extends JpaRepository<UserTaskStats, Long> {
+
+    // Incremento atômico no banco, sem ler a linha antes. Devolve 0 se o
+    // usuário ainda não tem linha de estatísticas.
+    @Modifying
+    @Query("UPDATE UserTaskStats s SET s.taskCount = s.taskCount + :delta WHERE s.userId = :userId")
+    int addTasks(@Param("userId") Long userId, @Param("delta") long delta);
+
+    // Reconciliação, página a página (paginação por chave): ids dos próximos
+    // usuários depois de `after`
+    @Query(nativeQuery = true, value = "SELECT id FROM user WHERE id > :after ORDER BY id LIMIT :limit")
+    List<Long> findUserIdsAfter(@Param("after") long after, @Param("limit") int limit);
+
+    // Reconciliação: corrige as linhas da faixa de usuários cujo contador
+    // divergiu da tabela de tarefas e devolve quantas foram corrigidas
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE user_task_stats s "
+            + "SET task_count = (SELECT COUNT(*) FROM task t WHERE t.user_id = s.user_id) "
+            + "WHERE s.user_id BETWEEN :from AND :to "
+            + "AND s.task_count <> (SELECT COUNT(*) FROM task t WHERE t.user_id = s.user_id)")
+    int repairCounts(@Param("from") long from, @Param("to") long to);
+
+    // Reconciliação: cria as linhas que faltam na faixa de usuários
+    // (usuários anteriores às estatísticas ou que acabaram de mudar de shard)
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO user_task_stats (user_id, task_count) "
+            + "SELECT u.id, (SELECT COUNT(*) FROM task t WHERE t.user_id = u.id) FROM user u "
+            + "WHERE u.id BETWEEN :from AND :to "
+            + "AND NOT EXISTS (SELECT 1 FROM user_task_stats s WHERE s.user_id = u.id)")
+    int insertMissing(@Param("from") long from, @Param("to") long to);
+}
@@ -0,0 +1,33 @@
+package com.pedroporto.todosimple.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Consulta de busca já normalizada. Cada palavra vira um termo e uma palavra
+// terminada em '*' é buscada como prefixo ("reun*" casa com "reuniao").
+final class Query {
+
+    // Limite de termos, para que uma consulta enorme não percorra o índice inteiro
+    static final int MAX_TERMS = 16;
+
+    private Query() {
+    }
+
+    static List<Term> parse(String query) {
+        List<Term> terms = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            boolean prefix = word.endsWith("*");
+            List<String> tokens = Tokenizer.tokenize(prefix ? word.substring(0, word.length() - 1) : word);
+            for (int i = 0; i < tokens.size() && terms.size() < MAX_TERMS; i++) {
+                Term term = new Term(tokens.get(i), prefix && i == tokens.size() - 1);
+                if (!terms.contains(term)) {
+                    terms.add(term);
+                }
+            }
+        }
+        return terms;
+    }
+
+    record Term(String text, boolean prefix) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.pedroporto.todosimple.search;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.pedroporto.todosimple.models.dto.TaskSearchResult;
+import com.pedroporto.todosimple.models.dto.TaskView;
+
+// Índice de busca das descrições das tarefas, particionado por usuário: uma
+// busca só percorre o índice do próprio usuário, então o custo não depende
+// do total de tarefas na tabela.
+@Component
+public class TaskSearchIndex {
+
+    private final Map<Long, UserTaskIndex> partitions = new ConcurrentHashMap<>();
+
+    // As escritas passam por compute para que uma partição esvaziada nunca seja
+    // descartada enquanto outra escrita a está usando
+    public void put(Long taskId, Long userId, String description) {
+        this.partitions.compute(userId, (key, partition) -> {
+            UserTaskIndex target = Objects.isNull(partition) ? new UserTaskIndex() : partition;
+            target.put(taskId, description);
+            return target;
+        });
+    }
+
+    public void remove(Long taskId, Long userId) {
+        this.partitions.computeIfPresent(userId, (key, partition) -> {
+            partition.remove(taskId);
+            return partition.isEmpty() ? null : partition;
+        });
+    }
+
+    // Troca a partição do usuário inteira pelas tarefas informadas, lidas do
+    // banco depois de uma escrita feita em outra instância
+    public void replace(Long userId, List<TaskView> tasks) {
+        UserTaskIndex replacement = new UserTaskIndex();
+        tasks.forEach(task -> replacement.put(task.id(), task.description()));
+        this.partitions.compute(userId, (key, partition) -> replacement.isEmpty() ? null : replacement);
+    }
+
+    public TaskSearchResult search(Long userId, String query, int page, int size) {
+        List<Query.Term> terms = Query.parse(query);
+        UserTaskIndex partition = this.partitions.get(userId);
+        if (terms.isEmpty() || Objects.isNull(partition)) {
+            return new TaskSearchResult(query, 0, page, size, List.of());
+        }
+        return partition.search(query, terms, page, size);
+    }
+
+    public void clear() {
+        this.partitions.clear();
+    }
+}
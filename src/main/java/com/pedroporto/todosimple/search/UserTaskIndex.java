@@ -0,0 +1,155 @@
+package com.pedroporto.todosimple.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.pedroporto.todosimple.models.dto.TaskSearchResult;
+
+// Índice invertido das tarefas de um único usuário. Os termos ficam num
+// TreeMap para que as buscas por prefixo sejam um intervalo do mapa, e a
+// relevância é calculada com BM25 sobre as tarefas do próprio usuário.
+class UserTaskIndex {
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // termo -> (id da tarefa -> ocorrências do termo na descrição)
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    private long totalLength;
+
+    void put(Long taskId, String description) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : Tokenizer.tokenize(description)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+        this.lock.writeLock().lock();
+        try {
+            removeLocked(taskId);
+            this.documents.put(taskId, new Document(description, length, frequencies.keySet()));
+            this.totalLength += length;
+            frequencies.forEach((term, frequency) -> this.postings
+                    .computeIfAbsent(term, key -> new HashMap<>()).put(taskId, frequency));
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long taskId) {
+        this.lock.writeLock().lock();
+        try {
+            removeLocked(taskId);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    boolean isEmpty() {
+        this.lock.readLock().lock();
+        try {
+            return this.documents.isEmpty();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    // Todas as palavras da consulta precisam aparecer na tarefa; as terminadas
+    // em '*' casam com qualquer termo que comece com elas.
+    TaskSearchResult search(String query, List<Query.Term> terms, int page, int size) {
+        List<TaskSearchResult.Hit> hits = new ArrayList<>();
+        this.lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (Query.Term term : terms) {
+                Map<Long, Double> termScores = score(term);
+                scores = Objects.isNull(scores) ? termScores : intersect(scores, termScores);
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+            if (Objects.nonNull(scores)) {
+                scores.forEach((taskId, score) -> hits.add(
+                        new TaskSearchResult.Hit(taskId, this.documents.get(taskId).description(), score)));
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        hits.sort(Comparator.comparingDouble(TaskSearchResult.Hit::score).reversed()
+                .thenComparing(TaskSearchResult.Hit::id));
+        long from = Math.min((long) page * size, hits.size());
+        int to = (int) Math.min(from + size, hits.size());
+        return new TaskSearchResult(query, hits.size(), page, size, new ArrayList<>(hits.subList((int) from, to)));
+    }
+
+    private Map<Long, Double> score(Query.Term term) {
+        Map<Long, Double> scores = new HashMap<>();
+        Map<String, Map<Long, Integer>> matches = term.prefix()
+                ? this.postings.subMap(term.text(), true, term.text() + Character.MAX_VALUE, false)
+                : singleTerm(term.text());
+        double averageLength = this.documents.isEmpty() ? 1 : (double) this.totalLength / this.documents.size();
+        // Para prefixos, cada tarefa recebe o score do melhor termo que casou
+        matches.values().forEach(postingList -> {
+            double idf = Math.log(1 + (this.documents.size() - postingList.size() + 0.5) / (postingList.size() + 0.5));
+            postingList.forEach((taskId, frequency) -> {
+                double normalization = K1 * (1 - B + B * this.documents.get(taskId).length() / averageLength);
+                double score = idf * frequency * (K1 + 1) / (frequency + normalization);
+                scores.merge(taskId, score, Math::max);
+            });
+        });
+        return scores;
+    }
+
+    private Map<String, Map<Long, Integer>> singleTerm(String term) {
+        Map<Long, Integer> postingList = this.postings.get(term);
+        return Objects.isNull(postingList) ? Map.of() : Map.of(term, postingList);
+    }
+
+    // Mantém apenas as tarefas presentes nos dois mapas, somando os scores
+    private static Map<Long, Double> intersect(Map<Long, Double> left, Map<Long, Double> right) {
+        Map<Long, Double> smaller = left.size() <= right.size() ? left : right;
+        Map<Long, Double> larger = smaller == left ? right : left;
+        Map<Long, Double> result = new HashMap<>();
+        smaller.forEach((taskId, score) -> {
+            Double other = larger.get(taskId);
+            if (Objects.nonNull(other)) {
+                result.put(taskId, score + other);
+            }
+        });
+        return result;
+    }
+
+    private void removeLocked(Long taskId) {
+        Document document = this.documents.remove(taskId);
+        if (Objects.isNull(document)) {
+            return;
+        }
+        this.totalLength -= document.length();
+        for (String term : document.terms()) {
+            Map<Long, Integer> postingList = this.postings.get(term);
+            if (Objects.nonNull(postingList)) {
+                postingList.remove(taskId);
+                if (postingList.isEmpty()) {
+                    this.postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private record Document(String description, int length, Set<String> terms) {
+    }
+}
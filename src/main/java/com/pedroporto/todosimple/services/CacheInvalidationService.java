@@ -0,0 +1,190 @@
+package com.pedroporto.todosimple.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.pedroporto.todosimple.configs.CacheConfig;
+import com.pedroporto.todosimple.invalidation.Invalidation;
+import com.pedroporto.todosimple.invalidation.InvalidationBroker;
+import com.pedroporto.todosimple.invalidation.InvalidationOutbox;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Invalidação exata das entradas de cache afetadas por uma escrita.
+// A entrada é removida imediatamente e, se houver transação em andamento,
+// removida de novo quando ela termina; assim uma leitura concorrente que
+// recarregue o valor antigo antes do commit não fica no cache.
+//
+// Com `app.cache.invalidation.enabled`, as invalidações também vão para a
+// outbox (cache_invalidation) na mesma transação da escrita, logo antes do
+// commit, e as outras instâncias as aplicam ao ler a tabela (ver
+// InvalidationTailer). Sem transação, a linha é gravada na hora.
+@Slf4j
+@Service
+public class CacheInvalidationService {
+
+    private final CacheManager cacheManager;
+
+    private final InvalidationOutbox outbox;
+
+    private final ObjectProvider<InvalidationBroker> broker;
+
+    private final boolean outboxEnabled;
+
+    @Autowired
+    public CacheInvalidationService(CacheManager cacheManager, InvalidationOutbox outbox,
+            ObjectProvider<InvalidationBroker> broker,
+            @Value("${app.cache.invalidation.enabled:false}") boolean outboxEnabled) {
+        this.cacheManager = cacheManager;
+        this.outbox = outbox;
+        this.broker = broker;
+        this.outboxEnabled = outboxEnabled;
+    }
+
+    public void evictUser(Long userId) {
+        List<Invalidation> invalidations = new ArrayList<>();
+        add(invalidations, Invalidation.Type.USER, userId);
+        invalidate(invalidations);
+    }
+
+    public void evictTask(Long taskId, Long userId) {
+        List<Invalidation> invalidations = new ArrayList<>();
+        add(invalidations, Invalidation.Type.TASK, taskId);
+        add(invalidations, Invalidation.Type.USER_TASKS, userId);
+        invalidate(invalidations);
+    }
+
+    public void evictTasks(Collection<Long> taskIds, Collection<Long> userIds) {
+        List<Invalidation> invalidations = new ArrayList<>(taskIds.size() + userIds.size());
+        taskIds.forEach(taskId -> add(invalidations, Invalidation.Type.TASK, taskId));
+        userIds.forEach(userId -> add(invalidations, Invalidation.Type.USER_TASKS, userId));
+        invalidate(invalidations);
+    }
+
+    // Invalidações vindas de outras instâncias: só o cache local
+    public void apply(Collection<Invalidation> invalidations) {
+        invalidations.forEach(invalidation -> forEachEntry(invalidation, this::evictLocal));
+    }
+
+    // Quando não dá para saber o que mudou nas outras instâncias
+    public void evictAll() {
+        for (String cacheName : this.cacheManager.getCacheNames()) {
+            Cache cache = this.cacheManager.getCache(cacheName);
+            if (Objects.nonNull(cache)) {
+                cache.clear();
+            }
+        }
+    }
+
+    private static void add(List<Invalidation> invalidations, Invalidation.Type type, Long id) {
+        if (Objects.nonNull(id)) {
+            invalidations.add(new Invalidation(type, id));
+        }
+    }
+
+    private void invalidate(List<Invalidation> invalidations) {
+        invalidations.forEach(invalidation -> forEachEntry(invalidation, this::evict));
+        if (this.outboxEnabled && !invalidations.isEmpty()) {
+            publish(invalidations);
+        }
+    }
+
+    // Entradas de cache (nome do cache, chave) cobertas por uma invalidação
+    private static void forEachEntry(Invalidation invalidation, BiConsumer<String, Long> action) {
+        switch (invalidation.type()) {
+            case USER -> {
+                action.accept(CacheConfig.USERS, invalidation.id());
+                action.accept(CacheConfig.TASKS_BY_USER, invalidation.id());
+            }
+            case TASK -> action.accept(CacheConfig.TASKS, invalidation.id());
+            case USER_TASKS -> action.accept(CacheConfig.TASKS_BY_USER, invalidation.id());
+        }
+    }
+
+    private void publish(List<Invalidation> invalidations) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            PendingInvalidations pending = (PendingInvalidations) TransactionSynchronizationManager.getResource(this);
+            if (Objects.isNull(pending)) {
+                pending = new PendingInvalidations();
+                TransactionSynchronizationManager.bindResource(this, pending);
+                TransactionSynchronizationManager.registerSynchronization(pending);
+            }
+            pending.invalidations.addAll(invalidations);
+            return;
+        }
+        this.outbox.append(invalidations);
+        sendToBroker(invalidations);
+    }
+
+    private void sendToBroker(List<Invalidation> invalidations) {
+        InvalidationBroker invalidationBroker = this.broker.getIfAvailable();
+        if (Objects.isNull(invalidationBroker)) {
+            return;
+        }
+        try {
+            invalidationBroker.publish(invalidations);
+        } catch (RuntimeException e) {
+            // A outbox entrega de qualquer forma, só que no próximo ciclo
+            log.warn("Failed to publish cache invalidations to the broker: " + e.getMessage());
+        }
+    }
+
+    private void evict(String cacheName, Long key) {
+        Cache cache = this.cacheManager.getCache(cacheName);
+        if (Objects.isNull(cache) || Objects.isNull(key)) {
+            return;
+        }
+        cache.evict(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(key);
+                }
+            });
+        }
+    }
+
+    private void evictLocal(String cacheName, Long key) {
+        Cache cache = this.cacheManager.getCache(cacheName);
+        if (Objects.nonNull(cache)) {
+            cache.evict(key);
+        }
+    }
+
+    // Invalidações acumuladas na transação, gravadas numa única ida ao banco
+    // antes do commit (na mesma conexão) e enviadas ao broker depois dele
+    private final class PendingInvalidations implements TransactionSynchronization {
+
+        private final List<Invalidation> invalidations = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            outbox.append(this.invalidations);
+        }
+
+        @Override
+        public void afterCommit() {
+            sendToBroker(this.invalidations);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationService.this);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.pedroporto.todosimple.services;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pedroporto.todosimple.imports.ImportRow;
+import com.pedroporto.todosimple.imports.RowReader;
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.User.CreateUser;
+import com.pedroporto.todosimple.models.dto.BatchItemResult;
+import com.pedroporto.todosimple.models.dto.ImportLine;
+import com.pedroporto.todosimple.sharding.ShardContext;
+import com.pedroporto.todosimple.sharding.ShardDirectory;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Importação em massa de usuários e tarefas. O arquivo é lido em blocos de
+// `app.import.chunk-size` linhas: cada bloco é validado, tem suas referências
+// a usuários resolvidas numa única consulta e é gravado em lotes JDBC, então
+// a memória usada não depende do tamanho do arquivo.
+@Slf4j
+@Service
+public class ImportService {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskBatchService taskBatchService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    @Autowired
+    public ImportService(PlatformTransactionManager transactionManager,
+            @Value("${app.import.chunk-size:1000}") int chunkSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    // Colunas: username, password
+    public void importUsers(RowReader reader, Consumer<ImportLine> report) throws IOException {
+        importChunks(reader, report, this::importUserChunk);
+    }
+
+    // Colunas: description e o dono da tarefa, por user_id ou username
+    public void importTasks(RowReader reader, Consumer<ImportLine> report) throws IOException {
+        importChunks(reader, report, this::importTaskChunk);
+    }
+
+    private void importChunks(RowReader reader, Consumer<ImportLine> report, ChunkImporter importer)
+            throws IOException {
+        long processed = 0;
+        long failed = 0;
+        List<ImportRow> chunk = new ArrayList<>(this.chunkSize);
+        ImportRow row;
+        do {
+            row = reader.next();
+            if (Objects.nonNull(row)) {
+                chunk.add(row);
+            }
+            if (chunk.size() == this.chunkSize || (Objects.isNull(row) && !chunk.isEmpty())) {
+                List<ImportRow> valid = new ArrayList<>();
+                List<ImportLine> errors = new ArrayList<>();
+                for (ImportRow candidate : chunk) {
+                    if (candidate.isValid()) {
+                        valid.add(candidate);
+                    } else {
+                        errors.add(ImportLine.error(candidate.number(), HttpStatus.BAD_REQUEST.value(),
+                                candidate.error()));
+                    }
+                }
+                if (!valid.isEmpty()) {
+                    importer.importChunk(valid, errors);
+                }
+                processed += chunk.size();
+                failed += errors.size();
+                errors.sort(Comparator.comparing(ImportLine::row));
+                errors.forEach(report);
+                report.accept(ImportLine.progress(processed, processed - failed, failed));
+                chunk.clear();
+            }
+        } while (Objects.nonNull(row));
+        report.accept(ImportLine.summary(processed, processed - failed, failed));
+    }
+
+    private void importUserChunk(List<ImportRow> rows, List<ImportLine> errors) {
+        List<ImportRow> accepted = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        Set<String> usernames = new HashSet<>();
+        for (ImportRow row : rows) {
+            User user = new User();
+            user.setUsername(row.get("username"));
+            user.setPassword(row.get("password"));
+            String violation = validate(user, CreateUser.class);
+            if (Objects.nonNull(violation)) {
+                errors.add(ImportLine.error(row.number(), HttpStatus.UNPROCESSABLE_ENTITY.value(), violation));
+            } else if (!usernames.add(user.getUsername())) {
+                errors.add(ImportLine.error(row.number(), HttpStatus.CONFLICT.value(),
+                        "Username repetido no arquivo: " + user.getUsername()));
+            } else {
+                accepted.add(row);
+                users.add(user);
+            }
+        }
+
+        // Usernames que já existem no banco, numa única consulta por bloco
+        Set<String> existing = this.userService.findAllByUsername(usernames).keySet();
+        List<ImportRow> pending = new ArrayList<>();
+        List<User> pendingUsers = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            if (existing.contains(users.get(i).getUsername())) {
+                errors.add(ImportLine.error(accepted.get(i).number(), HttpStatus.CONFLICT.value(),
+                        "Username já cadastrado: " + users.get(i).getUsername()));
+            } else {
+                pending.add(accepted.get(i));
+                pendingUsers.add(users.get(i));
+            }
+        }
+        if (pendingUsers.isEmpty()) {
+            return;
+        }
+        try {
+            List<String> hashes = this.passwordHasher.hashAll(pendingUsers.stream().map(User::getPassword).toList());
+            for (int i = 0; i < pendingUsers.size(); i++) {
+                pendingUsers.get(i).setPassword(hashes.get(i));
+            }
+            // Com sharding, os usuários do bloco vão juntos para um bucket sorteado
+            ShardContext.run(this.shardDirectory.scopeForNewUser(),
+                    () -> this.transactionTemplate.executeWithoutResult(status -> {
+                        pendingUsers.forEach(this.entityManager::persist);
+                        this.entityManager.flush();
+                        this.entityManager.clear();
+                    }));
+        } catch (RuntimeException e) {
+            log.error("Failed to import a chunk of " + pendingUsers.size() + " users", e);
+            pending.forEach(row -> errors.add(ImportLine.error(row.number(), HttpStatus.CONFLICT.value(),
+                    "Não foi possível importar o usuário.")));
+        }
+    }
+
+    private void importTaskChunk(List<ImportRow> rows, List<ImportLine> errors) {
+        // Donos referenciados por username são resolvidos numa única consulta
+        Set<String> usernames = new HashSet<>();
+        for (ImportRow row : rows) {
+            if (Objects.isNull(row.get("user_id")) && Objects.nonNull(row.get("username"))) {
+                usernames.add(row.get("username"));
+            }
+        }
+        Map<String, User> owners = usernames.isEmpty() ? Map.of() : this.userService.findAllByUsername(usernames);
+
+        List<ImportRow> accepted = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>();
+        for (ImportRow row : rows) {
+            Long userId;
+            try {
+                userId = resolveOwner(row, owners);
+            } catch (IllegalArgumentException e) {
+                errors.add(ImportLine.error(row.number(), HttpStatus.UNPROCESSABLE_ENTITY.value(), e.getMessage()));
+                continue;
+            }
+            if (Objects.isNull(userId)) {
+                errors.add(ImportLine.error(row.number(), HttpStatus.NOT_FOUND.value(),
+                        "Usuário não encontrado: " + row.get("username")));
+                continue;
+            }
+            User owner = new User();
+            owner.setId(userId);
+            Task task = new Task();
+            task.setUser(owner);
+            task.setDescription(row.get("description"));
+            accepted.add(row);
+            tasks.add(task);
+        }
+
+        // Validação, usuários por id e gravação em lotes ficam com o TaskBatchService
+        List<BatchItemResult> results = this.taskBatchService.create(tasks);
+        for (BatchItemResult result : results) {
+            if (!result.isSuccess()) {
+                errors.add(ImportLine.error(accepted.get(result.getIndex()).number(), result.getStatus(),
+                        result.getMessage()));
+            }
+        }
+    }
+
+    private Long resolveOwner(ImportRow row, Map<String, User> owners) {
+        String userId = row.get("user_id");
+        if (Objects.nonNull(userId)) {
+            try {
+                return Long.parseLong(userId.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("user_id inválido: " + userId);
+            }
+        }
+        if (Objects.isNull(row.get("username"))) {
+            throw new IllegalArgumentException("Informe user_id ou username.");
+        }
+        User owner = owners.get(row.get("username"));
+        return Objects.isNull(owner) ? null : owner.getId();
+    }
+
+    private String validate(Object obj, Class<?> group) {
+        Set<ConstraintViolation<Object>> violations = this.validator.validate(obj, group);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        ConstraintViolation<Object> violation = violations.iterator().next();
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    @FunctionalInterface
+    private interface ChunkImporter {
+        void importChunk(List<ImportRow> rows, List<ImportLine> errors);
+    }
+}
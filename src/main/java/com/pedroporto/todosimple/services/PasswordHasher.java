@@ -0,0 +1,194 @@
+package com.pedroporto.todosimple.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Service;
+
+import com.pedroporto.todosimple.admission.AdmissionRejectedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+// Hash de senhas com bcrypt. Cada hash custa centenas de milissegundos de
+// CPU, então roda num pool próprio e limitado (`threads` threads e fila de
+// `queue-capacity`): uma rajada de cadastros espera ou recebe 503, mas não
+// tira CPU das rotas de tarefas. Quem chamou só bloqueia esperando o
+// resultado, o que com threads virtuais não prende thread de plataforma.
+//
+// Com `cost=0` o custo é calibrado na subida: o maior em que um hash leva
+// até `target-latency` nesta máquina (nunca abaixo de MIN_COST).
+@Slf4j
+@Service
+public class PasswordHasher {
+
+    private static final int MIN_COST = 10;
+
+    private static final int MAX_COST = 16;
+
+    private final ThreadPoolExecutor executor;
+
+    private final int cost;
+
+    // Hash de uma senha qualquer, conferido quando o username não existe
+    private final String dummyHash;
+
+    private final Timer hashTimer;
+
+    private final Counter rejected;
+
+    @Autowired
+    public PasswordHasher(MeterRegistry meterRegistry,
+            @Value("${app.security.password.cost:0}") int cost,
+            @Value("${app.security.password.target-latency:PT0.25S}") Duration targetLatency,
+            @Value("${app.security.password.threads:0}") int threads,
+            @Value("${app.security.password.queue-capacity:100}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, queue,
+                Thread.ofPlatform().name("password-hash-", 0).daemon().factory());
+        this.cost = cost > 0 ? cost : calibrate(targetLatency);
+        this.dummyHash = BCrypt.hashpw("dummy-password", BCrypt.gensalt(this.cost));
+        this.hashTimer = Timer.builder("app.security.password.hash")
+                .description("Time to hash or verify one password, excluding the queue")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("app.security.password.rejected")
+                .description("Password operations rejected because the hashing queue was full")
+                .register(meterRegistry);
+        Gauge.builder("app.security.password.queue", queue, BlockingQueue::size)
+                .description("Password operations waiting for a hashing thread")
+                .register(meterRegistry);
+    }
+
+    public int getCost() {
+        return this.cost;
+    }
+
+    public String hash(String password) {
+        return await(submit(() -> BCrypt.hashpw(password, BCrypt.gensalt(this.cost))));
+    }
+
+    // Para importações: mantém no máximo um hash por thread do pool em
+    // andamento, em vez de encher a fila e ter o resto recusado
+    public List<String> hashAll(List<String> passwords) {
+        List<String> hashes = new ArrayList<>(passwords.size());
+        Deque<Future<String>> running = new ArrayDeque<>();
+        for (String password : passwords) {
+            if (running.size() >= this.executor.getMaximumPoolSize()) {
+                hashes.add(await(running.poll()));
+            }
+            running.add(submit(() -> BCrypt.hashpw(password, BCrypt.gensalt(this.cost))));
+        }
+        while (!running.isEmpty()) {
+            hashes.add(await(running.poll()));
+        }
+        return hashes;
+    }
+
+    // Sem senha gravada (username que não existe) a senha ainda é conferida,
+    // contra um hash fictício do mesmo custo: o tempo da resposta não revela
+    // quais usernames existem.
+    //
+    // Senhas gravadas antes do hash (texto puro) também são aceitas, até que
+    // o próximo login (needsRehash) ou a migração em lote
+    // (PasswordMigrationService) as converta
+    public boolean matches(String password, String stored) {
+        if (Objects.isNull(password)) {
+            return false;
+        }
+        if (Objects.isNull(stored)) {
+            await(submit(() -> BCrypt.checkpw(password, this.dummyHash)));
+            return false;
+        }
+        if (!isHash(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        return await(submit(() -> BCrypt.checkpw(password, stored)));
+    }
+
+    // Texto puro ou hash com custo diferente do atual
+    public boolean needsRehash(String stored) {
+        return !isHash(stored) || costOf(stored) != this.cost;
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.executor.shutdown();
+    }
+
+    private <T> Future<T> submit(Callable<T> operation) {
+        try {
+            return this.executor.submit(() -> this.hashTimer.recordCallable(operation));
+        } catch (RejectedExecutionException e) {
+            this.rejected.increment();
+            throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE, 1,
+                    "Muitas operações de senha em andamento; tente novamente em instantes.");
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrompido esperando o hash da senha.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha ao calcular o hash da senha.", e.getCause());
+        }
+    }
+
+    private static boolean isHash(String stored) {
+        return stored.length() == 60 && stored.startsWith("$2");
+    }
+
+    // "$2a$10$..." -> 10
+    private static int costOf(String hash) {
+        return Integer.parseInt(hash.substring(4, 6));
+    }
+
+    // Cada ponto de custo dobra o tempo do hash: mede o custo mínimo e sobe
+    // enquanto couber na latência desejada
+    private static int calibrate(Duration targetLatency) {
+        String salt = BCrypt.gensalt(MIN_COST);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        int cost = MIN_COST;
+        long estimate = best;
+        while (cost < MAX_COST && estimate * 2 <= targetLatency.toNanos()) {
+            estimate *= 2;
+            cost++;
+        }
+        log.info("Calibrated bcrypt cost " + cost + " (~" + TimeUnit.NANOSECONDS.toMillis(estimate)
+                + "ms per hash, target " + targetLatency.toMillis() + "ms)");
+        return cost;
+    }
+}
@@ -0,0 +1,91 @@
+package com.pedroporto.todosimple.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.repositories.UserRepository;
+import com.pedroporto.todosimple.sharding.ShardDirectory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// Converte em lote as senhas ainda gravadas em texto puro (de antes do
+// bcrypt), para que não dependam de um login para deixar de existir. Roda
+// pouco depois da subida e depois a cada `migration-interval`, percorrendo
+// os usuários de cada shard em páginas de `migration-batch-size`. Uma senha
+// trocada entre a leitura e a gravação não é sobrescrita.
+@Slf4j
+@Service
+public class PasswordMigrationService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter migrated;
+
+    private final int batchSize;
+
+    @Autowired
+    public PasswordMigrationService(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${app.security.password.migration-batch-size:100}") int batchSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.migrated = Counter.builder("app.security.password.migrated")
+                .description("Plain-text passwords replaced by a bcrypt hash by the migration job")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.password.migration-interval:PT1H}",
+            initialDelayString = "${app.security.password.migration-delay:PT1M}")
+    public void migrate() {
+        long start = System.currentTimeMillis();
+        int[] rows = new int[1];
+        this.shardDirectory.forEachShard(() -> rows[0] += migrateShard());
+        this.migrated.increment(rows[0]);
+        if (rows[0] > 0) {
+            log.info("Hashed " + rows[0] + " plain-text passwords in " + (System.currentTimeMillis() - start) + "ms");
+        }
+    }
+
+    private int migrateShard() {
+        int rows = 0;
+        List<User> users = this.userRepository.findPlainTextPasswordsAfter(Long.MIN_VALUE, this.batchSize);
+        while (!users.isEmpty()) {
+            List<User> page = users;
+            List<String> hashes = this.passwordHasher.hashAll(page.stream().map(User::getPassword).toList());
+            rows += this.transactionTemplate.execute(status -> {
+                int replaced = 0;
+                for (int i = 0; i < page.size(); i++) {
+                    User user = page.get(i);
+                    if (this.userRepository.replacePassword(user.getId(), user.getPassword(), hashes.get(i)) > 0) {
+                        this.cacheInvalidationService.evictUser(user.getId());
+                        replaced++;
+                    }
+                }
+                return replaced;
+            });
+            users = this.userRepository.findPlainTextPasswordsAfter(page.get(page.size() - 1).getId(),
+                    this.batchSize);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,165 @@
+package com.pedroporto.todosimple.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.pedroporto.todosimple.invalidation.Invalidation;
+import com.pedroporto.todosimple.invalidation.ReactiveInvalidationOutbox;
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.dto.TaskPage;
+import com.pedroporto.todosimple.models.dto.TaskView;
+import com.pedroporto.todosimple.repositories.ReactiveIdAllocator;
+import com.pedroporto.todosimple.repositories.ReactiveTaskRepository;
+import com.pedroporto.todosimple.services.events.TaskChangedEvent;
+import com.pedroporto.todosimple.services.exceptions.DataBindingViolationException;
+import com.pedroporto.todosimple.services.exceptions.ObjectNotFoundException;
+import com.pedroporto.todosimple.services.exceptions.PreconditionFailedException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Versão reativa do TaskService (perfil "reactive"), com as mesmas regras e
+// mensagens. Cada escrita grava a tarefa, o contador do usuário e a outbox
+// de invalidação numa transação R2DBC; o TaskChangedEvent sai depois do
+// commit, sem transação do Spring em andamento, então a busca e o feed o
+// recebem na hora (fallbackExecution).
+@Service
+@Profile("reactive")
+public class ReactiveTaskService {
+
+    private final ReactiveTaskRepository taskRepository;
+
+    private final ReactiveUserService userService;
+
+    private final ReactiveIdAllocator idAllocator;
+
+    private final ReactiveInvalidationOutbox outbox;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public ReactiveTaskService(ReactiveTaskRepository taskRepository, ReactiveUserService userService,
+            ReactiveIdAllocator idAllocator, ReactiveInvalidationOutbox outbox,
+            TransactionalOperator transactionalOperator, ApplicationEventPublisher eventPublisher) {
+        this.taskRepository = taskRepository;
+        this.userService = userService;
+        this.idAllocator = idAllocator;
+        this.outbox = outbox;
+        this.transactionalOperator = transactionalOperator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public Mono<Task> findById(Long id) {
+        return this.taskRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ObjectNotFoundException(
+                        "Tarefa não encontrada! Id: " + id + ", Tipo: " + Task.class.getName())));
+    }
+
+    // 404 se o usuário não existir; as tarefas saem conforme são pedidas
+    public Flux<TaskView> findAllByUserId(Long userId) {
+        return this.userService.findById(userId)
+                .thenMany(this.taskRepository.findViewsByUserId(userId));
+    }
+
+    // Como em TaskService.findPageByUserId: um registro a mais que o limite
+    // só para saber se existe próxima página
+    public Mono<TaskPage> findPageByUserId(Long userId, String cursor, int limit) {
+        return this.userService.findById(userId)
+                .then(Mono.fromCallable(() -> TaskPage.decodeCursor(cursor)))
+                .flatMap(afterId -> this.taskRepository.findPageByUserId(userId, afterId, limit + 1).collectList())
+                .map(tasks -> {
+                    if (tasks.size() <= limit) {
+                        return new TaskPage(tasks, null);
+                    }
+                    List<TaskView> items = tasks.subList(0, limit);
+                    return new TaskPage(items, TaskPage.encodeCursor(items.get(limit - 1).id()));
+                });
+    }
+
+    // O id é reservado fora da transação, como no Hibernate
+    public Mono<Task> create(Task obj) {
+        Long userId = Objects.nonNull(obj.getUser()) ? obj.getUser().getId() : null;
+        return this.userService.findById(userId)
+                .zipWith(this.idAllocator.next(Task.TABLE_NAME))
+                .flatMap(userAndId -> {
+                    User user = userAndId.getT1();
+                    long id = userAndId.getT2();
+                    return this.taskRepository.insert(id, user.getId(), obj.getDescription())
+                            .then(this.taskRepository.addTasks(user.getId(), 1))
+                            .then(this.outbox.append(taskInvalidations(id, user.getId())))
+                            .as(this.transactionalOperator::transactional)
+                            .then(Mono.fromCallable(() -> {
+                                obj.setId(id);
+                                obj.setUser(user);
+                                obj.setVersion(0);
+                                this.eventPublisher.publishEvent(
+                                        TaskChangedEvent.created(id, user.getId(), obj.getDescription()));
+                                return obj;
+                            }));
+                });
+    }
+
+    // Com expectedVersions informado (If-Match), só altera a tarefa se a
+    // versão atual for uma delas. Uma alteração concorrente entre a leitura e
+    // o UPDATE vira OptimisticLockingFailureException, como no @Version.
+    public Mono<Task> update(Task obj, Collection<Long> expectedVersions) {
+        return findById(obj.getId())
+                .flatMap(newObj -> {
+                    if (Objects.nonNull(expectedVersions) && !expectedVersions.contains(newObj.getVersion())) {
+                        return Mono.error(new PreconditionFailedException(
+                                "A tarefa foi alterada por outra requisição! Id: " + newObj.getId()
+                                        + ", Versão atual: " + newObj.getVersion()));
+                    }
+                    Long userId = newObj.getUser().getId();
+                    return this.taskRepository.updateDescription(newObj.getId(), obj.getDescription(), newObj.getVersion())
+                            .flatMap(rows -> rows > 0
+                                    ? this.outbox.append(taskInvalidations(newObj.getId(), userId))
+                                    : Mono.<Void>error(new OptimisticLockingFailureException(
+                                            "Tarefa alterada concorrentemente! Id: " + newObj.getId())))
+                            .as(this.transactionalOperator::transactional)
+                            .then(Mono.fromCallable(() -> {
+                                newObj.setDescription(obj.getDescription());
+                                newObj.setVersion(newObj.getVersion() + 1);
+                                this.eventPublisher.publishEvent(
+                                        TaskChangedEvent.updated(newObj.getId(), userId, newObj.getDescription()));
+                                return newObj;
+                            }));
+                });
+    }
+
+    public Mono<Void> delete(Long id) {
+        return findById(id)
+                .flatMap(task -> {
+                    Long userId = task.getUser().getId();
+                    // Se uma exclusão concorrente levou a linha, foi ela que
+                    // descontou o contador e publicou o evento
+                    return this.taskRepository.deleteById(id)
+                            .filter(rows -> rows > 0)
+                            .flatMap(rows -> this.taskRepository.addTasks(userId, -1)
+                                    .then(this.outbox.append(taskInvalidations(id, userId)))
+                                    .thenReturn(rows))
+                            .as(this.transactionalOperator::transactional)
+                            .onErrorMap(DataIntegrityViolationException.class, e -> new DataBindingViolationException(
+                                    "Não é possível excluir a tarefa pois ela está sendo referenciada por outras entidades."))
+                            .flatMap(rows -> Mono.<Void>fromRunnable(
+                                    () -> this.eventPublisher.publishEvent(TaskChangedEvent.deleted(id, userId))));
+                });
+    }
+
+    private static List<Invalidation> taskInvalidations(long taskId, long userId) {
+        return List.of(new Invalidation(Invalidation.Type.TASK, taskId),
+                new Invalidation(Invalidation.Type.USER_TASKS, userId));
+    }
+}
@@ -0,0 +1,160 @@
+package com.pedroporto.todosimple.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.pedroporto.todosimple.invalidation.Invalidation;
+import com.pedroporto.todosimple.invalidation.ReactiveInvalidationOutbox;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.UserTaskStats;
+import com.pedroporto.todosimple.repositories.ReactiveIdAllocator;
+import com.pedroporto.todosimple.repositories.ReactiveTaskRepository;
+import com.pedroporto.todosimple.repositories.ReactiveUserRepository;
+import com.pedroporto.todosimple.services.exceptions.AuthenticationFailedException;
+import com.pedroporto.todosimple.services.exceptions.DataBindingViolationException;
+import com.pedroporto.todosimple.services.exceptions.ObjectNotFoundException;
+import com.pedroporto.todosimple.services.exceptions.PreconditionFailedException;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// Versão reativa do UserService (perfil "reactive"), com as mesmas regras e
+// mensagens. O bcrypt continua no pool do PasswordHasher; a espera por ele
+// fica numa thread do boundedElastic, nunca no event loop.
+@Service
+@Profile("reactive")
+public class ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+
+    private final ReactiveTaskRepository taskRepository;
+
+    private final ReactiveIdAllocator idAllocator;
+
+    private final ReactiveInvalidationOutbox outbox;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final PasswordHasher passwordHasher;
+
+    @Autowired
+    public ReactiveUserService(ReactiveUserRepository userRepository, ReactiveTaskRepository taskRepository,
+            ReactiveIdAllocator idAllocator, ReactiveInvalidationOutbox outbox,
+            TransactionalOperator transactionalOperator, PasswordHasher passwordHasher) {
+        this.userRepository = userRepository;
+        this.taskRepository = taskRepository;
+        this.idAllocator = idAllocator;
+        this.outbox = outbox;
+        this.transactionalOperator = transactionalOperator;
+        this.passwordHasher = passwordHasher;
+    }
+
+    // Sem id (tarefa criada sem usuário) também é 404
+    public Mono<User> findById(Long id) {
+        Mono<User> user = Objects.isNull(id) ? Mono.empty() : this.userRepository.findById(id);
+        return user.switchIfEmpty(Mono.error(() -> new ObjectNotFoundException(
+                "Usuário não encontrado! Id: " + id + ", Tipo: " + User.class.getName())));
+    }
+
+    // Username repetido esbarra na restrição UNIQUE (409), como no JPA
+    public Mono<User> create(User obj) {
+        return hash(obj.getPassword())
+                .zipWith(this.idAllocator.next(User.TABLE_NAME))
+                .flatMap(hashAndId -> {
+                    obj.setId(hashAndId.getT2());
+                    obj.setPassword(hashAndId.getT1());
+                    obj.setVersion(0);
+                    return this.userRepository.insert(obj).thenReturn(obj);
+                });
+    }
+
+    // Confere usuário e senha; um hash com custo antigo é refeito como em
+    // UserService.authenticate
+    public Mono<User> authenticate(String username, String password) {
+        // Username desconhecido também passa pelo bcrypt (ver PasswordHasher.matches)
+        return this.userRepository.findByUsername(username)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(user -> matches(password, user.map(User::getPassword).orElse(null))
+                        .filter(Boolean::booleanValue)
+                        .flatMap(matched -> Mono.justOrEmpty(user)))
+                .switchIfEmpty(Mono.error(() -> new AuthenticationFailedException("Usuário ou senha inválidos.")))
+                .flatMap(user -> this.passwordHasher.needsRehash(user.getPassword())
+                        ? rehash(user, password).thenReturn(user)
+                        : Mono.just(user));
+    }
+
+    // Se o usuário mudou no meio tempo, o hash fica para o próximo login
+    private Mono<Void> rehash(User user, String password) {
+        return hash(password)
+                .flatMap(hash -> this.userRepository.updatePassword(user.getId(), hash, user.getVersion())
+                        .filter(rows -> rows > 0)
+                        .flatMap(rows -> this.outbox.append(List.of(new Invalidation(Invalidation.Type.USER, user.getId()))))
+                        .as(this.transactionalOperator::transactional));
+    }
+
+    // Com expectedVersions informado (If-Match), só altera se a versão atual
+    // for uma delas; uma alteração concorrente vira
+    // OptimisticLockingFailureException, como no @Version
+    public Mono<User> update(User obj, Collection<Long> expectedVersions) {
+        return findById(obj.getId())
+                .flatMap(existingUser -> {
+                    if (Objects.nonNull(expectedVersions) && !expectedVersions.contains(existingUser.getVersion())) {
+                        return Mono.error(new PreconditionFailedException(
+                                "O usuário foi alterado por outra requisição! Id: " + existingUser.getId()
+                                        + ", Versão atual: " + existingUser.getVersion()));
+                    }
+                    return hash(obj.getPassword()).flatMap(hash -> this.userRepository
+                            .updatePassword(existingUser.getId(), hash, existingUser.getVersion())
+                            .flatMap(rows -> rows > 0
+                                    ? this.outbox.append(List.of(new Invalidation(Invalidation.Type.USER, existingUser.getId())))
+                                    : Mono.<Void>error(new OptimisticLockingFailureException(
+                                            "Usuário alterado concorrentemente! Id: " + existingUser.getId())))
+                            .as(this.transactionalOperator::transactional)
+                            .then(Mono.fromCallable(() -> {
+                                existingUser.setPassword(hash);
+                                existingUser.setVersion(existingUser.getVersion() + 1);
+                                return existingUser;
+                            })));
+                });
+    }
+
+    public Mono<Void> delete(Long id) {
+        return findById(id)
+                .flatMap(user -> this.userRepository.deleteById(id)
+                        .then(this.outbox.append(List.of(new Invalidation(Invalidation.Type.USER, id))))
+                        .as(this.transactionalOperator::transactional)
+                        .onErrorMap(DataIntegrityViolationException.class, e -> new DataBindingViolationException(
+                                "Não é possível excluir pois há entidades relacionadas!")));
+    }
+
+    // Contagem de tarefas mantida a cada escrita (ver TaskStatsService); a
+    // linha que falta é criada com a contagem real, e se outra requisição a
+    // criou ao mesmo tempo fica valendo a dela
+    public Mono<UserTaskStats> findStats(Long userId) {
+        return findById(userId)
+                .then(this.taskRepository.findStats(userId)
+                        .switchIfEmpty(Mono.defer(() -> this.taskRepository.insertStats(userId)
+                                .onErrorResume(DataIntegrityViolationException.class, e -> Mono.empty())
+                                .then(this.taskRepository.findStats(userId)))));
+    }
+
+    private Mono<String> hash(String password) {
+        return Mono.fromCallable(() -> this.passwordHasher.hash(password))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<Boolean> matches(String password, String stored) {
+        return Mono.fromCallable(() -> this.passwordHasher.matches(password, stored))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
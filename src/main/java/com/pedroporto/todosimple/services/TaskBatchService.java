@@ -0,0 +1,341 @@
+package com.pedroporto.todosimple.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.dto.BatchItemResult;
+import com.pedroporto.todosimple.repositories.TaskRepository;
+import com.pedroporto.todosimple.repositories.TaskRepository.TaskOwner;
+import com.pedroporto.todosimple.services.events.TaskChangedEvent;
+import com.pedroporto.todosimple.sharding.ShardContext;
+import com.pedroporto.todosimple.sharding.ShardDirectory;
+import com.pedroporto.todosimple.sharding.ShardMovingException;
+import com.pedroporto.todosimple.sharding.ShardScope;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Operações em lote sobre tarefas. Cada lote é dividido em blocos de
+// `app.tasks.batch.chunk-size` operações; cada bloco roda em sua própria
+// transação e é enviado ao banco como lotes JDBC (hibernate.jdbc.batch_size).
+// Com sharding as operações são agrupadas por shard antes da divisão em blocos.
+@Slf4j
+@Service
+public class TaskBatchService {
+
+    // Limite de operações aceitas em uma única requisição
+    public static final int MAX_OPERATIONS = 10_000;
+
+    // Tamanho máximo de uma cláusula IN ao validar os usuários
+    private static final int LOOKUP_SIZE = 1_000;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private TaskStatsService taskStatsService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    @Autowired
+    public TaskBatchService(PlatformTransactionManager transactionManager,
+            @Value("${app.tasks.batch.chunk-size:500}") int chunkSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public List<BatchItemResult> create(List<Task> objs) {
+        BatchItemResult[] results = new BatchItemResult[objs.size()];
+        Set<Long> userIds = new HashSet<>();
+        for (int i = 0; i < objs.size(); i++) {
+            Task obj = objs.get(i);
+            if (Objects.isNull(obj) || Objects.isNull(obj.getUser()) || Objects.isNull(obj.getUser().getId())) {
+                results[i] = BatchItemResult.failure(i, null, HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Usuário da tarefa não informado.");
+                continue;
+            }
+            String violation = validate(obj);
+            if (Objects.nonNull(violation)) {
+                results[i] = BatchItemResult.failure(i, null, HttpStatus.UNPROCESSABLE_ENTITY, violation);
+                continue;
+            }
+            userIds.add(obj.getUser().getId());
+        }
+
+        // Cada usuário distinto é validado uma única vez para o lote inteiro
+        Set<Long> existingUsers = findExistingUsers(userIds);
+        Map<ShardScope, List<Integer>> pending = new LinkedHashMap<>();
+        for (int i = 0; i < objs.size(); i++) {
+            if (Objects.nonNull(results[i])) {
+                continue;
+            }
+            Long userId = objs.get(i).getUser().getId();
+            if (!existingUsers.contains(userId)) {
+                results[i] = BatchItemResult.failure(i, null, HttpStatus.NOT_FOUND,
+                        "Usuário não encontrado! Id: " + userId + ", Tipo: " + User.class.getName());
+                continue;
+            }
+            ShardScope scope = this.shardDirectory.scopeForUser(userId);
+            pending.computeIfAbsent(new ShardScope(scope.shard(), 0, scope.frozen()), key -> new ArrayList<>())
+                    .add(i);
+        }
+
+        forEachShardChunk(pending, chunk -> {
+            for (Integer index : chunk) {
+                Task obj = objs.get(index);
+                obj.setId(null);
+                obj.setUser(this.entityManager.getReference(User.class, obj.getUser().getId()));
+                this.entityManager.persist(obj);
+            }
+            this.entityManager.flush();
+            Map<Long, Long> created = new HashMap<>();
+            for (Integer index : chunk) {
+                Task obj = objs.get(index);
+                results[index] = BatchItemResult.success(index, obj.getId(), HttpStatus.CREATED);
+                created.merge(obj.getUser().getId(), 1L, Long::sum);
+                this.eventPublisher.publishEvent(
+                        TaskChangedEvent.created(obj.getId(), obj.getUser().getId(), obj.getDescription()));
+            }
+            this.taskStatsService.addTasks(created);
+            this.cacheInvalidationService.evictTasks(Collections.emptySet(), created.keySet());
+        }, results, "criar");
+        return Arrays.asList(results);
+    }
+
+    public List<BatchItemResult> update(List<Task> objs) {
+        BatchItemResult[] results = new BatchItemResult[objs.size()];
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < objs.size(); i++) {
+            Task obj = objs.get(i);
+            if (Objects.isNull(obj) || Objects.isNull(obj.getId())) {
+                results[i] = BatchItemResult.failure(i, null, HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Id da tarefa não informado.");
+                continue;
+            }
+            String violation = validate(obj);
+            if (Objects.nonNull(violation)) {
+                results[i] = BatchItemResult.failure(i, obj.getId(), HttpStatus.UNPROCESSABLE_ENTITY, violation);
+                continue;
+            }
+            pending.add(i);
+        }
+
+        forEachTaskChunk(pending, index -> objs.get(index).getId(), chunk -> {
+            List<Long> ids = chunk.stream().map(index -> objs.get(index).getId()).collect(Collectors.toList());
+            Map<Long, Task> existing = this.taskRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Task::getId, Function.identity()));
+            for (Integer index : chunk) {
+                Task obj = objs.get(index);
+                Task newObj = existing.get(obj.getId());
+                if (Objects.isNull(newObj)) {
+                    results[index] = notFound(index, obj.getId());
+                    continue;
+                }
+                newObj.setDescription(obj.getDescription());
+                this.eventPublisher.publishEvent(
+                        TaskChangedEvent.updated(newObj.getId(), newObj.getUser().getId(), newObj.getDescription()));
+            }
+            this.entityManager.flush();
+            this.cacheInvalidationService.evictTasks(existing.keySet(), existing.values().stream()
+                    .map(task -> task.getUser().getId()).collect(Collectors.toSet()));
+            for (Integer index : chunk) {
+                if (Objects.isNull(results[index])) {
+                    results[index] = BatchItemResult.success(index, objs.get(index).getId(), HttpStatus.NO_CONTENT);
+                }
+            }
+        }, results, "atualizar");
+        return Arrays.asList(results);
+    }
+
+    public List<BatchItemResult> delete(List<Long> ids) {
+        BatchItemResult[] results = new BatchItemResult[ids.size()];
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (Objects.isNull(ids.get(i))) {
+                results[i] = BatchItemResult.failure(i, null, HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Id da tarefa não informado.");
+                continue;
+            }
+            pending.add(i);
+        }
+
+        forEachTaskChunk(pending, ids::get, chunk -> {
+            List<TaskOwner> owners = this.taskRepository.findOwnersByIdIn(
+                    chunk.stream().map(ids::get).collect(Collectors.toSet()));
+            Set<Long> existing = owners.stream().map(TaskOwner::getId).collect(Collectors.toSet());
+            // Um único DELETE ... WHERE id IN (...) por bloco
+            if (!existing.isEmpty()) {
+                this.taskRepository.deleteAllByIdInBatch(existing);
+                this.taskStatsService.addTasks(owners.stream()
+                        .collect(Collectors.groupingBy(TaskOwner::getUserId, Collectors.summingLong(owner -> -1L))));
+                this.cacheInvalidationService.evictTasks(existing,
+                        owners.stream().map(TaskOwner::getUserId).collect(Collectors.toSet()));
+                owners.forEach(owner -> this.eventPublisher.publishEvent(
+                        TaskChangedEvent.deleted(owner.getId(), owner.getUserId())));
+            }
+            for (Integer index : chunk) {
+                Long id = ids.get(index);
+                results[index] = existing.contains(id)
+                        ? BatchItemResult.success(index, id, HttpStatus.NO_CONTENT)
+                        : notFound(index, id);
+            }
+        }, results, "excluir");
+        return Arrays.asList(results);
+    }
+
+    private Set<Long> findExistingUsers(Set<Long> userIds) {
+        Set<Long> existing = new HashSet<>();
+        List<Long> ids = new ArrayList<>(userIds);
+        for (int from = 0; from < ids.size(); from += LOOKUP_SIZE) {
+            List<Long> slice = ids.subList(from, Math.min(from + LOOKUP_SIZE, ids.size()));
+            existing.addAll(this.userService.findAllById(slice).keySet());
+        }
+        return existing;
+    }
+
+    // Roda os blocos de cada grupo no shard do grupo
+    private void forEachShardChunk(Map<ShardScope, List<Integer>> groups, ChunkAction action,
+            BatchItemResult[] results, String operation) {
+        groups.forEach((scope, indexes) -> ShardContext.run(scope,
+                () -> forEachChunk(indexes, action, results, operation)));
+    }
+
+    // Operações sobre tarefas existentes: cada uma vai primeiro ao shard do
+    // bucket do id; as não encontradas lá seguem, em novas rodadas, para os
+    // outros candidatos do diretório (dono movido de shard).
+    private void forEachTaskChunk(List<Integer> pending, Function<Integer, Long> idOf, ChunkAction action,
+            BatchItemResult[] results, String operation) {
+        Map<Integer, List<ShardScope>> candidates = new HashMap<>();
+        for (Integer index : pending) {
+            candidates.put(index, this.shardDirectory.scopesForTask(idOf.apply(index)));
+        }
+        List<Integer> round = pending;
+        for (int attempt = 0; !round.isEmpty(); attempt++) {
+            Map<ShardScope, List<Integer>> groups = new LinkedHashMap<>();
+            for (Integer index : round) {
+                ShardScope scope = candidates.get(index).get(attempt);
+                groups.computeIfAbsent(new ShardScope(scope.shard(), 0, scope.frozen()), key -> new ArrayList<>())
+                        .add(index);
+            }
+            forEachShardChunk(groups, action, results, operation);
+            List<Integer> next = new ArrayList<>();
+            for (Integer index : round) {
+                if (Objects.nonNull(results[index]) && results[index].getStatus() == HttpStatus.NOT_FOUND.value()
+                        && candidates.get(index).size() > attempt + 1) {
+                    results[index] = null;
+                    next.add(index);
+                }
+            }
+            round = next;
+        }
+    }
+
+    // Executa cada bloco em uma transação própria. Se o bloco falhar no
+    // banco, ele é dividido ao meio e as metades rodam de novo, até isolar as
+    // operações que falham: uma linha ruim não derruba as outras do bloco.
+    // Só as operações que falham sozinhas são marcadas como falha, e os
+    // blocos seguintes continuam normalmente.
+    private void forEachChunk(List<Integer> pending, ChunkAction action, BatchItemResult[] results,
+            String operation) {
+        for (int from = 0; from < pending.size(); from += this.chunkSize) {
+            runChunk(pending.subList(from, Math.min(from + this.chunkSize, pending.size())), action, results,
+                    operation);
+        }
+    }
+
+    private void runChunk(List<Integer> chunk, ChunkAction action, BatchItemResult[] results, String operation) {
+        try {
+            this.transactionTemplate.executeWithoutResult(status -> {
+                action.execute(chunk);
+                this.entityManager.clear();
+            });
+        } catch (RuntimeException e) {
+            // Os resultados do bloco foram preenchidos na transação desfeita
+            for (Integer index : chunk) {
+                results[index] = null;
+            }
+            // Com o usuário mudando de shard, repetir não adianta
+            boolean moving = e instanceof ShardMovingException;
+            if (chunk.size() > 1 && !moving) {
+                log.warn("Failed to " + operation + " a chunk of " + chunk.size() + " tasks, splitting it: "
+                        + e.getMessage());
+                int half = chunk.size() / 2;
+                runChunk(chunk.subList(0, half), action, results, operation);
+                runChunk(chunk.subList(half, chunk.size()), action, results, operation);
+                return;
+            }
+            log.error("Failed to " + operation + " " + chunk.size() + " tasks", e);
+            // A causa fica só no log: a mensagem da exceção pode trazer SQL e nomes de tabela
+            HttpStatus status = moving ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.CONFLICT;
+            String message = moving
+                    ? "O usuário está sendo movido de shard. Tente novamente em instantes."
+                    : "Não foi possível " + operation + " a tarefa.";
+            for (Integer index : chunk) {
+                results[index] = BatchItemResult.failure(index, null, status, message);
+            }
+        }
+    }
+
+    private String validate(Task obj) {
+        Set<ConstraintViolation<Task>> violations = this.validator.validate(obj);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        ConstraintViolation<Task> violation = violations.iterator().next();
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    private BatchItemResult notFound(int index, Long id) {
+        return BatchItemResult.failure(index, id, HttpStatus.NOT_FOUND,
+                "Tarefa não encontrada! Id: " + id + ", Tipo: " + Task.class.getName());
+    }
+
+    @FunctionalInterface
+    private interface ChunkAction {
+        void execute(List<Integer> chunk);
+    }
+}
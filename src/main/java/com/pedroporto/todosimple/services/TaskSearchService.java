@@ -0,0 +1,152 @@
+package com.pedroporto.todosimple.services;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.pedroporto.todosimple.models.dto.TaskSearchResult;
+import com.pedroporto.todosimple.models.dto.TaskView;
+import com.pedroporto.todosimple.search.TaskSearchIndex;
+import com.pedroporto.todosimple.services.events.TaskChangedEvent;
+import com.pedroporto.todosimple.services.events.TaskListsChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Mantém o índice de busca em sincronia com o banco. Cada alteração de
+// tarefa é aplicada depois do commit; na inicialização o índice é
+// reconstruído a partir da tabela, e as alterações que chegam durante a
+// reconstrução ficam guardadas e são aplicadas ao final.
+//
+// Com várias instâncias (app.cache.invalidation.enabled), cada uma tem seu
+// índice: as escritas feitas nas outras chegam pela outbox de invalidação
+// (TaskListsChangedEvent) e as tarefas desses usuários são relidas do banco.
+// As escritas desta instância também são relidas quando voltam pela outbox,
+// o que corrige uma partição trocada ao mesmo tempo que um evento local.
+@Slf4j
+@Service
+public class TaskSearchService {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    private final boolean rebuildOnStartup;
+
+    private final Object rebuildLock = new Object();
+
+    // Não nulo enquanto o índice está sendo reconstruído
+    private List<TaskChangedEvent> pendingEvents;
+
+    // Usuários a reler ao final da reconstrução
+    private Set<Long> pendingUsers;
+
+    @Autowired
+    public TaskSearchService(@Value("${app.search.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    public TaskSearchResult search(Long userId, String query, int page, int size) {
+        return this.taskSearchIndex.search(userId, query, page, size);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        synchronized (this.rebuildLock) {
+            if (this.pendingEvents != null) {
+                this.pendingEvents.add(event);
+                return;
+            }
+        }
+        apply(event);
+    }
+
+    @EventListener
+    public void onTaskListsChanged(TaskListsChangedEvent event) {
+        synchronized (this.rebuildLock) {
+            // Uma reconstrução em andamento já relê a tabela inteira
+            if (this.pendingUsers != null) {
+                if (!event.isUnknown()) {
+                    this.pendingUsers.addAll(event.userIds());
+                }
+                return;
+            }
+        }
+        if (event.isUnknown()) {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Failed to rebuild the search index: " + e.getMessage());
+            }
+        } else {
+            event.userIds().forEach(this::reindex);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (this.rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (this.rebuildLock) {
+            this.pendingEvents = new ArrayList<>();
+            this.pendingUsers = new HashSet<>();
+            this.taskSearchIndex.clear();
+        }
+        long[] count = new long[1];
+        try {
+            this.taskService.streamAll(task -> {
+                this.taskSearchIndex.put(task.id(), task.user().id(), task.description());
+                count[0]++;
+            });
+        } finally {
+            Set<Long> users;
+            synchronized (this.rebuildLock) {
+                this.pendingEvents.forEach(this::apply);
+                this.pendingEvents = null;
+                users = this.pendingUsers;
+                this.pendingUsers = null;
+            }
+            users.forEach(this::reindex);
+        }
+        log.info("Rebuilt search index with " + count[0] + " tasks in " + (System.currentTimeMillis() - start)
+                + "ms");
+    }
+
+    // Uma falha aqui só atrasa a busca desse usuário até a próxima escrita;
+    // não pode interromper quem publicou o evento
+    private void reindex(Long userId) {
+        try {
+            List<TaskView> tasks = new ArrayList<>();
+            this.taskService.streamAllByUserId(userId, tasks::add);
+            this.taskSearchIndex.replace(userId, tasks);
+        } catch (RuntimeException e) {
+            log.warn("Failed to reindex the tasks of user " + userId + ": " + e.getMessage());
+        }
+    }
+
+    private void apply(TaskChangedEvent event) {
+        switch (event.type()) {
+            case CREATED:
+            case UPDATED:
+                this.taskSearchIndex.put(event.taskId(), event.userId(), event.description());
+                break;
+            case DELETED:
+                this.taskSearchIndex.remove(event.taskId(), event.userId());
+                break;
+        }
+    }
+}
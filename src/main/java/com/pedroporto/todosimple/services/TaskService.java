@@ -1,18 +1,33 @@
 package com.pedroporto.todosimple.services;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-
-import javax.transaction.Transactional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.pedroporto.todosimple.configs.CacheConfig;
 import com.pedroporto.todosimple.models.Task;
 import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.dto.TaskPage;
+import com.pedroporto.todosimple.models.dto.TaskView;
 import com.pedroporto.todosimple.repositories.TaskRepository;
+import com.pedroporto.todosimple.services.events.TaskChangedEvent;
 import com.pedroporto.todosimple.services.exceptions.DataBindingViolationException;
 import com.pedroporto.todosimple.services.exceptions.ObjectNotFoundException;
+import com.pedroporto.todosimple.services.exceptions.PreconditionFailedException;
+import com.pedroporto.todosimple.sharding.ShardDirectory;
+import com.pedroporto.todosimple.sharding.ShardedBy;
 
 @Service
 public class TaskService {
@@ -23,6 +38,26 @@ public class TaskService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private TaskStatsService taskStatsService;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public TaskService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
     // Comentário: O método findById está correto, mas poderia ser mais flexível
     // para lançar diferentes exceções
     // Dica: Adicione suporte para outras exceções como `InvalidIdException` ou
@@ -30,12 +65,15 @@ public class TaskService {
     // que podem fornecer mais contexto dependendo do erro ocorrido.
     // Exemplo de modificação: Usar um bloco condicional que lance exceções
     // específicas dependendo do erro.
+    @ShardedBy(value = "#id", key = ShardedBy.Key.TASK)
+    @Cacheable(cacheNames = CacheConfig.TASKS, key = "#id")
     public Task findById(Long id) {
         Optional<Task> task = this.taskRepository.findById(id);
         return task.orElseThrow(() -> new ObjectNotFoundException(
                 "Tarefa não encontrada! Id: " + id + ", Tipo: " + Task.class.getName()));
     }
 
+    @ShardedBy("#obj.user?.id")
     @Transactional
     public Task create(Task obj) {
         // Comentário: A lógica de associar um usuário à tarefa pode ser extraída para
@@ -46,37 +84,101 @@ public class TaskService {
         obj.setId(null); // Garante que a tarefa seja tratada como um novo objeto.
         obj.setUser(user); // Associa o usuário à tarefa.
         obj = this.taskRepository.save(obj); // Salva a tarefa no banco de dados.
+        this.taskStatsService.addTasks(user.getId(), 1);
+        this.cacheInvalidationService.evictTask(obj.getId(), user.getId());
+        this.eventPublisher.publishEvent(TaskChangedEvent.created(obj.getId(), user.getId(), obj.getDescription()));
         return obj;
     }
 
+    @ShardedBy(value = "#obj.id", key = ShardedBy.Key.TASK)
     @Transactional
     public Task update(Task obj) {
+        return update(obj, null);
+    }
+
+    // Com expectedVersions informado (If-Match), só altera a tarefa se a versão
+    // atual for uma delas. Uma alteração concorrente entre a leitura e o commit
+    // é detectada pelo @Version e vira OptimisticLockingFailureException.
+    @ShardedBy(value = "#obj.id", key = ShardedBy.Key.TASK)
+    @Transactional
+    public Task update(Task obj, Collection<Long> expectedVersions) {
         // Comentário: A busca pela tarefa pelo ID está sendo repetida. O código pode
         // ser refatorado para
         // reduzir essa duplicação.
         // Dica: Considere reutilizar o método `findById` já existente para buscar a
         // tarefa e melhorar a legibilidade.
         Task newObj = this.findById(obj.getId()); // Busca a tarefa existente pelo ID.
+        if (Objects.nonNull(expectedVersions) && !expectedVersions.contains(newObj.getVersion())) {
+            throw new PreconditionFailedException(
+                    "A tarefa foi alterada por outra requisição! Id: " + newObj.getId()
+                            + ", Versão atual: " + newObj.getVersion());
+        }
         newObj.setDescription(obj.getDescription()); // Atualiza a descrição da tarefa.
+        this.cacheInvalidationService.evictTask(newObj.getId(), newObj.getUser().getId());
+        this.eventPublisher.publishEvent(
+                TaskChangedEvent.updated(newObj.getId(), newObj.getUser().getId(), newObj.getDescription()));
         return this.taskRepository.save(newObj); // Salva a tarefa atualizada no banco.
     }
 
-    public List<Task> findAllByUserId(Long userId) {
+    // A listagem usa a projeção TaskView: só as colunas devolvidas pela API, sem
+    // entidades gerenciadas, sem dirty-checking nem cache de primeiro nível.
+    @ShardedBy("#userId")
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.TASKS_BY_USER, key = "#userId")
+    public List<TaskView> findAllByUserId(Long userId) {
         // Comentário: Esse método está correto, mas poderia ser melhorado ao verificar
         // se o usuário existe
         // antes de tentar buscar suas tarefas.
         // Dica: Chame o método `userService.findById()` para garantir que o usuário
         // existe antes de buscar as tarefas.
-        List<Task> tasks = this.taskRepository.findByUser_Id(userId);
+        List<TaskView> tasks = this.taskRepository.findViewsByUser_Id(userId);
         return tasks;
     }
 
+    // Busca uma página de tarefas do usuário a partir do cursor recebido.
+    // Traz um registro a mais que o limite apenas para saber se existe próxima
+    // página.
+    @ShardedBy("#userId")
+    @Transactional(readOnly = true)
+    public TaskPage findPageByUserId(Long userId, String cursor, int limit) {
+        Long afterId = TaskPage.decodeCursor(cursor);
+        List<TaskView> tasks = this.taskRepository.findPageByUser_Id(userId, afterId, PageRequest.of(0, limit + 1));
+        if (tasks.size() <= limit) {
+            return new TaskPage(tasks, null);
+        }
+        List<TaskView> items = tasks.subList(0, limit);
+        return new TaskPage(items, TaskPage.encodeCursor(items.get(limit - 1).id()));
+    }
+
+    // Entrega as tarefas do usuário uma a uma, conforme saem do cursor JDBC.
+    // Como são projeções, nada fica preso ao contexto de persistência e a
+    // memória não cresce com a quantidade de tarefas.
+    @ShardedBy("#userId")
+    @Transactional(readOnly = true)
+    public void streamAllByUserId(Long userId, Consumer<TaskView> consumer) {
+        try (Stream<TaskView> tasks = this.taskRepository.streamByUser_Id(userId)) {
+            tasks.forEach(consumer);
+        }
+    }
+
+    // Mesmo streaming de streamAllByUserId, sobre a tabela inteira. Com
+    // sharding percorre um shard por vez, cada um em sua transação.
+    public void streamAll(Consumer<TaskView> consumer) {
+        this.shardDirectory.forEachShard(() -> this.readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<TaskView> tasks = this.taskRepository.streamAllViews()) {
+                tasks.forEach(consumer);
+            }
+        }));
+    }
+
+    @ShardedBy(value = "#id", key = ShardedBy.Key.TASK)
+    @Transactional
     public void delete(Long id) {
         // Comentário: A exclusão de tarefas pode ser melhorada com um tratamento mais
         // específico de exceções.
         // Dica: Considere criar uma exceção personalizada como `TaskDeletionException`
         // para fornecer mensagens mais específicas.
-        findById(id); // Verifica se a tarefa existe antes de tentar excluí-la.
+        Task task = findById(id); // Verifica se a tarefa existe antes de tentar excluí-la.
         try {
             this.taskRepository.deleteById(id); // Tenta excluir a tarefa.
         } catch (Exception e) {
@@ -86,5 +188,9 @@ public class TaskService {
             throw new DataBindingViolationException(
                     "Não é possível excluir a tarefa pois ela está sendo referenciada por outras entidades.");
         }
+        // Fora do try: uma falha aqui não é de referência e sobe como está
+        this.taskStatsService.addTasks(task.getUser().getId(), -1);
+        this.cacheInvalidationService.evictTask(id, task.getUser().getId());
+        this.eventPublisher.publishEvent(TaskChangedEvent.deleted(id, task.getUser().getId()));
     }
 }
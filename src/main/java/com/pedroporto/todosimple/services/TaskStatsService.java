@@ -0,0 +1,121 @@
+package com.pedroporto.todosimple.services;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pedroporto.todosimple.models.UserTaskStats;
+import com.pedroporto.todosimple.repositories.TaskRepository;
+import com.pedroporto.todosimple.repositories.UserTaskStatsRepository;
+import com.pedroporto.todosimple.sharding.ShardDirectory;
+import com.pedroporto.todosimple.sharding.ShardedBy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// Estatísticas de tarefas por usuário. Os contadores são atualizados na
+// mesma transação que cria ou exclui as tarefas (addTasks); um usuário sem
+// linha ainda tem o contador calculado uma única vez, na primeira leitura.
+// A reconciliação periódica corrige qualquer divergência (escritas fora da
+// aplicação, corridas na criação da linha) e cria as linhas que faltam,
+// percorrendo os usuários de cada shard em páginas de
+// `app.tasks.stats.reconcile-batch-size`, uma transação curta por página.
+@Slf4j
+@Service
+public class TaskStatsService {
+
+    @Autowired
+    private UserTaskStatsRepository userTaskStatsRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter repaired;
+
+    private final int batchSize;
+
+    @Autowired
+    public TaskStatsService(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${app.tasks.stats.reconcile-batch-size:500}") int batchSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.repaired = Counter.builder("app.tasks.stats.repaired")
+                .description("Task statistics rows created or corrected by the reconciliation job")
+                .register(meterRegistry);
+    }
+
+    @ShardedBy("#userId")
+    public UserTaskStats findByUserId(Long userId) {
+        this.userService.findById(userId); // 404 se o usuário não existir
+        return this.userTaskStatsRepository.findById(userId).orElseGet(() -> materialize(userId));
+    }
+
+    // Deve ser chamado dentro da transação que alterou as tarefas. Sem linha
+    // não há o que somar: ela será criada já com a contagem real.
+    @Transactional
+    public void addTasks(Long userId, long delta) {
+        if (delta != 0) {
+            this.userTaskStatsRepository.addTasks(userId, delta);
+        }
+    }
+
+    // Mesmo que addTasks, para os usuários de um lote (userId -> variação)
+    @Transactional
+    public void addTasks(Map<Long, Long> deltas) {
+        deltas.forEach(this::addTasks);
+    }
+
+    @Scheduled(fixedDelayString = "${app.tasks.stats.reconcile-interval:PT10M}",
+            initialDelayString = "${app.tasks.stats.reconcile-interval:PT10M}")
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        int[] rows = new int[1];
+        this.shardDirectory.forEachShard(() -> rows[0] += reconcileShard());
+        this.repaired.increment(rows[0]);
+        log.info("Reconciled task statistics: " + rows[0] + " rows repaired in "
+                + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private int reconcileShard() {
+        int rows = 0;
+        List<Long> userIds = this.userTaskStatsRepository.findUserIdsAfter(Long.MIN_VALUE, this.batchSize);
+        while (!userIds.isEmpty()) {
+            long from = userIds.get(0);
+            long to = userIds.get(userIds.size() - 1);
+            rows += this.transactionTemplate.execute(status -> this.userTaskStatsRepository.repairCounts(from, to)
+                    + this.userTaskStatsRepository.insertMissing(from, to));
+            userIds = this.userTaskStatsRepository.findUserIdsAfter(to, this.batchSize);
+        }
+        return rows;
+    }
+
+    // Conta as tarefas do usuário e grava a linha. Se outra requisição criou
+    // a linha ao mesmo tempo, fica valendo a dela.
+    private UserTaskStats materialize(Long userId) {
+        try {
+            return this.transactionTemplate.execute(status -> this.userTaskStatsRepository.saveAndFlush(
+                    new UserTaskStats(userId, this.taskRepository.countByUser_Id(userId))));
+        } catch (DataIntegrityViolationException e) {
+            Optional<UserTaskStats> stats = this.userTaskStatsRepository.findById(userId);
+            return stats.orElseThrow(() -> e);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.pedroporto.todosimple.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.pedroporto.todosimple.admission.AdmissionRejectedException;
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.dto.BatchItemResult;
+import com.pedroporto.todosimple.services.exceptions.DataBindingViolationException;
+import com.pedroporto.todosimple.services.exceptions.ObjectNotFoundException;
+import com.pedroporto.todosimple.sharding.ShardMovingException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+// Modo de escrita com commit em grupo (app.tasks.group-commit.enabled=true).
+// As criações de tarefa entram numa fila; uma única thread junta as que
+// chegam dentro de `linger` (até `max-batch-size`) e grava todas pelo
+// TaskBatchService, num só lote JDBC e num só commit. Quem chamou create
+// espera o commit do seu lote, então a resposta só sai com a linha gravada.
+// A espera é limitada por `timeout`: depois dele a requisição recebe 503,
+// mesmo que o lote ainda venha a ser gravado.
+//
+// Com o modo desligado, create apenas delega para TaskService.create.
+@Slf4j
+@Service
+public class TaskWriteBuffer {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskBatchService taskBatchService;
+
+    private final boolean enabled;
+
+    private final int maxBatchSize;
+
+    private final long lingerNanos;
+
+    private final long timeoutNanos;
+
+    private final BlockingQueue<PendingCreate> queue;
+
+    private final DistributionSummary batchSizes;
+
+    private final Timer flushTimer;
+
+    // Protege `running` junto com a entrada na fila: depois que stop o
+    // desliga, nenhuma criação entra na fila sem que o flusher a veja
+    private final Object lock = new Object();
+
+    private volatile boolean running;
+
+    private Thread flusher;
+
+    @Autowired
+    public TaskWriteBuffer(MeterRegistry meterRegistry,
+            @Value("${app.tasks.group-commit.enabled:false}") boolean enabled,
+            @Value("${app.tasks.group-commit.max-batch-size:200}") int maxBatchSize,
+            @Value("${app.tasks.group-commit.linger:PT0.005S}") Duration linger,
+            @Value("${app.tasks.group-commit.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.tasks.group-commit.timeout:PT10S}") Duration timeout) {
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = linger.toNanos();
+        this.timeoutNanos = timeout.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("app.tasks.group-commit.queue", this.queue, BlockingQueue::size)
+                .description("Task creations waiting for the next group commit")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("app.tasks.group-commit.batch.size")
+                .description("Task creations committed together")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("app.tasks.group-commit.flush")
+                .description("Time to insert and commit one group of task creations")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!this.enabled) {
+            return;
+        }
+        this.running = true;
+        this.flusher = Thread.ofPlatform().name("task-group-commit").daemon().start(this::run);
+    }
+
+    // Para de aceitar criações; o flusher grava o que ainda está na fila
+    // antes de terminar
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!this.enabled) {
+            return;
+        }
+        // Sem interrupt: a thread pode estar no meio de um commit; o poll
+        // volta em no máximo um segundo
+        synchronized (this.lock) {
+            this.running = false;
+        }
+        this.flusher.join();
+    }
+
+    public Task create(Task obj) {
+        if (!this.enabled) {
+            return this.taskService.create(obj);
+        }
+        PendingCreate pending = new PendingCreate(obj, new CompletableFuture<>());
+        boolean queued;
+        synchronized (this.lock) {
+            // Fila cheia: a própria requisição grava, o que freia quem está enviando
+            queued = this.running && this.queue.offer(pending);
+        }
+        if (!queued) {
+            return this.taskService.create(obj);
+        }
+        try {
+            return pending.result().get(this.timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando a gravação da tarefa.", e);
+        } catch (TimeoutException e) {
+            log.warn("Timed out waiting for the group commit of a task");
+            throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE, 1,
+                    "A gravação da tarefa não foi confirmada a tempo.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void run() {
+        List<PendingCreate> batch = new ArrayList<>(this.maxBatchSize);
+        while (this.running) {
+            collect(batch);
+            if (!batch.isEmpty()) {
+                flushSafely(batch);
+                batch.clear();
+            }
+        }
+        // Nada mais entra na fila depois que running fica falso
+        List<PendingCreate> rest = new ArrayList<>();
+        this.queue.drainTo(rest);
+        for (int from = 0; from < rest.size(); from += this.maxBatchSize) {
+            flushSafely(rest.subList(from, Math.min(from + this.maxBatchSize, rest.size())));
+        }
+    }
+
+    // Junta as criações de um lote: espera a primeira por até um segundo e
+    // as seguintes até encher o lote ou acabar o linger
+    private void collect(List<PendingCreate> batch) {
+        try {
+            PendingCreate first = this.queue.poll(1, TimeUnit.SECONDS);
+            if (first == null) {
+                return;
+            }
+            batch.add(first);
+            long deadline = System.nanoTime() + this.lingerNanos;
+            while (batch.size() < this.maxBatchSize) {
+                if (this.queue.drainTo(batch, this.maxBatchSize - batch.size()) > 0) {
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                PendingCreate next = this.queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+        } catch (InterruptedException e) {
+            // A interrupção encerra o flusher, mas a flag não é restaurada:
+            // o que já está na fila ainda precisa do banco para ser gravado
+            synchronized (this.lock) {
+                this.running = false;
+            }
+        }
+    }
+
+    // Nenhum erro pode encerrar a thread: quem espera pelo lote recebe a falha
+    private void flushSafely(List<PendingCreate> batch) {
+        try {
+            flush(batch);
+        } catch (Throwable e) {
+            log.error("Failed to group commit " + batch.size() + " tasks", e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    private void flush(List<PendingCreate> batch) {
+        List<Task> objs = new ArrayList<>(batch.size());
+        batch.forEach(pending -> objs.add(pending.obj()));
+        List<BatchItemResult> results;
+        try {
+            results = this.flushTimer.recordCallable(() -> this.taskBatchService.create(objs));
+        } catch (Exception e) {
+            log.error("Failed to group commit " + batch.size() + " tasks", e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+        this.batchSizes.record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            PendingCreate pending = batch.get(i);
+            BatchItemResult result = results.get(i);
+            if (result.isSuccess()) {
+                pending.result().complete(pending.obj());
+            } else if (result.getStatus() == HttpStatus.NOT_FOUND.value()) {
+                pending.result().completeExceptionally(new ObjectNotFoundException(result.getMessage()));
+            } else if (result.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+                pending.result().completeExceptionally(new ShardMovingException(result.getMessage()));
+            } else {
+                pending.result().completeExceptionally(new DataBindingViolationException(result.getMessage()));
+            }
+        }
+    }
+
+    private record PendingCreate(Task obj, CompletableFuture<Task> result) {
+    }
+}
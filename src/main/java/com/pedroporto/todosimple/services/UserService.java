@@ -1,27 +1,60 @@
 package com.pedroporto.todosimple.services;
 
+import com.pedroporto.todosimple.configs.CacheConfig;
 import com.pedroporto.todosimple.dao.UserDAO;
 import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.services.exceptions.AuthenticationFailedException;
 import com.pedroporto.todosimple.services.exceptions.ObjectNotFoundException;
 import com.pedroporto.todosimple.services.exceptions.DataBindingViolationException;
+import com.pedroporto.todosimple.services.exceptions.PreconditionFailedException;
+import com.pedroporto.todosimple.sharding.ShardContext;
+import com.pedroporto.todosimple.sharding.ShardDirectory;
+import com.pedroporto.todosimple.sharding.ShardMovingException;
+import com.pedroporto.todosimple.sharding.ShardedBy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class UserService {
 
     private final UserDAO userDAO;
 
+    private final CacheInvalidationService cacheInvalidationService;
+
+    private final ShardDirectory shardDirectory;
+
+    private final PasswordHasher passwordHasher;
+
+    // As escritas rodam nesta transação (e não com @Transactional) para que o
+    // hash bcrypt seja calculado antes dela, sem segurar a conexão
+    private final TransactionTemplate transactionTemplate;
+
     // Injeção de dependência do UserDAO
     // Dica: Seguindo o princípio da **Inversão de Controle** (IoC), a injeção de
     // dependência via construtor é uma boa prática.
     // Isso melhora a testabilidade da classe, tornando possível injetar mocks em
     // testes e facilitando a criação do objeto sem acoplamento.
     @Autowired
-    public UserService(UserDAO userDAO) {
+    public UserService(UserDAO userDAO, CacheInvalidationService cacheInvalidationService,
+            ShardDirectory shardDirectory, PasswordHasher passwordHasher,
+            PlatformTransactionManager transactionManager) {
         this.userDAO = userDAO;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.shardDirectory = shardDirectory;
+        this.passwordHasher = passwordHasher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     // **Princípio da Responsabilidade Única (SRP)**: Este método tem uma única
@@ -30,12 +63,28 @@ public class UserService {
     // o banco de dados, o que está correto.
     // Manter a responsabilidade de acessar a persistência separada ajuda a manter o
     // código mais modular e coeso.
+    @ShardedBy("#id")
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#id")
     public User findById(Long id) {
         Optional<User> user = this.userDAO.findById(id); // Usando UserDAO para buscar o usuário
         return user.orElseThrow(() -> new ObjectNotFoundException(
                 "Usuário não encontrado! Id: " + id + ", Tipo: " + User.class.getName()));
     }
 
+    // Busca todos os usuários informados em uma única consulta, indexados pelo
+    // id. Os ids que não existem simplesmente não aparecem no mapa.
+    public Map<Long, User> findAllById(Collection<Long> ids) {
+        return this.userDAO.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    // Mesmo que findAllById, indexado pelo username. Durante uma mudança de
+    // shard o usuário pode aparecer nos dois shards por um instante.
+    public Map<String, User> findAllByUsername(Collection<String> usernames) {
+        return this.userDAO.findAllByUsername(usernames).stream()
+                .collect(Collectors.toMap(User::getUsername, Function.identity(), (first, second) -> first));
+    }
+
     // **Princípio da Inversão de Dependências (DIP)**: A classe `UserService`
     // depende da abstração (DAO), não de detalhes concretos (repositório).
     // Dica: Continue utilizando o padrão de injeção de dependência para garantir
@@ -43,11 +92,53 @@ public class UserService {
     // **Princípio da Coesão**: O método está claro em sua responsabilidade. Aqui,
     // ele apenas lida com a criação de um usuário,
     // delegando a persistência ao DAO.
+    // Com sharding, o usuário nasce no shard do bucket sorteado. A restrição
+    // UNIQUE do username só vale dentro de um shard, então os outros são
+    // consultados antes (verificação sem trava: duas criações simultâneas em
+    // shards diferentes ainda podem passar).
+    @ShardedBy(key = ShardedBy.Key.NEW_USER)
     public User create(User obj) {
         obj.setId(null); // Garantindo que o ID seja nulo antes de criar um novo usuário
+        if (this.shardDirectory.isSharded()
+                && !this.userDAO.findAllByUsername(List.of(obj.getUsername())).isEmpty()) {
+            throw new DataBindingViolationException("Username já cadastrado: " + obj.getUsername());
+        }
+        obj.setPassword(this.passwordHasher.hash(obj.getPassword())); // Grava só o hash bcrypt
         return this.userDAO.save(obj); // Usando UserDAO para salvar o usuário
     }
 
+    // Confere usuário e senha. Um hash com custo antigo (ou uma senha ainda
+    // em texto puro) é refeito com o custo atual aproveitando a senha
+    // recebida, sem nada a fazer por parte do usuário.
+    public User authenticate(String username, String password) {
+        User user = this.userDAO.findAllByUsername(List.of(username)).stream().findFirst().orElse(null);
+        // Username desconhecido também passa pelo bcrypt (ver PasswordHasher.matches)
+        String stored = Objects.isNull(user) ? null : user.getPassword();
+        if (!this.passwordHasher.matches(password, stored) || Objects.isNull(user)) {
+            throw new AuthenticationFailedException("Usuário ou senha inválidos.");
+        }
+        if (this.passwordHasher.needsRehash(user.getPassword())) {
+            rehash(user, password);
+        }
+        return user;
+    }
+
+    // Se o usuário mudou no meio tempo (ou está mudando de shard), o hash
+    // fica para o próximo login
+    private void rehash(User user, String password) {
+        String hash = this.passwordHasher.hash(password);
+        try {
+            ShardContext.run(this.shardDirectory.scopeForUser(user.getId()),
+                    () -> this.transactionTemplate.executeWithoutResult(status -> {
+                        user.setPassword(hash);
+                        this.userDAO.save(user);
+                        this.cacheInvalidationService.evictUser(user.getId());
+                    }));
+        } catch (OptimisticLockingFailureException | ShardMovingException e) {
+            // Fica para o próximo login
+        }
+    }
+
     // **Princípio da Substituição de Liskov (LSP)**: Este método segue Liskov
     // porque podemos substituir `UserService` por outra implementação
     // de `UserDAO` sem quebrar o comportamento esperado. O método deve continuar
@@ -56,10 +147,28 @@ public class UserService {
     // alterações.
     // **Princípio da Segregação de Interface (ISP)**: Este método não viola o ISP,
     // pois `UserService` tem uma única interface bem definida.
+    @ShardedBy("#obj.id")
     public User update(User obj) {
-        User existingUser = findById(obj.getId()); // Busca o usuário existente
-        existingUser.setPassword(obj.getPassword()); // Atualiza a senha (exemplo de atributo)
-        return this.userDAO.save(existingUser); // Usando UserDAO para salvar as alterações
+        return update(obj, null);
+    }
+
+    // Com expectedVersions informado (If-Match), só altera se a versão atual
+    // for uma delas; como em TaskService.update.
+    @ShardedBy("#obj.id")
+    public User update(User obj, Collection<Long> expectedVersions) {
+        String hash = this.passwordHasher.hash(obj.getPassword()); // Só o hash é gravado
+        return this.transactionTemplate.execute(status -> {
+            User existingUser = findById(obj.getId()); // Busca o usuário existente
+            if (Objects.nonNull(expectedVersions) && !expectedVersions.contains(existingUser.getVersion())) {
+                throw new PreconditionFailedException(
+                        "O usuário foi alterado por outra requisição! Id: " + existingUser.getId()
+                                + ", Versão atual: " + existingUser.getVersion());
+            }
+            existingUser.setPassword(hash); // Atualiza a senha
+            User saved = this.userDAO.save(existingUser); // Usando UserDAO para salvar as alterações
+            this.cacheInvalidationService.evictUser(saved.getId());
+            return saved;
+        });
     }
 
     // **Princípio da Responsabilidade Única (SRP)**: O método de exclusão agora
@@ -67,10 +176,14 @@ public class UserService {
     // e executar a exclusão. Essas duas responsabilidades podem ser separadas.
     // **Princípio da Inversão de Dependências (DIP)**: A classe `UserService`
     // depende de `UserDAO` para realizar a exclusão.
+    @ShardedBy("#id")
     public void delete(Long id) {
         User user = findById(id); // Verifica se o usuário existe
         try {
-            this.userDAO.deleteById(id); // Método correto para deletar um usuário
+            this.transactionTemplate.executeWithoutResult(status -> {
+                this.userDAO.deleteById(id); // Método correto para deletar um usuário
+                this.cacheInvalidationService.evictUser(id);
+            });
         } catch (Exception e) {
             // **Princípio da Clareza nas Exceções**: Melhorar a clareza da exceção que é
             // gerada.
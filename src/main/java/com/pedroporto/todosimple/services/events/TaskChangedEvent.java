@@ -0,0 +1,23 @@
+package com.pedroporto.todosimple.services.events;
+
+// Publicado a cada tarefa criada, alterada ou excluída. Quem precisa reagir
+// só depois do commit usa @TransactionalEventListener; a descrição é nula
+// nas exclusões.
+public record TaskChangedEvent(Type type, Long taskId, Long userId, String description) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static TaskChangedEvent created(Long taskId, Long userId, String description) {
+        return new TaskChangedEvent(Type.CREATED, taskId, userId, description);
+    }
+
+    public static TaskChangedEvent updated(Long taskId, Long userId, String description) {
+        return new TaskChangedEvent(Type.UPDATED, taskId, userId, description);
+    }
+
+    public static TaskChangedEvent deleted(Long taskId, Long userId) {
+        return new TaskChangedEvent(Type.DELETED, taskId, userId, null);
+    }
+}
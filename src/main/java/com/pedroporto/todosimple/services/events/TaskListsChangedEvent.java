@@ -0,0 +1,18 @@
+package com.pedroporto.todosimple.services.events;
+
+import java.util.Set;
+
+// Publicado pelo InvalidationTailer a cada leitura da outbox que invalidou
+// listas de tarefas: os usuários cujas tarefas mudaram e se as escritas
+// vieram de outra instância (`remote`). Com `userIds` nulo não dá para
+// saber o que mudou (lacuna ou outbox ilegível): tudo deve ser relido.
+public record TaskListsChangedEvent(Set<Long> userIds, boolean remote) {
+
+    public static TaskListsChangedEvent unknown() {
+        return new TaskListsChangedEvent(null, true);
+    }
+
+    public boolean isUnknown() {
+        return this.userIds == null;
+    }
+}
@@ -0,0 +1,14 @@
+package com.pedroporto.todosimple.services.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.UNAUTHORIZED)
+public class AuthenticationFailedException extends DomainException {
+
+    private static final long serialVersionUID = 1L;
+
+    public AuthenticationFailedException(String message) {
+        super(message);
+    }
+}
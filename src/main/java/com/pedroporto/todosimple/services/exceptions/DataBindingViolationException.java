@@ -6,6 +6,9 @@ import org.springframework.http.HttpStatus;
 
 @ResponseStatus(value = HttpStatus.NOT_FOUND)
 public class DataBindingViolationException extends DataIntegrityViolationException {
+
+    private static final long serialVersionUID = 1L;
+
     public DataBindingViolationException(String message) {
         super(message);
     }
@@ -0,0 +1,27 @@
+package com.pedroporto.todosimple.services.exceptions;
+
+// Base das exceções de domínio (404, 400, 401, 412 e recusas de admissão):
+// são respostas normais da API, não falhas do servidor, e a pilha delas
+// nunca é lida. Por padrão elas não a capturam (fillInStackTrace vazio), o
+// que torna o caminho de erro tão barato quanto o de sucesso. Para depurar,
+// ligue `app.exceptions.stack-traces` (ou server.error.include-exception);
+// ver ExceptionsConfig.
+public abstract class DomainException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private static volatile boolean stackTraces;
+
+    protected DomainException(String message) {
+        super(message);
+    }
+
+    public static void captureStackTraces(boolean captureStackTraces) {
+        stackTraces = captureStackTraces;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return stackTraces ? super.fillInStackTrace() : this;
+    }
+}
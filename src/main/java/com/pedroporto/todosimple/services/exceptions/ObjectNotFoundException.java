@@ -1,14 +1,14 @@
 package com.pedroporto.todosimple.services.exceptions;
 
-import javax.persistence.EntityNotFoundException;
-
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(value = HttpStatus.NOT_FOUND)
-public class ObjectNotFoundException extends EntityNotFoundException {
+public class ObjectNotFoundException extends DomainException {
+
+    private static final long serialVersionUID = 1L;
+
     public ObjectNotFoundException(String message) {
         super(message);
     }
-
 }
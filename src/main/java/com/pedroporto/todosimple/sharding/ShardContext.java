@@ -0,0 +1,71 @@
+package com.pedroporto.todosimple.sharding;
+
+import java.util.Objects;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Shard da operação em andamento na thread atual, lido pelo
+// ShardRoutingDataSource quando a conexão física é pedida. Uma transação
+// fica sempre num único shard: trocar de shard com uma transação aberta é
+// erro de programação.
+public final class ShardContext {
+
+    private static final ThreadLocal<ShardScope> CURRENT = new ThreadLocal<>();
+
+    // Desvia as conexões para o shard 0, onde ficam a id_allocator e o diretório
+    private static final ThreadLocal<Boolean> DIRECTORY = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static ShardScope current() {
+        return CURRENT.get();
+    }
+
+    public static <T, E extends Throwable> T call(ShardScope scope, ShardAction<T, E> action) throws E {
+        ShardScope previous = CURRENT.get();
+        if (Objects.nonNull(previous) && previous.shard() != scope.shard()
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Operação no shard " + scope.shard()
+                    + " dentro de uma transação do shard " + previous.shard());
+        }
+        CURRENT.set(scope);
+        try {
+            return action.call();
+        } finally {
+            if (Objects.isNull(previous)) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static void run(ShardScope scope, Runnable action) {
+        call(scope, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    static <T, E extends Throwable> T callOnDirectory(ShardAction<T, E> action) throws E {
+        Boolean previous = DIRECTORY.get();
+        DIRECTORY.set(Boolean.TRUE);
+        try {
+            return action.call();
+        } finally {
+            if (Objects.isNull(previous)) {
+                DIRECTORY.remove();
+            }
+        }
+    }
+
+    static boolean isOnDirectory() {
+        return Boolean.TRUE.equals(DIRECTORY.get());
+    }
+
+    @FunctionalInterface
+    public interface ShardAction<T, E extends Throwable> {
+        T call() throws E;
+    }
+}
@@ -0,0 +1,234 @@
+package com.pedroporto.todosimple.sharding;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Diretório de shards. Cada um dos ShardIds.BUCKETS buckets pertence a um
+// shard conforme as faixas de `app.sharding.ranges` ("0-511:0,512-1023:1");
+// um usuário movido pelo ShardRebalancer ganha uma exceção individual,
+// gravada na tabela shard_directory do shard 0 (criada pelas migrações, V6)
+// e mantida em memória.
+//
+// Uma tarefa pode estar no shard do bucket ou, se o dono foi movido, no
+// shard para onde algum usuário do mesmo bucket foi: scopesForTask devolve
+// os candidatos nessa ordem.
+@Slf4j
+public class ShardDirectory {
+
+    static final String TABLE = "shard_directory";
+
+    private final int shardCount;
+
+    private final ShardIds shardIds;
+
+    private final int[] shardOfBucket;
+
+    // Shard 0, onde fica a tabela do diretório; nulo sem sharding
+    private final DataSource directoryDataSource;
+
+    private volatile Snapshot snapshot;
+
+    public ShardDirectory(int shardCount, ShardIds shardIds, String ranges, DataSource directoryDataSource) {
+        this.shardCount = shardCount;
+        this.shardIds = shardIds;
+        this.snapshot = Snapshot.of(Map.of(), shardIds);
+        this.shardOfBucket = parseRanges(shardCount, ranges);
+        this.directoryDataSource = directoryDataSource;
+    }
+
+    public boolean isSharded() {
+        return this.shardCount > 1;
+    }
+
+    public int getShardCount() {
+        return this.shardCount;
+    }
+
+    public int getMovedUsers() {
+        return this.snapshot.users().size();
+    }
+
+    public ShardScope scopeForUser(long userId) {
+        int bucket = this.shardIds.bucketOf(userId);
+        Placement placement = this.snapshot.users().get(userId);
+        if (Objects.isNull(placement)) {
+            return new ShardScope(this.shardOfBucket[bucket], bucket, false);
+        }
+        return new ShardScope(placement.shard(), bucket, placement.moving());
+    }
+
+    public List<ShardScope> scopesForTask(long taskId) {
+        Snapshot current = this.snapshot;
+        int bucket = this.shardIds.bucketOf(taskId);
+        boolean frozen = current.movingBuckets().contains(bucket);
+        int home = this.shardOfBucket[bucket];
+        List<ShardScope> scopes = new ArrayList<>();
+        scopes.add(new ShardScope(home, bucket, frozen));
+        for (Integer shard : current.movedTo().getOrDefault(bucket, Set.of())) {
+            if (shard != home) {
+                scopes.add(new ShardScope(shard, bucket, frozen));
+            }
+        }
+        return scopes;
+    }
+
+    // Bucket sorteado para um usuário novo, no shard dono desse bucket
+    public ShardScope scopeForNewUser() {
+        int bucket = ShardIds.randomBucket();
+        return new ShardScope(this.shardOfBucket[bucket], bucket, false);
+    }
+
+    // Executa a ação uma vez em cada shard (uma única vez sem sharding)
+    public void forEachShard(Runnable action) {
+        for (int shard = 0; shard < this.shardCount; shard++) {
+            ShardContext.run(new ShardScope(shard, 0, false), action);
+        }
+    }
+
+    // Coloca o usuário no shard informado, congelado (só leitura) enquanto
+    // seus dados são copiados ou apagados
+    void freeze(long userId, int shard) {
+        save(userId, shard, true);
+    }
+
+    void assign(long userId, int shard) {
+        save(userId, shard, false);
+    }
+
+    // Recarrega as exceções gravadas, inclusive por outras instâncias
+    public void refresh() {
+        if (Objects.isNull(this.directoryDataSource)) {
+            return;
+        }
+        Map<Long, Placement> users = new HashMap<>();
+        try (Connection connection = this.directoryDataSource.getConnection()) {
+            try (Statement statement = connection.createStatement();
+                    ResultSet resultSet = statement.executeQuery(
+                            "SELECT user_id, shard, moving FROM " + TABLE)) {
+                while (resultSet.next()) {
+                    users.put(resultSet.getLong(1), new Placement(resultSet.getInt(2), resultSet.getBoolean(3)));
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to refresh the shard directory: " + e.getMessage());
+            return;
+        }
+        this.snapshot = Snapshot.of(users, this.shardIds);
+    }
+
+    private synchronized void save(long userId, int shard, boolean moving) {
+        if (Objects.isNull(this.directoryDataSource)) {
+            throw new IllegalStateException("Sharding desligado.");
+        }
+        boolean home = !moving && shard == this.shardOfBucket[this.shardIds.bucketOf(userId)];
+        try (Connection connection = this.directoryDataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            // No shard de origem do bucket o usuário dispensa exceção
+            if (home) {
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM " + TABLE + " WHERE user_id = ?")) {
+                    delete.setLong(1, userId);
+                    delete.executeUpdate();
+                }
+            } else if (!update(connection, userId, shard, moving)) {
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO " + TABLE + " (user_id, shard, moving) VALUES (?, ?, ?)")) {
+                    insert.setLong(1, userId);
+                    insert.setInt(2, shard);
+                    insert.setBoolean(3, moving);
+                    insert.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha ao gravar o diretório de shards: " + e.getMessage(), e);
+        }
+        Map<Long, Placement> users = new HashMap<>(this.snapshot.users());
+        if (home) {
+            users.remove(userId);
+        } else {
+            users.put(userId, new Placement(shard, moving));
+        }
+        this.snapshot = Snapshot.of(users, this.shardIds);
+    }
+
+    private static boolean update(Connection connection, long userId, int shard, boolean moving)
+            throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE " + TABLE + " SET shard = ?, moving = ? WHERE user_id = ?")) {
+            update.setInt(1, shard);
+            update.setBoolean(2, moving);
+            update.setLong(3, userId);
+            return update.executeUpdate() > 0;
+        }
+    }
+
+    // Sem faixas configuradas, os buckets são divididos igualmente em ordem
+    static int[] parseRanges(int shardCount, String ranges) {
+        int[] shards = new int[ShardIds.BUCKETS];
+        if (Objects.isNull(ranges) || ranges.isBlank()) {
+            for (int bucket = 0; bucket < ShardIds.BUCKETS; bucket++) {
+                shards[bucket] = bucket * shardCount / ShardIds.BUCKETS;
+            }
+            return shards;
+        }
+        Set<Integer> covered = new TreeSet<>();
+        for (String range : ranges.split(",")) {
+            try {
+                String[] parts = range.trim().split(":");
+                String[] bounds = parts[0].split("-");
+                int from = Integer.parseInt(bounds[0].trim());
+                int to = Integer.parseInt(bounds[bounds.length - 1].trim());
+                int shard = Integer.parseInt(parts[1].trim());
+                if (shard < 0 || shard >= shardCount || from < 0 || to >= ShardIds.BUCKETS || from > to) {
+                    throw new IllegalArgumentException();
+                }
+                for (int bucket = from; bucket <= to; bucket++) {
+                    shards[bucket] = shard;
+                    covered.add(bucket);
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Faixa de shard inválida em app.sharding.ranges: " + range);
+            }
+        }
+        if (covered.size() != ShardIds.BUCKETS) {
+            throw new IllegalStateException("app.sharding.ranges deve cobrir os buckets 0-" + (ShardIds.BUCKETS - 1));
+        }
+        return shards;
+    }
+
+    private record Placement(int shard, boolean moving) {
+    }
+
+    // Estado imutável trocado por inteiro a cada alteração
+    private record Snapshot(Map<Long, Placement> users, Map<Integer, Set<Integer>> movedTo,
+            Set<Integer> movingBuckets) {
+
+        static Snapshot of(Map<Long, Placement> users, ShardIds shardIds) {
+            Map<Integer, Set<Integer>> movedTo = new HashMap<>();
+            Set<Integer> movingBuckets = new HashSet<>();
+            users.forEach((userId, placement) -> {
+                int bucket = shardIds.bucketOf(userId);
+                movedTo.computeIfAbsent(bucket, key -> new TreeSet<>()).add(placement.shard());
+                if (placement.moving()) {
+                    movingBuckets.add(bucket);
+                }
+            });
+            return new Snapshot(Map.copyOf(users), movedTo, movingBuckets);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.pedroporto.todosimple.sharding;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Formato dos ids com sharding ligado: id = sequência * BUCKETS + bucket.
+// A sequência vem da id_allocator do shard 0 (única para todos os shards) e
+// o bucket diz onde o dado mora: o usuário recebe um bucket ao ser criado e
+// suas tarefas herdam o mesmo bucket, então o shard de uma tarefa sai do
+// próprio id, sem consulta. Os ids continuam abaixo de 2^53 (seguros em JS).
+//
+// Ids menores que `firstId` são de antes do sharding e pertencem ao bucket 0.
+// Com sharding desligado os ids são a própria sequência, como antes.
+//
+// Criado pelo ShardingConfig; o ShardedTableGenerator, que é instanciado
+// pelo Hibernate, o recebe pelas propriedades do Hibernate.
+public final class ShardIds {
+
+    public static final int BUCKETS = 1024;
+
+    public static final ShardIds UNSHARDED = new ShardIds(false, 0);
+
+    private final boolean enabled;
+
+    private final long firstId;
+
+    public ShardIds(boolean enabled, long firstId) {
+        this.enabled = enabled;
+        this.firstId = firstId;
+    }
+
+    public int bucketOf(long id) {
+        if (!this.enabled || id < this.firstId) {
+            return 0;
+        }
+        return (int) (id % BUCKETS);
+    }
+
+    public static int randomBucket() {
+        return ThreadLocalRandom.current().nextInt(BUCKETS);
+    }
+
+    long compose(long sequence, int bucket) {
+        if (!this.enabled) {
+            return sequence;
+        }
+        return sequence * BUCKETS + bucket;
+    }
+}
@@ -0,0 +1,13 @@
+package com.pedroporto.todosimple.sharding;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+
+// Escrita recusada porque o usuário está sendo movido entre shards
+public class ShardMovingException extends TransientDataAccessResourceException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ShardMovingException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,259 @@
+package com.pedroporto.todosimple.sharding;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.UserTaskStats;
+import com.pedroporto.todosimple.models.dto.ShardMove;
+import com.pedroporto.todosimple.models.dto.ShardMoveJob;
+import com.pedroporto.todosimple.services.CacheInvalidationService;
+import com.pedroporto.todosimple.services.exceptions.ObjectNotFoundException;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Move um usuário e suas tarefas para outro shard, mantendo os ids:
+//  1. congela o usuário no shard de origem (escritas recusadas) e espera as
+//     outras instâncias recarregarem o diretório;
+//  2. lê usuário e tarefas na origem com SELECT ... FOR UPDATE: a leitura
+//     espera as transações que ainda estavam escrevendo (começaram antes do
+//     congelamento) e bloqueia as que chegarem depois;
+//  3. copia tudo para o destino numa única transação;
+//  4. aponta o usuário, ainda congelado, para o destino e apaga a origem na
+//     mesma transação que segura as travas;
+//  5. descongela.
+// Uma escrita que ficou esperando as travas falha depois do passo 4 (linha
+// apagada), em vez de se perder numa origem que ninguém mais lê. Se a
+// cópia falhar, o usuário volta descongelado para a origem.
+//
+// As movimentações rodam uma por vez numa thread própria (submit); o
+// estado das últimas fica disponível em getJobs.
+@Slf4j
+public class ShardRebalancer {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final int MAX_JOBS = 100;
+
+    private final ShardDirectory shardDirectory;
+
+    // DataSources de cada shard, sem roteamento
+    private final List<DataSource> shards;
+
+    private final CacheInvalidationService cacheInvalidationService;
+
+    private final Duration propagationDelay;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            runnable -> Thread.ofPlatform().name("shard-rebalancer").daemon().unstarted(runnable));
+
+    private final AtomicLong jobIds = new AtomicLong();
+
+    // Últimas movimentações, da mais antiga para a mais recente
+    private final Map<Long, ShardMoveJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, ShardMoveJob> eldest) {
+            return size() > MAX_JOBS;
+        }
+    };
+
+    public ShardRebalancer(ShardDirectory shardDirectory, List<DataSource> shards,
+            CacheInvalidationService cacheInvalidationService, Duration propagationDelay) {
+        this.shardDirectory = shardDirectory;
+        this.shards = shards;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.propagationDelay = propagationDelay;
+    }
+
+    // Agenda a movimentação e retorna na hora
+    public ShardMoveJob submit(long userId, int target) {
+        checkTarget(target);
+        ShardMoveJob job = ShardMoveJob.queued(this.jobIds.incrementAndGet(), userId, target);
+        update(job);
+        this.executor.execute(() -> run(job));
+        return job;
+    }
+
+    public synchronized ShardMoveJob getJob(long id) {
+        return this.jobs.get(id);
+    }
+
+    public synchronized List<ShardMoveJob> getJobs() {
+        return new ArrayList<>(this.jobs.values());
+    }
+
+    // Chamado no desligamento: uma movimentação ainda esperando a propagação
+    // é interrompida e o usuário volta para a origem
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    private void run(ShardMoveJob job) {
+        update(job.running());
+        try {
+            update(job.done(move(job.userId(), job.to())));
+        } catch (ObjectNotFoundException e) {
+            update(job.failed(e.getMessage()));
+        } catch (RuntimeException e) {
+            log.error("Failed to move user " + job.userId() + " to shard " + job.to(), e);
+            update(job.failed("Não foi possível mover o usuário."));
+        }
+    }
+
+    private synchronized void update(ShardMoveJob job) {
+        this.jobs.put(job.id(), job);
+    }
+
+    synchronized ShardMove move(long userId, int target) {
+        checkTarget(target);
+        int source = this.shardDirectory.scopeForUser(userId).shard();
+        if (source == target) {
+            return new ShardMove(userId, source, target, 0);
+        }
+
+        this.shardDirectory.freeze(userId, source);
+        try {
+            Thread.sleep(this.propagationDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.shardDirectory.assign(userId, source);
+            throw new IllegalStateException("Movimentação interrompida.", e);
+        }
+
+        long tasks = -1;
+        try (Connection from = this.shards.get(source).getConnection();
+                Connection to = this.shards.get(target).getConnection()) {
+            from.setAutoCommit(false);
+            to.setAutoCommit(false);
+            try {
+                tasks = copy(userId, from, to);
+                to.commit();
+            } catch (SQLException | RuntimeException e) {
+                rollback(from, to);
+                throw e;
+            }
+
+            this.shardDirectory.freeze(userId, target);
+            try {
+                delete(userId, from);
+                from.commit();
+            } catch (SQLException e) {
+                // A cópia já vale; as linhas que sobraram na origem não são mais lidas
+                log.error("Failed to delete user " + userId + " from shard " + source + " after moving it", e);
+                rollback(from);
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Depois da cópia o destino já vale: o que falhou foi a limpeza
+            // da origem ou o fechamento das conexões
+            if (tasks < 0) {
+                this.shardDirectory.assign(userId, source);
+                if (e instanceof ObjectNotFoundException) {
+                    throw (ObjectNotFoundException) e;
+                }
+                throw new IllegalStateException("Falha ao copiar o usuário " + userId + ".", e);
+            }
+            log.error("Failed to finish moving user " + userId + " out of shard " + source, e);
+        }
+        this.shardDirectory.assign(userId, target);
+        this.cacheInvalidationService.evictUser(userId);
+        log.info("Moved user {} with {} tasks from shard {} to shard {}", userId, tasks, source, target);
+        return new ShardMove(userId, source, target, tasks);
+    }
+
+    private void checkTarget(int target) {
+        if (target < 0 || target >= this.shardDirectory.getShardCount()) {
+            throw new ObjectNotFoundException("Shard não encontrado! Id: " + target);
+        }
+    }
+
+    private long copy(long userId, Connection from, Connection to) throws SQLException {
+        copyUser(userId, from, to);
+        return copyTasks(userId, from, to);
+    }
+
+    private void copyUser(long userId, Connection from, Connection to) throws SQLException {
+        try (PreparedStatement select = from.prepareStatement(
+                "SELECT id, username, password, version FROM " + User.TABLE_NAME + " WHERE id = ? FOR UPDATE")) {
+            select.setLong(1, userId);
+            try (ResultSet user = select.executeQuery()) {
+                if (!user.next()) {
+                    throw new ObjectNotFoundException(
+                            "Usuário não encontrado! Id: " + userId + ", Tipo: " + User.class.getName());
+                }
+                try (PreparedStatement insert = to.prepareStatement("INSERT INTO " + User.TABLE_NAME
+                        + " (id, username, password, version) VALUES (?, ?, ?, ?)")) {
+                    insert.setLong(1, user.getLong(1));
+                    insert.setString(2, user.getString(2));
+                    insert.setString(3, user.getString(3));
+                    insert.setLong(4, user.getLong(4));
+                    insert.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private long copyTasks(long userId, Connection from, Connection to) throws SQLException {
+        long count = 0;
+        try (PreparedStatement select = from.prepareStatement(
+                "SELECT id, description, version FROM " + Task.TABLE_NAME + " WHERE user_id = ? FOR UPDATE");
+                PreparedStatement insert = to.prepareStatement("INSERT INTO " + Task.TABLE_NAME
+                        + " (id, user_id, description, version) VALUES (?, ?, ?, ?)")) {
+            select.setLong(1, userId);
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet tasks = select.executeQuery()) {
+                while (tasks.next()) {
+                    insert.setLong(1, tasks.getLong(1));
+                    insert.setLong(2, userId);
+                    insert.setString(3, tasks.getString(2));
+                    insert.setLong(4, tasks.getLong(3));
+                    insert.addBatch();
+                    if (++count % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+            }
+            insert.executeBatch();
+        }
+        return count;
+    }
+
+    private void delete(long userId, Connection connection) throws SQLException {
+        try (PreparedStatement stats = connection.prepareStatement(
+                "DELETE FROM " + UserTaskStats.TABLE_NAME + " WHERE user_id = ?");
+                PreparedStatement tasks = connection.prepareStatement(
+                        "DELETE FROM " + Task.TABLE_NAME + " WHERE user_id = ?");
+                PreparedStatement user = connection.prepareStatement(
+                        "DELETE FROM " + User.TABLE_NAME + " WHERE id = ?")) {
+            // As estatísticas são recalculadas no destino, na primeira leitura
+            stats.setLong(1, userId);
+            stats.executeUpdate();
+            tasks.setLong(1, userId);
+            tasks.executeUpdate();
+            user.setLong(1, userId);
+            user.executeUpdate();
+        }
+    }
+
+    private static void rollback(Connection... connections) {
+        for (Connection connection : connections) {
+            try {
+                connection.rollback();
+            } catch (SQLException e) {
+                log.warn("Failed to roll back a shard move: " + e.getMessage());
+            }
+        }
+    }
+}
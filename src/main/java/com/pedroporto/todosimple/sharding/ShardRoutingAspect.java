@@ -0,0 +1,90 @@
+package com.pedroporto.todosimple.sharding;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import com.pedroporto.todosimple.services.exceptions.ObjectNotFoundException;
+
+// Aplica o @ShardedBy. Roda antes do @Transactional (ordem mais alta), para
+// que a transação já nasça no shard certo. Sem sharding não faz nada.
+//
+// Não pode ser HIGHEST_PRECEDENCE: o ExposeInvocationInterceptor
+// (HIGHEST_PRECEDENCE + 1) precisa rodar antes para o parâmetro shardedBy
+// ser ligado ao advice.
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class ShardRoutingAspect {
+
+    private final Supplier<ShardDirectory> shardDirectorySupplier;
+
+    private volatile ShardDirectory shardDirectory;
+
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+
+    private final Map<Method, Expression> expressions = new ConcurrentHashMap<>();
+
+    public ShardRoutingAspect(Supplier<ShardDirectory> shardDirectorySupplier) {
+        this.shardDirectorySupplier = shardDirectorySupplier;
+    }
+
+    @Around("@annotation(shardedBy)")
+    public Object route(ProceedingJoinPoint joinPoint, ShardedBy shardedBy) throws Throwable {
+        if (Objects.isNull(this.shardDirectory)) {
+            this.shardDirectory = this.shardDirectorySupplier.get();
+        }
+        if (!this.shardDirectory.isSharded()) {
+            return joinPoint.proceed();
+        }
+        if (shardedBy.key() == ShardedBy.Key.NEW_USER) {
+            return proceed(joinPoint, this.shardDirectory.scopeForNewUser());
+        }
+        Long key = evaluate(joinPoint, shardedBy.value());
+        // Sem chave (objeto incompleto) o próprio método acusa o erro
+        if (Objects.isNull(key)) {
+            return joinPoint.proceed();
+        }
+        if (shardedBy.key() == ShardedBy.Key.USER) {
+            return proceed(joinPoint, this.shardDirectory.scopeForUser(key));
+        }
+        List<ShardScope> scopes = this.shardDirectory.scopesForTask(key);
+        for (int i = 0;; i++) {
+            try {
+                return proceed(joinPoint, scopes.get(i));
+            } catch (ObjectNotFoundException e) {
+                if (i == scopes.size() - 1) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Object proceed(ProceedingJoinPoint joinPoint, ShardScope scope) throws Throwable {
+        return ShardContext.call(scope, joinPoint::proceed);
+    }
+
+    private Long evaluate(ProceedingJoinPoint joinPoint, String expression) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Expression parsed = this.expressions.computeIfAbsent(method, key -> this.parser.parseExpression(expression));
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(joinPoint.getTarget(), method,
+                joinPoint.getArgs(), this.parameterNames);
+        return parsed.getValue(context, Long.class);
+    }
+}
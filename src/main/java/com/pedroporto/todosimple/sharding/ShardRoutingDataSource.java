@@ -0,0 +1,44 @@
+package com.pedroporto.todosimple.sharding;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Entrega a conexão do shard indicado pelo ShardContext; sem contexto (boot
+// do Hibernate, tarefas de manutenção) usa o shard 0. Como o
+// ReplicaRoutingDataSource, precisa ficar atrás de um
+// LazyConnectionDataSourceProxy para decidir já dentro da transação.
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (ShardContext.isOnDirectory()) {
+            return 0;
+        }
+        ShardScope scope = ShardContext.current();
+        if (Objects.isNull(scope)) {
+            return 0;
+        }
+        if (scope.frozen() && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new ShardMovingException(
+                    "Os dados estão sendo movidos para outro shard; tente novamente em instantes.");
+        }
+        return scope.shard();
+    }
+}
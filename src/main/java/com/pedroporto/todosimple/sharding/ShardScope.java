@@ -0,0 +1,6 @@
+package com.pedroporto.todosimple.sharding;
+
+// Onde uma operação roda: o shard, o bucket dos ids criados nela e se os
+// dados estão congelados por uma movimentação entre shards (só leitura).
+public record ShardScope(int shard, int bucket, boolean frozen) {
+}
@@ -0,0 +1,27 @@
+package com.pedroporto.todosimple.sharding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Roda o método no shard da chave informada. `value` é uma expressão SpEL
+// sobre os parâmetros, como a key do @Cacheable ("#userId", "#obj.user?.id").
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardedBy {
+
+    String value() default "";
+
+    Key key() default Key.USER;
+
+    enum Key {
+        // Id de usuário: shard do usuário
+        USER,
+        // Id de tarefa: shard do bucket do id; se a tarefa não for encontrada
+        // lá, os shards para onde usuários desse bucket foram movidos
+        TASK,
+        // Usuário novo: sorteia o bucket que o id dele vai carregar
+        NEW_USER
+    }
+}
@@ -0,0 +1,60 @@
+package com.pedroporto.todosimple.sharding;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerationException;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+
+// O mesmo gerador por tabela (id_allocator, otimizador pooled) de antes, com
+// o bucket acrescentado ao id (ver ShardIds). Os blocos de ids são sempre
+// reservados no shard 0, então a sequência é única entre os shards.
+//
+// O Hibernate cria o gerador sozinho; o ShardIds chega pela propriedade
+// SHARD_IDS (ver ShardingConfig). Sem ela os ids não levam bucket.
+public class ShardedTableGenerator extends TableGenerator {
+
+    public static final String SHARD_IDS = "app.sharding.shard-ids";
+
+    private ShardIds shardIds = ShardIds.UNSHARDED;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        super.configure(type, params, serviceRegistry);
+        Object configured = serviceRegistry.getService(ConfigurationService.class).getSettings().get(SHARD_IDS);
+        if (configured instanceof ShardIds ids) {
+            this.shardIds = ids;
+        }
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object obj) {
+        Serializable sequence = ShardContext.callOnDirectory(() -> super.generate(session, obj));
+        if (!(sequence instanceof Number number)) {
+            throw new IdentifierGenerationException("Sequência não numérica para o id: " + sequence);
+        }
+        return this.shardIds.compose(number.longValue(), bucketOf(obj));
+    }
+
+    // A tarefa herda o bucket do dono; o usuário novo recebe o bucket
+    // escolhido para a operação em andamento (@ShardedBy NEW_USER)
+    int bucketOf(Object obj) {
+        if (obj instanceof Task task && Objects.nonNull(task.getUser()) && Objects.nonNull(task.getUser().getId())) {
+            return this.shardIds.bucketOf(task.getUser().getId());
+        }
+        if (obj instanceof User) {
+            ShardScope scope = ShardContext.current();
+            return Objects.isNull(scope) ? ShardIds.randomBucket() : scope.bucket();
+        }
+        return 0;
+    }
+}
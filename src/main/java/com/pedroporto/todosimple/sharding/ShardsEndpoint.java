@@ -0,0 +1,55 @@
+package com.pedroporto.todosimple.sharding;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import com.pedroporto.todosimple.models.dto.ShardMoveJob;
+
+// Administração dos shards no actuator, que fica na porta de gerência
+// (management.server.port, só no loopback por padrão):
+//   GET  /actuator/shards          estado do diretório e últimas movimentações
+//   GET  /actuator/shards/{jobId}  uma movimentação
+//   POST /actuator/shards          {"userId": 1, "to": 2} agenda a movimentação
+// Escritas do usuário recebem 503 enquanto a movimentação não termina.
+@Endpoint(id = "shards")
+public class ShardsEndpoint {
+
+    private final ShardDirectory shardDirectory;
+
+    private final ShardRebalancer shardRebalancer;
+
+    public ShardsEndpoint(ShardDirectory shardDirectory, ShardRebalancer shardRebalancer) {
+        this.shardDirectory = shardDirectory;
+        this.shardRebalancer = shardRebalancer;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("sharded", this.shardDirectory.isSharded());
+        status.put("shards", this.shardDirectory.getShardCount());
+        status.put("movedUsers", this.shardDirectory.getMovedUsers());
+        status.put("moves", this.shardRebalancer.getJobs());
+        return status;
+    }
+
+    // Sem a movimentação (já descartada ou inexistente) o actuator responde 404
+    @ReadOperation
+    public ShardMoveJob move(@Selector long jobId) {
+        return this.shardRebalancer.getJob(jobId);
+    }
+
+    @WriteOperation
+    public ShardMoveJob move(long userId, int to) {
+        if (to < 0 || to >= this.shardDirectory.getShardCount()) {
+            throw new InvalidEndpointRequestException("Shard não encontrado! Id: " + to, "Invalid shard");
+        }
+        return this.shardRebalancer.submit(userId, to);
+    }
+}
@@ -0,0 +1,33 @@
+-- Esquema que o ddl-auto=update criava a partir das entidades. Os
+-- IF NOT EXISTS permitem aplicar esta versão sobre bancos que já vinham
+-- do ddl-auto (baseline na versão 0, ver application.properties).
+
+CREATE TABLE IF NOT EXISTS id_allocator (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (sequence_name)
+);
+
+CREATE TABLE IF NOT EXISTS user (
+    id BIGINT NOT NULL,
+    username VARCHAR(100) NOT NULL,
+    password VARCHAR(60) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_username UNIQUE (username)
+);
+
+CREATE TABLE IF NOT EXISTS task (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_task_user FOREIGN KEY (user_id) REFERENCES user (id)
+);
+
+CREATE TABLE IF NOT EXISTS user_task_stats (
+    user_id BIGINT NOT NULL,
+    task_count BIGINT NOT NULL,
+    PRIMARY KEY (user_id)
+);
@@ -0,0 +1,4 @@
+-- Listagens e paginação por chave das tarefas de um usuário
+-- (WHERE user_id = ? AND id > ? ORDER BY id): a busca e a ordem saem do
+-- próprio índice, sem varrer a tabela nem ordenar.
+CREATE INDEX idx_task_user_id_id ON task (user_id, id);
@@ -0,0 +1,12 @@
+-- Outbox de invalidações de cache entre instâncias (ver InvalidationTailer).
+-- A ordem é a do id; created_at (epoch em ms) mede o atraso e serve para
+-- a limpeza das linhas antigas.
+CREATE TABLE cache_invalidation (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    entity_type VARCHAR(16) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    created_at BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_cache_invalidation_created_at ON cache_invalidation (created_at);
@@ -0,0 +1,4 @@
+-- Instância que gravou a invalidação (ver InvalidationOutbox). Quem lê a
+-- outbox separa as próprias escritas das feitas em outras instâncias, que
+-- também precisam chegar ao índice de busca e ao feed de alterações.
+ALTER TABLE cache_invalidation ADD COLUMN origin VARCHAR(36);
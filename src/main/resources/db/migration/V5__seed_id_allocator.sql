@@ -0,0 +1,22 @@
+-- Bancos que vinham do ddl-auto recebem baseline na versão 0 com ids de
+-- AUTO_INCREMENT e a id_allocator vazia (ou sem as linhas de user e task),
+-- então o TableGenerator começaria de novo no 1 e colidiria com os ids
+-- existentes. O otimizador pooled (increment_size 100) entrega os ids de
+-- next_val - 99 a next_val, daí MAX(id) + 100. Em bancos vazios nada muda:
+-- o gerador cria a linha no primeiro uso, como antes.
+
+INSERT INTO id_allocator (sequence_name, next_val)
+SELECT 'user', ids.max_id + 100 FROM (SELECT MAX(id) AS max_id FROM user) ids
+WHERE ids.max_id IS NOT NULL
+    AND NOT EXISTS (SELECT 1 FROM id_allocator WHERE sequence_name = 'user');
+
+UPDATE id_allocator SET next_val = (SELECT MAX(id) + 100 FROM user)
+WHERE sequence_name = 'user' AND (next_val IS NULL OR next_val < (SELECT MAX(id) + 100 FROM user));
+
+INSERT INTO id_allocator (sequence_name, next_val)
+SELECT 'task', ids.max_id + 100 FROM (SELECT MAX(id) AS max_id FROM task) ids
+WHERE ids.max_id IS NOT NULL
+    AND NOT EXISTS (SELECT 1 FROM id_allocator WHERE sequence_name = 'task');
+
+UPDATE id_allocator SET next_val = (SELECT MAX(id) + 100 FROM task)
+WHERE sequence_name = 'task' AND (next_val IS NULL OR next_val < (SELECT MAX(id) + 100 FROM task));
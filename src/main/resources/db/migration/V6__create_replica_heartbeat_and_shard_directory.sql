@@ -0,0 +1,19 @@
+-- Tabelas que ReplicaSet e ShardDirectory criavam na primeira escrita. Os
+-- IF NOT EXISTS cobrem os bancos onde elas já tinham sido criadas assim.
+
+-- Batida gravada no primário a cada verificação e lida nas réplicas para
+-- medir o atraso da replicação (ver ReplicaSet); tem uma linha só, id = 1.
+CREATE TABLE IF NOT EXISTS replica_heartbeat (
+    id INT NOT NULL,
+    beat_at BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Exceções ao shard do bucket: usuários movidos ou em movimento (ver
+-- ShardDirectory). Só é usada no banco do spring.datasource.url (shard 0).
+CREATE TABLE IF NOT EXISTS shard_directory (
+    user_id BIGINT NOT NULL,
+    shard INT NOT NULL,
+    moving BOOLEAN NOT NULL,
+    PRIMARY KEY (user_id)
+);
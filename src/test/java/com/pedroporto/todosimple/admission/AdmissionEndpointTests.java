@@ -0,0 +1,48 @@
+package com.pedroporto.todosimple.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import javax.validation.Validation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+
+import com.pedroporto.todosimple.datasource.BoundedPools;
+import com.pedroporto.todosimple.models.dto.AdmissionLimits;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdmissionEndpointTests {
+
+    private final AdmissionLimits initial = new AdmissionLimits(true, 50, 100, 16, Duration.ofMillis(50), 32);
+
+    private final AdmissionInterceptor interceptor = new AdmissionInterceptor(this.initial, null,
+            new BoundedPools(10, 1000), new SimpleMeterRegistry());
+
+    private final AdmissionEndpoint endpoint = new AdmissionEndpoint(this.interceptor,
+            Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    void onlyTheGivenLimitsChange() {
+        AdmissionLimits updated = this.endpoint.update(null, 200.0, null, 4, Duration.ofMillis(10), null);
+
+        assertEquals(new AdmissionLimits(true, 200, 100, 4, Duration.ofMillis(10), 32), updated);
+        assertSame(updated, this.interceptor.getLimits());
+        assertSame(updated, this.endpoint.limits());
+    }
+
+    @Test
+    void invalidLimitsAreRejected() {
+        InvalidEndpointRequestException rejected = assertThrows(InvalidEndpointRequestException.class,
+                () -> this.endpoint.update(null, -1.0, 0, null, null, null));
+
+        // As mensagens do validador dependem do idioma; os campos vêm em ordem
+        assertTrue(rejected.getMessage().matches("Limites inválidos: burst .+, rate .+"), rejected.getMessage());
+        assertSame(this.initial, this.interceptor.getLimits());
+    }
+}
@@ -0,0 +1,132 @@
+package com.pedroporto.todosimple.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.pedroporto.todosimple.datasource.BoundedPools;
+import com.pedroporto.todosimple.models.dto.AdmissionLimits;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdmissionInterceptorTests {
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void asyncResponsesHoldTheirSlotUntilTheyComplete() throws InterruptedException {
+        AdmissionInterceptor interceptor = interceptor(1000, 100, 1);
+        MockHttpServletRequest streaming = request("GET", "/tasks/user/{userId}/feed", Map.of("userId", "1"));
+        assertTrue(interceptor.preHandle(streaming, this.response, null));
+        streaming.setAsyncSupported(true);
+        streaming.startAsync();
+        interceptor.afterConcurrentHandlingStarted(streaming, this.response, null);
+
+        MockHttpServletRequest next = request("GET", "/tasks/user/{userId}/feed", Map.of("userId", "2"));
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> interceptor.preHandle(next, this.response, null));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatus());
+
+        ((MockAsyncContext) streaming.getAsyncContext()).complete();
+        // O redespacho também termina a requisição: a vaga não é devolvida duas vezes
+        interceptor.afterCompletion(streaming, this.response, null, null);
+        assertTrue(interceptor.preHandle(next, this.response, null));
+        MockHttpServletRequest third = request("GET", "/tasks/user/{userId}/feed", Map.of("userId", "3"));
+        assertThrows(AdmissionRejectedException.class, () -> interceptor.preHandle(third, this.response, null));
+    }
+
+    // O feed só lê o banco até devolver o emissor; a conexão aberta depois
+    // não pode segurar a vaga da rota por app.feed.timeout
+    @Test
+    void emittersReleaseTheirSlotWhenTheHandlerReturns() throws Exception {
+        AdmissionInterceptor interceptor = interceptor(1000, 100, 1);
+        HandlerMethod events = new HandlerMethod(new FeedHandler(), FeedHandler.class.getMethod("events"));
+        for (int subscriber = 0; subscriber < 3; subscriber++) {
+            MockHttpServletRequest request = request("GET", "/tasks/user/{userId}/events",
+                    Map.of("userId", String.valueOf(subscriber)));
+            assertTrue(interceptor.preHandle(request, this.response, events));
+            request.setAsyncSupported(true);
+            request.startAsync();
+            interceptor.afterConcurrentHandlingStarted(request, this.response, events);
+        }
+    }
+
+    @Test
+    void theRateLimitFollowsTheCallerNotTheUserInThePath() throws InterruptedException {
+        AdmissionInterceptor interceptor = interceptor(0.001, 1, 100);
+        assertTrue(interceptor.preHandle(request("GET", "/users/{id}", Map.of("id", "1")), this.response, null));
+
+        // Trocar o id da rota não dá um balde novo
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> interceptor.preHandle(request("GET", "/users/{id}", Map.of("id", "2")), this.response, null));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatus());
+
+        MockHttpServletRequest otherAddress = request("GET", "/users/{id}", Map.of("id", "1"));
+        otherAddress.setRemoteAddr("10.0.0.2");
+        assertTrue(interceptor.preHandle(otherAddress, this.response, null));
+
+        // Usuários autenticados têm cada um o seu balde, mesmo atrás do mesmo endereço
+        MockHttpServletRequest alice = request("GET", "/users/{id}", Map.of("id", "1"));
+        alice.setUserPrincipal(() -> "alice");
+        assertTrue(interceptor.preHandle(alice, this.response, null));
+        MockHttpServletRequest bob = request("GET", "/users/{id}", Map.of("id", "1"));
+        bob.setUserPrincipal(() -> "bob");
+        assertTrue(interceptor.preHandle(bob, this.response, null));
+    }
+
+    // Atrás do balanceador o endereço remoto é o mesmo para todos: o
+    // cabeçalho configurado separa os clientes
+    @Test
+    void theClientHeaderSeparatesCallersBehindTheSameAddress() throws InterruptedException {
+        AdmissionInterceptor interceptor = interceptor(0.001, 1, 100, "X-Client-Id");
+        MockHttpServletRequest first = request("GET", "/users/{id}", Map.of("id", "1"));
+        first.addHeader("X-Client-Id", "client-a");
+        assertTrue(interceptor.preHandle(first, this.response, null));
+
+        MockHttpServletRequest again = request("GET", "/users/{id}", Map.of("id", "1"));
+        again.addHeader("X-Client-Id", "client-a");
+        assertThrows(AdmissionRejectedException.class, () -> interceptor.preHandle(again, this.response, null));
+
+        MockHttpServletRequest other = request("GET", "/users/{id}", Map.of("id", "1"));
+        other.addHeader("X-Client-Id", "client-b");
+        assertTrue(interceptor.preHandle(other, this.response, null));
+
+        // Sem o cabeçalho vale o endereço remoto
+        assertTrue(interceptor.preHandle(request("GET", "/users/{id}", Map.of("id", "1")), this.response, null));
+    }
+
+    private static AdmissionInterceptor interceptor(double rate, int burst, int maxConcurrent) {
+        return interceptor(rate, burst, maxConcurrent, null);
+    }
+
+    private static AdmissionInterceptor interceptor(double rate, int burst, int maxConcurrent, String clientHeader) {
+        return new AdmissionInterceptor(new AdmissionLimits(true, rate, burst, maxConcurrent, Duration.ZERO, 10),
+                clientHeader, new BoundedPools(10, 1000), new SimpleMeterRegistry());
+    }
+
+    private static MockHttpServletRequest request(String method, String pattern, Map<String, String> variables) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, variables);
+        return request;
+    }
+
+    static class FeedHandler {
+
+        public SseEmitter events() {
+            return new SseEmitter();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.pedroporto.todosimple.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class BulkheadTests {
+
+    @Test
+    void admitsUpToTheLimit() throws InterruptedException {
+        Bulkhead bulkhead = new Bulkhead(2);
+        assertTrue(bulkhead.tryAcquire(0));
+        assertTrue(bulkhead.tryAcquire(0));
+        assertFalse(bulkhead.tryAcquire(0));
+        assertEquals(2, bulkhead.getInFlight());
+
+        bulkhead.release();
+        assertEquals(1, bulkhead.getInFlight());
+        assertTrue(bulkhead.tryAcquire(0));
+    }
+
+    @Test
+    void growingTheLimitAdmitsMoreRightAway() throws InterruptedException {
+        Bulkhead bulkhead = new Bulkhead(1);
+        assertTrue(bulkhead.tryAcquire(0));
+        assertFalse(bulkhead.tryAcquire(0));
+
+        bulkhead.resize(3);
+        assertTrue(bulkhead.tryAcquire(0));
+        assertTrue(bulkhead.tryAcquire(0));
+        assertFalse(bulkhead.tryAcquire(0));
+        assertEquals(3, bulkhead.getInFlight());
+    }
+
+    @Test
+    void shrinkingTheLimitWaitsForTheExcessToFinish() throws InterruptedException {
+        Bulkhead bulkhead = new Bulkhead(3);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(bulkhead.tryAcquire(0));
+        }
+
+        bulkhead.resize(1);
+        assertEquals(3, bulkhead.getInFlight());
+        bulkhead.release();
+        bulkhead.release();
+        // Ainda há uma em andamento, que ocupa a única vaga
+        assertFalse(bulkhead.tryAcquire(0));
+        bulkhead.release();
+        assertEquals(0, bulkhead.getInFlight());
+        assertTrue(bulkhead.tryAcquire(0));
+        assertFalse(bulkhead.tryAcquire(0));
+    }
+
+    @Test
+    void shrinkingAnIdleBulkheadLowersTheLimit() throws InterruptedException {
+        Bulkhead bulkhead = new Bulkhead(4);
+        bulkhead.resize(2);
+        assertEquals(0, bulkhead.getInFlight());
+        assertTrue(bulkhead.tryAcquire(0));
+        assertTrue(bulkhead.tryAcquire(0));
+        assertFalse(bulkhead.tryAcquire(0));
+    }
+}
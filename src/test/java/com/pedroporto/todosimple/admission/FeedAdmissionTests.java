@@ -0,0 +1,55 @@
+package com.pedroporto.todosimple.admission;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.services.UserService;
+
+// Com o controle de admissão ligado, os inscritos do feed SSE não ocupam o
+// bulkhead da rota enquanto a conexão fica aberta
+@SpringBootTest(properties = {
+        "app.admission.enabled=true",
+        "app.admission.bulkhead.max-concurrent=2",
+        "app.admission.bulkhead.max-wait=PT0S" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FeedAdmissionTests {
+
+    private static final AtomicInteger USERNAMES = new AtomicInteger();
+
+    private static final int SUBSCRIBERS = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void feedSubscribersDoNotHoldTheBulkhead() throws Exception {
+        User user = new User();
+        user.setUsername("feed-admission-user-" + USERNAMES.incrementAndGet());
+        user.setPassword("some-password");
+        Long userId = this.userService.create(user).getId();
+
+        for (int subscriber = 0; subscriber < SUBSCRIBERS; subscriber++) {
+            this.mockMvc.perform(get("/tasks/user/{userId}/events", userId).accept(MediaType.TEXT_EVENT_STREAM))
+                    .andExpect(status().isOk())
+                    .andExpect(request().asyncStarted());
+        }
+        this.mockMvc.perform(get("/tasks/user/{userId}", userId))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,48 @@
+package com.pedroporto.todosimple.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTests {
+
+    private static final long INTERVAL = 10;
+
+    private static final int BURST = 3;
+
+    @Test
+    void aFullBucketAdmitsTheBurstAndThenAsksToWait() {
+        TokenBucket bucket = new TokenBucket();
+        for (int i = 0; i < BURST; i++) {
+            assertEquals(0, bucket.tryAcquire(1_000, INTERVAL, BURST));
+        }
+        // A próxima ficha chega um intervalo depois
+        assertEquals(INTERVAL, bucket.tryAcquire(1_000, INTERVAL, BURST));
+        assertEquals(INTERVAL - 4, bucket.tryAcquire(1_004, INTERVAL, BURST));
+        assertEquals(0, bucket.tryAcquire(1_010, INTERVAL, BURST));
+        assertEquals(INTERVAL, bucket.tryAcquire(1_010, INTERVAL, BURST));
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumeTokens() {
+        TokenBucket bucket = new TokenBucket();
+        for (int i = 0; i < BURST; i++) {
+            bucket.tryAcquire(1_000, INTERVAL, BURST);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(INTERVAL, bucket.tryAcquire(1_000, INTERVAL, BURST));
+        }
+        assertEquals(0, bucket.tryAcquire(1_010, INTERVAL, BURST));
+    }
+
+    @Test
+    void anIdleBucketRefillsOnlyUpToTheBurst() {
+        TokenBucket bucket = new TokenBucket();
+        bucket.tryAcquire(1_000, INTERVAL, BURST);
+        long later = 1_000 + 100 * INTERVAL;
+        for (int i = 0; i < BURST; i++) {
+            assertEquals(0, bucket.tryAcquire(later, INTERVAL, BURST));
+        }
+        assertEquals(INTERVAL, bucket.tryAcquire(later, INTERVAL, BURST));
+    }
+}
@@ -0,0 +1,285 @@
+package com.pedroporto.todosimple.controllers;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+// Contrato HTTP de /users e /tasks: status, corpos ErrorResponse e ETags.
+// As subclasses sobem a aplicação numa porta de verdade, uma na pilha
+// servlet e outra na reativa, e as duas precisam passar pelos mesmos testes.
+abstract class ApiContractTests {
+
+    private static final AtomicInteger USERNAMES = new AtomicInteger();
+
+    @Autowired
+    protected WebTestClient webTestClient;
+
+    @Test
+    void createdUserIsReadWithItsETag() {
+        String username = newUsername();
+        URI location = this.webTestClient.post().uri("/users")
+                .bodyValue(Map.of("username", username, "password", "some-password"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().isEmpty()
+                .getResponseHeaders().getLocation();
+        assertNotNull(location);
+
+        this.webTestClient.get().uri(location.getPath())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.username").isEqualTo(username)
+                .jsonPath("$.password").doesNotExist();
+
+        this.webTestClient.get().uri(location.getPath())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    // Os grupos de validação do usuário são checados na chamada do método
+    // (ConstraintViolationException): a mensagem traz o caminho do campo
+    @Test
+    void invalidUserIsRejectedWithTheViolatedField() {
+        this.webTestClient.post().uri("/users")
+                .bodyValue(Map.of("username", newUsername(), "password", "short"))
+                .exchange()
+                .expectStatus().isEqualTo(422)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(422)
+                .jsonPath("$.message").value(startsWith("create.user.password: "))
+                .jsonPath("$.stackTrace").doesNotExist();
+    }
+
+    // A violação de restrição responde 409 com mensagem fixa, sem o texto do banco
+    @Test
+    void duplicateUsernameIsAConflict() {
+        String username = newUsername();
+        createUser(username);
+
+        this.webTestClient.post().uri("/users")
+                .bodyValue(Map.of("username", username, "password", "some-password"))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(409)
+                .jsonPath("$.message").value(allOf(not(containsString("SQL")), not(containsString(username))))
+                .jsonPath("$.stackTrace").doesNotExist();
+    }
+
+    @Test
+    void missingUserIsNotFound() {
+        this.webTestClient.get().uri("/users/{id}", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.message").value(startsWith("Usuário não encontrado! Id: " + Long.MAX_VALUE));
+    }
+
+    @Test
+    void wrongPasswordIsUnauthorized() {
+        String username = newUsername();
+        createUser(username);
+
+        this.webTestClient.post().uri("/users/login")
+                .bodyValue(Map.of("username", username, "password", "some-password"))
+                .exchange()
+                .expectStatus().isNoContent();
+        this.webTestClient.post().uri("/users/login")
+                .bodyValue(Map.of("username", username, "password", "wrong-password"))
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(401);
+        this.webTestClient.post().uri("/users/login")
+                .bodyValue(Map.of("username", newUsername(),
+                        "password", "some-password"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void staleIfMatchFailsThePrecondition() {
+        long userId = createUser(newUsername());
+
+        this.webTestClient.put().uri("/users/{id}", userId)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(Map.of("password", "another-password"))
+                .exchange()
+                .expectStatus().isNoContent()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+        this.webTestClient.put().uri("/users/{id}", userId)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(Map.of("password", "third-password"))
+                .exchange()
+                .expectStatus().isEqualTo(412)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(412);
+
+        long taskId = createTask(userId, "Tarefa");
+        this.webTestClient.put().uri("/tasks/{id}", taskId)
+                .header(HttpHeaders.IF_MATCH, "\"7\"")
+                .bodyValue(Map.of("description", "Alterada"))
+                .exchange()
+                .expectStatus().isEqualTo(412)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(412);
+        this.webTestClient.put().uri("/tasks/{id}", taskId)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(Map.of("description", "Alterada"))
+                .exchange()
+                .expectStatus().isNoContent()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+    }
+
+    @Test
+    void taskListCarriesAnETagAndTheStatsFollowTheWrites() {
+        long userId = createUser(newUsername());
+        long first = createTask(userId, "Primeira");
+        createTask(userId, "Segunda");
+
+        String etag = this.webTestClient.get().uri("/tasks/user/{userId}", userId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").isEqualTo(first)
+                .jsonPath("$[0].description").isEqualTo("Primeira")
+                .returnResult()
+                .getResponseHeaders().getETag();
+        assertNotNull(etag);
+        this.webTestClient.get().uri("/tasks/user/{userId}", userId)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        this.webTestClient.get().uri("/tasks/{id}", first)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.description").isEqualTo("Primeira");
+
+        this.webTestClient.delete().uri("/tasks/{id}", first)
+                .exchange()
+                .expectStatus().isNoContent();
+        // Tarefa que não existe: 400 sem corpo, como sempre foi
+        this.webTestClient.delete().uri("/tasks/{id}", first)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().isEmpty();
+        this.webTestClient.get().uri("/tasks/{id}", first)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404);
+
+        this.webTestClient.get().uri("/users/{id}/stats", userId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.taskCount").isEqualTo(1);
+    }
+
+    @Test
+    void invalidTasksAndPagesAreRejected() {
+        long userId = createUser(newUsername());
+
+        this.webTestClient.post().uri("/tasks")
+                .bodyValue(Map.of("user", Map.of("id", userId)))
+                .exchange()
+                .expectStatus().isEqualTo(422)
+                .expectBody()
+                .jsonPath("$.errors[0].field").isEqualTo("description");
+        this.webTestClient.get().uri("/tasks/user/{userId}?limit=10&cursor=not-a-cursor", userId)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400);
+        this.webTestClient.get().uri("/tasks/user/{userId}?limit=0", userId)
+                .exchange()
+                .expectStatus().isEqualTo(422)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(422);
+        this.webTestClient.get().uri("/tasks/user/{userId}?limit=10", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void pagesAndStreamsListTheSameTasks() {
+        long userId = createUser(newUsername());
+        createTask(userId, "Primeira");
+        createTask(userId, "Segunda");
+        createTask(userId, "Terceira");
+
+        String cursor = this.webTestClient.get().uri("/tasks/user/{userId}?limit=2", userId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody()
+                .get("next")
+                .toString();
+        this.webTestClient.get().uri("/tasks/user/{userId}?limit=2&cursor={cursor}", userId, cursor)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(1)
+                .jsonPath("$.items[0].description").isEqualTo("Terceira")
+                .jsonPath("$.next").doesNotExist();
+
+        this.webTestClient.get().uri("/tasks/user/{userId}?stream=true", userId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[2].description").isEqualTo("Terceira");
+    }
+
+    protected static String newUsername() {
+        return "api-user-" + USERNAMES.incrementAndGet();
+    }
+
+    protected long createUser(String username) {
+        URI location = this.webTestClient.post().uri("/users")
+                .bodyValue(Map.of("username", username, "password", "some-password"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().returnResult()
+                .getResponseHeaders().getLocation();
+        return idOf(location);
+    }
+
+    protected long createTask(long userId, String description) {
+        URI location = this.webTestClient.post().uri("/tasks")
+                .bodyValue(Map.of("description", description, "user", Map.of("id", userId)))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().returnResult()
+                .getResponseHeaders().getLocation();
+        return idOf(location);
+    }
+
+    private static long idOf(URI location) {
+        String path = location.getPath();
+        return Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+    }
+}
@@ -0,0 +1,49 @@
+package com.pedroporto.todosimple.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.pedroporto.todosimple.models.dto.TaskView;
+
+// O contrato sobre o WebFlux (Netty) e o R2DBC, no mesmo H2 dos testes
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({ "test", "reactive" })
+class ReactiveApiContractTests extends ApiContractTests {
+
+    private static final int STREAMED_TASKS = 50;
+
+    // Só a pilha reativa tem a listagem em NDJSON
+    @Test
+    void tasksAreStreamedAsNdjson() {
+        long userId = createUser(newUsername());
+        for (int i = 0; i < STREAMED_TASKS; i++) {
+            createTask(userId, "Tarefa " + i);
+        }
+
+        List<TaskView> tasks = this.webTestClient.get().uri("/tasks/user/{userId}", userId)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(TaskView.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(STREAMED_TASKS, tasks.size());
+        assertEquals("Tarefa 0", tasks.get(0).description());
+        assertEquals(userId, tasks.get(STREAMED_TASKS - 1).user().id());
+
+        this.webTestClient.get().uri("/tasks/user/{userId}", Long.MAX_VALUE)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,11 @@
+package com.pedroporto.todosimple.controllers;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+
+// O contrato sobre o Spring MVC (Tomcat)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ServletApiContractTests extends ApiContractTests {
+}
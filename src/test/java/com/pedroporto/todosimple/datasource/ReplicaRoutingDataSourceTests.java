@@ -0,0 +1,178 @@
+package com.pedroporto.todosimple.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Primário e réplica são dois bancos H2 em memória distintos; a "replicação"
+// do batimento é feita à mão para simular réplica em dia ou atrasada.
+class ReplicaRoutingDataSourceTests {
+
+    private static final String HEARTBEAT_DDL = "CREATE TABLE " + ReplicaSet.HEARTBEAT_TABLE
+            + " (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)";
+
+    private DataSource primary;
+
+    private DataSource replica;
+
+    private ReplicaSet replicaSet;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        this.primary = h2("primary");
+        this.replica = h2("replica");
+        execute(this.primary, "CREATE TABLE node (name VARCHAR(16))", "INSERT INTO node VALUES ('primary')");
+        execute(this.replica, "CREATE TABLE node (name VARCHAR(16))", "INSERT INTO node VALUES ('replica')");
+        // A tabela do batimento vem das migrações no primário e da replicação nas réplicas
+        execute(this.primary, HEARTBEAT_DDL);
+        execute(this.replica, HEARTBEAT_DDL);
+        this.replicaSet = new ReplicaSet(this.primary, Map.of("replica-0", this.replica), 5_000, 60_000);
+        this.routingDataSource = new ReplicaRoutingDataSource(this.primary, this.replicaSet);
+        this.dataSource = new LazyConnectionDataSourceProxy(this.routingDataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(this.dataSource));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        ReplicaRoutingDataSource.clearSticky();
+        execute(this.primary, "SHUTDOWN");
+        execute(this.replica, "SHUTDOWN");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToAHealthyReplica() throws SQLException {
+        replicate();
+        assertEquals("replica", node(true));
+        assertEquals("primary", node(false));
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhenReplicaIsUnavailable() throws SQLException {
+        // Sem a tabela de batimento a réplica é considerada fora do ar
+        this.replicaSet.check();
+        assertEquals("primary", node(true));
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhenReplicaLagsBehind() throws SQLException {
+        replicate();
+        execute(this.replica, "UPDATE " + ReplicaSet.HEARTBEAT_TABLE + " SET beat_at = "
+                + (System.currentTimeMillis() - 60_000));
+        this.replicaSet.check();
+        assertEquals("primary", node(true));
+    }
+
+    // Com o JpaTransactionManager a conexão é pedida no início da transação,
+    // antes de o Spring marcá-la como somente leitura: o
+    // LazyConnectionDataSourceProxy precisa adiar a escolha até o primeiro SQL
+    @Test
+    void jpaReadOnlyTransactionsGoToAHealthyReplica() throws SQLException {
+        replicate();
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(this.dataSource);
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setPackagesToScan(ReplicaRoutingDataSourceTests.class.getPackageName());
+        factory.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factory.getObject();
+        try {
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+            TransactionTemplate jpaTransactions = new TransactionTemplate(
+                    new JpaTransactionManager(entityManagerFactory));
+            AtomicInteger writes = new AtomicInteger();
+            this.routingDataSource.setWriteListener(writes::incrementAndGet);
+
+            jpaTransactions.setReadOnly(true);
+            assertEquals("replica", jpaTransactions.execute(status -> nodeName(entityManager)));
+            assertEquals(0, writes.get());
+
+            jpaTransactions.setReadOnly(false);
+            assertEquals("primary", jpaTransactions.execute(status -> nodeName(entityManager)));
+            assertEquals(1, writes.get());
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    @Test
+    void stickyThreadReadsFromPrimary() throws SQLException {
+        replicate();
+        ReplicaRoutingDataSource.stickToPrimary();
+        assertEquals("primary", node(true));
+    }
+
+    // Grava o batimento no primário e copia para a réplica, como se ela
+    // estivesse em dia
+    private void replicate() throws SQLException {
+        this.replicaSet.check();
+        long beat;
+        try (Connection connection = this.primary.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(
+                        "SELECT beat_at FROM " + ReplicaSet.HEARTBEAT_TABLE + " WHERE id = 1")) {
+            resultSet.next();
+            beat = resultSet.getLong(1);
+        }
+        execute(this.replica, "DELETE FROM " + ReplicaSet.HEARTBEAT_TABLE,
+                "INSERT INTO " + ReplicaSet.HEARTBEAT_TABLE + " VALUES (1, " + beat + ")");
+        this.replicaSet.check();
+    }
+
+    private String node(boolean readOnly) {
+        this.transactionTemplate.setReadOnly(readOnly);
+        return this.transactionTemplate.execute(status -> {
+            Connection connection = DataSourceUtils.getConnection(this.dataSource);
+            try (Statement statement = connection.createStatement();
+                    ResultSet resultSet = statement.executeQuery("SELECT name FROM node")) {
+                resultSet.next();
+                return resultSet.getString(1);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private static String nodeName(EntityManager entityManager) {
+        return entityManager.createNativeQuery("SELECT name FROM node").getSingleResult().toString();
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private static void execute(DataSource dataSource, String... sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            for (String command : sql) {
+                statement.execute(command);
+            }
+        }
+    }
+}
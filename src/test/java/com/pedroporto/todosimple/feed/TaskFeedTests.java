@@ -0,0 +1,215 @@
+package com.pedroporto.todosimple.feed;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pedroporto.todosimple.services.events.TaskChangedEvent;
+import com.pedroporto.todosimple.services.events.TaskListsChangedEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TaskFeedTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void eventsGoOnlyToTheOwnersSubscribers() {
+        TestFeed feed = new TestFeed(100, 10, Runnable::run);
+        RecordingEmitter owner = feed.subscribe(1L);
+        RecordingEmitter other = feed.subscribe(2L);
+
+        feed.onTaskChanged(TaskChangedEvent.created(10L, 1L, "Tarefa"));
+
+        assertEquals(List.of("created"), owner.names());
+        assertTrue(owner.events.get(0).contains("\"taskId\":10"));
+        assertEquals(List.of(), other.names());
+    }
+
+    @Test
+    void reconnectingReplaysOnlyTheMissedEventsOfTheUser() {
+        TestFeed feed = new TestFeed(100, 10, Runnable::run);
+        RecordingEmitter first = feed.subscribe(1L);
+        feed.onTaskChanged(TaskChangedEvent.created(10L, 1L, "A"));
+        String lastEventId = first.ids().get(0);
+
+        feed.onTaskChanged(TaskChangedEvent.updated(10L, 1L, "B"));
+        feed.onTaskChanged(TaskChangedEvent.created(20L, 2L, "De outro usuário"));
+        feed.onTaskChanged(TaskChangedEvent.deleted(10L, 1L));
+        RecordingEmitter reconnected = feed.subscribe(1L, lastEventId);
+
+        assertEquals(List.of("updated", "deleted"), reconnected.names());
+        assertEquals(first.ids().subList(1, 3), reconnected.ids());
+    }
+
+    @Test
+    void reconnectingAfterTheReplayBufferWrappedGetsAReset() {
+        TestFeed feed = new TestFeed(2, 10, Runnable::run);
+        RecordingEmitter first = feed.subscribe(1L);
+        feed.onTaskChanged(TaskChangedEvent.created(10L, 1L, "A"));
+        String lastEventId = first.ids().get(0);
+        for (long id = 11; id <= 13; id++) {
+            feed.onTaskChanged(TaskChangedEvent.created(id, 1L, "Mais uma"));
+        }
+
+        assertEquals(List.of(TaskFeed.RESET), feed.subscribe(1L, lastEventId).names());
+    }
+
+    @Test
+    void unusableLastEventIdsGetAReset() {
+        TestFeed feed = new TestFeed(100, 10, Runnable::run);
+        RecordingEmitter first = feed.subscribe(1L);
+        feed.onTaskChanged(TaskChangedEvent.created(10L, 1L, "A"));
+        String epoch = first.ids().get(0).substring(0, first.ids().get(0).lastIndexOf('-'));
+
+        // Outra execução do servidor, id malformado e sequência ainda não emitida
+        assertEquals(List.of(TaskFeed.RESET), feed.subscribe(1L, "outra-1").names());
+        assertEquals(List.of(TaskFeed.RESET), feed.subscribe(1L, "sem separador").names());
+        assertEquals(List.of(TaskFeed.RESET), feed.subscribe(1L, epoch + "-abc").names());
+        assertEquals(List.of(TaskFeed.RESET), feed.subscribe(1L, epoch + "-99").names());
+        // Sem Last-Event-ID é uma conexão nova: nada a repor
+        assertEquals(List.of(), feed.subscribe(1L, " ").names());
+        assertEquals(List.of(), feed.subscribe(1L, epoch + "-1").names());
+    }
+
+    @Test
+    void tooManyMissedEventsBecomeAReset() {
+        TestFeed feed = new TestFeed(100, 2, Runnable::run);
+        RecordingEmitter first = feed.subscribe(1L);
+        feed.onTaskChanged(TaskChangedEvent.created(10L, 1L, "A"));
+        String lastEventId = first.ids().get(0);
+        for (long id = 11; id <= 13; id++) {
+            feed.onTaskChanged(TaskChangedEvent.created(id, 1L, "Mais uma"));
+        }
+
+        assertEquals(List.of(TaskFeed.RESET), feed.subscribe(1L, lastEventId).names());
+    }
+
+    @Test
+    void slowSubscribersAreDisconnected() {
+        // O executor nunca roda a escrita: a fila do assinante só enche
+        List<Runnable> stalled = new ArrayList<>();
+        TestFeed feed = new TestFeed(100, 2, stalled::add);
+        RecordingEmitter slow = feed.subscribe(1L);
+
+        for (long id = 10; id <= 12; id++) {
+            feed.onTaskChanged(TaskChangedEvent.created(id, 1L, "Tarefa"));
+        }
+
+        assertTrue(slow.completed);
+        assertEquals(1.0, this.meterRegistry.counter("app.feed.dropped").count());
+        assertEquals(0.0, this.meterRegistry.get("app.feed.subscribers").gauge().value());
+        stalled.forEach(Runnable::run);
+        assertEquals(List.of(), slow.names());
+    }
+
+    @Test
+    void remoteChangesResetTheAffectedUsers() {
+        TestFeed feed = new TestFeed(100, 10, Runnable::run);
+        RecordingEmitter affected = feed.subscribe(1L);
+        RecordingEmitter other = feed.subscribe(2L);
+
+        // As escritas desta instância já foram entregues por onTaskChanged
+        feed.onTaskListsChanged(new TaskListsChangedEvent(Set.of(1L), false));
+        assertEquals(List.of(), affected.names());
+
+        feed.onTaskListsChanged(new TaskListsChangedEvent(Set.of(1L), true));
+        assertEquals(List.of(TaskFeed.RESET), affected.names());
+        assertEquals(List.of(), other.names());
+    }
+
+    @Test
+    void unknownRemoteChangesResetEveryone() {
+        TestFeed feed = new TestFeed(100, 10, Runnable::run);
+        RecordingEmitter first = feed.subscribe(1L);
+        RecordingEmitter second = feed.subscribe(2L);
+        feed.onTaskChanged(TaskChangedEvent.created(10L, 1L, "A"));
+        String lastEventId = first.ids().get(0);
+
+        feed.onTaskListsChanged(TaskListsChangedEvent.unknown());
+
+        assertEquals(List.of("created", TaskFeed.RESET), first.names());
+        assertEquals(List.of(TaskFeed.RESET), second.names());
+        // Quem reconecta com um id anterior também precisa recarregar
+        assertEquals(List.of(TaskFeed.RESET), feed.subscribe(1L, lastEventId).names());
+        assertFalse(feed.subscribe(1L, first.ids().get(1)).names().contains(TaskFeed.RESET));
+    }
+
+    private class TestFeed extends TaskFeed {
+
+        private RecordingEmitter lastEmitter;
+
+        TestFeed(int replaySize, int bufferSize, Executor executor) {
+            super(new ObjectMapper(), new ConcurrentTaskExecutor(executor), meterRegistry, replaySize, bufferSize,
+                    Duration.ofMinutes(1));
+        }
+
+        @Override
+        SseEmitter newEmitter() {
+            this.lastEmitter = new RecordingEmitter();
+            return this.lastEmitter;
+        }
+
+        RecordingEmitter subscribe(Long userId) {
+            return subscribe(userId, null);
+        }
+
+        @Override
+        public RecordingEmitter subscribe(Long userId, String lastEventId) {
+            super.subscribe(userId, lastEventId);
+            return this.lastEmitter;
+        }
+    }
+
+    // Guarda o texto de cada evento em vez de escrever numa resposta HTTP
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        private volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            this.events.add(text.toString());
+        }
+
+        @Override
+        public synchronized void complete() {
+            this.completed = true;
+        }
+
+        List<String> names() {
+            return field("event:");
+        }
+
+        List<String> ids() {
+            return field("id:");
+        }
+
+        private List<String> field(String prefix) {
+            List<String> values = new ArrayList<>();
+            for (String event : this.events) {
+                for (String line : event.split("\n")) {
+                    if (line.startsWith(prefix)) {
+                        values.add(line.substring(prefix.length()));
+                    }
+                }
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.pedroporto.todosimple.imports;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class CsvRowReaderTests {
+
+    @Test
+    void readsFieldsByHeaderName() throws IOException {
+        List<ImportRow> rows = read("\uFEFFUsername, Password\nana,secret123\r\nbia,outra-senha\n");
+
+        assertEquals(2, rows.size());
+        assertEquals(Map.of("username", "ana", "password", "secret123"), rows.get(0).fields());
+        assertEquals(Map.of("username", "bia", "password", "outra-senha"), rows.get(1).fields());
+        assertEquals(1, rows.get(0).number());
+        assertEquals(2, rows.get(1).number());
+    }
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        List<ImportRow> rows = read("description,user_id\n\"Comprar pão, leite\",1\n"
+                + "\"Ler \"\"Dom Casmurro\"\"\",2\n\"Primeira linha\nsegunda linha\",3\n");
+
+        assertEquals(3, rows.size());
+        assertEquals("Comprar pão, leite", rows.get(0).get("description"));
+        assertEquals("Ler \"Dom Casmurro\"", rows.get(1).get("description"));
+        assertEquals("Primeira linha\nsegunda linha", rows.get(2).get("description"));
+        assertEquals("3", rows.get(2).get("user_id"));
+    }
+
+    @Test
+    void blankLinesAreSkippedWithoutCountingAsRows() throws IOException {
+        List<ImportRow> rows = read("description,user_id\n\nTarefa,1\r\n\r\n\nOutra,2");
+
+        assertEquals(2, rows.size());
+        assertEquals(1, rows.get(0).number());
+        assertEquals(2, rows.get(1).number());
+        assertEquals("Outra", rows.get(1).get("description"));
+    }
+
+    @Test
+    void emptyFieldsAreLeftOut() throws IOException {
+        List<ImportRow> rows = read("description,user_id,username\nTarefa,,ana\n");
+
+        assertEquals(Map.of("description", "Tarefa", "username", "ana"), rows.get(0).fields());
+        assertNull(rows.get(0).get("user_id"));
+    }
+
+    @Test
+    void rowsWithMoreColumnsThanTheHeaderAreInvalid() throws IOException {
+        List<ImportRow> rows = read("description,user_id\nTarefa,1,extra\nOutra,2\n");
+
+        assertFalse(rows.get(0).isValid());
+        assertEquals(1, rows.get(0).number());
+        assertTrue(rows.get(0).error().contains("3 colunas"));
+        assertTrue(rows.get(1).isValid());
+    }
+
+    @Test
+    void oversizedRowsAreInvalidAndReadingContinues() throws IOException {
+        String huge = "x".repeat(RowReader.MAX_ROW_CHARS + 10);
+        List<ImportRow> rows = read("description,user_id\n" + huge + ",1\nOutra,2\n");
+
+        assertEquals(2, rows.size());
+        assertFalse(rows.get(0).isValid());
+        assertEquals("Outra", rows.get(1).get("description"));
+        assertEquals(2, rows.get(1).number());
+    }
+
+    @Test
+    void emptyInputHasNoRows() throws IOException {
+        assertEquals(List.of(), read(""));
+        assertEquals(List.of(), read("description,user_id\n"));
+    }
+
+    private static List<ImportRow> read(String csv) throws IOException {
+        List<ImportRow> rows = new ArrayList<>();
+        try (RowReader reader = new CsvRowReader(new BufferedReader(new StringReader(csv)))) {
+            ImportRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,77 @@
+package com.pedroporto.todosimple.imports;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class NdjsonRowReaderTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void nestedObjectsAreFlattened() throws IOException {
+        List<ImportRow> rows = read("{\"description\":\"Tarefa\",\"User\":{\"id\":7}}\n"
+                + "{\"description\":\"Outra\",\"username\":\"ana\",\"extra\":null}\n");
+
+        assertEquals(2, rows.size());
+        assertEquals(Map.of("description", "Tarefa", "user_id", "7"), rows.get(0).fields());
+        assertEquals(Map.of("description", "Outra", "username", "ana"), rows.get(1).fields());
+    }
+
+    @Test
+    void blankLinesAreSkippedButCounted() throws IOException {
+        List<ImportRow> rows = read("{\"description\":\"A\"}\n\n   \n{\"description\":\"B\"}");
+
+        assertEquals(2, rows.size());
+        assertEquals(1, rows.get(0).number());
+        // O número é a linha do arquivo, então as linhas em branco contam
+        assertEquals(4, rows.get(1).number());
+        assertEquals("B", rows.get(1).get("description"));
+    }
+
+    @Test
+    void malformedLinesAreInvalidAndReadingContinues() throws IOException {
+        List<ImportRow> rows = read("{\"description\":\n[1,2]\n{\"description\":\"C\"}\n");
+
+        assertEquals(3, rows.size());
+        assertFalse(rows.get(0).isValid());
+        assertTrue(rows.get(0).error().startsWith("JSON inválido"));
+        assertFalse(rows.get(1).isValid());
+        assertEquals("A linha não é um objeto JSON.", rows.get(1).error());
+        assertTrue(rows.get(2).isValid());
+        assertEquals(3, rows.get(2).number());
+    }
+
+    @Test
+    void oversizedLinesAreInvalid() throws IOException {
+        String huge = "{\"description\":\"" + "x".repeat(RowReader.MAX_ROW_CHARS) + "\"}";
+        List<ImportRow> rows = read(huge + "\n{\"description\":\"D\"}\n");
+
+        assertEquals(2, rows.size());
+        assertFalse(rows.get(0).isValid());
+        assertEquals("D", rows.get(1).get("description"));
+    }
+
+    private List<ImportRow> read(String ndjson) throws IOException {
+        List<ImportRow> rows = new ArrayList<>();
+        try (RowReader reader = new NdjsonRowReader(new BufferedReader(new StringReader(ndjson)),
+                this.objectMapper)) {
+            ImportRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,137 @@
+package com.pedroporto.todosimple.invalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.pedroporto.todosimple.TodosimpleApplication;
+import com.pedroporto.todosimple.configs.CacheConfig;
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.dto.TaskSearchResult;
+import com.pedroporto.todosimple.services.TaskSearchService;
+import com.pedroporto.todosimple.services.TaskService;
+import com.pedroporto.todosimple.services.UserService;
+
+// Duas instâncias da aplicação no mesmo processo, cada uma com seu cache,
+// sobre o mesmo banco H2 em memória: uma escrita numa delas precisa
+// descartar a entrada em cache na outra e chegar ao índice de busca dela.
+class CacheInvalidationTests {
+
+    private static final long PROPAGATION_TIMEOUT_MILLIS = 5_000;
+
+    private static ConfigurableApplicationContext first;
+
+    private static ConfigurableApplicationContext second;
+
+    @BeforeAll
+    static void start() {
+        first = node();
+        second = node();
+    }
+
+    @AfterAll
+    static void stop() {
+        if (Objects.nonNull(second)) {
+            second.close();
+        }
+        if (Objects.nonNull(first)) {
+            first.close();
+        }
+    }
+
+    @Test
+    void userUpdateOnOneNodeEvictsTheOtherNodesCache() throws InterruptedException {
+        Long userId = createUser("invalidation-user");
+        second.getBean(UserService.class).findById(userId);
+        Cache users = cache(second, CacheConfig.USERS);
+        assertNotNull(users.get(userId));
+
+        User changed = new User();
+        changed.setId(userId);
+        changed.setPassword("another-password");
+        first.getBean(UserService.class).update(changed);
+
+        awaitEviction(users, userId);
+    }
+
+    @Test
+    void taskCreatedOnOneNodeEvictsTheOtherNodesTaskList() throws InterruptedException {
+        Long userId = createUser("invalidation-tasks");
+        second.getBean(TaskService.class).findAllByUserId(userId);
+        Cache tasksByUser = cache(second, CacheConfig.TASKS_BY_USER);
+        assertNotNull(tasksByUser.get(userId));
+
+        User owner = new User();
+        owner.setId(userId);
+        Task task = new Task();
+        task.setUser(owner);
+        task.setDescription("Criada na outra instância");
+        first.getBean(TaskService.class).create(task);
+
+        awaitEviction(tasksByUser, userId);
+    }
+
+    // Cada instância tem seu índice de busca: as tarefas escritas na outra
+    // chegam pela outbox e são relidas do banco
+    @Test
+    void taskCreatedOnOneNodeIsSearchableOnTheOther() throws InterruptedException {
+        Long userId = createUser("invalidation-search");
+        User owner = new User();
+        owner.setId(userId);
+        Task task = new Task();
+        task.setUser(owner);
+        task.setDescription("Reunião criada na outra instância");
+        Long taskId = first.getBean(TaskService.class).create(task).getId();
+
+        TaskSearchService search = second.getBean(TaskSearchService.class);
+        long deadline = System.currentTimeMillis() + PROPAGATION_TIMEOUT_MILLIS;
+        while (search.search(userId, "reuniao", 0, 20).getTotal() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(List.of(taskId), search.search(userId, "reuniao", 0, 20).getItems().stream()
+                .map(TaskSearchResult.Hit::id).toList());
+    }
+
+    private static Long createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("some-password");
+        return first.getBean(UserService.class).create(user).getId();
+    }
+
+    private static void awaitEviction(Cache cache, Long key) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + PROPAGATION_TIMEOUT_MILLIS;
+        while (Objects.nonNull(cache.get(key)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertNull(cache.get(key), "The other node still caches " + key);
+    }
+
+    private static Cache cache(ConfigurableApplicationContext context, String name) {
+        return context.getBean(CacheManager.class).getCache(name);
+    }
+
+    // Argumentos de linha de comando, e não .properties(...): essas são só
+    // propriedades padrão e perderiam para o application.properties
+    private static ConfigurableApplicationContext node() {
+        return new SpringApplicationBuilder(TodosimpleApplication.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:invalidation;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+                        "--app.cache.invalidation.enabled=true",
+                        "--app.cache.invalidation.poll-interval=PT0.1S");
+    }
+}
@@ -0,0 +1,69 @@
+package com.pedroporto.todosimple.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pedroporto.todosimple.exceptions.ErrorResponse;
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.dto.TaskView;
+
+// Os serializadores do ApiJsonModule precisam escrever exatamente o que o
+// ObjectMapper padrão escreveria a partir das anotações das classes
+class ApiJsonModuleTests {
+
+    private final ObjectMapper reference = new ObjectMapper();
+
+    private final ObjectMapper module = new ObjectMapper().registerModule(new ApiJsonModule());
+
+    @Test
+    void users() throws JsonProcessingException {
+        User user = new User(7L, "maria \"m\" ção", "secret-password", new ArrayList<>(), 3);
+        user.getTasks().add(new Task(1L, user, "Tarefa", 0));
+        assertSameJson(user);
+        assertSameJson(new User());
+    }
+
+    @Test
+    void tasks() throws JsonProcessingException {
+        User user = new User(7L, "maria", "secret-password", new ArrayList<>(), 3);
+        assertSameJson(new Task(11L, user, "Descrição com \n quebra e \\ barra", 2));
+        assertSameJson(new Task(null, null, null, 0));
+        assertSameJson(List.of(new Task(11L, user, "Primeira", 0), new Task(12L, user, "Segunda", 1)));
+    }
+
+    @Test
+    void taskViews() throws JsonProcessingException {
+        assertSameJson(new TaskView(11L, "Tarefa", 7L, "maria", 2));
+        assertSameJson(new TaskView(null, null, null, 0));
+        assertSameJson(new TaskView(11L, "Tarefa", null, null, Long.MAX_VALUE));
+        assertSameJson(List.of(new TaskView(11L, "Primeira", 7L, "maria", 0),
+                new TaskView(12L, "Segunda", 7L, "maria", 1)));
+    }
+
+    @Test
+    void errorResponses() throws JsonProcessingException {
+        assertSameJson(new ErrorResponse(404, "Tarefa não encontrada! Id: 1"));
+        assertSameJson(new ErrorResponse(500, null));
+
+        ErrorResponse detailed = new ErrorResponse(422, "Erro de validação.");
+        detailed.setStackTrace("java.lang.IllegalStateException\n\tat Foo.bar(Foo.java:1)");
+        detailed.addValidationError("description", "não deve ser nulo");
+        detailed.addValidationError("user", "não deve ser nulo");
+        assertSameJson(detailed);
+
+        ErrorResponse empty = new ErrorResponse(422, "Erro de validação.");
+        empty.setErrors(List.of());
+        assertSameJson(empty);
+    }
+
+    private void assertSameJson(Object value) throws JsonProcessingException {
+        assertEquals(this.reference.writeValueAsString(value), this.module.writeValueAsString(value));
+    }
+}
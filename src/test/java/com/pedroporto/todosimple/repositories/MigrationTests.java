@@ -0,0 +1,90 @@
+package com.pedroporto.todosimple.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+// Migrações sobre um banco que vinha do ddl-auto (baseline na versão 0,
+// como em application.properties) e sobre um banco novo
+class MigrationTests {
+
+    private final DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:migration;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1", "sa", "");
+
+    private final JdbcTemplate jdbc = new JdbcTemplate(this.dataSource);
+
+    @AfterEach
+    void tearDown() {
+        this.jdbc.execute("SHUTDOWN");
+    }
+
+    @Test
+    void existingIdsSeedTheAllocator() {
+        createLegacySchema();
+        this.jdbc.update("INSERT INTO user (id, username, password, version) VALUES (42, 'legacy', 'secret', 0)");
+        this.jdbc.update("INSERT INTO task (id, user_id, description, version) VALUES (7, 42, 'Antiga', 0)");
+        this.jdbc.update("INSERT INTO task (id, user_id, description, version) VALUES (250, 42, 'Recente', 0)");
+        // Linha atrasada (gravada antes do AUTO_INCREMENT ser trocado) é corrigida
+        this.jdbc.update("INSERT INTO id_allocator (sequence_name, next_val) VALUES ('task', 1)");
+
+        migrate();
+
+        assertEquals(142L, nextVal("user"));
+        assertEquals(350L, nextVal("task"));
+    }
+
+    @Test
+    void allocatorAheadOfTheIdsIsKept() {
+        createLegacySchema();
+        this.jdbc.update("INSERT INTO user (id, username, password, version) VALUES (42, 'legacy', 'secret', 0)");
+        this.jdbc.update("INSERT INTO id_allocator (sequence_name, next_val) VALUES ('user', 501)");
+
+        migrate();
+
+        assertEquals(501L, nextVal("user"));
+    }
+
+    @Test
+    void newDatabaseGetsTheWholeSchemaAndAnEmptyAllocator() {
+        migrate();
+
+        assertTrue(this.jdbc.queryForList("SELECT sequence_name FROM id_allocator", String.class).isEmpty());
+        for (String table : List.of("replica_heartbeat", "shard_directory", "cache_invalidation")) {
+            assertEquals(0L, this.jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Long.class));
+        }
+    }
+
+    // Tabelas como o ddl-auto=update as deixava, ids de AUTO_INCREMENT e
+    // sem o histórico do Flyway
+    private void createLegacySchema() {
+        this.jdbc.execute("CREATE TABLE id_allocator (sequence_name VARCHAR(255) NOT NULL, next_val BIGINT,"
+                + " PRIMARY KEY (sequence_name))");
+        this.jdbc.execute("CREATE TABLE user (id BIGINT NOT NULL AUTO_INCREMENT, username VARCHAR(100) NOT NULL,"
+                + " password VARCHAR(60) NOT NULL, version BIGINT DEFAULT 0 NOT NULL, PRIMARY KEY (id))");
+        this.jdbc.execute("CREATE TABLE task (id BIGINT NOT NULL AUTO_INCREMENT, user_id BIGINT NOT NULL,"
+                + " description VARCHAR(255) NOT NULL, version BIGINT DEFAULT 0 NOT NULL, PRIMARY KEY (id))");
+    }
+
+    private void migrate() {
+        Flyway.configure()
+                .dataSource(this.dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+    }
+
+    private long nextVal(String segment) {
+        return this.jdbc.queryForObject("SELECT next_val FROM id_allocator WHERE sequence_name = ?", Long.class,
+                segment);
+    }
+}
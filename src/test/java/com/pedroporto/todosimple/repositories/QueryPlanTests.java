@@ -0,0 +1,122 @@
+package com.pedroporto.todosimple.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.pedroporto.todosimple.models.dto.TaskView;
+
+// Roda as consultas quentes dos repositórios sobre o esquema das migrações
+// (H2 em modo MySQL), guarda o SQL que o Hibernate gerou e falha se o
+// EXPLAIN de alguma delas varrer uma tabela inteira. O ddl-auto=validate
+// confere também que as entidades batem com as migrações.
+//
+// Ficam de fora as varreduras intencionais: streamAllViews (reconstrução do
+// índice de busca) e a reconciliação de estatísticas.
+@DataJpaTest(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:queryplan;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.pedroporto.todosimple.repositories.QueryPlanTests$RecordingStatementInspector" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class QueryPlanTests {
+
+    private static final int USERS = 100;
+
+    private static final int TASKS_PER_USER = 20;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserTaskStatsRepository userTaskStatsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Com as tabelas vazias o H2 não tem motivo para preferir um índice
+    @BeforeEach
+    void setUp() {
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> tasks = new ArrayList<>();
+        for (long userId = 1; userId <= USERS; userId++) {
+            users.add(new Object[] { userId, "user" + userId, "password" });
+            for (int i = 0; i < TASKS_PER_USER; i++) {
+                long taskId = (userId - 1) * TASKS_PER_USER + i + 1;
+                tasks.add(new Object[] { taskId, userId, "Tarefa " + taskId });
+            }
+        }
+        this.jdbcTemplate.batchUpdate("INSERT INTO user (id, username, password, version) VALUES (?, ?, ?, 0)", users);
+        this.jdbcTemplate.batchUpdate("INSERT INTO task (id, user_id, description, version) VALUES (?, ?, ?, 0)", tasks);
+        this.jdbcTemplate.update("INSERT INTO user_task_stats (user_id, task_count) VALUES (1, ?)", TASKS_PER_USER);
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void hotQueriesUseIndexes() {
+        this.taskRepository.findById(1L);
+        this.taskRepository.findByUser_Id(1L);
+        this.taskRepository.countByUser_Id(1L);
+        this.taskRepository.findViewsByUser_Id(1L);
+        this.taskRepository.findOwnersByIdIn(List.of(1L, 2L));
+        this.taskRepository.findPageByUser_Id(1L, 0L, PageRequest.of(0, 10));
+        try (Stream<TaskView> stream = this.taskRepository.streamByUser_Id(1L)) {
+            stream.count();
+        }
+        this.userRepository.findById(1L);
+        this.userRepository.findAllByUsernameIn(List.of("user1", "user2"));
+        this.userTaskStatsRepository.findById(1L);
+        this.userTaskStatsRepository.addTasks(1L, 1);
+
+        List<String> statements = RecordingStatementInspector.STATEMENTS;
+        assertFalse(statements.isEmpty());
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertFalse(plan.toLowerCase().contains(".tablescan"),
+                    () -> "Full table scan in a hot query:\n" + sql + "\n" + plan);
+        }
+    }
+
+    // Os parâmetros só precisam estar preenchidos: o H2 não executa a
+    // consulta e o plano não depende dos valores
+    private String explain(String sql) {
+        int parameters = (int) sql.chars().filter(c -> c == '?').count();
+        return this.jdbcTemplate.query("EXPLAIN " + sql, statement -> {
+            for (int i = 1; i <= parameters; i++) {
+                statement.setString(i, "1");
+            }
+        }, resultSet -> {
+            resultSet.next();
+            return resultSet.getString(1);
+        });
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
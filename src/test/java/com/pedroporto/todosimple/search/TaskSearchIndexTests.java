@@ -0,0 +1,126 @@
+package com.pedroporto.todosimple.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.pedroporto.todosimple.models.dto.TaskSearchResult;
+import com.pedroporto.todosimple.models.dto.TaskView;
+
+class TaskSearchIndexTests {
+
+    private static final Long USER = 1L;
+
+    private TaskSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        this.index = new TaskSearchIndex();
+    }
+
+    @Test
+    void allQueryTermsMustMatch() {
+        this.index.put(1L, USER, "Reunião com o cliente");
+        this.index.put(2L, USER, "Reunião de equipe");
+
+        assertEquals(List.of(1L), ids(search("reuniao cliente")));
+        assertEquals(List.of(), ids(search("reuniao fornecedor")));
+    }
+
+    @Test
+    void prefixTermsMatchAnyTermStartingWithThem() {
+        this.index.put(1L, USER, "Reunião com o cliente");
+        this.index.put(2L, USER, "Revisar contrato");
+        this.index.put(3L, USER, "Almoço");
+
+        assertEquals(List.of(1L, 2L), ids(search("re*")).stream().sorted().toList());
+    }
+
+    @Test
+    void moreOccurrencesScoreHigher() {
+        this.index.put(1L, USER, "relatório revisão contrato");
+        this.index.put(2L, USER, "relatório relatório revisão");
+        this.index.put(3L, USER, "comprar pão");
+
+        TaskSearchResult result = search("relatorio");
+        assertEquals(2, result.getTotal());
+        assertEquals(List.of(2L, 1L), ids(result));
+        assertTrue(result.getItems().get(0).score() > result.getItems().get(1).score());
+    }
+
+    @Test
+    void shorterDescriptionsScoreHigher() {
+        this.index.put(1L, USER, "relatório mensal de vendas da equipe comercial");
+        this.index.put(2L, USER, "relatório");
+
+        assertEquals(List.of(2L, 1L), ids(search("relatorio")));
+    }
+
+    @Test
+    void rareTermsWeighMoreThanCommonOnes() {
+        this.index.put(1L, USER, "pagar conta de luz");
+        this.index.put(2L, USER, "pagar conta de água");
+        this.index.put(3L, USER, "pagar aluguel");
+
+        // "luz" aparece em uma tarefa, "pagar" em todas
+        TaskSearchResult result = search("pagar luz");
+        assertEquals(List.of(1L), ids(result));
+        assertTrue(result.getItems().get(0).score() > search("pagar").getItems().get(0).score());
+    }
+
+    @Test
+    void searchesOnlyTheUsersOwnTasks() {
+        this.index.put(1L, USER, "Reunião");
+        this.index.put(2L, 2L, "Reunião");
+
+        assertEquals(List.of(1L), ids(search("reuniao")));
+    }
+
+    @Test
+    void updatesAndRemovalsChangeTheResults() {
+        this.index.put(1L, USER, "Reunião");
+        this.index.put(1L, USER, "Almoço");
+        assertEquals(List.of(), ids(search("reuniao")));
+        assertEquals(List.of(1L), ids(search("almoco")));
+
+        this.index.remove(1L, USER);
+        assertEquals(List.of(), ids(search("almoco")));
+    }
+
+    @Test
+    void replaceSwapsTheWholePartition() {
+        this.index.put(1L, USER, "Reunião");
+        this.index.replace(USER, List.of(new TaskView(2L, "Almoço", USER, "user", 0)));
+
+        assertEquals(List.of(), ids(search("reuniao")));
+        assertEquals(List.of(2L), ids(search("almoco")));
+
+        this.index.replace(USER, List.of());
+        assertEquals(List.of(), ids(search("almoco")));
+    }
+
+    @Test
+    void pagesAreSlicesOfTheRanking() {
+        for (long id = 1; id <= 5; id++) {
+            this.index.put(id, USER, "tarefa");
+        }
+
+        TaskSearchResult page = this.index.search(USER, "tarefa", 1, 2);
+        assertEquals(5, page.getTotal());
+        // Com o mesmo score, a ordem é a do id
+        assertEquals(List.of(3L, 4L), ids(page));
+        assertEquals(List.of(), ids(this.index.search(USER, "tarefa", 3, 2)));
+    }
+
+    private TaskSearchResult search(String query) {
+        return this.index.search(USER, query, 0, 20);
+    }
+
+    private static List<Long> ids(TaskSearchResult result) {
+        return result.getItems().stream().map(TaskSearchResult.Hit::id).toList();
+    }
+}
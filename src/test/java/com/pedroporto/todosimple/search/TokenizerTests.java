@@ -0,0 +1,40 @@
+package com.pedroporto.todosimple.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TokenizerTests {
+
+    @Test
+    void lowercasesAndRemovesAccents() {
+        assertEquals(List.of("reuniao", "com", "o", "cliente"), Tokenizer.tokenize("Reunião com o CLIENTE"));
+    }
+
+    @Test
+    void splitsOnAnythingButLettersAndDigits() {
+        assertEquals(List.of("pagar", "boleto", "2024", "10", "r", "150"),
+                Tokenizer.tokenize("pagar boleto (2024-10) -- R$ 150!"));
+    }
+
+    @Test
+    void keepsRepeatedTermsAndSkipsEmptyOnes() {
+        assertEquals(List.of("a", "a", "b"), Tokenizer.tokenize("  a, a...b  "));
+        assertEquals(List.of(), Tokenizer.tokenize(" -- "));
+        assertEquals(List.of(), Tokenizer.tokenize(null));
+    }
+
+    @Test
+    void queryTermsAreDeduplicatedAndCapped() {
+        assertEquals(List.of(new Query.Term("reuniao", false), new Query.Term("cli", true)),
+                Query.parse("Reunião reuniao cli*"));
+
+        StringBuilder query = new StringBuilder();
+        for (int i = 0; i < Query.MAX_TERMS + 5; i++) {
+            query.append("termo").append(i).append(' ');
+        }
+        assertEquals(Query.MAX_TERMS, Query.parse(query.toString()).size());
+    }
+}
@@ -0,0 +1,206 @@
+package com.pedroporto.todosimple.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pedroporto.todosimple.configs.CacheConfig;
+import com.pedroporto.todosimple.imports.RowReader;
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.dto.TaskView;
+
+// Cada escrita precisa descartar as entradas de cache que afeta, e o que
+// sai do cache não pode ser alterado por quem o recebe
+@SpringBootTest
+@ActiveProfiles("test")
+class CacheEvictionTests {
+
+    private static final AtomicInteger USERNAMES = new AtomicInteger();
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskBatchService taskBatchService;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void cachedEntitiesAreCopiedOnRead() {
+        Long userId = createUser();
+        Long taskId = createTask(userId);
+
+        User user = this.userService.findById(userId);
+        user.setPassword("changed-by-the-caller");
+        User cachedUser = this.userService.findById(userId);
+        assertNotSame(user, cachedUser);
+        assertNotEquals("changed-by-the-caller", cachedUser.getPassword());
+
+        Task task = this.taskService.findById(taskId);
+        task.setDescription("Alterada por quem leu");
+        task.getUser().setUsername("changed-by-the-caller");
+        Task cachedTask = this.taskService.findById(taskId);
+        assertEquals("Tarefa", cachedTask.getDescription());
+        assertNotEquals("changed-by-the-caller", cachedTask.getUser().getUsername());
+
+        this.taskService.findAllByUserId(userId);
+        List<TaskView> tasks = this.taskService.findAllByUserId(userId);
+        assertThrows(UnsupportedOperationException.class, () -> tasks.clear());
+    }
+
+    @Test
+    void userUpdateEvictsTheUser() {
+        Long userId = createUser();
+        this.userService.findById(userId);
+        assertNotNull(cache(CacheConfig.USERS).get(userId));
+
+        User changed = new User();
+        changed.setId(userId);
+        changed.setPassword("another-password");
+        this.userService.update(changed);
+
+        assertNull(cache(CacheConfig.USERS).get(userId));
+    }
+
+    @Test
+    void taskUpdateEvictsTheTaskAndTheList() {
+        Long userId = createUser();
+        Long taskId = createTask(userId);
+        warm(userId, taskId);
+
+        Task changed = new Task();
+        changed.setId(taskId);
+        changed.setDescription("Alterada");
+        this.taskService.update(changed);
+
+        assertEvicted(userId, taskId);
+        assertEquals("Alterada", this.taskService.findById(taskId).getDescription());
+    }
+
+    @Test
+    void taskDeleteEvictsTheTaskAndTheList() {
+        Long userId = createUser();
+        Long taskId = createTask(userId);
+        warm(userId, taskId);
+
+        this.taskService.delete(taskId);
+
+        assertEvicted(userId, taskId);
+    }
+
+    @Test
+    void batchCreateEvictsTheList() {
+        Long userId = createUser();
+        this.taskService.findAllByUserId(userId);
+
+        this.taskBatchService.create(List.of(newTask(userId)));
+
+        assertNull(cache(CacheConfig.TASKS_BY_USER).get(userId));
+        assertEquals(1, this.taskService.findAllByUserId(userId).size());
+    }
+
+    @Test
+    void batchUpdateEvictsTheTaskAndTheList() {
+        Long userId = createUser();
+        Long taskId = createTask(userId);
+        warm(userId, taskId);
+
+        Task changed = new Task();
+        changed.setId(taskId);
+        changed.setDescription("Alterada em lote");
+        this.taskBatchService.update(List.of(changed));
+
+        assertEvicted(userId, taskId);
+    }
+
+    @Test
+    void batchDeleteEvictsTheTaskAndTheList() {
+        Long userId = createUser();
+        Long taskId = createTask(userId);
+        warm(userId, taskId);
+
+        this.taskBatchService.delete(List.of(taskId));
+
+        assertEvicted(userId, taskId);
+    }
+
+    @Test
+    void taskImportEvictsTheList() throws IOException {
+        Long userId = createUser();
+        this.taskService.findAllByUserId(userId);
+
+        String csv = "description,user_id\nImportada," + userId + "\n";
+        try (RowReader reader = RowReader.open(RowReader.TEXT_CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), this.objectMapper)) {
+            this.importService.importTasks(reader, line -> {
+            });
+        }
+
+        assertNull(cache(CacheConfig.TASKS_BY_USER).get(userId));
+        assertEquals(1, this.taskService.findAllByUserId(userId).size());
+    }
+
+    private void warm(Long userId, Long taskId) {
+        this.taskService.findById(taskId);
+        this.taskService.findAllByUserId(userId);
+        assertNotNull(cache(CacheConfig.TASKS).get(taskId));
+        assertNotNull(cache(CacheConfig.TASKS_BY_USER).get(userId));
+    }
+
+    private void assertEvicted(Long userId, Long taskId) {
+        assertNull(cache(CacheConfig.TASKS).get(taskId));
+        assertNull(cache(CacheConfig.TASKS_BY_USER).get(userId));
+    }
+
+    private Long createUser() {
+        User user = new User();
+        user.setUsername("cache-user-" + USERNAMES.incrementAndGet());
+        user.setPassword("some-password");
+        return this.userService.create(user).getId();
+    }
+
+    private Long createTask(Long userId) {
+        return this.taskService.create(newTask(userId)).getId();
+    }
+
+    private static Task newTask(Long userId) {
+        User owner = new User();
+        owner.setId(userId);
+        Task task = new Task();
+        task.setUser(owner);
+        task.setDescription("Tarefa");
+        return task;
+    }
+
+    private Cache cache(String name) {
+        return this.cacheManager.getCache(name);
+    }
+}
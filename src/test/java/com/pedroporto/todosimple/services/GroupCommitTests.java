@@ -0,0 +1,115 @@
+package com.pedroporto.todosimple.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.validation.Validator;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.dto.BatchItemResult;
+import com.pedroporto.todosimple.services.exceptions.DataBindingViolationException;
+
+// Uma linha recusada pelo banco não pode derrubar as outras criações que
+// foram gravadas no mesmo commit em grupo. Sem a validação do Hibernate na
+// gravação, quem recusa a linha é o próprio banco.
+@SpringBootTest(properties = {
+        "app.tasks.group-commit.enabled=true",
+        "app.tasks.group-commit.linger=PT0.5S",
+        "spring.jpa.properties.javax.persistence.validation.mode=none" })
+@ActiveProfiles("test")
+class GroupCommitTests {
+
+    private static final AtomicInteger USERNAMES = new AtomicInteger();
+
+    private static final String TOO_LONG = "x".repeat(256);
+
+    @Autowired
+    private TaskWriteBuffer taskWriteBuffer;
+
+    @Autowired
+    private TaskBatchService taskBatchService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void descriptionsLongerThanTheColumnAreRejectedUpFront() {
+        Long userId = createUser();
+
+        List<BatchItemResult> results = this.taskBatchService.create(List.of(newTask(userId, TOO_LONG)));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY.value(), results.get(0).getStatus());
+    }
+
+    // Sem a validação, a descrição longa só falha no INSERT do lote
+    @Test
+    void onlyTheCallerOfTheBadRowFails() throws Exception {
+        Long userId = createUser();
+        TaskBatchService target = AopTestUtils.getUltimateTargetObject(this.taskBatchService);
+        Validator validator = (Validator) ReflectionTestUtils.getField(target, "validator");
+        Validator permissive = mock(Validator.class);
+        when(permissive.validate(any(Task.class))).thenReturn(Set.of());
+        ReflectionTestUtils.setField(target, "validator", permissive);
+        try {
+            List<CompletableFuture<Task>> good = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Task task = newTask(userId, "Tarefa " + i);
+                good.add(CompletableFuture.supplyAsync(() -> this.taskWriteBuffer.create(task)));
+            }
+            Task badTask = newTask(userId, TOO_LONG);
+            CompletableFuture<Task> bad = CompletableFuture.supplyAsync(() -> this.taskWriteBuffer.create(badTask));
+
+            for (CompletableFuture<Task> result : good) {
+                Task created = result.get(10, TimeUnit.SECONDS);
+                assertNotNull(this.taskService.findById(created.getId()));
+            }
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                    () -> bad.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(DataBindingViolationException.class, failure.getCause());
+            assertEquals(4, this.taskService.findAllByUserId(userId).size());
+        } finally {
+            ReflectionTestUtils.setField(target, "validator", validator);
+        }
+    }
+
+    private Long createUser() {
+        User user = new User();
+        user.setUsername("group-commit-user-" + USERNAMES.incrementAndGet());
+        user.setPassword("some-password");
+        return this.userService.create(user).getId();
+    }
+
+    private static Task newTask(Long userId, String description) {
+        User owner = new User();
+        owner.setId(userId);
+        Task task = new Task();
+        task.setUser(owner);
+        task.setDescription(description);
+        return task;
+    }
+}
@@ -0,0 +1,76 @@
+package com.pedroporto.todosimple.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PasswordHasherTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final PasswordHasher hasher = new PasswordHasher(this.meterRegistry, 4, Duration.ofMillis(250), 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        this.hasher.stop();
+    }
+
+    @Test
+    void hashesAreSaltedBcryptWithTheConfiguredCost() {
+        String first = this.hasher.hash("secret");
+        String second = this.hasher.hash("secret");
+
+        assertTrue(first.startsWith("$2a$04$"));
+        assertEquals(60, first.length());
+        assertNotEquals(first, second);
+        assertTrue(this.hasher.matches("secret", first));
+        assertFalse(this.hasher.matches("other", first));
+        assertFalse(this.hasher.needsRehash(first));
+    }
+
+    @Test
+    void hashAllKeepsTheOrder() {
+        List<String> hashes = this.hasher.hashAll(List.of("a", "b", "c"));
+
+        assertEquals(3, hashes.size());
+        assertTrue(BCrypt.checkpw("a", hashes.get(0)));
+        assertTrue(BCrypt.checkpw("b", hashes.get(1)));
+        assertTrue(BCrypt.checkpw("c", hashes.get(2)));
+    }
+
+    @Test
+    void plainTextAndOtherCostsNeedARehash() {
+        assertTrue(this.hasher.matches("legacy", "legacy"));
+        assertFalse(this.hasher.matches("other", "legacy"));
+        assertTrue(this.hasher.needsRehash("legacy"));
+
+        String older = BCrypt.hashpw("secret", BCrypt.gensalt(5));
+        assertTrue(this.hasher.matches("secret", older));
+        assertTrue(this.hasher.needsRehash(older));
+    }
+
+    // O username desconhecido custa um bcrypt, como o conhecido
+    @Test
+    void unknownUsersStillPayForAHash() {
+        long before = hashes();
+
+        assertFalse(this.hasher.matches("secret", null));
+
+        assertEquals(before + 1, hashes());
+        assertFalse(this.hasher.matches(null, "secret"));
+    }
+
+    private long hashes() {
+        return this.meterRegistry.get("app.security.password.hash").timer().count();
+    }
+}
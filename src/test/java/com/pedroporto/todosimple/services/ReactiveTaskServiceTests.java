@@ -0,0 +1,82 @@
+package com.pedroporto.todosimple.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.pedroporto.todosimple.invalidation.ReactiveInvalidationOutbox;
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.repositories.ReactiveIdAllocator;
+import com.pedroporto.todosimple.repositories.ReactiveTaskRepository;
+import com.pedroporto.todosimple.services.events.TaskChangedEvent;
+
+import reactor.core.publisher.Mono;
+
+// A exclusão só desconta a tarefa do contador do usuário se a linha ainda
+// existia: numa exclusão concorrente a outra requisição já o fez
+class ReactiveTaskServiceTests {
+
+    private final ReactiveTaskRepository taskRepository = mock(ReactiveTaskRepository.class);
+
+    private final ReactiveInvalidationOutbox outbox = mock(ReactiveInvalidationOutbox.class);
+
+    private final TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private ReactiveTaskService taskService;
+
+    @BeforeEach
+    void setUp() {
+        this.taskService = new ReactiveTaskService(this.taskRepository, mock(ReactiveUserService.class),
+                mock(ReactiveIdAllocator.class), this.outbox, this.transactionalOperator, this.eventPublisher);
+        when(this.transactionalOperator.transactional(ArgumentMatchers.<Mono<Object>>any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(this.taskRepository.findById(7L)).thenReturn(Mono.just(task(7L, 3L)));
+        when(this.taskRepository.addTasks(anyLong(), anyLong())).thenReturn(Mono.empty());
+        when(this.outbox.append(anyList())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void deleteDecrementsTheStatsOfTheOwner() {
+        when(this.taskRepository.deleteById(7L)).thenReturn(Mono.just(1));
+
+        this.taskService.delete(7L).block();
+
+        verify(this.taskRepository).addTasks(3L, -1);
+        verify(this.outbox).append(anyList());
+        verify(this.eventPublisher).publishEvent(any(TaskChangedEvent.class));
+    }
+
+    @Test
+    void concurrentDeleteLeavesTheStatsAlone() {
+        when(this.taskRepository.deleteById(7L)).thenReturn(Mono.just(0));
+
+        this.taskService.delete(7L).block();
+
+        verify(this.taskRepository, never()).addTasks(anyLong(), anyLong());
+        verify(this.outbox, never()).append(anyList());
+        verify(this.eventPublisher, never()).publishEvent(any(TaskChangedEvent.class));
+    }
+
+    private static Task task(long id, long userId) {
+        User owner = new User();
+        owner.setId(userId);
+        Task task = new Task();
+        task.setId(id);
+        task.setUser(owner);
+        task.setDescription("Tarefa");
+        return task;
+    }
+}
@@ -0,0 +1,127 @@
+package com.pedroporto.todosimple.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.dto.TaskSearchResult;
+import com.pedroporto.todosimple.services.events.TaskListsChangedEvent;
+
+// O índice de busca acompanha as escritas desta instância (TaskChangedEvent)
+// e as de outras instâncias, que chegam como TaskListsChangedEvent
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskSearchServiceTests {
+
+    private static final AtomicInteger USERNAMES = new AtomicInteger();
+
+    // Ids bem acima dos alocados pela aplicação, para as linhas gravadas direto
+    private static final AtomicInteger REMOTE_IDS = new AtomicInteger(900_000_000);
+
+    @Autowired
+    private TaskSearchService taskSearchService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskBatchService taskBatchService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createUpdateAndDeleteAreIndexed() {
+        Long userId = createUser();
+        Long taskId = this.taskService.create(newTask(userId, "Reunião com o cliente")).getId();
+        assertEquals(List.of(taskId), search(userId, "reuniao"));
+
+        Task changed = new Task();
+        changed.setId(taskId);
+        changed.setDescription("Almoço com o cliente");
+        this.taskService.update(changed);
+        assertEquals(List.of(), search(userId, "reuniao"));
+        assertEquals(List.of(taskId), search(userId, "almoco"));
+
+        this.taskService.delete(taskId);
+        assertEquals(List.of(), search(userId, "almoco"));
+    }
+
+    @Test
+    void batchCreateIsIndexed() {
+        Long userId = createUser();
+        this.taskBatchService.create(List.of(newTask(userId, "Pagar aluguel"), newTask(userId, "Pagar luz")));
+
+        assertEquals(2, search(userId, "pagar").size());
+    }
+
+    @Test
+    void writesFromOtherNodesAreReadBackFromTheDatabase() {
+        Long userId = createUser();
+        Long localId = this.taskService.create(newTask(userId, "Revisar contrato")).getId();
+        long remoteId = insertElsewhere(userId, "Revisar orçamento");
+        this.jdbcTemplate.update("UPDATE task SET description = ? WHERE id = ?", "Assinar contrato", localId);
+        assertEquals(List.of(localId), search(userId, "revisar"));
+
+        this.eventPublisher.publishEvent(new TaskListsChangedEvent(Set.of(userId), true));
+
+        assertEquals(List.of(remoteId), search(userId, "revisar"));
+        assertEquals(List.of(localId), search(userId, "assinar"));
+    }
+
+    @Test
+    void unknownChangesRebuildTheIndex() {
+        Long userId = createUser();
+        long remoteId = insertElsewhere(userId, "Trocar lâmpada");
+        assertEquals(List.of(), search(userId, "lampada"));
+
+        this.eventPublisher.publishEvent(TaskListsChangedEvent.unknown());
+
+        assertEquals(List.of(remoteId), search(userId, "lampada"));
+    }
+
+    private long insertElsewhere(Long userId, String description) {
+        long id = REMOTE_IDS.incrementAndGet();
+        this.jdbcTemplate.update("INSERT INTO task (id, user_id, description, version) VALUES (?, ?, ?, 0)",
+                id, userId, description);
+        return id;
+    }
+
+    private List<Long> search(Long userId, String query) {
+        return this.taskSearchService.search(userId, query, 0, 20).getItems().stream()
+                .map(TaskSearchResult.Hit::id).toList();
+    }
+
+    private Long createUser() {
+        User user = new User();
+        user.setUsername("search-user-" + USERNAMES.incrementAndGet());
+        user.setPassword("some-password");
+        return this.userService.create(user).getId();
+    }
+
+    private static Task newTask(Long userId, String description) {
+        User owner = new User();
+        owner.setId(userId);
+        Task task = new Task();
+        task.setUser(owner);
+        task.setDescription(description);
+        return task;
+    }
+}
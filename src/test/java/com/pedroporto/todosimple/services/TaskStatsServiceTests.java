@@ -0,0 +1,122 @@
+package com.pedroporto.todosimple.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+
+// Páginas de dois usuários: a reconciliação precisa passar por várias
+@SpringBootTest(properties = "app.tasks.stats.reconcile-batch-size=2")
+@ActiveProfiles("test")
+class TaskStatsServiceTests {
+
+    private static final AtomicInteger USERNAMES = new AtomicInteger();
+
+    @Autowired
+    private TaskStatsService taskStatsService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskBatchService taskBatchService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void countsFollowSingleAndBatchWrites() {
+        Long userId = createUser();
+        Long first = createTask(userId);
+        assertEquals(1, this.taskStatsService.findByUserId(userId).getTaskCount());
+
+        Long second = createTask(userId);
+        this.taskBatchService.create(List.of(newTask(userId), newTask(userId)));
+        assertEquals(4, this.taskStatsService.findByUserId(userId).getTaskCount());
+
+        this.taskBatchService.delete(List.of(first, second));
+        assertEquals(2, this.taskStatsService.findByUserId(userId).getTaskCount());
+
+        Long last = this.taskService.findAllByUserId(userId).get(0).id();
+        this.taskService.delete(last);
+        assertEquals(1, this.taskStatsService.findByUserId(userId).getTaskCount());
+    }
+
+    // Só a falha do deleteById vira DataBindingViolationException: a do
+    // contador sobe como está e desfaz a exclusão
+    @Test
+    void statsFailuresOnDeleteAreNotReportedAsReferences() {
+        Long userId = createUser();
+        Long taskId = createTask(userId);
+        TaskService target = AopTestUtils.getUltimateTargetObject(this.taskService);
+        TaskStatsService failing = mock(TaskStatsService.class);
+        doThrow(new IllegalStateException("stats down")).when(failing).addTasks(anyLong(), anyLong());
+        ReflectionTestUtils.setField(target, "taskStatsService", failing);
+        try {
+            IllegalStateException failure = assertThrows(IllegalStateException.class,
+                    () -> this.taskService.delete(taskId));
+            assertEquals("stats down", failure.getMessage());
+        } finally {
+            ReflectionTestUtils.setField(target, "taskStatsService", this.taskStatsService);
+        }
+        assertEquals(taskId, this.taskService.findById(taskId).getId());
+        assertEquals(1, this.taskStatsService.findByUserId(userId).getTaskCount());
+    }
+
+    @Test
+    void reconcileRepairsAndCreatesRowsAcrossPages() {
+        List<Long> userIds = List.of(createUser(), createUser(), createUser(), createUser(), createUser());
+        for (Long userId : userIds) {
+            createTask(userId);
+            this.taskStatsService.findByUserId(userId);
+        }
+        this.jdbcTemplate.update("UPDATE user_task_stats SET task_count = 42 WHERE user_id IN (?, ?)",
+                userIds.get(0), userIds.get(3));
+        this.jdbcTemplate.update("DELETE FROM user_task_stats WHERE user_id = ?", userIds.get(4));
+
+        this.taskStatsService.reconcile();
+
+        for (Long userId : userIds) {
+            assertEquals(1, this.jdbcTemplate.queryForObject(
+                    "SELECT task_count FROM user_task_stats WHERE user_id = ?", Long.class, userId));
+        }
+    }
+
+    private Long createUser() {
+        User user = new User();
+        user.setUsername("stats-user-" + USERNAMES.incrementAndGet());
+        user.setPassword("some-password");
+        return this.userService.create(user).getId();
+    }
+
+    private Long createTask(Long userId) {
+        return this.taskService.create(newTask(userId)).getId();
+    }
+
+    private static Task newTask(Long userId) {
+        User owner = new User();
+        owner.setId(userId);
+        Task task = new Task();
+        task.setUser(owner);
+        task.setDescription("Tarefa");
+        return task;
+    }
+}
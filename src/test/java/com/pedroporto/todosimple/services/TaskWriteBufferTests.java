@@ -0,0 +1,195 @@
+package com.pedroporto.todosimple.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pedroporto.todosimple.admission.AdmissionRejectedException;
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.dto.BatchItemResult;
+import com.pedroporto.todosimple.services.exceptions.DataBindingViolationException;
+import com.pedroporto.todosimple.services.exceptions.ObjectNotFoundException;
+import com.pedroporto.todosimple.sharding.ShardMovingException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TaskWriteBufferTests {
+
+    private final TaskService taskService = mock(TaskService.class);
+
+    private final TaskBatchService taskBatchService = mock(TaskBatchService.class);
+
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TaskWriteBuffer buffer;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        if (this.buffer != null) {
+            this.buffer.stop();
+        }
+    }
+
+    @Test
+    void concurrentCreatesShareOneCommit() throws Exception {
+        answerWith(status -> HttpStatus.CREATED);
+        start(Duration.ofMillis(200), Duration.ofSeconds(5));
+
+        List<CompletableFuture<Task>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Task task = new Task();
+            results.add(CompletableFuture.supplyAsync(() -> this.buffer.create(task)));
+        }
+        for (CompletableFuture<Task> result : results) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(5, this.batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(this.batchSizes.size() < 5, "lotes: " + this.batchSizes);
+        verify(this.taskService, never()).create(any());
+    }
+
+    @Test
+    void failedItemsBecomeTheMatchingExceptions() {
+        AtomicInteger calls = new AtomicInteger();
+        HttpStatus[] statuses = { HttpStatus.NOT_FOUND, HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.CONFLICT };
+        answerWith(index -> statuses[calls.getAndIncrement()]);
+        start(Duration.ZERO, Duration.ofSeconds(5));
+
+        assertThrows(ObjectNotFoundException.class, () -> this.buffer.create(new Task()));
+        // Usuário sendo movido de shard: 503, não 409
+        assertThrows(ShardMovingException.class, () -> this.buffer.create(new Task()));
+        assertThrows(DataBindingViolationException.class, () -> this.buffer.create(new Task()));
+    }
+
+    @Test
+    void waitingIsBoundedByTheTimeout() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(this.taskBatchService.create(anyList())).thenAnswer(invocation -> {
+            release.await();
+            return List.of(BatchItemResult.success(0, 1L, HttpStatus.CREATED));
+        });
+        start(Duration.ZERO, Duration.ofMillis(100));
+
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> this.buffer.create(new Task()));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatus());
+        release.countDown();
+    }
+
+    @Test
+    void theFlusherSurvivesErrors() {
+        AtomicInteger calls = new AtomicInteger();
+        when(this.taskBatchService.create(anyList())).thenAnswer(invocation -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new StackOverflowError();
+            }
+            return List.of(BatchItemResult.success(0, 1L, HttpStatus.CREATED));
+        });
+        start(Duration.ZERO, Duration.ofSeconds(5));
+
+        assertThrows(IllegalStateException.class, () -> this.buffer.create(new Task()));
+        Task task = new Task();
+        assertSame(task, this.buffer.create(task));
+    }
+
+    @Test
+    void createsQueuedBeforeStopAreStillCommitted() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(this.taskBatchService.create(anyList())).thenAnswer(invocation -> {
+            List<?> objs = invocation.getArgument(0);
+            this.batchSizes.add(objs.size());
+            firstBatchStarted.countDown();
+            release.await();
+            List<BatchItemResult> results = new ArrayList<>();
+            for (int i = 0; i < objs.size(); i++) {
+                results.add(BatchItemResult.success(i, (long) i, HttpStatus.CREATED));
+            }
+            return results;
+        });
+        start(Duration.ZERO, Duration.ofSeconds(5));
+
+        CompletableFuture<Task> first = CompletableFuture.supplyAsync(() -> this.buffer.create(new Task()));
+        assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        // O flusher está ocupado: a segunda criação fica na fila
+        CompletableFuture<Task> second = CompletableFuture.supplyAsync(() -> this.buffer.create(new Task()));
+        waitForQueue(1);
+        CompletableFuture<Void> stopped = CompletableFuture.runAsync(() -> {
+            try {
+                this.buffer.stop();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        stopped.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(1, 1), this.batchSizes);
+
+        // Depois de parado, a criação é feita direto pelo TaskService
+        Task late = new Task();
+        when(this.taskService.create(late)).thenReturn(late);
+        assertSame(late, this.buffer.create(late));
+        this.buffer = null;
+    }
+
+    private void start(Duration linger, Duration timeout) {
+        this.buffer = new TaskWriteBuffer(this.meterRegistry, true, 10, linger, 100, timeout);
+        ReflectionTestUtils.setField(this.buffer, "taskService", this.taskService);
+        ReflectionTestUtils.setField(this.buffer, "taskBatchService", this.taskBatchService);
+        this.buffer.start();
+    }
+
+    private void answerWith(IntFunction<HttpStatus> statusOf) {
+        when(this.taskBatchService.create(anyList())).thenAnswer(invocation -> {
+            List<?> objs = invocation.getArgument(0);
+            this.batchSizes.add(objs.size());
+            List<BatchItemResult> results = new ArrayList<>();
+            for (int i = 0; i < objs.size(); i++) {
+                HttpStatus status = statusOf.apply(i);
+                results.add(status.value() < 400
+                        ? BatchItemResult.success(i, (long) i, status)
+                        : BatchItemResult.failure(i, null, status, "Falhou"));
+            }
+            return results;
+        });
+    }
+
+    // Tamanho da fila pela métrica publicada pelo próprio buffer
+    private void waitForQueue(int size) throws InterruptedException {
+        Gauge queue = this.meterRegistry.get("app.tasks.group-commit.queue").gauge();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (queue.value() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(size, queue.value());
+    }
+}
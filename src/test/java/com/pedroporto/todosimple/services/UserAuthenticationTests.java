@@ -0,0 +1,104 @@
+package com.pedroporto.todosimple.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.services.exceptions.AuthenticationFailedException;
+
+// Login e conversão das senhas antigas (texto puro ou hash de outro custo)
+// para o hash atual (custo 4 no perfil de testes)
+@SpringBootTest
+@ActiveProfiles("test")
+class UserAuthenticationTests {
+
+    private static final AtomicInteger USERNAMES = new AtomicInteger();
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordMigrationService passwordMigrationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void wrongPasswordsAndUnknownUsersAreRejectedAlike() {
+        User user = createUser("secret");
+
+        assertEquals(user.getId(), this.userService.authenticate(user.getUsername(), "secret").getId());
+        AuthenticationFailedException wrongPassword = assertThrows(AuthenticationFailedException.class,
+                () -> this.userService.authenticate(user.getUsername(), "wrong"));
+        AuthenticationFailedException unknownUser = assertThrows(AuthenticationFailedException.class,
+                () -> this.userService.authenticate("nobody-" + user.getUsername(), "secret"));
+        assertEquals(wrongPassword.getMessage(), unknownUser.getMessage());
+    }
+
+    @Test
+    void plainTextPasswordsAreHashedOnLogin() {
+        User user = createUser("secret");
+        storePassword(user, "secret");
+
+        this.userService.authenticate(user.getUsername(), "secret");
+
+        String stored = storedPassword(user);
+        assertTrue(stored.startsWith("$2a$04$"));
+        assertTrue(BCrypt.checkpw("secret", stored));
+        assertEquals(user.getVersion() + 1, this.userService.findById(user.getId()).getVersion());
+    }
+
+    @Test
+    void hashesWithAnOlderCostAreRedoneOnLogin() {
+        User user = createUser("secret");
+        storePassword(user, BCrypt.hashpw("secret", BCrypt.gensalt(5)));
+
+        this.userService.authenticate(user.getUsername(), "secret");
+
+        assertTrue(storedPassword(user).startsWith("$2a$04$"));
+        assertTrue(BCrypt.checkpw("secret", storedPassword(user)));
+    }
+
+    @Test
+    void theMigrationHashesPlainTextPasswordsWithoutALogin() {
+        User first = createUser("first-secret");
+        User second = createUser("second-secret");
+        User hashed = createUser("hashed-secret");
+        String hash = storedPassword(hashed);
+        storePassword(first, "first-secret");
+        storePassword(second, "second-secret");
+
+        this.passwordMigrationService.migrate();
+
+        assertTrue(BCrypt.checkpw("first-secret", storedPassword(first)));
+        assertTrue(BCrypt.checkpw("second-secret", storedPassword(second)));
+        assertEquals(hash, storedPassword(hashed));
+        assertEquals(first.getId(), this.userService.authenticate(first.getUsername(), "first-secret").getId());
+    }
+
+    private User createUser(String password) {
+        User user = new User();
+        user.setUsername("auth-user-" + USERNAMES.incrementAndGet());
+        user.setPassword(password);
+        return this.userService.create(user);
+    }
+
+    // Grava direto no banco, como os dados de antes do bcrypt
+    private void storePassword(User user, String password) {
+        this.jdbcTemplate.update("UPDATE user SET password = ? WHERE id = ?", password, user.getId());
+    }
+
+    private String storedPassword(User user) {
+        return this.jdbcTemplate.queryForObject("SELECT password FROM user WHERE id = ?", String.class, user.getId());
+    }
+}
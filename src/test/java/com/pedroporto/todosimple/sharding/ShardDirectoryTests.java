@@ -0,0 +1,114 @@
+package com.pedroporto.todosimple.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class ShardDirectoryTests {
+
+    private final ShardIds shardIds = new ShardIds(true, 0);
+
+    private final DataSource directoryDataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:shard-directory;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1", "sa", "");
+
+    // A tabela do diretório vem das migrações, como no shard 0
+    @BeforeEach
+    void setUp() {
+        Flyway.configure().dataSource(this.directoryDataSource).load().migrate();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection connection = this.directoryDataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    void withoutRangesBucketsAreSplitEvenly() {
+        int[] shards = ShardDirectory.parseRanges(2, "");
+        assertEquals(0, shards[0]);
+        assertEquals(0, shards[511]);
+        assertEquals(1, shards[512]);
+        assertEquals(1, shards[ShardIds.BUCKETS - 1]);
+        assertEquals(0, ShardDirectory.parseRanges(1, null)[ShardIds.BUCKETS - 1]);
+    }
+
+    @Test
+    void rangesAssignBucketsToShards() {
+        int[] shards = ShardDirectory.parseRanges(3, "0-99:2, 100-1022:0,1023:1");
+        assertEquals(2, shards[0]);
+        assertEquals(2, shards[99]);
+        assertEquals(0, shards[100]);
+        assertEquals(0, shards[1022]);
+        assertEquals(1, shards[1023]);
+    }
+
+    @Test
+    void invalidRangesAreRejected() {
+        // Buckets sem dono, shard inexistente, faixa invertida ou fora dos buckets, formato inválido
+        assertThrows(IllegalStateException.class, () -> ShardDirectory.parseRanges(2, "0-511:0"));
+        assertThrows(IllegalStateException.class, () -> ShardDirectory.parseRanges(2, "0-511:0,512-1023:2"));
+        assertThrows(IllegalStateException.class, () -> ShardDirectory.parseRanges(2, "511-0:0,512-1023:1"));
+        assertThrows(IllegalStateException.class, () -> ShardDirectory.parseRanges(2, "0-1024:0"));
+        assertThrows(IllegalStateException.class, () -> ShardDirectory.parseRanges(2, "0-1023"));
+        assertThrows(IllegalStateException.class, () -> ShardDirectory.parseRanges(2, "a-b:0"));
+    }
+
+    @Test
+    void movedUsersAreFoundWhereTheyWent() {
+        ShardDirectory directory = new ShardDirectory(2, this.shardIds, "0-511:0,512-1023:1",
+                this.directoryDataSource);
+        long userId = this.shardIds.compose(10, 3);
+        long taskId = this.shardIds.compose(11, 3);
+        assertEquals(new ShardScope(0, 3, false), directory.scopeForUser(userId));
+        assertEquals(List.of(new ShardScope(0, 3, false)), directory.scopesForTask(taskId));
+
+        directory.freeze(userId, 0);
+        assertEquals(new ShardScope(0, 3, true), directory.scopeForUser(userId));
+        // Enquanto um usuário do bucket se move, as tarefas do bucket ficam só para leitura
+        assertTrue(directory.scopesForTask(taskId).get(0).frozen());
+
+        directory.assign(userId, 1);
+        assertEquals(new ShardScope(1, 3, false), directory.scopeForUser(userId));
+        assertEquals(List.of(new ShardScope(0, 3, false), new ShardScope(1, 3, false)),
+                directory.scopesForTask(taskId));
+        assertEquals(1, directory.getMovedUsers());
+
+        // Outra instância enxerga a movimentação ao recarregar o diretório
+        ShardDirectory other = new ShardDirectory(2, this.shardIds, "0-511:0,512-1023:1",
+                this.directoryDataSource);
+        other.refresh();
+        assertEquals(new ShardScope(1, 3, false), other.scopeForUser(userId));
+
+        // De volta ao shard do bucket, a exceção é removida
+        directory.assign(userId, 0);
+        assertEquals(0, directory.getMovedUsers());
+        other.refresh();
+        assertEquals(0, other.getMovedUsers());
+    }
+
+    @Test
+    void withoutShardingNothingIsRouted() {
+        ShardDirectory directory = new ShardDirectory(1, ShardIds.UNSHARDED, "", null);
+        assertFalse(directory.isSharded());
+        directory.refresh();
+        assertEquals(new ShardScope(0, 0, false), directory.scopeForUser(12_345));
+        assertThrows(IllegalStateException.class, () -> directory.assign(12_345, 0));
+    }
+}
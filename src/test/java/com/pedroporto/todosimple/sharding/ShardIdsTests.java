@@ -0,0 +1,48 @@
+package com.pedroporto.todosimple.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ShardIdsTests {
+
+    @Test
+    void unshardedIdsAreTheSequence() {
+        assertEquals(42, ShardIds.UNSHARDED.compose(42, 7));
+        assertEquals(0, ShardIds.UNSHARDED.bucketOf(42 * ShardIds.BUCKETS + 7));
+    }
+
+    @Test
+    void shardedIdsCarryTheBucket() {
+        ShardIds ids = new ShardIds(true, 0);
+        for (int bucket : new int[] { 0, 1, 511, ShardIds.BUCKETS - 1 }) {
+            long id = ids.compose(12_345, bucket);
+            assertEquals(bucket, ids.bucketOf(id));
+            assertEquals(12_345, id / ShardIds.BUCKETS);
+        }
+    }
+
+    @Test
+    void idsBeforeTheFirstShardedIdBelongToBucketZero() {
+        ShardIds ids = new ShardIds(true, 1_000_000);
+        assertEquals(0, ids.bucketOf(999_999));
+        assertEquals(1_000_001 % ShardIds.BUCKETS, ids.bucketOf(1_000_001));
+    }
+
+    @Test
+    void idsStaySafeForJavaScript() {
+        ShardIds ids = new ShardIds(true, 0);
+        // Uma sequência de 2^43 ids ainda cabe abaixo de 2^53 com o bucket
+        long id = ids.compose((1L << 43) - 1, ShardIds.BUCKETS - 1);
+        assertTrue(id < 1L << 53);
+    }
+
+    @Test
+    void randomBucketsAreInRange() {
+        for (int i = 0; i < 1000; i++) {
+            int bucket = ShardIds.randomBucket();
+            assertTrue(bucket >= 0 && bucket < ShardIds.BUCKETS);
+        }
+    }
+}
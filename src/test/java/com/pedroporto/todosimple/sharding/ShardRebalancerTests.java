@@ -0,0 +1,180 @@
+package com.pedroporto.todosimple.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.pedroporto.todosimple.models.dto.ShardMove;
+import com.pedroporto.todosimple.models.dto.ShardMoveJob;
+import com.pedroporto.todosimple.services.CacheInvalidationService;
+import com.pedroporto.todosimple.services.exceptions.ObjectNotFoundException;
+
+class ShardRebalancerTests {
+
+    private final ShardIds shardIds = new ShardIds(true, 0);
+
+    private final List<DataSource> shards = List.of(shard("rebalancer-0"), shard("rebalancer-1"));
+
+    private final DataSource directoryDataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:rebalancer-directory;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1", "sa", "");
+
+    private final CacheInvalidationService cacheInvalidationService = mock(CacheInvalidationService.class);
+
+    private ShardDirectory directory;
+
+    private ShardRebalancer rebalancer;
+
+    // Usuário do bucket 3 (shard 0) com duas tarefas
+    private final long userId = this.shardIds.compose(10, 3);
+
+    @BeforeEach
+    void setUp() {
+        for (DataSource shard : this.shards) {
+            Flyway.configure().dataSource(shard).load().migrate();
+        }
+        Flyway.configure().dataSource(this.directoryDataSource).load().migrate();
+        this.directory = new ShardDirectory(2, this.shardIds, "0-511:0,512-1023:1", this.directoryDataSource);
+        this.rebalancer = new ShardRebalancer(this.directory, this.shards, this.cacheInvalidationService,
+                Duration.ZERO);
+
+        JdbcTemplate source = jdbc(0);
+        source.update("INSERT INTO user (id, username, password, version) VALUES (?, 'moving-user', 'secret', 2)",
+                this.userId);
+        source.update("INSERT INTO task (id, user_id, description, version) VALUES (?, ?, 'Primeira', 0)",
+                this.shardIds.compose(11, 3), this.userId);
+        source.update("INSERT INTO task (id, user_id, description, version) VALUES (?, ?, 'Segunda', 1)",
+                this.shardIds.compose(12, 3), this.userId);
+        source.update("INSERT INTO user_task_stats (user_id, task_count) VALUES (?, 2)", this.userId);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        this.rebalancer.shutdown();
+        shutdown(this.directoryDataSource);
+        for (DataSource shard : this.shards) {
+            shutdown(shard);
+        }
+    }
+
+    @Test
+    void moveCopiesTheUserAndItsTasksAndCleansTheSource() {
+        ShardMove move = this.rebalancer.move(this.userId, 1);
+
+        assertEquals(new ShardMove(this.userId, 0, 1, 2), move);
+        assertEquals(new ShardScope(1, 3, false), this.directory.scopeForUser(this.userId));
+        assertEquals(2, jdbc(1).queryForObject("SELECT version FROM user WHERE id = ?", Long.class, this.userId));
+        assertEquals(List.of("Primeira", "Segunda"), jdbc(1).queryForList(
+                "SELECT description FROM task WHERE user_id = ? ORDER BY id", String.class, this.userId));
+        assertEquals(0, count(0, "user"));
+        assertEquals(0, count(0, "task"));
+        assertEquals(0, count(0, "user_task_stats"));
+        verify(this.cacheInvalidationService).evictUser(this.userId);
+    }
+
+    @Test
+    void movingToTheSameShardDoesNothing() {
+        assertEquals(new ShardMove(this.userId, 0, 0, 0), this.rebalancer.move(this.userId, 0));
+        assertEquals(0, this.directory.getMovedUsers());
+        assertEquals(1, count(0, "user"));
+    }
+
+    @Test
+    void unknownUsersAreRestoredToTheirShard() {
+        long unknown = this.shardIds.compose(99, 3);
+
+        assertThrows(ObjectNotFoundException.class, () -> this.rebalancer.move(unknown, 1));
+        assertEquals(new ShardScope(0, 3, false), this.directory.scopeForUser(unknown));
+        assertThrows(ObjectNotFoundException.class, () -> this.rebalancer.move(this.userId, 2));
+        verify(this.cacheInvalidationService, never()).evictUser(unknown);
+    }
+
+    @Test
+    void moveWaitsForWritersStillHoldingTheSourceRows() throws Exception {
+        long taskId = this.shardIds.compose(11, 3);
+        try (Connection writer = this.shards.get(0).getConnection()) {
+            writer.setAutoCommit(false);
+            try (Statement statement = writer.createStatement()) {
+                statement.executeUpdate("UPDATE task SET description = 'Alterada', version = 1 WHERE id = " + taskId);
+            }
+
+            CompletableFuture<ShardMove> move = CompletableFuture.supplyAsync(
+                    () -> this.rebalancer.move(this.userId, 1));
+            Thread.sleep(300);
+            assertFalse(move.isDone());
+            assertTrue(this.directory.scopeForUser(this.userId).frozen());
+
+            writer.commit();
+            assertEquals(2, move.get(10, TimeUnit.SECONDS).tasks());
+        }
+
+        assertEquals("Alterada", jdbc(1).queryForObject(
+                "SELECT description FROM task WHERE id = ?", String.class, taskId));
+    }
+
+    @Test
+    void submittedMovesRunInTheBackground() throws InterruptedException {
+        ShardMoveJob done = await(this.rebalancer.submit(this.userId, 1));
+        assertEquals(ShardMoveJob.Status.DONE, done.status());
+        assertEquals(new ShardMove(this.userId, 0, 1, 2), done.result());
+
+        ShardMoveJob failed = await(this.rebalancer.submit(this.shardIds.compose(99, 3), 1));
+        assertEquals(ShardMoveJob.Status.FAILED, failed.status());
+        assertNull(failed.result());
+        assertTrue(failed.error().startsWith("Usuário não encontrado!"));
+
+        assertEquals(List.of(done, failed), this.rebalancer.getJobs());
+    }
+
+    private ShardMoveJob await(ShardMoveJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        ShardMoveJob current = this.rebalancer.getJob(job.id());
+        while (current.status() == ShardMoveJob.Status.QUEUED || current.status() == ShardMoveJob.Status.RUNNING) {
+            assertTrue(System.currentTimeMillis() < deadline, "a movimentação não terminou");
+            Thread.sleep(20);
+            current = this.rebalancer.getJob(job.id());
+        }
+        return current;
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(this.shards.get(shard));
+    }
+
+    private long count(int shard, String table) {
+        return jdbc(shard).queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    private static DataSource shard(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name
+                + ";MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000", "sa", "");
+    }
+
+    private static void shutdown(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+}
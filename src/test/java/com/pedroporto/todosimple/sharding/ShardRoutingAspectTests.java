@@ -0,0 +1,135 @@
+package com.pedroporto.todosimple.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.pedroporto.todosimple.services.exceptions.ObjectNotFoundException;
+
+class ShardRoutingAspectTests {
+
+    private final ShardIds shardIds = new ShardIds(true, 0);
+
+    private final DataSource directoryDataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:shard-routing;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1", "sa", "");
+
+    private ShardDirectory directory;
+
+    private Target target;
+
+    private Target proxy;
+
+    @BeforeEach
+    void setUp() {
+        Flyway.configure().dataSource(this.directoryDataSource).load().migrate();
+        this.directory = new ShardDirectory(3, this.shardIds, "0-511:0,512-1023:1", this.directoryDataSource);
+        this.target = new Target();
+        AspectJProxyFactory factory = new AspectJProxyFactory(this.target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ShardRoutingAspect(() -> this.directory));
+        this.proxy = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection connection = this.directoryDataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    void usersRunOnTheShardOfTheirBucket() {
+        assertEquals(0, this.proxy.shardOfUser(this.shardIds.compose(1, 5)));
+        assertEquals(1, this.proxy.shardOfUser(this.shardIds.compose(1, 600)));
+        // Fora do método anotado não há shard
+        assertNull(ShardContext.current());
+    }
+
+    @Test
+    void tasksAreRetriedOnTheShardsWhereTheBucketMoved() {
+        long userId = this.shardIds.compose(1, 5);
+        this.directory.assign(userId, 2);
+        this.target.foundOn = 2;
+
+        assertEquals("shard 2", this.proxy.findTask(this.shardIds.compose(2, 5)));
+        assertEquals(List.of(0, 2), this.target.visited);
+    }
+
+    @Test
+    void theLastNotFoundIsRethrown() {
+        this.directory.assign(this.shardIds.compose(1, 5), 2);
+        this.target.foundOn = 1;
+
+        assertThrows(ObjectNotFoundException.class, () -> this.proxy.findTask(this.shardIds.compose(2, 5)));
+        assertEquals(List.of(0, 2), this.target.visited);
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        this.directory.assign(this.shardIds.compose(1, 5), 2);
+        this.target.failure = new IllegalStateException("falha");
+
+        assertThrows(IllegalStateException.class, () -> this.proxy.findTask(this.shardIds.compose(2, 5)));
+        assertEquals(List.of(0), this.target.visited);
+    }
+
+    @Test
+    void newUsersGetARandomBucketOnItsShard() {
+        ShardScope scope = this.proxy.newUser();
+        assertEquals(scope.bucket() < 512 ? 0 : 1, scope.shard());
+    }
+
+    @Test
+    void withoutShardingNothingIsRouted() {
+        this.directory = new ShardDirectory(1, ShardIds.UNSHARDED, "", null);
+        assertNull(this.proxy.newUser());
+    }
+
+    static class Target {
+
+        final List<Integer> visited = new ArrayList<>();
+
+        int foundOn;
+
+        RuntimeException failure;
+
+        @ShardedBy("#userId")
+        public int shardOfUser(Long userId) {
+            return ShardContext.current().shard();
+        }
+
+        @ShardedBy(value = "#taskId", key = ShardedBy.Key.TASK)
+        public String findTask(Long taskId) {
+            int shard = ShardContext.current().shard();
+            this.visited.add(shard);
+            if (this.failure != null) {
+                throw this.failure;
+            }
+            if (shard != this.foundOn) {
+                throw new ObjectNotFoundException("Tarefa não encontrada no shard " + shard);
+            }
+            return "shard " + shard;
+        }
+
+        @ShardedBy(key = ShardedBy.Key.NEW_USER)
+        public ShardScope newUser() {
+            return ShardContext.current();
+        }
+    }
+}
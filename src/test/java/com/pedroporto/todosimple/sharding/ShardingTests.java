@@ -0,0 +1,125 @@
+package com.pedroporto.todosimple.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.pedroporto.todosimple.models.Task;
+import com.pedroporto.todosimple.models.User;
+import com.pedroporto.todosimple.models.dto.ShardMove;
+import com.pedroporto.todosimple.models.dto.ShardMoveJob;
+import com.pedroporto.todosimple.services.TaskService;
+import com.pedroporto.todosimple.services.UserService;
+
+// Dois shards H2: os ids gerados pelo ShardedTableGenerator levam o bucket
+// do usuário, as linhas caem no shard desse bucket e seguem o usuário
+// quando ele é movido pelo endpoint do actuator
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ShardingTests.SHARD_0,
+        "app.sharding.urls=" + ShardingTests.SHARD_1,
+        "app.sharding.directory-refresh=PT0.1S" })
+@ActiveProfiles("test")
+class ShardingTests {
+
+    static final String SHARD_0 = "jdbc:h2:mem:sharding-0;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+    static final String SHARD_1 = "jdbc:h2:mem:sharding-1;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+    private static final AtomicInteger USERNAMES = new AtomicInteger();
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ShardIds shardIds;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private ShardsEndpoint shardsEndpoint;
+
+    @Test
+    void tasksShareTheBucketAndShardOfTheirUser() {
+        Long userId = createUser();
+        Long taskId = createTask(userId);
+
+        int bucket = this.shardIds.bucketOf(userId);
+        assertEquals(bucket, this.shardIds.bucketOf(taskId));
+        int shard = bucket < ShardIds.BUCKETS / 2 ? 0 : 1;
+        assertEquals(1, count(shard, "SELECT COUNT(*) FROM user WHERE id = ?", userId));
+        assertEquals(1, count(shard, "SELECT COUNT(*) FROM task WHERE id = ?", taskId));
+        assertEquals(0, count(1 - shard, "SELECT COUNT(*) FROM task WHERE id = ?", taskId));
+    }
+
+    @Test
+    void movedUsersKeepTheirIdsOnTheNewShard() throws InterruptedException {
+        Long userId = createUser();
+        Long taskId = createTask(userId);
+        int source = this.shardDirectory.scopeForUser(userId).shard();
+        int target = 1 - source;
+
+        ShardMoveJob job = await(this.shardsEndpoint.move(userId, target));
+
+        assertEquals(ShardMoveJob.Status.DONE, job.status());
+        assertEquals(new ShardMove(userId, source, target, 1), job.result());
+        assertEquals(1, count(target, "SELECT COUNT(*) FROM task WHERE id = ?", taskId));
+        assertEquals(0, count(source, "SELECT COUNT(*) FROM user WHERE id = ?", userId));
+        assertEquals("Tarefa", this.taskService.findById(taskId).getDescription());
+        assertEquals(1, this.taskService.findAllByUserId(userId).size());
+
+        // As novas tarefas do usuário vão direto para o destino
+        Long newTaskId = createTask(userId);
+        assertEquals(1, count(target, "SELECT COUNT(*) FROM task WHERE id = ?", newTaskId));
+    }
+
+    @Test
+    void unknownShardsAreRejected() {
+        assertThrows(InvalidEndpointRequestException.class, () -> this.shardsEndpoint.move(1L, 2));
+    }
+
+    private ShardMoveJob await(ShardMoveJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        ShardMoveJob current = this.shardsEndpoint.move(job.id());
+        while (current.status() == ShardMoveJob.Status.QUEUED || current.status() == ShardMoveJob.Status.RUNNING) {
+            assertTrue(System.currentTimeMillis() < deadline, "a movimentação não terminou");
+            Thread.sleep(50);
+            current = this.shardsEndpoint.move(job.id());
+        }
+        return current;
+    }
+
+    private static long count(int shard, String sql, Long id) {
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(shard == 0 ? SHARD_0 : SHARD_1, "sa", ""));
+        return jdbc.queryForObject(sql, Long.class, id);
+    }
+
+    private Long createUser() {
+        User user = new User();
+        user.setUsername("sharded-user-" + USERNAMES.incrementAndGet());
+        user.setPassword("some-password");
+        return this.userService.create(user).getId();
+    }
+
+    private Long createTask(Long userId) {
+        User owner = new User();
+        owner.setId(userId);
+        Task task = new Task();
+        task.setUser(owner);
+        task.setDescription("Tarefa");
+        return this.taskService.create(task).getId();
+    }
+}
@@ -1,5 +1,7 @@
 const url = "http://localhost:8080/tasks/user/1";
 
+let tasks = new Map();
+
 function hideLoader() {
     document.getElementById("loading").style.display = "none";
 }
@@ -30,8 +32,32 @@ async function getAPI(url) {
     var data = await response.json();
     console.log(data);
     if (response) hideLoader();
+    tasks = new Map(data.map(task => [task.id, task]));
     show(data);
 
 }
 
-getAPI(url);
\ No newline at end of file
+// Recebe as alterações das tarefas pelo feed SSE em vez de recarregar a lista
+function listen(url) {
+    const events = new EventSource(url + "/events");
+
+    const apply = (event) => {
+        const change = JSON.parse(event.data);
+        if (change.type === "DELETED") {
+            tasks.delete(change.taskId);
+        } else {
+            const task = tasks.get(change.taskId);
+            const user = task ? task.user : { id: change.userId, username: "" };
+            tasks.set(change.taskId, { ...task, id: change.taskId, description: change.description, user });
+        }
+        show(tasks.values());
+    };
+
+    events.addEventListener("created", apply);
+    events.addEventListener("updated", apply);
+    events.addEventListener("deleted", apply);
+    // Eventos perdidos não estão mais disponíveis no servidor
+    events.addEventListener("reset", () => getAPI(url));
+}
+
+getAPI(url).then(() => listen(url));